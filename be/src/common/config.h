@@ -335,6 +335,11 @@ CONF_mInt64(streaming_load_max_mb, "10240");
 // Therefore, it is necessary to limit the maximum number of
 // such data when using stream load to prevent excessive memory consumption.
 CONF_mInt64(streaming_load_max_batch_size_mb, "100");
+// The stream loads with header "group_commit: true" to the same table within this interval are merged
+// into one transaction, which is committed at the end of the interval.
+CONF_mInt32(stream_load_group_commit_interval_ms, "1000");
+// Only the stream loads not larger than this can be merged by group commit, the others are loaded alone.
+CONF_mInt64(stream_load_group_commit_max_body_mb, "16");
 // The alive time of a TabletsChannel.
 // If the channel does not receive any data till this time,
 // the channel will be removed.
@@ -168,12 +168,21 @@ Status ESDataSource::_create_scanner() {
         _properties[ESScanReader::KEY_TYPE] = es_scan_range.type;
     }
     _properties[ESScanReader::KEY_SHARD] = std::to_string(es_scan_range.shard_id);
+    if (es_scan_range.__isset.slice_max && es_scan_range.slice_max > 1) {
+        _properties[ESScanReader::KEY_SLICE_ID] = std::to_string(es_scan_range.slice_id);
+        _properties[ESScanReader::KEY_SLICE_MAX] = std::to_string(es_scan_range.slice_max);
+    }
     _properties[ESScanReader::KEY_BATCH_SIZE] =
             std::to_string(std::min(config::es_index_max_result_window, _runtime_state->chunk_size()));
     _properties[ESScanReader::KEY_HOST_PORT] = get_host_port(es_scan_range.es_hosts);
     // push down limit to Elasticsearch
     if (_read_limit != -1 && _read_limit <= _runtime_state->chunk_size()) {
         _properties[ESScanReader::KEY_TERMINATE_AFTER] = std::to_string(_read_limit);
+        // `limit` search can not be sliced, the first slice of the shard is enough to satisfy the limit
+        if (es_scan_range.__isset.slice_id && es_scan_range.slice_id > 0) {
+            _no_data = true;
+            return Status::OK();
+        }
     }
 
     bool doc_value_mode = false;
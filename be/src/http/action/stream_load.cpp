@@ -49,6 +49,7 @@
 #include "runtime/fragment_mgr.h"
 #include "runtime/load_path_mgr.h"
 #include "runtime/plan_fragment_executor.h"
+#include "runtime/stream_load/group_commit_mgr.h"
 #include "runtime/stream_load/load_stream_mgr.h"
 #include "runtime/stream_load/stream_load_context.h"
 #include "runtime/stream_load/stream_load_executor.h"
@@ -109,7 +110,29 @@ static bool is_format_support_streaming(TFileFormatType::type format) {
     }
 }
 
-StreamLoadAction::StreamLoadAction(ExecEnv* exec_env) : _exec_env(exec_env) {
+// Only the small csv loads with the default row delimiter can be merged, the body of each of them is
+// buffered and appended to the group as a whole.
+static bool can_group_commit(HttpRequest* req, StreamLoadContext* ctx) {
+    size_t max_body_bytes = config::stream_load_group_commit_max_body_mb * 1024 * 1024;
+    return ctx->format == TFileFormatType::FORMAT_CSV_PLAIN && ctx->body_bytes > 0 &&
+           ctx->body_bytes <= max_body_bytes && req->header(HTTP_ROW_DELIMITER).empty() &&
+           req->header(HTTP_EXEC_MEM_LIMIT).empty();
+}
+
+// The loads with the same key share one plan, so the key covers all the parameters of the plan.
+static std::string group_commit_key(HttpRequest* req, StreamLoadContext* ctx) {
+    std::stringstream ss;
+    ss << ctx->db << '\n' << ctx->table << '\n' << ctx->auth.cluster << '\n' << ctx->auth.user;
+    for (const auto& name : {HTTP_COLUMNS, HTTP_WHERE, HTTP_COLUMN_SEPARATOR, HTTP_PARTITIONS, HTTP_TEMP_PARTITIONS,
+                             HTTP_NEGATIVE, HTTP_STRICT_MODE, HTTP_TIMEZONE, HTTP_LOAD_MEM_LIMIT, HTTP_PARTIAL_UPDATE,
+                             HTTP_MAX_FILTER_RATIO, HTTP_TIMEOUT, HTTP_LOAD_DOP}) {
+        ss << '\n' << name << '=' << req->header(name);
+    }
+    return ss.str();
+}
+
+StreamLoadAction::StreamLoadAction(ExecEnv* exec_env)
+        : _exec_env(exec_env), _group_commit_mgr(std::make_unique<GroupCommitMgr>(exec_env)) {
     StarRocksMetrics::instance()->metrics()->register_metric("streaming_load_requests_total",
                                                              &streaming_load_requests_total);
     StarRocksMetrics::instance()->metrics()->register_metric("streaming_load_bytes", &streaming_load_bytes);
@@ -128,7 +151,7 @@ void StreamLoadAction::handle(HttpRequest* req) {
 
     // status already set to fail
     if (ctx->status.ok()) {
-        ctx->status = _handle(ctx);
+        ctx->status = ctx->group_commit ? _handle_group_commit(req, ctx) : _handle(ctx);
         if (!ctx->status.ok() && ctx->status.code() != TStatusCode::PUBLISH_TIMEOUT) {
             LOG(WARNING) << "Fail to handle streaming load, id=" << ctx->id
                          << " errmsg=" << ctx->status.get_error_msg();
@@ -183,6 +206,26 @@ Status StreamLoadAction::_handle(StreamLoadContext* ctx) {
     return Status::OK();
 }
 
+Status StreamLoadAction::_handle_group_commit(HttpRequest* http_req, StreamLoadContext* ctx) {
+    if (ctx->receive_bytes != ctx->body_bytes) {
+        LOG(WARNING) << "receive body don't equal with body bytes, body_bytes=" << ctx->body_bytes
+                     << ", receive_bytes=" << ctx->receive_bytes << ", id=" << ctx->id;
+        return Status::InternalError("receive body don't equal with body bytes");
+    }
+    // terminate the last row, so it is not joined with the first row of the next load in the group
+    auto& buffer = ctx->group_commit_buffer;
+    if (buffer->ptr[buffer->pos - 1] != '\n') {
+        buffer->put_bytes("\n", 1);
+    }
+
+    TStreamLoadPutRequest request;
+    RETURN_IF_ERROR(_build_put_request(http_req, ctx, &request));
+    if (!http_req->header(HTTP_MAX_FILTER_RATIO).empty()) {
+        ctx->max_filter_ratio = strtod(http_req->header(HTTP_MAX_FILTER_RATIO).c_str(), nullptr);
+    }
+    return _group_commit_mgr->load(ctx, group_commit_key(http_req, ctx), request);
+}
+
 int StreamLoadAction::on_header(HttpRequest* req) {
     streaming_load_current_processing.increment(1);
 
@@ -279,6 +322,13 @@ Status StreamLoadAction::_on_header(HttpRequest* http_req, StreamLoadContext* ct
         ctx->timeout_second = timeout_second;
     }
 
+    if (boost::iequals(http_req->header(HTTP_GROUP_COMMIT), "true") && can_group_commit(http_req, ctx)) {
+        // the transaction is begun or joined once the whole body is received
+        ctx->group_commit = true;
+        ctx->group_commit_buffer = ByteBuffer::allocate(ctx->body_bytes + 1);
+        return Status::OK();
+    }
+
     // begin transaction
     int64_t begin_txn_start_time = MonotonicNanos();
     RETURN_IF_ERROR(_exec_env->stream_load_executor()->begin_txn(ctx));
@@ -300,6 +350,18 @@ void StreamLoadAction::on_chunk_data(HttpRequest* req) {
     auto evbuf = evhttp_request_get_input_buffer(ev_req);
 
     int64_t start_read_data_time = MonotonicNanos();
+    if (ctx->group_commit) {
+        size_t length = evbuffer_get_length(evbuf);
+        if (ctx->receive_bytes + length > ctx->body_bytes) {
+            ctx->status = Status::InternalError("receive body larger than body bytes");
+            return;
+        }
+        auto& buffer = ctx->group_commit_buffer;
+        buffer->pos += evbuffer_remove(evbuf, buffer->ptr + buffer->pos, length);
+        ctx->receive_bytes += length;
+        ctx->total_received_data_cost_nanos += (MonotonicNanos() - start_read_data_time);
+        return;
+    }
     while (evbuffer_get_length(evbuf) > 0) {
         ByteBufferPtr bb = ByteBuffer::allocate(4096);
         int remove_bytes;
@@ -343,12 +405,7 @@ Status StreamLoadAction::_process_put(HttpRequest* http_req, StreamLoadContext*
 
     // put request
     TStreamLoadPutRequest request;
-    set_request_auth(&request, ctx->auth);
-    request.db = ctx->db;
-    request.tbl = ctx->table;
-    request.txnId = ctx->txn_id;
-    request.formatType = ctx->format;
-    request.__set_loadId(ctx->id.to_thrift());
+    RETURN_IF_ERROR(_build_put_request(http_req, ctx, &request));
     if (ctx->use_streaming) {
         auto pipe =
                 std::make_shared<StreamLoadPipe>(1024 * 1024 /* max_buffered_bytes */, 64 * 1024 /* min_chunk_size */);
@@ -363,6 +420,53 @@ Status StreamLoadAction::_process_put(HttpRequest* http_req, StreamLoadContext*
         request.fileType = TFileType::FILE_LOCAL;
         ctx->body_sink = file_sink;
     }
+    // plan this load
+    TNetworkAddress master_addr = _exec_env->master_info()->network_address;
+#ifndef BE_TEST
+    if (!http_req->header(HTTP_MAX_FILTER_RATIO).empty()) {
+        ctx->max_filter_ratio = strtod(http_req->header(HTTP_MAX_FILTER_RATIO).c_str(), nullptr);
+    }
+
+    int64_t stream_load_put_start_time = MonotonicNanos();
+    RETURN_IF_ERROR(ThriftRpcHelper::rpc<FrontendServiceClient>(
+            master_addr.hostname, master_addr.port,
+            [&request, ctx](FrontendServiceConnection& client) { client->streamLoadPut(ctx->put_result, request); }));
+    ctx->stream_load_put_cost_nanos = MonotonicNanos() - stream_load_put_start_time;
+#else
+    ctx->put_result = k_stream_load_put_result;
+#endif
+    Status plan_status(ctx->put_result.status);
+    if (!plan_status.ok()) {
+        LOG(WARNING) << "plan streaming load failed. errmsg=" << plan_status.get_error_msg() << ctx->brief();
+        return plan_status;
+    }
+    VLOG(3) << "params is " << apache::thrift::ThriftDebugString(ctx->put_result.params);
+    // if we not use streaming, we must download total content before we begin
+    // to process this load
+    if (!ctx->use_streaming) {
+        return Status::OK();
+    }
+
+    if (!http_req->header(HTTP_EXEC_MEM_LIMIT).empty()) {
+        auto exec_mem_limit = std::stoll(http_req->header(HTTP_EXEC_MEM_LIMIT));
+        if (exec_mem_limit <= 0) {
+            return Status::InvalidArgument("exec_mem_limit must be greater than 0");
+        }
+        ctx->put_result.params.query_options.mem_limit = exec_mem_limit;
+    }
+
+    return _exec_env->stream_load_executor()->execute_plan_fragment(ctx);
+}
+
+Status StreamLoadAction::_build_put_request(HttpRequest* http_req, StreamLoadContext* ctx,
+                                            TStreamLoadPutRequest* put_request) {
+    TStreamLoadPutRequest& request = *put_request;
+    set_request_auth(&request, ctx->auth);
+    request.db = ctx->db;
+    request.tbl = ctx->table;
+    request.txnId = ctx->txn_id;
+    request.formatType = ctx->format;
+    request.__set_loadId(ctx->id.to_thrift());
     if (!http_req->header(HTTP_COLUMNS).empty()) {
         request.__set_columns(http_req->header(HTTP_COLUMNS));
     }
@@ -456,42 +560,7 @@ Status StreamLoadAction::_process_put(HttpRequest* http_req, StreamLoadContext*
         request.__set_timeout(ctx->timeout_second);
     }
     request.__set_thrift_rpc_timeout_ms(config::thrift_rpc_timeout_ms);
-    // plan this load
-    TNetworkAddress master_addr = _exec_env->master_info()->network_address;
-#ifndef BE_TEST
-    if (!http_req->header(HTTP_MAX_FILTER_RATIO).empty()) {
-        ctx->max_filter_ratio = strtod(http_req->header(HTTP_MAX_FILTER_RATIO).c_str(), nullptr);
-    }
-
-    int64_t stream_load_put_start_time = MonotonicNanos();
-    RETURN_IF_ERROR(ThriftRpcHelper::rpc<FrontendServiceClient>(
-            master_addr.hostname, master_addr.port,
-            [&request, ctx](FrontendServiceConnection& client) { client->streamLoadPut(ctx->put_result, request); }));
-    ctx->stream_load_put_cost_nanos = MonotonicNanos() - stream_load_put_start_time;
-#else
-    ctx->put_result = k_stream_load_put_result;
-#endif
-    Status plan_status(ctx->put_result.status);
-    if (!plan_status.ok()) {
-        LOG(WARNING) << "plan streaming load failed. errmsg=" << plan_status.get_error_msg() << ctx->brief();
-        return plan_status;
-    }
-    VLOG(3) << "params is " << apache::thrift::ThriftDebugString(ctx->put_result.params);
-    // if we not use streaming, we must download total content before we begin
-    // to process this load
-    if (!ctx->use_streaming) {
-        return Status::OK();
-    }
-
-    if (!http_req->header(HTTP_EXEC_MEM_LIMIT).empty()) {
-        auto exec_mem_limit = std::stoll(http_req->header(HTTP_EXEC_MEM_LIMIT));
-        if (exec_mem_limit <= 0) {
-            return Status::InvalidArgument("exec_mem_limit must be greater than 0");
-        }
-        ctx->put_result.params.query_options.mem_limit = exec_mem_limit;
-    }
-
-    return _exec_env->stream_load_executor()->execute_plan_fragment(ctx);
+    return Status::OK();
 }
 
 Status StreamLoadAction::_data_saved_path(HttpRequest* req, std::string* file_path) {
@@ -517,6 +517,8 @@ Status DescriptorTbl::create(ObjectPool* pool, const TDescriptorTable& thrift_tb
             break;
 
         case TTableType::OLAP_TABLE:
+        // materialized views are stored as olap tables
+        case TTableType::MATERIALIZED_VIEW:
             desc = pool->add(new OlapTableDescriptor(tdesc));
             break;
 
@@ -0,0 +1,226 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+#include "runtime/stream_load/group_commit_mgr.h"
+
+#include <chrono>
+#include <thread>
+
+#include "common/config.h"
+#include "common/logging.h"
+#include "gen_cpp/FrontendService.h"
+#include "runtime/client_cache.h"
+#include "runtime/exec_env.h"
+#include "runtime/stream_load/load_stream_mgr.h"
+#include "runtime/stream_load/stream_load_context.h"
+#include "runtime/stream_load/stream_load_executor.h"
+#include "runtime/stream_load/stream_load_pipe.h"
+#include "util/thrift_rpc_helper.h"
+#include "util/time.h"
+#include "util/uid_util.h"
+
+namespace starrocks {
+
+#ifdef BE_TEST
+extern TStreamLoadPutResult k_stream_load_put_result;
+#endif
+
+struct GroupCommitMgr::Group {
+    ~Group() {
+        if (ctx != nullptr && ctx->unref()) {
+            delete ctx;
+        }
+    }
+
+    // the load of the whole group, it owns the transaction and the plan fragment
+    StreamLoadContext* ctx = nullptr;
+    std::shared_ptr<StreamLoadPipe> pipe;
+
+    std::mutex lock;
+    std::condition_variable cond;
+    // number of the loads still appending their bodies, the group is committed after all of them finish
+    int joining = 0;
+
+    std::promise<Status> open_promise;
+    std::shared_future<Status> opened = open_promise.get_future().share();
+    std::promise<Status> commit_promise;
+    std::shared_future<Status> committed = commit_promise.get_future().share();
+};
+
+GroupCommitMgr::GroupCommitMgr(ExecEnv* exec_env) : _exec_env(exec_env) {
+    // a thread waits for the interval of each group, there are at most as many groups as the tables loaded
+    auto st = ThreadPoolBuilder("group_commit").set_min_threads(1).set_max_threads(256).build(&_commit_pool);
+    if (!st.ok()) {
+        LOG(FATAL) << "Cannot create thread pool for group commit: error=" << st.to_string();
+    }
+}
+
+GroupCommitMgr::~GroupCommitMgr() {
+    _commit_pool->shutdown();
+}
+
+static void abort_group_load(ExecEnv* exec_env, StreamLoadContext* ctx, const Status& st) {
+    ctx->status = st;
+    if (ctx->need_rollback) {
+        exec_env->stream_load_executor()->rollback_txn(ctx);
+        ctx->need_rollback = false;
+    }
+    if (ctx->body_sink != nullptr) {
+        ctx->body_sink->cancel(st);
+    }
+}
+
+Status GroupCommitMgr::load(StreamLoadContext* ctx, const std::string& key, const TStreamLoadPutRequest& request) {
+    std::shared_ptr<Group> group;
+    bool is_owner = false;
+    {
+        std::lock_guard l(_lock);
+        auto it = _groups.find(key);
+        if (it == _groups.end()) {
+            group = std::make_shared<Group>();
+            _groups.emplace(key, group);
+            is_owner = true;
+        } else {
+            group = it->second;
+        }
+        // counted while the group is still in _groups, so the group is never committed before the load joins
+        std::lock_guard gl(group->lock);
+        group->joining++;
+    }
+
+    if (is_owner) {
+        Status st = _open(group.get(), ctx, request);
+        if (st.ok()) {
+            st = _commit_pool->submit_func([this, key, group]() { _commit(key, group); });
+        }
+        if (!st.ok()) {
+            LOG(WARNING) << "Fail to open group of streaming load, " << group->ctx->brief()
+                         << ", errmsg=" << st.get_error_msg();
+            abort_group_load(_exec_env, group->ctx, st);
+            _remove(key, group);
+        }
+        group->open_promise.set_value(st);
+    }
+
+    Status st = group->opened.get();
+    if (st.ok()) {
+        st = _join(group.get(), ctx);
+    }
+    {
+        std::lock_guard l(group->lock);
+        group->joining--;
+    }
+    group->cond.notify_all();
+    RETURN_IF_ERROR(st);
+
+    st = group->committed.get();
+    // the statistics are of the whole group
+    StreamLoadContext* group_ctx = group->ctx;
+    ctx->number_total_rows = group_ctx->number_total_rows;
+    ctx->number_loaded_rows = group_ctx->number_loaded_rows;
+    ctx->number_filtered_rows = group_ctx->number_filtered_rows;
+    ctx->number_unselected_rows = group_ctx->number_unselected_rows;
+    ctx->loaded_bytes = group_ctx->loaded_bytes;
+    ctx->write_data_cost_nanos = group_ctx->write_data_cost_nanos;
+    ctx->commit_and_publish_txn_cost_nanos = group_ctx->commit_and_publish_txn_cost_nanos;
+    ctx->error_url = group_ctx->error_url;
+    return st;
+}
+
+Status GroupCommitMgr::_open(Group* group, StreamLoadContext* ctx, const TStreamLoadPutRequest& request) {
+    auto* group_ctx = new StreamLoadContext(_exec_env);
+    group_ctx->ref();
+    group->ctx = group_ctx;
+
+    group_ctx->load_type = TLoadType::MANUAL_LOAD;
+    group_ctx->load_src_type = TLoadSourceType::RAW;
+    group_ctx->db = ctx->db;
+    group_ctx->table = ctx->table;
+    group_ctx->label = "group_commit_" + generate_uuid_string();
+    group_ctx->auth = ctx->auth;
+    group_ctx->timeout_second = ctx->timeout_second;
+    group_ctx->max_filter_ratio = ctx->max_filter_ratio;
+    group_ctx->format = ctx->format;
+    group_ctx->use_streaming = true;
+    LOG(INFO) << "new group of streaming load." << group_ctx->brief() << ", tbl=" << group_ctx->table;
+
+    RETURN_IF_ERROR(_exec_env->stream_load_executor()->begin_txn(group_ctx));
+    group->pipe = std::make_shared<StreamLoadPipe>();
+    RETURN_IF_ERROR(_exec_env->load_stream_mgr()->put(group_ctx->id, group->pipe));
+    group_ctx->body_sink = group->pipe;
+
+    TStreamLoadPutRequest put_request = request;
+    put_request.txnId = group_ctx->txn_id;
+    put_request.__set_loadId(group_ctx->id.to_thrift());
+    put_request.fileType = TFileType::FILE_STREAM;
+#ifndef BE_TEST
+    TNetworkAddress master_addr = _exec_env->master_info()->network_address;
+    int64_t stream_load_put_start_time = MonotonicNanos();
+    RETURN_IF_ERROR(ThriftRpcHelper::rpc<FrontendServiceClient>(
+            master_addr.hostname, master_addr.port, [&put_request, group_ctx](FrontendServiceConnection& client) {
+                client->streamLoadPut(group_ctx->put_result, put_request);
+            }));
+    group_ctx->stream_load_put_cost_nanos = MonotonicNanos() - stream_load_put_start_time;
+#else
+    group_ctx->put_result = k_stream_load_put_result;
+#endif
+    Status plan_status(group_ctx->put_result.status);
+    if (!plan_status.ok()) {
+        return plan_status;
+    }
+    return _exec_env->stream_load_executor()->execute_plan_fragment(group_ctx);
+}
+
+Status GroupCommitMgr::_join(Group* group, StreamLoadContext* ctx) {
+    StreamLoadContext* group_ctx = group->ctx;
+    int64_t begin_txn_start_time = MonotonicNanos();
+    RETURN_IF_ERROR(_exec_env->stream_load_executor()->join_txn(ctx, group_ctx->txn_id));
+    ctx->begin_txn_cost_nanos = MonotonicNanos() - begin_txn_start_time;
+
+    ByteBufferPtr buffer = std::move(ctx->group_commit_buffer);
+    buffer->flip();
+    {
+        std::lock_guard l(group->lock);
+        group_ctx->receive_bytes += buffer->remaining();
+    }
+    // the whole body is appended as one buffer under the lock of the pipe, so the rows of different loads are
+    // never interleaved. It may wait for the plan fragment to consume the pipe, so it is not done under the lock
+    // of the group, the pipe is finished only after all the loads joined have appended
+    return group->pipe->append(std::move(buffer));
+}
+
+void GroupCommitMgr::_commit(const std::string& key, const std::shared_ptr<Group>& group) {
+    std::this_thread::sleep_for(std::chrono::milliseconds(config::stream_load_group_commit_interval_ms));
+    // stop accepting loads, and wait for the loads already joined
+    _remove(key, group);
+    {
+        std::unique_lock l(group->lock);
+        group->cond.wait(l, [&group]() { return group->joining == 0; });
+    }
+
+    StreamLoadContext* ctx = group->ctx;
+    Status st = group->pipe->finish();
+    if (st.ok()) {
+        st = ctx->future.get();
+    }
+    if (st.ok()) {
+        int64_t commit_and_publish_start_time = MonotonicNanos();
+        st = _exec_env->stream_load_executor()->commit_txn(ctx);
+        ctx->commit_and_publish_txn_cost_nanos = MonotonicNanos() - commit_and_publish_start_time;
+    }
+    if (!st.ok() && st.code() != TStatusCode::PUBLISH_TIMEOUT) {
+        LOG(WARNING) << "Fail to commit group of streaming load, " << ctx->brief() << ", errmsg=" << st.get_error_msg();
+        abort_group_load(_exec_env, ctx, st);
+    }
+    ctx->status = st;
+    group->commit_promise.set_value(st);
+}
+
+void GroupCommitMgr::_remove(const std::string& key, const std::shared_ptr<Group>& group) {
+    std::lock_guard l(_lock);
+    auto it = _groups.find(key);
+    if (it != _groups.end() && it->second == group) {
+        _groups.erase(it);
+    }
+}
+
+} // namespace starrocks
@@ -0,0 +1,54 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+#pragma once
+
+#include <condition_variable>
+#include <future>
+#include <memory>
+#include <mutex>
+#include <string>
+#include <unordered_map>
+
+#include "common/status.h"
+#include "gen_cpp/FrontendService_types.h"
+#include "util/threadpool.h"
+
+namespace starrocks {
+
+class ExecEnv;
+class StreamLoadContext;
+
+// Merges the small stream loads to the same table into shared transactions.
+//
+// The first load of a group begins a transaction with a generated label, plans it once and starts the plan
+// fragment reading from a pipe. The loads arriving within stream_load_group_commit_interval_ms register their
+// own labels on the transaction and append their whole bodies to the pipe. At the end of the interval the pipe
+// is finished and the transaction is committed, and every load of the group returns once it is visible.
+//
+// Only the loads with the same parameters are merged, they are distinguished by the key given by the caller.
+class GroupCommitMgr {
+public:
+    explicit GroupCommitMgr(ExecEnv* exec_env);
+    ~GroupCommitMgr();
+
+    // Merge the load into the group of key and wait for the group to finish. The body of the load is in
+    // ctx->group_commit_buffer, request is the plan request of the first load of a new group.
+    Status load(StreamLoadContext* ctx, const std::string& key, const TStreamLoadPutRequest& request);
+
+private:
+    struct Group;
+
+    Status _open(Group* group, StreamLoadContext* ctx, const TStreamLoadPutRequest& request);
+    Status _join(Group* group, StreamLoadContext* ctx);
+    void _commit(const std::string& key, const std::shared_ptr<Group>& group);
+    void _remove(const std::string& key, const std::shared_ptr<Group>& group);
+
+    ExecEnv* _exec_env;
+    std::unique_ptr<ThreadPool> _commit_pool;
+
+    std::mutex _lock;
+    // the groups still accepting loads
+    std::unordered_map<std::string, std::shared_ptr<Group>> _groups;
+};
+
+} // namespace starrocks
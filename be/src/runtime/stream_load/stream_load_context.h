@@ -33,6 +33,7 @@
 #include "runtime/stream_load/load_stream_mgr.h"
 #include "runtime/stream_load/stream_load_executor.h"
 #include "service/backend_options.h"
+#include "util/byte_buffer.h"
 #include "util/string_util.h"
 #include "util/time.h"
 #include "util/uid_util.h"
@@ -187,6 +188,10 @@ public:
     std::mutex lock;
 
     std::shared_ptr<MessageBodySink> body_sink;
+    // set if the load is merged into a shared transaction by group commit, the body is buffered until it is
+    // received completely, see GroupCommitMgr
+    bool group_commit = false;
+    ByteBufferPtr group_commit_buffer;
     bool need_rollback = false;
     int64_t txn_id = -1;
 
@@ -128,6 +128,14 @@ Status StreamLoadExecutor::execute_plan_fragment(StreamLoadContext* ctx) {
 }
 
 Status StreamLoadExecutor::begin_txn(StreamLoadContext* ctx) {
+    return _begin_txn(ctx, -1);
+}
+
+Status StreamLoadExecutor::join_txn(StreamLoadContext* ctx, int64_t txn_id) {
+    return _begin_txn(ctx, txn_id);
+}
+
+Status StreamLoadExecutor::_begin_txn(StreamLoadContext* ctx, int64_t group_commit_txn_id) {
     StarRocksMetrics::instance()->txn_begin_request_total.increment(1);
 
     TLoadTxnBeginRequest request;
@@ -141,6 +149,9 @@ Status StreamLoadExecutor::begin_txn(StreamLoadContext* ctx) {
         request.__set_timeout(ctx->timeout_second);
     }
     request.__set_request_id(ctx->id.to_thrift());
+    if (group_commit_txn_id != -1) {
+        request.__set_group_commit_txn_id(group_commit_txn_id);
+    }
 
     TNetworkAddress master_addr = _exec_env->master_info()->network_address;
     TLoadTxnBeginResult result;
@@ -160,7 +171,8 @@ Status StreamLoadExecutor::begin_txn(StreamLoadContext* ctx) {
         return status;
     }
     ctx->txn_id = result.txnId;
-    ctx->need_rollback = true;
+    // the transaction joined is rolled back by its owner
+    ctx->need_rollback = group_commit_txn_id == -1;
 
     return Status::OK();
 }
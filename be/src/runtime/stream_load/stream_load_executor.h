@@ -21,6 +21,8 @@
 
 #pragma once
 
+#include <cstdint>
+
 namespace starrocks {
 
 class ExecEnv;
@@ -34,6 +36,10 @@ public:
 
     Status begin_txn(StreamLoadContext* ctx);
 
+    // Merge the load into the running transaction txn_id by group commit. Only the label of the load is
+    // registered, the transaction is committed or rolled back by its owner.
+    Status join_txn(StreamLoadContext* ctx, int64_t txn_id);
+
     Status commit_txn(StreamLoadContext* ctx);
 
     Status rollback_txn(StreamLoadContext* ctx);
@@ -41,6 +47,8 @@ public:
     Status execute_plan_fragment(StreamLoadContext* ctx);
 
 private:
+    Status _begin_txn(StreamLoadContext* ctx, int64_t group_commit_txn_id);
+
     // collect the load statistics from context and set them to stat
     // return true if stat is set, otherwise, return false
     bool collect_load_stat(StreamLoadContext* ctx, TTxnCommitAttachment* attachment);
@@ -113,7 +113,7 @@ public:
 
     void erase_export_task(TStatus& t_status, const TUniqueId& task_id) override{};
 
-    void get_tablet_stat(TTabletStatResult& result) override{};
+    void get_tablet_stat(TTabletStatResult& result, const TTabletStatRequest& request) override{};
 
     void submit_routine_load_task(TStatus& t_status, const std::vector<TRoutineLoadTask>& tasks) override;
 
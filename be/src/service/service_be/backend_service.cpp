@@ -66,8 +66,8 @@ Status BackendService::create_service(ExecEnv* exec_env, int port, ThriftServer*
     return Status::OK();
 }
 
-void BackendService::get_tablet_stat(TTabletStatResult& result) {
-    StorageEngine::instance()->tablet_manager()->get_tablet_stat(&result);
+void BackendService::get_tablet_stat(TTabletStatResult& result, const TTabletStatRequest& request) {
+    StorageEngine::instance()->tablet_manager()->get_tablet_stat(request, &result);
 }
 
 } // namespace starrocks
@@ -93,7 +93,7 @@ public:
         _agent_server->publish_cluster_state(result, request);
     }
 
-    void get_tablet_stat(TTabletStatResult& result) override;
+    void get_tablet_stat(TTabletStatResult& result, const TTabletStatRequest& request) override;
 
 private:
     std::unique_ptr<AgentServer> _agent_server;
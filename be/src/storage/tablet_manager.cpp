@@ -66,6 +66,8 @@ TabletManager::TabletManager(MemTracker* mem_tracker, int32_t tablet_map_lock_sh
         : _mem_tracker(mem_tracker),
           _tablets_shards(tablet_map_lock_shard_size),
           _tablets_shards_mask(tablet_map_lock_shard_size - 1),
+          _tablet_stat_base_version(UnixMillis()),
+          _tablet_stat_version(_tablet_stat_base_version),
           _last_update_stat_ms(0),
           _cur_shard(0) {
     CHECK_GT(_tablets_shards.size(), 0) << "tablets shard count greater than 0";
@@ -493,20 +495,33 @@ bool TabletManager::get_rowset_id_from_path(const std::string& path, RowsetId* r
     return false;
 }
 
-void TabletManager::get_tablet_stat(TTabletStatResult* result) {
+void TabletManager::get_tablet_stat(const TTabletStatRequest& request, TTabletStatResult* result) {
     int64_t curr_ms = UnixMillis();
+    int interval_sec = config::tablet_stat_cache_update_interval_second;
+    std::lock_guard<std::mutex> l(_tablet_stat_mutex);
     // Update cache if it is too old
-    {
-        int interval_sec = config::tablet_stat_cache_update_interval_second;
-        std::lock_guard<std::mutex> l(_tablet_stat_mutex);
-        if (curr_ms - _last_update_stat_ms > interval_sec * 1000) {
-            VLOG(3) << "update tablet stat.";
-            _build_tablet_stat();
-            _last_update_stat_ms = UnixMillis();
+    if (curr_ms - _last_update_stat_ms > interval_sec * 1000) {
+        VLOG(3) << "update tablet stat.";
+        _build_tablet_stat();
+        _last_update_stat_ms = UnixMillis();
+    }
+
+    result->__set_version(_tablet_stat_version);
+    if (request.__isset.version && request.version >= _tablet_stat_base_version &&
+        request.version <= _tablet_stat_version) {
+        std::map<int64_t, TTabletStat> changed;
+        for (const auto& [tablet_id, stat] : _tablet_stat_cache) {
+            auto iter = _tablet_stat_versions.find(tablet_id);
+            if (iter == _tablet_stat_versions.end() || iter->second > request.version) {
+                changed.emplace(tablet_id, stat);
+            }
         }
+        result->__set_tablets_stats(std::move(changed));
+        result->__set_incremental(true);
+    } else {
+        result->__set_tablets_stats(_tablet_stat_cache);
+        result->__set_incremental(false);
     }
-
-    result->__set_tablets_stats(_tablet_stat_cache);
 }
 
 // return true if all tablets have been visited
@@ -1083,7 +1098,9 @@ void TabletManager::do_tablet_meta_checkpoint(DataDir* data_dir) {
 }
 
 void TabletManager::_build_tablet_stat() {
-    _tablet_stat_cache.clear();
+    std::map<int64_t, TTabletStat> stat_cache;
+    std::unordered_map<int64_t, int64_t> stat_versions;
+    int64_t version = _tablet_stat_version + 1;
     for (const auto& tablets_shard : _tablets_shards) {
         std::shared_lock rlock(tablets_shard.lock);
         for (const auto& [tablet_id, tablet] : tablets_shard.tablet_map) {
@@ -1092,9 +1109,24 @@ void TabletManager::_build_tablet_stat() {
             // TODO(cbl): get row num and data size together is faster
             stat.__set_data_size(tablet->tablet_footprint());
             stat.__set_row_num(tablet->num_rows());
-            _tablet_stat_cache.emplace(tablet_id, stat);
+
+            // keep the version of the last change if the stat is the same as in the previous cache
+            int64_t changed_version = version;
+            auto old_stat = _tablet_stat_cache.find(tablet_id);
+            if (old_stat != _tablet_stat_cache.end() && old_stat->second.data_size == stat.data_size &&
+                old_stat->second.row_num == stat.row_num) {
+                auto old_version = _tablet_stat_versions.find(tablet_id);
+                if (old_version != _tablet_stat_versions.end()) {
+                    changed_version = old_version->second;
+                }
+            }
+            stat_versions.emplace(tablet_id, changed_version);
+            stat_cache.emplace(tablet_id, stat);
         }
     }
+    _tablet_stat_cache.swap(stat_cache);
+    _tablet_stat_versions.swap(stat_versions);
+    _tablet_stat_version = version;
 }
 
 Status TabletManager::_create_inital_rowset_unlocked(const TCreateTabletReq& request, Tablet* tablet) {
@@ -98,7 +98,9 @@ public:
 
     static bool get_rowset_id_from_path(const std::string& path, RowsetId* rowset_id);
 
-    void get_tablet_stat(TTabletStatResult* result);
+    // Returns the stats of all the tablets, or only of those changed after request.version if the version
+    // was returned by this process before.
+    void get_tablet_stat(const TTabletStatRequest& request, TTabletStatResult* result);
 
     // parse tablet header msg to generate tablet object
     // - restore: whether the request is from restore tablet action,
@@ -238,6 +240,12 @@ private:
     // cache to save tablets' statistics, such as data-size and row-count
     // TODO(cmy): for now, this is a naive implementation
     std::map<int64_t, TTabletStat> _tablet_stat_cache;
+    // tablet id => version of the stat cache in which the stat of the tablet last changed
+    std::unordered_map<int64_t, int64_t> _tablet_stat_versions;
+    // the versions start from the time the process starts, so that the versions returned by
+    // a process before restart are not taken as its own
+    int64_t _tablet_stat_base_version;
+    int64_t _tablet_stat_version;
     // last update time of tablet stat cache
     int64_t _last_update_stat_ms;
 
@@ -0,0 +1,229 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+#include "runtime/stream_load/group_commit_mgr.h"
+
+#include <gtest/gtest.h>
+
+#include <algorithm>
+#include <chrono>
+#include <thread>
+#include <vector>
+
+#include "common/config.h"
+#include "gen_cpp/FrontendService_types.h"
+#include "gen_cpp/HeartbeatService_types.h"
+#include "runtime/exec_env.h"
+#include "runtime/stream_load/load_stream_mgr.h"
+#include "runtime/stream_load/stream_load_context.h"
+#include "runtime/stream_load/stream_load_executor.h"
+#include "runtime/stream_load/stream_load_pipe.h"
+
+namespace starrocks {
+
+extern TLoadTxnBeginResult k_stream_load_begin_result;
+extern TLoadTxnCommitResult k_stream_load_commit_result;
+extern TLoadTxnRollbackResult k_stream_load_rollback_result;
+extern TStreamLoadPutResult k_stream_load_put_result;
+extern Status k_stream_load_plan_status;
+
+class GroupCommitMgrTest : public testing::Test {
+public:
+    void SetUp() override {
+        k_stream_load_begin_result = TLoadTxnBeginResult();
+        k_stream_load_begin_result.__set_txnId(100);
+        k_stream_load_commit_result = TLoadTxnCommitResult();
+        k_stream_load_rollback_result = TLoadTxnRollbackResult();
+        k_stream_load_put_result = TStreamLoadPutResult();
+        k_stream_load_plan_status = Status::OK();
+
+        _env._master_info = new TMasterInfo();
+        _env._load_stream_mgr = new LoadStreamMgr();
+        _env._stream_load_executor = new StreamLoadExecutor(&_env);
+
+        _interval_ms = config::stream_load_group_commit_interval_ms;
+        config::stream_load_group_commit_interval_ms = 500;
+        _mgr = std::make_unique<GroupCommitMgr>(&_env);
+    }
+
+    void TearDown() override {
+        _mgr.reset();
+        config::stream_load_group_commit_interval_ms = _interval_ms;
+
+        delete _env._master_info;
+        _env._master_info = nullptr;
+        delete _env._load_stream_mgr;
+        _env._load_stream_mgr = nullptr;
+        delete _env._stream_load_executor;
+        _env._stream_load_executor = nullptr;
+    }
+
+protected:
+    std::unique_ptr<StreamLoadContext> new_load(const std::string& body) {
+        auto ctx = std::make_unique<StreamLoadContext>(&_env);
+        ctx->db = "db";
+        ctx->table = "tbl";
+        ctx->label = "label_" + std::to_string(_num_loads++);
+        ctx->group_commit = true;
+        ctx->group_commit_buffer = ByteBuffer::allocate(body.size() + 1);
+        ctx->group_commit_buffer->put_bytes(body.data(), body.size());
+        return ctx;
+    }
+
+    // the pipes of the groups still loading, they are removed once the loads of the group return
+    std::vector<std::shared_ptr<StreamLoadPipe>> wait_pipes(size_t num_pipes) {
+        std::vector<std::shared_ptr<StreamLoadPipe>> pipes;
+        while (true) {
+            {
+                std::lock_guard l(_env._load_stream_mgr->_lock);
+                if (_env._load_stream_mgr->_stream_map.size() >= num_pipes) {
+                    for (auto& [id, pipe] : _env._load_stream_mgr->_stream_map) {
+                        pipes.emplace_back(pipe);
+                    }
+                    return pipes;
+                }
+            }
+            std::this_thread::sleep_for(std::chrono::milliseconds(10));
+        }
+    }
+
+    static std::string read_all(StreamLoadPipe* pipe) {
+        std::string content;
+        char buf[1024];
+        bool eof = false;
+        while (!eof) {
+            size_t buf_len = sizeof(buf);
+            Status st = pipe->read((uint8_t*)buf, &buf_len, &eof);
+            EXPECT_TRUE(st.ok()) << st.to_string();
+            if (!st.ok()) {
+                break;
+            }
+            content.append(buf, buf_len);
+        }
+        return content;
+    }
+
+    ExecEnv _env;
+    std::unique_ptr<GroupCommitMgr> _mgr;
+    int32_t _interval_ms = 0;
+    int _num_loads = 0;
+};
+
+TEST_F(GroupCommitMgrTest, merge_loads) {
+    const int num_loads = 8;
+    std::vector<std::unique_ptr<StreamLoadContext>> loads;
+    std::vector<std::string> bodies;
+    for (int i = 0; i < num_loads; i++) {
+        bodies.emplace_back(std::string(100 + i, 'a' + i) + "\n");
+        loads.emplace_back(new_load(bodies.back()));
+    }
+    TStreamLoadPutRequest request;
+    std::vector<Status> results(num_loads);
+    std::vector<std::thread> threads;
+    for (int i = 0; i < num_loads; i++) {
+        threads.emplace_back([&, i]() { results[i] = _mgr->load(loads[i].get(), "db.tbl", request); });
+    }
+
+    auto pipes = wait_pipes(1);
+    ASSERT_EQ(1, pipes.size());
+    std::string content = read_all(pipes[0].get());
+    for (auto& t : threads) {
+        t.join();
+    }
+
+    for (int i = 0; i < num_loads; i++) {
+        ASSERT_TRUE(results[i].ok()) << results[i].to_string();
+        // all the loads share the transaction, which is rolled back by the group only
+        ASSERT_EQ(100, loads[i]->txn_id);
+        ASSERT_FALSE(loads[i]->need_rollback);
+    }
+    // every body is appended whole
+    ASSERT_EQ(num_loads, std::count(content.begin(), content.end(), '\n'));
+    for (auto& body : bodies) {
+        ASSERT_NE(std::string::npos, content.find(body));
+    }
+}
+
+TEST_F(GroupCommitMgrTest, different_keys) {
+    auto load1 = new_load("1\n");
+    auto load2 = new_load("2\n");
+    TStreamLoadPutRequest request;
+    Status st1;
+    Status st2;
+    std::thread t1([&]() { st1 = _mgr->load(load1.get(), "db.tbl.csv", request); });
+    std::thread t2([&]() { st2 = _mgr->load(load2.get(), "db.tbl.json", request); });
+
+    auto pipes = wait_pipes(2);
+    ASSERT_EQ(2, pipes.size());
+    std::vector<std::string> contents;
+    for (auto& pipe : pipes) {
+        contents.emplace_back(read_all(pipe.get()));
+    }
+    std::sort(contents.begin(), contents.end());
+    t1.join();
+    t2.join();
+
+    ASSERT_TRUE(st1.ok());
+    ASSERT_TRUE(st2.ok());
+    ASSERT_EQ("1\n", contents[0]);
+    ASSERT_EQ("2\n", contents[1]);
+}
+
+TEST_F(GroupCommitMgrTest, plan_failed) {
+    Status::InternalError("plan failed").to_thrift(&k_stream_load_put_result.status);
+    auto load1 = new_load("1\n");
+    auto load2 = new_load("2\n");
+    TStreamLoadPutRequest request;
+    Status st1;
+    Status st2;
+    std::thread t1([&]() { st1 = _mgr->load(load1.get(), "db.tbl", request); });
+    std::thread t2([&]() { st2 = _mgr->load(load2.get(), "db.tbl", request); });
+    t1.join();
+    t2.join();
+
+    // the loads joining a group failed to open fail too
+    ASSERT_FALSE(st1.ok());
+    ASSERT_FALSE(st2.ok());
+    ASSERT_NE(std::string::npos, st1.get_error_msg().find("plan failed"));
+
+    // the failed group is removed, and the next load opens a new one
+    k_stream_load_put_result = TStreamLoadPutResult();
+    auto load3 = new_load("3\n");
+    Status st3;
+    std::thread t3([&]() { st3 = _mgr->load(load3.get(), "db.tbl", request); });
+    auto pipes = wait_pipes(1);
+    ASSERT_EQ("3\n", read_all(pipes[0].get()));
+    t3.join();
+    ASSERT_TRUE(st3.ok());
+}
+
+TEST_F(GroupCommitMgrTest, commit_failed) {
+    Status::InternalError("commit failed").to_thrift(&k_stream_load_commit_result.status);
+    auto load1 = new_load("1\n");
+    auto load2 = new_load("2\n");
+    TStreamLoadPutRequest request;
+    Status st1;
+    Status st2;
+    std::thread t1([&]() { st1 = _mgr->load(load1.get(), "db.tbl", request); });
+    std::thread t2([&]() { st2 = _mgr->load(load2.get(), "db.tbl", request); });
+    t1.join();
+    t2.join();
+
+    // every load of the group fails with the transaction
+    ASSERT_FALSE(st1.ok());
+    ASSERT_FALSE(st2.ok());
+    ASSERT_NE(std::string::npos, st2.get_error_msg().find("commit failed"));
+}
+
+TEST_F(GroupCommitMgrTest, fragment_failed) {
+    k_stream_load_plan_status = Status::InternalError("too many filtered rows");
+    auto load = new_load("1\n");
+    TStreamLoadPutRequest request;
+    Status st;
+    std::thread t([&]() { st = _mgr->load(load.get(), "db.tbl", request); });
+    t.join();
+
+    ASSERT_FALSE(st.ok());
+    ASSERT_NE(std::string::npos, st.get_error_msg().find("too many filtered rows"));
+}
+
+} // namespace starrocks
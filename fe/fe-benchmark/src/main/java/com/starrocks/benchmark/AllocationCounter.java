@@ -0,0 +1,49 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated by the measured stage alone, reported as a secondary result of the benchmark.
+ *
+ * The gc profiler attributes the allocations of per-invocation setup to the benchmark too, which
+ * hides the cost of later planning stages behind the parse and analyze work needed to feed them.
+ * This counter samples the thread allocation counter around the stage instead.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class AllocationCounter {
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // reported by JMH, averaged over iterations
+    public long allocatedBytesPerOp;
+
+    private long totalBytes;
+    private long ops;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        allocatedBytesPerOp = 0;
+        totalBytes = 0;
+        ops = 0;
+    }
+
+    // Not public on purpose, JMH treats public methods returning numbers as counters.
+    long begin() {
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    void end(long begin) {
+        totalBytes += THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) - begin;
+        ops++;
+        allocatedBytesPerOp = totalBytes / ops;
+    }
+}
@@ -0,0 +1,145 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.CharStreams;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.common.util.UUIDUtil;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.analyzer.Analyzer;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.Optimizer;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.base.PhysicalPropertySet;
+import com.starrocks.sql.optimizer.transformer.LogicalPlan;
+import com.starrocks.sql.optimizer.transformer.RelationTransformer;
+import com.starrocks.sql.parser.SqlParser;
+import com.starrocks.sql.plan.ExecPlan;
+import com.starrocks.sql.plan.PlanFragmentBuilder;
+import com.starrocks.sql.plan.PlanTestBase;
+import com.starrocks.sql.plan.TPCDSPlanTestBase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Shared environment of the planner benchmarks: a utframe mock cluster with the TPC-H or TPC-DS
+ * schema loaded, and helpers to run every planning stage on its own.
+ *
+ * Queries are named "tpch/qN" (read from the fe-core test resources) or "tpcds/QN" (the constants
+ * of {@link TPCDSPlanTestBase}). The two workloads create conflicting tables, so one JVM only
+ * hosts one of them; JMH forks a new JVM for every parameter combination by default.
+ */
+public final class BenchmarkEnv {
+    public static final String TPCH = "tpch";
+    public static final String TPCDS = "tpcds";
+
+    private static String workload = null;
+
+    private BenchmarkEnv() {
+    }
+
+    public static synchronized ConnectContext setUp(String query) throws Exception {
+        String required = workloadOf(query);
+        if (workload == null) {
+            if (TPCDS.equals(required)) {
+                TPCDSPlanTestBase.beforeClass();
+            } else {
+                PlanTestBase.beforeClass();
+            }
+            workload = required;
+        }
+        Preconditions.checkState(workload.equals(required),
+                "workload %s is already loaded in this JVM, can not run %s", workload, query);
+
+        ConnectContext context = PlanTestBase.connectContext;
+        context.setThreadLocalInfo();
+        return context;
+    }
+
+    public static String loadQuery(String query) throws Exception {
+        String name = query.substring(query.indexOf('/') + 1);
+        if (TPCDS.equals(workloadOf(query))) {
+            return (String) TPCDSPlanTestBase.class.getField(name.toUpperCase()).get(null);
+        }
+        return loadSqlFile("sql/tpch/" + name.toLowerCase() + ".sql");
+    }
+
+    private static String workloadOf(String query) {
+        int idx = query.indexOf('/');
+        Preconditions.checkArgument(idx > 0, "query should be named as <workload>/<name>: %s", query);
+        String name = query.substring(0, idx).toLowerCase();
+        Preconditions.checkArgument(TPCH.equals(name) || TPCDS.equals(name), "unknown workload: %s", name);
+        return name;
+    }
+
+    // Returns the [sql] section of a plan test file.
+    private static String loadSqlFile(String resource) throws IOException {
+        InputStream in = BenchmarkEnv.class.getClassLoader().getResourceAsStream(resource);
+        Preconditions.checkArgument(in != null, "can not find query file %s", resource);
+        String content;
+        try (InputStreamReader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            content = CharStreams.toString(reader);
+        }
+
+        StringBuilder sql = new StringBuilder();
+        boolean inSql = false;
+        for (String line : content.split("\n")) {
+            if (line.startsWith("[")) {
+                inSql = line.trim().equals("[sql]");
+                continue;
+            }
+            if (inSql) {
+                sql.append(line).append("\n");
+            }
+        }
+        return sql.toString();
+    }
+
+    public static StatementBase parse(String sql, ConnectContext context) {
+        return SqlParser.parse(sql, context.getSessionVariable().getSqlMode()).get(0);
+    }
+
+    public static QueryStatement analyze(String sql, ConnectContext context) {
+        StatementBase stmt = parse(sql, context);
+        Analyzer.analyze(stmt, context);
+        return (QueryStatement) stmt;
+    }
+
+    public static LogicalPlan transform(QueryStatement stmt, ColumnRefFactory columnRefFactory,
+                                        ConnectContext context) {
+        return new RelationTransformer(columnRefFactory, context).transformWithSelectLimit(stmt.getQueryRelation());
+    }
+
+    public static OptExpression optimize(LogicalPlan logicalPlan, ColumnRefFactory columnRefFactory,
+                                         ConnectContext context) {
+        return new Optimizer().optimize(context, logicalPlan.getRoot(), new PhysicalPropertySet(),
+                new ColumnRefSet(logicalPlan.getOutputColumn()), columnRefFactory);
+    }
+
+    public static ExecPlan buildFragments(QueryStatement stmt, LogicalPlan logicalPlan, OptExpression optimizedPlan,
+                                          ColumnRefFactory columnRefFactory, ConnectContext context) {
+        return new PlanFragmentBuilder().createPhysicalPlan(optimizedPlan, context, logicalPlan.getOutputColumn(),
+                columnRefFactory, stmt.getQueryRelation().getColumnOutputNames());
+    }
+
+    public static ExecPlan plan(String sql, ConnectContext context) {
+        QueryStatement stmt = analyze(sql, context);
+        ColumnRefFactory columnRefFactory = new ColumnRefFactory();
+        LogicalPlan logicalPlan = transform(stmt, columnRefFactory, context);
+        OptExpression optimizedPlan = optimize(logicalPlan, columnRefFactory, context);
+        return buildFragments(stmt, logicalPlan, optimizedPlan, columnRefFactory, context);
+    }
+
+    public static void newExecution(ConnectContext context) {
+        UUID queryId = UUID.randomUUID();
+        context.setQueryId(queryId);
+        context.setExecutionId(UUIDUtil.toTUniqueId(queryId));
+    }
+}
@@ -0,0 +1,66 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import mockit.MockUp;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar, accepts the usual JMH command line options, e.g.
+ * <pre>
+ *   java -jar fe-benchmark/target/benchmarks.jar PlannerBenchmark -p query=tpch/q9
+ * </pre>
+ *
+ * On top of JMH defaults it always attaches the gc profiler for allocation rates, writes the
+ * results as JSON (fe-benchmark-result.json unless -rff is given) so that runs of two commits can
+ * be compared, and loads jmockit as a java agent in the forked JVMs, which the mocked frontend
+ * and backends of utframe require.
+ */
+public class BenchmarkRunner {
+    private static final String DEFAULT_RESULT_FILE = "fe-benchmark-result.json";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmdOptions = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmdOptions);
+
+        if (!cmdOptions.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmdOptions.getResult().hasValue()) {
+            builder.result(DEFAULT_RESULT_FILE);
+        }
+        if (cmdOptions.getIncludes().isEmpty()) {
+            builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+        }
+
+        boolean hasGcProfiler = false;
+        for (ProfilerConfig profiler : cmdOptions.getProfilers()) {
+            if (profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName())) {
+                hasGcProfiler = true;
+            }
+        }
+        if (!hasGcProfiler) {
+            builder.addProfiler(GCProfiler.class);
+        }
+
+        String jmockitJar = new File(MockUp.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .getAbsolutePath();
+        List<String> jvmArgs = new ArrayList<>(cmdOptions.getJvmArgsAppend().orElse(Collections.emptyList()));
+        jvmArgs.add("-javaagent:" + jmockitJar);
+        jvmArgs.add("-Xmx4096m");
+        builder.jvmArgsAppend(jvmArgs.toArray(new String[0]));
+
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,79 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The database lock under contention, the read lock of the whole database is still taken by most of the
+ * metadata reads. The fair ReentrantReadWriteLock the database lock used to be is the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class DatabaseLockBenchmark {
+    private Database db;
+    private Table table;
+    private ReentrantReadWriteLock baseline;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = new Database(10000L, "db");
+        table = new Table(10001L, "t0", Table.TableType.OLAP, Lists.newArrayList());
+        db.createTable(table);
+        baseline = new ReentrantReadWriteLock(true);
+    }
+
+    @Benchmark
+    public void readLock() {
+        db.readLock();
+        db.readUnlock();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void readLockConcurrently() {
+        db.readLock();
+        db.readUnlock();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void readLockTableConcurrently() {
+        db.readLockTable(table);
+        db.readUnlockTable(table);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void baselineReadLockConcurrently() {
+        baseline.readLock().lock();
+        baseline.readLock().unlock();
+    }
+
+    @Benchmark
+    public void baselineReadLock() {
+        baseline.readLock().lock();
+        baseline.readLock().unlock();
+    }
+}
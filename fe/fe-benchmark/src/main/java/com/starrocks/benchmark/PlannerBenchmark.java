@@ -0,0 +1,146 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.sql.analyzer.Analyzer;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.transformer.LogicalPlan;
+import com.starrocks.sql.plan.ExecPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and allocation of every stage of query planning, measured separately:
+ * SqlParser, Analyzer, RelationTransformer, Optimizer and PlanFragmentBuilder.
+ *
+ * The input of a stage is rebuilt before every invocation because most stages mutate it, the
+ * rebuild is excluded from the measured time and from allocatedBytesPerOp.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class PlannerBenchmark {
+    @Param({"tpch/q1", "tpch/q5", "tpch/q9", "tpch/q21", "tpcds/q14", "tpcds/q64", "tpcds/q72"})
+    public String query;
+
+    private ConnectContext context;
+    private String sql;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkEnv.setUp(query);
+        sql = BenchmarkEnv.loadQuery(query);
+    }
+
+    @Benchmark
+    public StatementBase parse(AllocationCounter counter) {
+        long begin = counter.begin();
+        StatementBase stmt = BenchmarkEnv.parse(sql, context);
+        counter.end(begin);
+        return stmt;
+    }
+
+    @Benchmark
+    public StatementBase analyze(ParsedQuery input, AllocationCounter counter) {
+        long begin = counter.begin();
+        Analyzer.analyze(input.stmt, context);
+        counter.end(begin);
+        return input.stmt;
+    }
+
+    @Benchmark
+    public LogicalPlan transform(AnalyzedQuery input, AllocationCounter counter) {
+        long begin = counter.begin();
+        LogicalPlan logicalPlan = BenchmarkEnv.transform(input.stmt, input.columnRefFactory, context);
+        counter.end(begin);
+        return logicalPlan;
+    }
+
+    @Benchmark
+    public OptExpression optimize(LogicalQuery input, AllocationCounter counter) {
+        long begin = counter.begin();
+        OptExpression optimizedPlan = BenchmarkEnv.optimize(input.logicalPlan, input.columnRefFactory, context);
+        counter.end(begin);
+        return optimizedPlan;
+    }
+
+    @Benchmark
+    public ExecPlan buildFragments(OptimizedQuery input, AllocationCounter counter) {
+        long begin = counter.begin();
+        ExecPlan execPlan = BenchmarkEnv.buildFragments(input.stmt, input.logicalPlan, input.optimizedPlan,
+                input.columnRefFactory, context);
+        counter.end(begin);
+        return execPlan;
+    }
+
+    @State(Scope.Thread)
+    public static class ParsedQuery {
+        StatementBase stmt;
+
+        @Setup(Level.Invocation)
+        public void setUp(PlannerBenchmark benchmark) {
+            stmt = BenchmarkEnv.parse(benchmark.sql, benchmark.context);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class AnalyzedQuery {
+        QueryStatement stmt;
+        ColumnRefFactory columnRefFactory;
+
+        @Setup(Level.Invocation)
+        public void setUp(PlannerBenchmark benchmark) {
+            stmt = BenchmarkEnv.analyze(benchmark.sql, benchmark.context);
+            columnRefFactory = new ColumnRefFactory();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LogicalQuery {
+        QueryStatement stmt;
+        ColumnRefFactory columnRefFactory;
+        LogicalPlan logicalPlan;
+
+        @Setup(Level.Invocation)
+        public void setUp(PlannerBenchmark benchmark) {
+            stmt = BenchmarkEnv.analyze(benchmark.sql, benchmark.context);
+            columnRefFactory = new ColumnRefFactory();
+            logicalPlan = BenchmarkEnv.transform(stmt, columnRefFactory, benchmark.context);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class OptimizedQuery {
+        QueryStatement stmt;
+        ColumnRefFactory columnRefFactory;
+        LogicalPlan logicalPlan;
+        OptExpression optimizedPlan;
+
+        @Setup(Level.Invocation)
+        public void setUp(PlannerBenchmark benchmark) {
+            stmt = BenchmarkEnv.analyze(benchmark.sql, benchmark.context);
+            columnRefFactory = new ColumnRefFactory();
+            logicalPlan = BenchmarkEnv.transform(stmt, columnRefFactory, benchmark.context);
+            optimizedPlan = BenchmarkEnv.optimize(logicalPlan, columnRefFactory, benchmark.context);
+        }
+    }
+}
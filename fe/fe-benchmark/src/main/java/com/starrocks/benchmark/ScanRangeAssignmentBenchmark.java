@@ -0,0 +1,63 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.Coordinator;
+import com.starrocks.sql.plan.ExecPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and allocation of Coordinator scheduling: scan range assignment and fragment instance
+ * computation, without dispatching fragments to the mocked backends.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class ScanRangeAssignmentBenchmark {
+    @Param({"tpch/q1", "tpch/q5", "tpch/q9", "tpcds/q64"})
+    public String query;
+
+    private ConnectContext context;
+    private String sql;
+    private Coordinator coordinator;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkEnv.setUp(query);
+        sql = BenchmarkEnv.loadQuery(query);
+    }
+
+    // The coordinator keeps its assignment, so every invocation schedules a freshly planned query.
+    @Setup(Level.Invocation)
+    public void prepareCoordinator() {
+        ExecPlan execPlan = BenchmarkEnv.plan(sql, context);
+        BenchmarkEnv.newExecution(context);
+        coordinator = new Coordinator(context, execPlan.getFragments(), execPlan.getScanNodes(),
+                execPlan.getDescTbl().toThrift());
+    }
+
+    @Benchmark
+    public Coordinator assignScanRanges(AllocationCounter counter) throws Exception {
+        long begin = counter.begin();
+        coordinator.prepareExec();
+        counter.end(begin);
+        return coordinator;
+    }
+}
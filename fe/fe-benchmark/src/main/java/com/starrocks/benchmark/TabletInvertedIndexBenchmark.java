@@ -0,0 +1,118 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.benchmark;
+
+import com.starrocks.catalog.Replica;
+import com.starrocks.catalog.TabletInvertedIndex;
+import com.starrocks.catalog.TabletMeta;
+import com.starrocks.thrift.TStorageMedium;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups and updates of TabletInvertedIndex at the scale of a large cluster. The index is
+ * standalone here, it doesn't need the mock cluster, so the gc profiler reports its allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class TabletInvertedIndexBenchmark {
+    private static final long DB_ID = 10000L;
+    private static final long TABLE_ID = 10001L;
+    private static final long INDEX_ID = 10002L;
+    private static final int SCHEMA_HASH = 1;
+    private static final int REPLICATION_NUM = 3;
+    private static final int TABLETS_PER_PARTITION = 32;
+
+    @Param({"100000", "1000000"})
+    public int tabletNum;
+
+    @Param({"10"})
+    public int backendNum;
+
+    private TabletInvertedIndex invertedIndex;
+    private long nextTabletId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        invertedIndex = new TabletInvertedIndex();
+        for (long tabletId = 0; tabletId < tabletNum; tabletId++) {
+            addTablet(tabletId);
+        }
+        nextTabletId = tabletNum;
+    }
+
+    private void addTablet(long tabletId) {
+        TabletMeta tabletMeta = new TabletMeta(DB_ID, TABLE_ID, tabletId / TABLETS_PER_PARTITION, INDEX_ID,
+                SCHEMA_HASH, TStorageMedium.HDD);
+        invertedIndex.addTablet(tabletId, tabletMeta);
+        for (int i = 0; i < REPLICATION_NUM; i++) {
+            long replicaId = tabletId * REPLICATION_NUM + i;
+            invertedIndex.addReplica(tabletId, new Replica(replicaId, backendOf(tabletId, i),
+                    Replica.ReplicaState.NORMAL, 1L, SCHEMA_HASH));
+        }
+    }
+
+    private long backendOf(long tabletId, int replicaIdx) {
+        return (tabletId + replicaIdx) % backendNum;
+    }
+
+    private long randomTabletId() {
+        return ThreadLocalRandom.current().nextInt(tabletNum);
+    }
+
+    @Benchmark
+    public TabletMeta getTabletMeta() {
+        return invertedIndex.getTabletMeta(randomTabletId());
+    }
+
+    // all the read paths share one lock with the report and scheduling threads
+    @Benchmark
+    @Threads(8)
+    public TabletMeta getTabletMetaConcurrently() {
+        return invertedIndex.getTabletMeta(randomTabletId());
+    }
+
+    @Benchmark
+    public Replica getReplica() {
+        long tabletId = randomTabletId();
+        return invertedIndex.getReplica(tabletId, backendOf(tabletId, 0));
+    }
+
+    @Benchmark
+    public List<Replica> getReplicasByTabletId() {
+        return invertedIndex.getReplicasByTabletId(randomTabletId());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Long> getTabletIdsByBackendId() {
+        return invertedIndex.getTabletIdsByBackendId(ThreadLocalRandom.current().nextInt(backendNum));
+    }
+
+    // create and drop a tablet, the index keeps its size across invocations
+    @Benchmark
+    public void addAndDeleteTablet() {
+        long tabletId = nextTabletId++;
+        addTablet(tabletId);
+        invertedIndex.deleteTablet(tabletId);
+    }
+}
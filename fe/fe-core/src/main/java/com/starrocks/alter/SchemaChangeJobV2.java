@@ -404,12 +404,11 @@ public class SchemaChangeJobV2 extends AlterJobV2 {
             throw new AlterCancelException("Databasee " + dbId + " does not exist");
         }
 
-        db.readLock();
+        OlapTable tbl = (OlapTable) db.readLockTable(tableId);
+        if (tbl == null) {
+            throw new AlterCancelException("Table " + tableId + " does not exist");
+        }
         try {
-            OlapTable tbl = (OlapTable) db.getTable(tableId);
-            if (tbl == null) {
-                throw new AlterCancelException("Table " + tableId + " does not exist");
-            }
             Preconditions.checkState(tbl.getState() == OlapTableState.SCHEMA_CHANGE);
 
             for (long partitionId : partitionIndexMap.rowKeySet()) {
@@ -444,7 +443,7 @@ public class SchemaChangeJobV2 extends AlterJobV2 {
                 }
             } // end for partitions
         } finally {
-            db.readUnlock();
+            db.readUnlockTable(tbl);
         }
 
         AgentTaskQueue.addBatchTask(schemaChangeBatchTask);
@@ -475,14 +474,8 @@ public class SchemaChangeJobV2 extends AlterJobV2 {
             throw new AlterCancelException("Database " + dbId + " does not exist");
         }
 
-        db.readLock();
-        try {
-            OlapTable tbl = (OlapTable) db.getTable(tableId);
-            if (tbl == null) {
-                throw new AlterCancelException("Table " + tableId + " does not exist");
-            }
-        } finally {
-            db.readUnlock();
+        if (db.getTable(tableId) == null) {
+            throw new AlterCancelException("Table " + tableId + " does not exist");
         }
 
         if (!schemaChangeBatchTask.isFinished()) {
@@ -501,12 +494,11 @@ public class SchemaChangeJobV2 extends AlterJobV2 {
          * all tasks are finished. check the integrity.
          * we just check whether all new replicas are healthy.
          */
-        db.writeLock();
+        OlapTable tbl = (OlapTable) db.writeLockTable(tableId);
+        if (tbl == null) {
+            throw new AlterCancelException("Table " + tableId + " does not exist");
+        }
         try {
-            OlapTable tbl = (OlapTable) db.getTable(tableId);
-            if (tbl == null) {
-                throw new AlterCancelException("Table " + tableId + " does not exist");
-            }
             Preconditions.checkState(tbl.getState() == OlapTableState.SCHEMA_CHANGE);
 
             for (long partitionId : partitionIndexMap.rowKeySet()) {
@@ -543,7 +535,7 @@ public class SchemaChangeJobV2 extends AlterJobV2 {
             // all partitions are good
             onFinished(tbl);
         } finally {
-            db.writeUnlock();
+            db.writeUnlockTable(tbl);
         }
 
         pruneMeta();
@@ -28,7 +28,8 @@ public class CatalogUtils {
 
     // check table type is OLAP
     public static void checkTableTypeOLAP(Database db, Table table) throws DdlException {
-        if (table.getType() != Table.TableType.OLAP) {
+        // materialized views are stored as olap tables
+        if (table.getType() != Table.TableType.OLAP && table.getType() != Table.TableType.MATERIALIZED_VIEW) {
             throw new DdlException("Table[" + table.getName() + "] is not OLAP table");
         }
     }
@@ -35,8 +35,9 @@ import com.starrocks.common.UserException;
 import com.starrocks.common.io.Text;
 import com.starrocks.common.io.Writable;
 import com.starrocks.common.util.DebugUtil;
-import com.starrocks.common.util.QueryableReentrantReadWriteLock;
+import com.starrocks.common.util.MultiGranularityLock;
 import com.starrocks.common.util.Util;
+import com.starrocks.metric.MetricRepo;
 import com.starrocks.persist.CreateTableInfo;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.system.SystemInfoService;
@@ -48,6 +49,8 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -83,7 +86,7 @@ public class Database extends MetaObject implements Writable {
     private long id;
     private String fullQualifiedName;
     private String clusterName;
-    private QueryableReentrantReadWriteLock rwLock;
+    private MultiGranularityLock rwLock;
 
     // table family group map
     private Map<Long, Table> idToTable;
@@ -115,7 +118,7 @@ public class Database extends MetaObject implements Writable {
         if (this.fullQualifiedName == null) {
             this.fullQualifiedName = "";
         }
-        this.rwLock = new QueryableReentrantReadWriteLock(true);
+        this.rwLock = new MultiGranularityLock();
         this.idToTable = new ConcurrentHashMap<>();
         this.nameToTable = new ConcurrentHashMap<>();
         this.dataQuotaBytes = FeConstants.default_db_data_quota_bytes;
@@ -126,71 +129,201 @@ public class Database extends MetaObject implements Writable {
     }
 
     public void readLock() {
-        long startMs = System.nanoTime() / 1000000;
-        this.rwLock.readLock().lock();
-        long endMs = System.nanoTime() / 1000000;
-        if (endMs - startMs > SLOW_LOCK_MS && endMs > lastSlowLockLogTime + SLOW_LOCK_LOG_EVERY_MS) {
-            lastSlowLockLogTime = endMs;
-            LOG.warn("slow read lock db:" + id + " " + fullQualifiedName + " " + (endMs - startMs) + "ms",
-                    new Exception());
-        }
+        lock(MultiGranularityLock.Mode.SHARED);
     }
 
     public boolean tryReadLock(long timeout, TimeUnit unit) {
-        try {
-            if (!this.rwLock.readLock().tryLock(timeout, unit)) {
-                Thread owner = rwLock.getOwner();
-                if (owner != null) {
-                    LOG.warn("database lock is held by: {}", Util.dumpThread(owner, 50));
-                }
-                return false;
+        return tryLock(MultiGranularityLock.Mode.SHARED, timeout, unit);
+    }
+
+    public void readUnlock() {
+        this.rwLock.unlock(MultiGranularityLock.Mode.SHARED);
+    }
+
+    public void writeLock() {
+        lock(MultiGranularityLock.Mode.EXCLUSIVE);
+    }
+
+    public boolean tryWriteLock(long timeout, TimeUnit unit) {
+        return tryLock(MultiGranularityLock.Mode.EXCLUSIVE, timeout, unit);
+    }
+
+    public void writeUnlock() {
+        this.rwLock.unlock(MultiGranularityLock.Mode.EXCLUSIVE);
+    }
+
+    public boolean isWriteLockHeldByCurrentThread() {
+        return this.rwLock.isHeldByCurrentThread(MultiGranularityLock.Mode.EXCLUSIVE);
+    }
+
+    /*
+     * Table level locks.
+     *
+     * The read or write lock of a table is taken with the intention lock of the database, so the operations on
+     * different tables of a database do not block each other. They are still blocked by and block readLock()
+     * and writeLock() of the database, which are used by the operations on the database itself, e.g. creating
+     * or dropping a table, and by the operations not migrated to the table level locks yet.
+     *
+     * The table is got again after locking, the lock methods with a table id return the locked table, or null
+     * without holding any lock if the table does not exist. The tables are always locked in the order of their
+     * ids when several of them are locked together.
+     *
+     * readLock() can not be taken while holding a table lock, and a table write lock can not be taken while
+     * holding readLock(), see MultiGranularityLock. writeLock() covers all the table locks.
+     */
+
+    public Table readLockTable(long tableId) {
+        while (true) {
+            Table table = getTable(tableId);
+            if (table == null) {
+                return null;
             }
-            return true;
-        } catch (InterruptedException e) {
-            LOG.warn("failed to try read lock at db[" + id + "]", e);
+            readLockTable(table);
+            if (getTable(tableId) == table) {
+                return table;
+            }
+            // the table is dropped or replaced before being locked
+            readUnlockTable(table);
+        }
+    }
+
+    public void readLockTable(Table table) {
+        lock(MultiGranularityLock.Mode.INTENTION_SHARED);
+        table.readLock();
+    }
+
+    public boolean tryReadLockTable(Table table, long timeout, TimeUnit unit) {
+        long deadlineMs = System.currentTimeMillis() + unit.toMillis(timeout);
+        if (!tryLock(MultiGranularityLock.Mode.INTENTION_SHARED, timeout, unit)) {
             return false;
         }
+        if (!table.tryReadLock(Math.max(0L, deadlineMs - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+            this.rwLock.unlock(MultiGranularityLock.Mode.INTENTION_SHARED);
+            return false;
+        }
+        return true;
     }
 
-    public void readUnlock() {
-        this.rwLock.readLock().unlock();
+    public void readUnlockTable(Table table) {
+        table.readUnlock();
+        this.rwLock.unlock(MultiGranularityLock.Mode.INTENTION_SHARED);
     }
 
-    public void writeLock() {
+    public void readLockTables(Collection<? extends Table> tables) {
+        for (Table table : sortById(tables)) {
+            readLockTable(table);
+        }
+    }
+
+    public void readUnlockTables(Collection<? extends Table> tables) {
+        for (Table table : tables) {
+            readUnlockTable(table);
+        }
+    }
+
+    public Table writeLockTable(long tableId) {
+        while (true) {
+            Table table = getTable(tableId);
+            if (table == null) {
+                return null;
+            }
+            writeLockTable(table);
+            if (getTable(tableId) == table) {
+                return table;
+            }
+            // the table is dropped or replaced before being locked
+            writeUnlockTable(table);
+        }
+    }
+
+    public void writeLockTable(Table table) {
+        lock(MultiGranularityLock.Mode.INTENTION_EXCLUSIVE);
+        table.writeLock();
+    }
+
+    public boolean tryWriteLockTable(Table table, long timeout, TimeUnit unit) {
+        long deadlineMs = System.currentTimeMillis() + unit.toMillis(timeout);
+        if (!tryLock(MultiGranularityLock.Mode.INTENTION_EXCLUSIVE, timeout, unit)) {
+            return false;
+        }
+        if (!table.tryWriteLock(Math.max(0L, deadlineMs - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+            this.rwLock.unlock(MultiGranularityLock.Mode.INTENTION_EXCLUSIVE);
+            return false;
+        }
+        return true;
+    }
+
+    public void writeUnlockTable(Table table) {
+        table.writeUnlock();
+        this.rwLock.unlock(MultiGranularityLock.Mode.INTENTION_EXCLUSIVE);
+    }
+
+    public boolean tryWriteLockTables(Collection<? extends Table> tables, long timeout, TimeUnit unit) {
+        long deadlineMs = System.currentTimeMillis() + unit.toMillis(timeout);
+        List<Table> lockedTables = Lists.newArrayList();
+        for (Table table : sortById(tables)) {
+            if (!tryWriteLockTable(table, Math.max(0L, deadlineMs - System.currentTimeMillis()),
+                    TimeUnit.MILLISECONDS)) {
+                writeUnlockTables(lockedTables);
+                return false;
+            }
+            lockedTables.add(table);
+        }
+        return true;
+    }
+
+    public void writeLockTables(Collection<? extends Table> tables) {
+        for (Table table : sortById(tables)) {
+            writeLockTable(table);
+        }
+    }
+
+    public void writeUnlockTables(Collection<? extends Table> tables) {
+        for (Table table : tables) {
+            writeUnlockTable(table);
+        }
+    }
+
+    private static List<Table> sortById(Collection<? extends Table> tables) {
+        List<Table> sortedTables = Lists.newArrayList(tables);
+        sortedTables.sort(Comparator.comparingLong(Table::getId));
+        return sortedTables;
+    }
+
+    private void lock(MultiGranularityLock.Mode mode) {
         long startMs = System.nanoTime() / 1000000;
-        this.rwLock.writeLock().lock();
+        this.rwLock.lock(mode);
         long endMs = System.nanoTime() / 1000000;
+        if (MetricRepo.isInit) {
+            MetricRepo.HISTO_DB_LOCK_WAIT_LATENCY.update(endMs - startMs);
+        }
         if (endMs - startMs > SLOW_LOCK_MS && endMs > lastSlowLockLogTime + SLOW_LOCK_LOG_EVERY_MS) {
             lastSlowLockLogTime = endMs;
-            LOG.warn("slow write lock db:" + id + " " + fullQualifiedName + " " + (endMs - startMs) + "ms",
+            LOG.warn("slow " + mode + " lock db:" + id + " " + fullQualifiedName + " " + (endMs - startMs) + "ms",
                     new Exception());
         }
     }
 
-    public boolean tryWriteLock(long timeout, TimeUnit unit) {
+    private boolean tryLock(MultiGranularityLock.Mode mode, long timeout, TimeUnit unit) {
         try {
-            if (!this.rwLock.writeLock().tryLock(timeout, unit)) {
+            long startMs = System.nanoTime() / 1000000;
+            if (!this.rwLock.tryLock(mode, timeout, unit)) {
                 Thread owner = rwLock.getOwner();
                 if (owner != null) {
                     LOG.warn("database lock is held by: {}", Util.dumpThread(owner, 50));
                 }
                 return false;
             }
+            if (MetricRepo.isInit) {
+                MetricRepo.HISTO_DB_LOCK_WAIT_LATENCY.update(System.nanoTime() / 1000000 - startMs);
+            }
             return true;
         } catch (InterruptedException e) {
-            LOG.warn("failed to try write lock at db[" + id + "]", e);
+            LOG.warn("failed to try " + mode + " lock at db[" + id + "]", e);
             return false;
         }
     }
 
-    public void writeUnlock() {
-        this.rwLock.writeLock().unlock();
-    }
-
-    public boolean isWriteLockHeldByCurrentThread() {
-        return this.rwLock.writeLock().isHeldByCurrentThread();
-    }
-
     public long getId() {
         return id;
     }
@@ -401,6 +534,18 @@ public class Database extends MetaObject implements Writable {
         return new ArrayList<Table>(idToTable.values());
     }
 
+    // the existing ones of the given tables, e.g. to lock the tables of a transaction
+    public List<Table> getTables(Collection<Long> tableIds) {
+        List<Table> tables = new ArrayList<>();
+        for (long tableId : tableIds) {
+            Table table = idToTable.get(tableId);
+            if (table != null) {
+                tables.add(table);
+            }
+        }
+        return tables;
+    }
+
     public List<Table> getViews() {
         List<Table> views = new ArrayList<>();
         for (Table table : idToTable.values()) {
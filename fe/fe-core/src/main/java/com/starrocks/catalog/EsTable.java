@@ -70,6 +70,7 @@ public class EsTable extends Table {
     public static final String MAX_DOCVALUE_FIELDS = "max_docvalue_fields";
 
     public static final String WAN_ONLY = "es.nodes.wan.only";
+    public static final String DOCS_PER_SLICE = "docs_per_slice";
 
     private String hosts;
     private String[] seeds;
@@ -106,6 +107,10 @@ public class EsTable extends Table {
 
     private boolean wanOnly = false;
 
+    // expected docs scanned by one slice of sliced scroll, a shard with more docs would be scrolled
+    // by multiple scan ranges in parallel, sliced scroll is disabled if it is not positive
+    private long docsPerSlice = 0;
+
     // version would be used to be compatible with different ES Cluster
     public EsMajorVersion majorVersion = null;
 
@@ -150,6 +155,10 @@ public class EsTable extends Table {
         return wanOnly;
     }
 
+    public long docsPerSlice() {
+        return docsPerSlice;
+    }
+
     private void validate(Map<String, String> properties) throws DdlException {
         if (properties == null) {
             throw new DdlException("Please set properties of elasticsearch table, "
@@ -248,6 +257,14 @@ public class EsTable extends Table {
                 wanOnly = false;
             }
         }
+        if (properties.containsKey(DOCS_PER_SLICE)) {
+            try {
+                docsPerSlice = Long.parseLong(properties.get(DOCS_PER_SLICE).trim());
+            } catch (Exception e) {
+                throw new DdlException("fail to parse docs_per_slice, docs_per_slice= "
+                        + properties.get(DOCS_PER_SLICE).trim() + " ,`docs_per_slice` should be a number");
+            }
+        }
         tableContext.put("hosts", hosts);
         tableContext.put("userName", userName);
         tableContext.put("passwd", passwd);
@@ -261,6 +278,9 @@ public class EsTable extends Table {
         tableContext.put("enableKeywordSniff", String.valueOf(enableKeywordSniff));
         tableContext.put("maxDocValueFields", String.valueOf(maxDocValueFields));
         tableContext.put("es.nodes.wan.only", String.valueOf(wanOnly));
+        if (docsPerSlice > 0) {
+            tableContext.put(DOCS_PER_SLICE, String.valueOf(docsPerSlice));
+        }
     }
 
     @Override
@@ -363,6 +383,13 @@ public class EsTable extends Table {
             } else {
                 wanOnly = false;
             }
+            if (tableContext.containsKey(DOCS_PER_SLICE)) {
+                try {
+                    docsPerSlice = Long.parseLong(tableContext.get(DOCS_PER_SLICE));
+                } catch (Exception e) {
+                    docsPerSlice = 0;
+                }
+            }
 
             PartitionType partType = PartitionType.valueOf(Text.readString(in));
             if (partType == PartitionType.UNPARTITIONED) {
@@ -31,6 +31,7 @@ import com.starrocks.clone.TabletSchedCtx;
 import com.starrocks.clone.TabletSchedCtx.Priority;
 import com.starrocks.common.Config;
 import com.starrocks.common.Pair;
+import com.starrocks.persist.gson.GsonPostProcessable;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.system.Backend;
 import com.starrocks.system.SystemInfoService;
@@ -50,9 +51,12 @@ import java.util.stream.Collectors;
  * This class represents the local olap tablet related metadata.
  * LocalTablet is based on local disk storage and replicas are managed by StarRocks.
  */
-public class LocalTablet extends Tablet {
+public class LocalTablet extends Tablet implements GsonPostProcessable {
     private static final Logger LOG = LogManager.getLogger(LocalTablet.class);
 
+    // most tablets have 3 replicas, the default capacity of ArrayList wastes 7 slots for each of them
+    private static final int INITIAL_REPLICA_CAPACITY = 3;
+
     public enum TabletStatus {
         HEALTHY,
         REPLICA_MISSING, // not enough alive replica num.
@@ -79,18 +83,18 @@ public class LocalTablet extends Tablet {
     private long lastStatusCheckTime = -1;
 
     public LocalTablet() {
-        this(0L, new ArrayList<>());
+        this(0L, new ArrayList<>(INITIAL_REPLICA_CAPACITY));
     }
 
     public LocalTablet(long id) {
-        this(id, new ArrayList<>());
+        this(id, new ArrayList<>(INITIAL_REPLICA_CAPACITY));
     }
 
     public LocalTablet(long id, List<Replica> replicas) {
         super(id);
         this.replicas = replicas;
         if (this.replicas == null) {
-            this.replicas = new ArrayList<>();
+            this.replicas = new ArrayList<>(INITIAL_REPLICA_CAPACITY);
         }
 
         checkedVersion = -1L;
@@ -355,6 +359,14 @@ public class LocalTablet extends Tablet {
         }
     }
 
+    @Override
+    public void gsonPostProcess() throws IOException {
+        // the list is filled by gson, which starts from the default capacity
+        if (replicas instanceof ArrayList) {
+            ((ArrayList<Replica>) replicas).trimToSize();
+        }
+    }
+
     public static LocalTablet read(DataInput in) throws IOException {
         LocalTablet tablet = new LocalTablet();
         tablet.readFields(in);
@@ -16,6 +16,7 @@ import org.apache.logging.log4j.Logger;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,6 +37,15 @@ public class MaterializedView extends OlapTable implements GsonPostProcessable {
         @SerializedName(value = "baseTableVisibleVersionMap")
         public Map<Long, Map<Long, Long>> baseTableVisibleVersionMap;
 
+        // the refresh runs at startTime, in milliseconds, and then once every step of timeUnit,
+        // step is 0 if the refresh is not scheduled
+        @SerializedName(value = "startTime")
+        public long startTime;
+        @SerializedName(value = "step")
+        public long step;
+        @SerializedName(value = "timeUnit")
+        public String timeUnit;
+
         public AsyncRefreshContext() {
             this.baseTableVisibleVersionMap = Maps.newHashMap();
         }
@@ -44,6 +54,12 @@ public class MaterializedView extends OlapTable implements GsonPostProcessable {
             this.baseTableVisibleVersionMap = baseTableVisibleVersionMap;
         }
 
+        public void setSchedule(long startTime, long step, String timeUnit) {
+            this.startTime = startTime;
+            this.step = step;
+            this.timeUnit = timeUnit;
+        }
+
         Map<Long, Long> getPartitionVisibleVersionMapForTable(long tableId) {
             return baseTableVisibleVersionMap.get(tableId);
         }
@@ -143,6 +159,60 @@ public class MaterializedView extends OlapTable implements GsonPostProcessable {
         this.active = active;
     }
 
+    public MvRefreshScheme getRefreshScheme() {
+        return refreshScheme;
+    }
+
+    public void setRefreshScheme(MvRefreshScheme refreshScheme) {
+        this.refreshScheme = refreshScheme;
+    }
+
+    /**
+     * Whether the data of the materialized view is the result of its defining query over the current data
+     * of the base tables, that is it has been refreshed and no partition of the base tables has been changed
+     * since then. A partition created after the refresh without any data loaded does not make it stale.
+     * The caller should hold the read locks of the base tables.
+     */
+    public boolean isFresh() {
+        if (!active || refreshScheme == null || refreshScheme.getType() != RefreshType.ASYNC
+                || refreshScheme.getLastRefreshTime() <= 0) {
+            return false;
+        }
+        Database db = GlobalStateMgr.getCurrentState().getDb(dbId);
+        if (db == null) {
+            return false;
+        }
+        AsyncRefreshContext context = refreshScheme.getAsyncRefreshContext();
+        for (long tableId : baseTableIds) {
+            Table table = db.getTable(tableId);
+            if (!(table instanceof OlapTable)) {
+                return false;
+            }
+            Map<Long, Long> versionMap = context.getPartitionVisibleVersionMapForTable(tableId);
+            if (versionMap == null) {
+                versionMap = Collections.emptyMap();
+            }
+            int refreshedPartitionNum = 0;
+            for (Partition partition : ((OlapTable) table).getPartitions()) {
+                Long version = versionMap.get(partition.getId());
+                if (version == null) {
+                    if (partition.getVisibleVersion() != Partition.PARTITION_INIT_VERSION) {
+                        return false;
+                    }
+                } else if (version != partition.getVisibleVersion()) {
+                    return false;
+                } else {
+                    refreshedPartitionNum++;
+                }
+            }
+            // some partitions refreshed into the view have been dropped or truncated
+            if (refreshedPartitionNum != versionMap.size()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public String getViewDefineSql() {
         return viewDefineSql;
     }
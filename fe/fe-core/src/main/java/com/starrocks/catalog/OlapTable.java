@@ -487,7 +487,7 @@ public class OlapTable extends Table implements GsonPostProcessable {
                 rangePartitionInfo.idToReplicationNum.remove(entry.getValue());
                 rangePartitionInfo.idToReplicationNum.put(newPartId,
                         (short) restoreReplicationNum);
-                rangePartitionInfo.getIdToRange(false).put(newPartId,
+                rangePartitionInfo.setRange(newPartId, false,
                         rangePartitionInfo.getIdToRange(false).remove(entry.getValue()));
 
                 rangePartitionInfo.idToInMemory
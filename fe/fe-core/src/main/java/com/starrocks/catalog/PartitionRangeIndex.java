@@ -0,0 +1,76 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+import com.starrocks.common.util.RangeUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The partition ranges sorted by their lower endpoints, to find the partitions intersecting a range by binary search.
+ * <p>
+ * The ranges of the partitions never overlap, so the ranges sorted by the lower endpoints are sorted by the upper
+ * endpoints too, and only the partition found by the lower endpoint of the range and the partitions after it
+ * can intersect the range.
+ * <p>
+ * The index is immutable, and is rebuilt after the partition ranges change.
+ */
+public class PartitionRangeIndex {
+    private final PartitionKey[] lowerEndpoints;
+    private final List<Range<PartitionKey>> ranges;
+    private final long[] partitionIds;
+
+    public PartitionRangeIndex(Map<Long, Range<PartitionKey>> idToRange) {
+        List<Map.Entry<Long, Range<PartitionKey>>> entries = idToRange.entrySet().stream()
+                .filter(entry -> !entry.getValue().isEmpty())
+                .sorted(RangeUtils.RANGE_MAP_ENTRY_COMPARATOR)
+                .collect(Collectors.toList());
+        lowerEndpoints = new PartitionKey[entries.size()];
+        ranges = Lists.newArrayListWithCapacity(entries.size());
+        partitionIds = new long[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            lowerEndpoints[i] = entries.get(i).getValue().lowerEndpoint();
+            ranges.add(entries.get(i).getValue());
+            partitionIds[i] = entries.get(i).getKey();
+        }
+    }
+
+    public int size() {
+        return partitionIds.length;
+    }
+
+    // returns the ids of the partitions intersecting the range, in the order of their ranges
+    public List<Long> getIntersectedPartitionIds(Range<PartitionKey> range) {
+        List<Long> result = Lists.newArrayList();
+        int start = range.hasLowerBound() ? Math.max(0, floor(range.lowerEndpoint())) : 0;
+        for (int i = start; i < partitionIds.length; i++) {
+            if (range.hasUpperBound() && lowerEndpoints[i].compareTo(range.upperEndpoint()) > 0) {
+                break;
+            }
+            Range<PartitionKey> partitionRange = ranges.get(i);
+            if (partitionRange.isConnected(range) && !partitionRange.intersection(range).isEmpty()) {
+                result.add(partitionIds[i]);
+            }
+        }
+        return result;
+    }
+
+    // returns the index of the last lower endpoint not greater than the key, or -1 if none
+    private int floor(PartitionKey key) {
+        int low = 0;
+        int high = lowerEndpoints.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (lowerEndpoints[mid].compareTo(key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+}
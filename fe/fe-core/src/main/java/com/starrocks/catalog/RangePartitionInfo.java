@@ -60,6 +60,8 @@ public class RangePartitionInfo extends PartitionInfo {
     private Map<Long, Range<PartitionKey>> idToRange = Maps.newHashMap();
     // temp partition id -> partition range
     private Map<Long, Range<PartitionKey>> idToTempRange = Maps.newHashMap();
+    // the index of the formal partition ranges, built on the first prune after the ranges change
+    private volatile PartitionRangeIndex rangeIndex;
 
     // partitionId -> serialized Range<PartitionKey>
     // because Range<PartitionKey> and PartitionKey can not be serialized by gson
@@ -94,6 +96,7 @@ public class RangePartitionInfo extends PartitionInfo {
         super.dropPartition(partitionId);
         idToRange.remove(partitionId);
         idToTempRange.remove(partitionId);
+        rangeIndex = null;
     }
 
     public void addPartition(long partitionId, boolean isTemp, Range<PartitionKey> range, DataProperty dataProperty,
@@ -235,6 +238,15 @@ public class RangePartitionInfo extends PartitionInfo {
         setRangeInternal(partitionId, isTemp, range);
     }
 
+    public PartitionRangeIndex getRangeIndex() {
+        PartitionRangeIndex index = rangeIndex;
+        if (index == null) {
+            index = new PartitionRangeIndex(idToRange);
+            rangeIndex = index;
+        }
+        return index;
+    }
+
     public Map<Long, Range<PartitionKey>> getIdToRange(boolean isTemp) {
         if (isTemp) {
             return idToTempRange;
@@ -322,6 +334,7 @@ public class RangePartitionInfo extends PartitionInfo {
             idToTempRange.put(partitionId, range);
         } else {
             idToRange.put(partitionId, range);
+            rangeIndex = null;
         }
     }
 
@@ -329,6 +342,7 @@ public class RangePartitionInfo extends PartitionInfo {
         Range<PartitionKey> range = idToTempRange.remove(tempPartitionId);
         if (range != null) {
             idToRange.put(tempPartitionId, range);
+            rangeIndex = null;
         }
     }
 
@@ -87,20 +87,18 @@ public class Replica implements Writable {
     // the last load failed version
     @SerializedName(value = "lastFailedVersion")
     private long lastFailedVersion = -1L;
-    // not serialized, not very important
-    private long lastFailedTimestamp = 0;
     // the last load successful version
     @SerializedName(value = "lastSuccessVersion")
     private long lastSuccessVersion = -1L;
 
-    private volatile long versionCount = -1;
+    // an int is enough for the number of versions, and it saves 8 bytes per replica after alignment
+    private volatile int versionCount = -1;
 
     private long pathHash = -1;
 
     // If bad and setBadForce are both true, it means this Replica is unrecoverable and we will delete it
     // if bad is true and isForceSetBad is false, it means this replica can be recover by be.
     private boolean bad = false;
-    private boolean setBadForce = false;
 
     /*
      * If set to true, with means this replica need to be repaired. explicitly.
@@ -114,13 +112,25 @@ public class Replica implements Writable {
      * This is an insurance, in case that further repair task always fail. If 20 min passed
      * since we set needFurtherRepair to true, the 'needFurtherRepair' will be set to false.
      */
-    private boolean needFurtherRepair = false;
-    private long furtherRepairSetTime = -1;
     private static final long FURTHER_REPAIR_TIMEOUT_MS = 20 * 60 * 1000L; // 20min
 
-    // if this watermarkTxnId is set, which means before deleting a replica,
-    // we should ensure that all txns on this replicas are finished.
-    private long watermarkTxnId = -1;
+    /*
+     * Fields that keep their default values for almost all the replicas. They are only set when a load
+     * fails, or when the replica is repaired or decommissioned, so they live in a side object which is
+     * allocated on the first write. None of them is persisted.
+     */
+    private static class RareFields {
+        // not very important
+        private long lastFailedTimestamp = 0;
+        private boolean setBadForce = false;
+        private boolean needFurtherRepair = false;
+        private long furtherRepairSetTime = -1;
+        // if this watermarkTxnId is set, which means before deleting a replica,
+        // we should ensure that all txns on this replicas are finished.
+        private long watermarkTxnId = -1;
+    }
+
+    private volatile RareFields rareFields;
 
     public Replica() {
     }
@@ -152,7 +162,7 @@ public class Replica implements Writable {
         }
         this.lastFailedVersion = lastFailedVersion;
         if (this.lastFailedVersion > 0) {
-            this.lastFailedTimestamp = System.currentTimeMillis();
+            setLastFailedTime(System.currentTimeMillis());
         }
         if (lastSuccessVersion < this.version) {
             this.lastSuccessVersion = this.version;
@@ -161,8 +171,19 @@ public class Replica implements Writable {
         }
     }
 
+    private synchronized RareFields getOrCreateRareFields() {
+        if (rareFields == null) {
+            rareFields = new RareFields();
+        }
+        return rareFields;
+    }
+
     public void setLastFailedTime(long lastFailedTime) {
-        this.lastFailedTimestamp = lastFailedTime;
+        // a non-positive time means never failed, the same as the default
+        if (rareFields == null && lastFailedTime <= 0) {
+            return;
+        }
+        getOrCreateRareFields().lastFailedTimestamp = lastFailedTime;
     }
 
     public long getVersion() {
@@ -199,7 +220,8 @@ public class Replica implements Writable {
     }
 
     public long getLastFailedTimestamp() {
-        return lastFailedTimestamp;
+        RareFields fields = rareFields;
+        return fields == null ? 0 : fields.lastFailedTimestamp;
     }
 
     public long getLastSuccessVersion() {
@@ -231,24 +253,33 @@ public class Replica implements Writable {
             return false;
         }
         this.bad = bad;
-        this.setBadForce = bad;
+        if (bad || rareFields != null) {
+            getOrCreateRareFields().setBadForce = bad;
+        }
         return true;
     }
 
     public boolean isSetBadForce() {
-        return this.setBadForce;
+        RareFields fields = rareFields;
+        return fields != null && fields.setBadForce;
     }
 
     public boolean needFurtherRepair() {
-        if (needFurtherRepair && System.currentTimeMillis() - this.furtherRepairSetTime < FURTHER_REPAIR_TIMEOUT_MS) {
+        RareFields fields = rareFields;
+        if (fields != null && fields.needFurtherRepair
+                && System.currentTimeMillis() - fields.furtherRepairSetTime < FURTHER_REPAIR_TIMEOUT_MS) {
             return true;
         }
         return false;
     }
 
     public void setNeedFurtherRepair(boolean needFurtherRepair) {
-        this.needFurtherRepair = needFurtherRepair;
-        this.furtherRepairSetTime = System.currentTimeMillis();
+        if (!needFurtherRepair && rareFields == null) {
+            return;
+        }
+        RareFields fields = getOrCreateRareFields();
+        fields.needFurtherRepair = needFurtherRepair;
+        fields.furtherRepairSetTime = System.currentTimeMillis();
     }
 
     // only update data size and row num
@@ -358,7 +389,7 @@ public class Replica implements Writable {
             // Case 2:
             if (lastFailedVersion > this.lastFailedVersion) {
                 this.lastFailedVersion = lastFailedVersion;
-                this.lastFailedTimestamp = System.currentTimeMillis();
+                setLastFailedTime(System.currentTimeMillis());
             }
 
             this.lastSuccessVersion = this.version;
@@ -375,7 +406,7 @@ public class Replica implements Writable {
         // Case 4:
         if (this.version >= this.lastFailedVersion) {
             this.lastFailedVersion = -1;
-            this.lastFailedTimestamp = -1;
+            setLastFailedTime(-1);
             if (this.version < this.lastSuccessVersion) {
                 this.version = this.lastSuccessVersion;
             }
@@ -431,7 +462,7 @@ public class Replica implements Writable {
     }
 
     public void setVersionCount(long versionCount) {
-        this.versionCount = versionCount;
+        this.versionCount = (int) Math.min(versionCount, Integer.MAX_VALUE);
     }
 
     @Override
@@ -457,7 +488,7 @@ public class Replica implements Writable {
         strBuffer.append(", lastSuccessVersionHash=");
         strBuffer.append(0);
         strBuffer.append(", lastFailedTimestamp=");
-        strBuffer.append(lastFailedTimestamp);
+        strBuffer.append(getLastFailedTimestamp());
         strBuffer.append(", schemaHash=");
         strBuffer.append(schemaHash);
         strBuffer.append(", state=");
@@ -541,10 +572,14 @@ public class Replica implements Writable {
     }
 
     public void setWatermarkTxnId(long watermarkTxnId) {
-        this.watermarkTxnId = watermarkTxnId;
+        if (watermarkTxnId == -1 && rareFields == null) {
+            return;
+        }
+        getOrCreateRareFields().watermarkTxnId = watermarkTxnId;
     }
 
     public long getWatermarkTxnId() {
-        return watermarkTxnId;
+        RareFields fields = rareFields;
+        return fields == null ? -1 : fields.watermarkTxnId;
     }
 }
@@ -31,6 +31,9 @@ import com.starrocks.analysis.DescriptorTable.ReferencedPartitionInfo;
 import com.starrocks.common.FeMetaVersion;
 import com.starrocks.common.io.Text;
 import com.starrocks.common.io.Writable;
+import com.starrocks.common.util.QueryableReentrantReadWriteLock;
+import com.starrocks.common.util.Util;
+import com.starrocks.metric.MetricRepo;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.thrift.TTableDescriptor;
 import org.apache.commons.lang.NotImplementedException;
@@ -44,6 +47,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Internal representation of table-related metadata. A table contains several partitions.
@@ -110,6 +114,10 @@ public class Table extends MetaObject implements Writable {
     @SerializedName(value = "comment")
     protected String comment = "";
 
+    // DO NOT persist this variable.
+    // only taken together with the intention lock of the database, see Database.readLockTable()
+    private final transient QueryableReentrantReadWriteLock rwLock = new QueryableReentrantReadWriteLock(true);
+
     public Table(TableType type) {
         this.type = type;
         this.fullSchema = Lists.newArrayList();
@@ -144,6 +152,75 @@ public class Table extends MetaObject implements Writable {
         this.isTypeRead = isTypeRead;
     }
 
+    void readLock() {
+        long startMs = System.nanoTime() / 1000000;
+        this.rwLock.readLock().lock();
+        if (MetricRepo.isInit) {
+            MetricRepo.HISTO_TABLE_LOCK_WAIT_LATENCY.update(System.nanoTime() / 1000000 - startMs);
+        }
+    }
+
+    boolean tryReadLock(long timeout, TimeUnit unit) {
+        try {
+            long startMs = System.nanoTime() / 1000000;
+            if (!this.rwLock.readLock().tryLock(timeout, unit)) {
+                logLockOwner();
+                return false;
+            }
+            if (MetricRepo.isInit) {
+                MetricRepo.HISTO_TABLE_LOCK_WAIT_LATENCY.update(System.nanoTime() / 1000000 - startMs);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            LOG.warn("failed to try read lock at table[" + id + "]", e);
+            return false;
+        }
+    }
+
+    void readUnlock() {
+        this.rwLock.readLock().unlock();
+    }
+
+    void writeLock() {
+        long startMs = System.nanoTime() / 1000000;
+        this.rwLock.writeLock().lock();
+        if (MetricRepo.isInit) {
+            MetricRepo.HISTO_TABLE_LOCK_WAIT_LATENCY.update(System.nanoTime() / 1000000 - startMs);
+        }
+    }
+
+    boolean tryWriteLock(long timeout, TimeUnit unit) {
+        try {
+            long startMs = System.nanoTime() / 1000000;
+            if (!this.rwLock.writeLock().tryLock(timeout, unit)) {
+                logLockOwner();
+                return false;
+            }
+            if (MetricRepo.isInit) {
+                MetricRepo.HISTO_TABLE_LOCK_WAIT_LATENCY.update(System.nanoTime() / 1000000 - startMs);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            LOG.warn("failed to try write lock at table[" + id + "]", e);
+            return false;
+        }
+    }
+
+    void writeUnlock() {
+        this.rwLock.writeLock().unlock();
+    }
+
+    public boolean isWriteLockHeldByCurrentThread() {
+        return this.rwLock.writeLock().isHeldByCurrentThread();
+    }
+
+    private void logLockOwner() {
+        Thread owner = rwLock.getOwner();
+        if (owner != null) {
+            LOG.warn("table lock is held by: {}", Util.dumpThread(owner, 50));
+        }
+    }
+
     public long getId() {
         return id;
     }
@@ -80,6 +80,10 @@ public class TabletInvertedIndex {
     // backend id -> (tablet id -> replica)
     private Table<Long, Long, Replica> backingReplicaMetaTable = HashBasedTable.create();
 
+    // table id -> version of the tablets and replicas of the table, changed once any of them is added or deleted
+    private Map<Long, Long> tableToReplicaVersion = Maps.newHashMap();
+    private long nextReplicaVersion = 1;
+
     public TabletInvertedIndex() {
     }
 
@@ -396,7 +400,9 @@ public class TabletInvertedIndex {
         }
         writeLock();
         try {
-            tabletMetaMap.putIfAbsent(tabletId, tabletMeta);
+            if (tabletMetaMap.putIfAbsent(tabletId, tabletMeta) == null) {
+                updateReplicaVersion(tabletMeta);
+            }
 
             LOG.debug("add tablet: {}", tabletId);
         } finally {
@@ -420,7 +426,7 @@ public class TabletInvertedIndex {
                     backingReplicaMetaTable.remove(backendId, tabletId);
                 }
             }
-            tabletMetaMap.remove(tabletId);
+            updateReplicaVersion(tabletMetaMap.remove(tabletId));
 
             LOG.debug("delete tablet: {}", tabletId);
         } finally {
@@ -438,6 +444,7 @@ public class TabletInvertedIndex {
             replicaMetaTable.put(tabletId, replica.getBackendId(), replica);
             replicaToTabletMap.put(replica.getId(), tabletId);
             backingReplicaMetaTable.put(replica.getBackendId(), tabletId, replica);
+            updateReplicaVersion(tabletMetaMap.get(tabletId));
             LOG.debug("add replica {} of tablet {} in backend {}",
                     replica.getId(), tabletId, replica.getBackendId());
         } finally {
@@ -457,6 +464,7 @@ public class TabletInvertedIndex {
                 replicaToTabletMap.remove(replica.getId());
                 replicaMetaTable.remove(tabletId, backendId);
                 backingReplicaMetaTable.remove(backendId, tabletId);
+                updateReplicaVersion(tabletMetaMap.get(tabletId));
                 LOG.debug("delete replica {} of tablet {} in backend {}",
                         replica.getId(), tabletId, backendId);
             } else {
@@ -578,9 +586,27 @@ public class TabletInvertedIndex {
             replicaToTabletMap.clear();
             replicaMetaTable.clear();
             backingReplicaMetaTable.clear();
+            tableToReplicaVersion.clear();
         } finally {
             writeUnlock();
         }
     }
+
+    // must be called with the write lock
+    private void updateReplicaVersion(TabletMeta tabletMeta) {
+        if (tabletMeta != null) {
+            tableToReplicaVersion.put(tabletMeta.getTableId(), nextReplicaVersion++);
+        }
+    }
+
+    // The version only changes with the tablets and replicas added or deleted, not with the state of a replica
+    public long getReplicaVersion(long tableId) {
+        readLock();
+        try {
+            return tableToReplicaVersion.getOrDefault(tableId, 0L);
+        } finally {
+            readUnlock();
+        }
+    }
 }
 
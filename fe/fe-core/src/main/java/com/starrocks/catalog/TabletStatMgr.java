@@ -23,68 +23,94 @@ package com.starrocks.catalog;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.starrocks.catalog.MaterializedIndex.IndexExtState;
 import com.starrocks.catalog.Table.TableType;
 import com.starrocks.catalog.lake.LakeTablet;
 import com.starrocks.common.ClientPool;
 import com.starrocks.common.Config;
+import com.starrocks.common.Pair;
+import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.util.MasterDaemon;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.system.Backend;
 import com.starrocks.thrift.BackendService;
 import com.starrocks.thrift.TNetworkAddress;
 import com.starrocks.thrift.TTabletStat;
+import com.starrocks.thrift.TTabletStatRequest;
 import com.starrocks.thrift.TTabletStatResult;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /*
  * TabletStatMgr is for collecting tablet(replica) statistics from backends.
  * Each FE will collect by itself.
+ *
+ * Backends are requested in parallel. After the first round a backend only returns the tablets whose stats
+ * changed since the version it returned last time, and only the tables with changed tablets, or with a
+ * partition whose visible version changed, get their index row counts aggregated again. Every
+ * tablet_stat_full_update_interval_second all the stats are requested and all the tables aggregated, in case
+ * some change is missed, e.g. a replica recreated on a backend with the same stats.
  */
 public class TabletStatMgr extends MasterDaemon {
     private static final Logger LOG = LogManager.getLogger(TabletStatMgr.class);
 
+    private static final int QUEUE_SIZE = 4096;
+
+    private final ExecutorService executor;
+    // backend id => version of the tablet stats got from the backend last time
+    private final Map<Long, Long> backendStatVersions = Maps.newConcurrentMap();
+    // partition id => visible version when the row count of its indexes were aggregated last time
+    private Map<Long, Long> aggregatedPartitionVersions = Maps.newHashMap();
+    private long lastFullUpdateTime = 0L;
+
     public TabletStatMgr() {
         super("tablet stat mgr", Config.tablet_stat_update_interval_second * 1000L);
+        this.executor = ThreadPoolManager.newDaemonFixedThreadPool(Config.tablet_stat_update_threads_num,
+                QUEUE_SIZE, "tablet-stat-mgr-pool", true);
     }
 
     @Override
     protected void runAfterCatalogReady() {
         ImmutableMap<Long, Backend> backends = GlobalStateMgr.getCurrentSystemInfo().getIdToBackend();
 
+        boolean fullUpdate = System.currentTimeMillis() - lastFullUpdateTime
+                >= Config.tablet_stat_full_update_interval_second * 1000L;
+        if (fullUpdate) {
+            backendStatVersions.clear();
+            lastFullUpdateTime = System.currentTimeMillis();
+        }
+
         long start = System.currentTimeMillis();
+        List<Future<Set<Pair<Long, Long>>>> futures = Lists.newArrayList();
         for (Backend backend : backends.values()) {
-            BackendService.Client client = null;
-            TNetworkAddress address = null;
-            boolean ok = false;
+            futures.add(executor.submit(() -> getTabletStat(backend)));
+        }
+        // db id and table id of the tables with changed tablet stats
+        Set<Pair<Long, Long>> changedTables = Sets.newHashSet();
+        for (Future<Set<Pair<Long, Long>>> future : futures) {
             try {
-                address = new TNetworkAddress(backend.getHost(), backend.getBePort());
-                client = ClientPool.backendPool.borrowObject(address);
-                TTabletStatResult result = client.get_tablet_stat();
-
-                LOG.debug("get tablet stat from backend: {}, num: {}", backend.getId(), result.getTablets_statsSize());
-                updateTabletStat(backend.getId(), result);
-
-                ok = true;
+                changedTables.addAll(future.get());
             } catch (Exception e) {
-                LOG.warn("task exec error. backend[{}]", backend.getId(), e);
-            } finally {
-                if (ok) {
-                    ClientPool.backendPool.returnObject(address, client);
-                } else {
-                    ClientPool.backendPool.invalidateObject(address, client);
-                }
+                LOG.warn("failed to get tablet stat", e);
             }
         }
-        LOG.info("finished to get tablet stat of all backends. cost: {} ms",
-                (System.currentTimeMillis() - start));
+        backendStatVersions.keySet().retainAll(backends.keySet());
+        LOG.info("finished to get tablet stat of all backends. full: {}, changed tables: {}, cost: {} ms",
+                fullUpdate, changedTables.size(), (System.currentTimeMillis() - start));
 
         // after update replica in all backends, update index row num
         start = System.currentTimeMillis();
+        Map<Long, Long> partitionVersions = Maps.newHashMap();
+        int aggregatedTableNum = 0;
         List<Long> dbIds = GlobalStateMgr.getCurrentState().getDbIds();
         for (Long dbId : dbIds) {
             Database db = GlobalStateMgr.getCurrentState().getDb(dbId);
@@ -99,6 +125,19 @@ public class TabletStatMgr extends MasterDaemon {
                     }
 
                     OlapTable olapTable = (OlapTable) table;
+                    boolean changed = fullUpdate || changedTables.contains(new Pair<>(dbId, table.getId()));
+                    for (Partition partition : olapTable.getAllPartitions()) {
+                        long version = partition.getVisibleVersion();
+                        partitionVersions.put(partition.getId(), version);
+                        Long aggregatedVersion = aggregatedPartitionVersions.get(partition.getId());
+                        if (aggregatedVersion == null || aggregatedVersion != version) {
+                            changed = true;
+                        }
+                    }
+                    if (!changed) {
+                        continue;
+                    }
+
                     for (Partition partition : olapTable.getAllPartitions()) {
                         long version = partition.getVisibleVersion();
                         for (MaterializedIndex index : partition.getMaterializedIndices(IndexExtState.VISIBLE)) {
@@ -109,6 +148,7 @@ public class TabletStatMgr extends MasterDaemon {
                             index.setRowCount(indexRowCount);
                         } // end for indices
                     } // end for partitions
+                    aggregatedTableNum++;
                     LOG.debug("finished to set row num for table: {} in database: {}",
                             table.getName(), db.getFullName());
                 }
@@ -116,12 +156,53 @@ public class TabletStatMgr extends MasterDaemon {
                 db.writeUnlock();
             }
         }
-        LOG.info("finished to update index row num of all databases. cost: {} ms",
-                (System.currentTimeMillis() - start));
+        aggregatedPartitionVersions = partitionVersions;
+        LOG.info("finished to update index row num of {} tables. cost: {} ms",
+                aggregatedTableNum, (System.currentTimeMillis() - start));
+    }
+
+    private Set<Pair<Long, Long>> getTabletStat(Backend backend) {
+        BackendService.Client client = null;
+        TNetworkAddress address = null;
+        boolean ok = false;
+        try {
+            address = new TNetworkAddress(backend.getHost(), backend.getBePort());
+            client = ClientPool.backendPool.borrowObject(address);
+            TTabletStatRequest request = new TTabletStatRequest();
+            Long version = backendStatVersions.get(backend.getId());
+            if (version != null) {
+                request.setVersion(version);
+            }
+            TTabletStatResult result = client.get_tablet_stat(request);
+
+            LOG.debug("get tablet stat from backend: {}, incremental: {}, num: {}", backend.getId(),
+                    result.isIncremental(), result.getTablets_statsSize());
+            Set<Pair<Long, Long>> changedTables = updateTabletStat(backend.getId(), result);
+            if (result.isSetVersion()) {
+                backendStatVersions.put(backend.getId(), result.getVersion());
+            } else {
+                // the backend does not support incremental stats
+                backendStatVersions.remove(backend.getId());
+            }
+
+            ok = true;
+            return changedTables;
+        } catch (Exception e) {
+            LOG.warn("task exec error. backend[{}]", backend.getId(), e);
+            return Sets.newHashSet();
+        } finally {
+            if (ok) {
+                ClientPool.backendPool.returnObject(address, client);
+            } else {
+                ClientPool.backendPool.invalidateObject(address, client);
+            }
+        }
     }
 
-    private void updateTabletStat(Long beId, TTabletStatResult result) {
+    // Returns the db id and table id of the tables whose tablet stats are updated.
+    private Set<Pair<Long, Long>> updateTabletStat(Long beId, TTabletStatResult result) {
         TabletInvertedIndex invertedIndex = GlobalStateMgr.getCurrentInvertedIndex();
+        Set<Pair<Long, Long>> changedTables = Sets.newHashSet();
 
         for (Map.Entry<Long, TTabletStat> entry : result.getTablets_stats().entrySet()) {
             long tabletId = entry.getKey();
@@ -161,6 +242,7 @@ public class TabletStatMgr extends MasterDaemon {
                     LakeTablet lakeTablet = (LakeTablet) tablet;
                     lakeTablet.setDataSize(tabletStat.getData_size());
                     lakeTablet.setRowCount(tabletStat.getRow_num());
+                    changedTables.add(new Pair<>(tabletMeta.getDbId(), tabletMeta.getTableId()));
                 } finally {
                     db.writeUnlock();
                 }
@@ -172,7 +254,9 @@ public class TabletStatMgr extends MasterDaemon {
                 }
                 // TODO(cmy) no db lock protected. I think it is ok even we get wrong row num
                 replica.updateStat(tabletStat.getData_size(), tabletStat.getRow_num());
+                changedTables.add(new Pair<>(tabletMeta.getDbId(), tabletMeta.getTableId()));
             }
         }
+        return changedTables;
     }
 }
@@ -248,6 +248,27 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int edit_log_roll_num = 50000;
 
+    /**
+     * If true, Master FE asks a follower or observer, which already holds a replayed catalog, to save the
+     * image and fetches it from there, instead of loading a second copy of the catalog into its own heap.
+     * Master FE falls back to checkpointing by itself if no other FE manages to save the image.
+     */
+    @ConfField(mutable = true)
+    public static boolean checkpoint_on_non_master = false;
+
+    /**
+     * If true, FE replays the journal entries of loading and replica changes of different databases
+     * on multiple threads, other entries are still replayed one by one in order.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_parallel_journal_replay = false;
+
+    /**
+     * The number of threads used by parallel journal replay, see *enable_parallel_journal_replay*.
+     */
+    @ConfField
+    public static int journal_replay_parallelism = 8;
+
     /**
      * whether ignore unknown log id
      * when fe rolls back to low version, there may be log id that low version fe can not recognise
@@ -496,6 +517,19 @@ public class Config extends ConfigBase {
     @ConfField
     public static int max_mysql_service_task_threads_num = 4096;
 
+    /**
+     * If set to true, a query of a nio mysql connection waits on its result from the backends without holding
+     * a task thread, and continues in the task pool once the result arrives.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_mysql_async_result_wait = true;
+
+    /**
+     * max num of the 64KB direct buffers pooled to send the query results to the mysql clients.
+     */
+    @ConfField(mutable = true)
+    public static int mysql_send_buffer_pool_size = 1024;
+
     /**
      * node(FE or BE) will be considered belonging to the same StarRocks cluster if they have same cluster id.
      * Cluster id is usually a random integer generated when master FE start at first time.
@@ -598,6 +632,40 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static int stream_load_default_timeout_second = 600; // 600s
 
+    /**
+     * Whether to reuse the plans of the stream loads with the same parameters to the same table.
+     * A cached plan is only reused while the schema, partitions, replicas and global dicts of the table
+     * are unchanged.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_stream_load_plan_cache = false;
+
+    /**
+     * Seconds a cached stream load plan is kept, it also bounds how long a plan may still be reused
+     * after a replica of the table becomes unhealthy
+     */
+    @ConfField
+    public static int stream_load_plan_cache_expire_second = 10;
+
+    /**
+     * Max number of the cached stream load plans
+     */
+    @ConfField
+    public static int stream_load_plan_cache_size = 1024;
+
+    /**
+     * Whether to cache the parse trees of the view definitions, so a view referenced by the queries is parsed once.
+     * The statement of the view is still built from the parse tree and analyzed for each query.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_view_definition_cache = true;
+
+    /**
+     * Max number of the cached parse trees of the view definitions
+     */
+    @ConfField
+    public static int view_definition_cache_size = 4096;
+
     /**
      * Max stream load and streaming mini load timeout
      */
@@ -934,6 +1002,19 @@ public class Config extends ConfigBase {
     @ConfField
     public static int tablet_stat_update_interval_second = 300;  // 5 min
 
+    /**
+     * num of threads to get tablet stat from backends in parallel.
+     */
+    @ConfField
+    public static int tablet_stat_update_threads_num = 16;
+
+    /**
+     * interval to get the stats of all tablets from backends, instead of only the changed ones,
+     * and to update the row num of all tables.
+     */
+    @ConfField(mutable = true)
+    public static int tablet_stat_full_update_interval_second = 3600;
+
     /**
      * The tryLock timeout configuration of globalStateMgr lock.
      * Normally it does not need to change, unless you need to test something.
@@ -1071,6 +1152,14 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static long routine_load_task_timeout_second = 15;
 
+    /**
+     * max consume data time for a routine load task far behind the latest offsets of kafka,
+     * the task timeout is scaled by the same ratio to routine_load_task_consume_second.
+     * set it to routine_load_task_consume_second to always consume for the same time.
+     */
+    @ConfField(mutable = true)
+    public static long routine_load_task_max_consume_second = 9;
+
     /**
      * kafka util request timeout
      */
@@ -1278,6 +1367,18 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static boolean enable_statistic_collect = true;
 
+    /**
+     * The max number of the scans whose actual row counts are kept to correct the estimated ones
+     */
+    @ConfField(mutable = true)
+    public static int cardinality_feedback_max_entries = 10000;
+
+    /**
+     * The actual row count of a scan not reported again in this time is no longer used
+     */
+    @ConfField(mutable = true)
+    public static long cardinality_feedback_expire_sec = 24 * 60 * 60;
+
     /**
      * If set to true, Planner will try to select replica of tablet on same host as this Frontend.
      * This may reduce network transmission in following case:
@@ -1433,6 +1534,34 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static boolean enable_collect_query_detail_info = false;
 
+    /**
+     * The max number of query details kept for pulling, the oldest ones are dropped when it is full.
+     */
+    @ConfField
+    public static int query_detail_queue_capacity = 100000;
+
+    /**
+     * The max number of audit events waiting to be processed by audit plugins,
+     * new events are dropped when it is full.
+     */
+    @ConfField
+    public static int audit_event_queue_capacity = 10000;
+
+    /**
+     * The max bytes of the compressed query profiles kept in memory by ProfileManager.
+     * The oldest profiles exceeding this limit are spilled to `profile_spill_dir` if it is set,
+     * otherwise they are dropped.
+     */
+    @ConfField(mutable = true)
+    public static long profile_info_reserved_bytes = 128L * 1024 * 1024; // 128MB
+
+    /**
+     * The local directory to spill query profiles which exceed `profile_info_reserved_bytes`,
+     * empty means profiles are never spilled.
+     */
+    @ConfField
+    public static String profile_spill_dir = "";
+
     /**
      * Min lag of routine load job to show in metrics
      * Only show the routine load job whose lag is larger than min_routine_load_lag_for_metrics
@@ -1440,6 +1569,13 @@ public class Config extends ConfigBase {
     @ConfField(mutable = true)
     public static long min_routine_load_lag_for_metrics = 10000;
 
+    /**
+     * The max number of cached privileges of (user, database, table), which are used to
+     * check privileges without the lock of Auth.
+     */
+    @ConfField
+    public static long privilege_cache_size = 100000;
+
     /**
      * The heartbeat timeout of be/broker/fe.
      * the default is 5 seconds
@@ -1473,6 +1609,26 @@ public class Config extends ConfigBase {
 
     @ConfField(mutable = true)
     public static boolean enable_experimental_mv = false;
+
+    /**
+     * Whether to cache the analyzed definitions of the asynchronous materialized views, so the definition of a
+     * view is analyzed once for the query rewrite until the view is refreshed or changed.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_materialized_view_definition_cache = true;
+
+    /**
+     * Max number of the cached analyzed definitions of the asynchronous materialized views
+     */
+    @ConfField
+    public static int materialized_view_definition_cache_size = 1024;
+
+    /**
+     * The max number of the partitions of an asynchronous materialized view refreshed in parallel
+     * by a refresh task
+     */
+    @ConfField(mutable = true)
+    public static int mv_refresh_partition_concurrency = 4;
   
     @ConfField
     public static boolean enable_dict_optimize_routine_load = false;
@@ -0,0 +1,218 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.common.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * A reentrant lock with the intention modes of the multiple granularity locking.
+ *
+ * SHARED and EXCLUSIVE are the read and write lock of the whole object, e.g. a database. The intention
+ * modes are taken on the object before the read or write lock of one of its children, e.g. a table, so
+ * the operations on different children do not block each other, while they are still blocked by and block
+ * the SHARED and EXCLUSIVE holders of the whole object.
+ *
+ * A thread is granted a mode if it is compatible with the modes held by all the other threads, so the modes
+ * held by the thread itself never block it. A thread holding nothing waits if there is a waiting EXCLUSIVE
+ * request, the same as a fair ReentrantReadWriteLock, so the writers are not starved.
+ *
+ * Upgrades which may deadlock are illegal and fail with IllegalStateException:
+ * 1. EXCLUSIVE requested by a thread holding the other modes, the same as the read lock of
+ *    ReentrantReadWriteLock, tryLock just fails in this case for compatibility.
+ * 2. SHARED requested by a thread holding an intention mode. The thread usually holds the lock of a child,
+ *    which the INTENTION_EXCLUSIVE holders blocking the SHARED request may be waiting for. Lock the children
+ *    needed instead.
+ * 3. INTENTION_EXCLUSIVE requested by a thread holding SHARED, two threads doing so block each other.
+ *    Release SHARED first, or take the write lock of the whole object.
+ *
+ * The hold counts of the current thread are kept in a thread local, and the waiting threads are only
+ * signalled if there are any, so the uncontended lock and unlock are a few operations under the mutex.
+ */
+public class MultiGranularityLock {
+    public enum Mode {
+        INTENTION_SHARED,
+        INTENTION_EXCLUSIVE,
+        SHARED,
+        EXCLUSIVE
+    }
+
+    private static final boolean[][] COMPATIBLE = {
+            // IS,   IX,    S,     X
+            {true, true, true, false},
+            {true, true, false, false},
+            {true, false, true, false},
+            {false, false, false, false}};
+
+    private static final int MODE_NUM = Mode.values().length;
+
+    private final ReentrantLock mutex = new ReentrantLock();
+    private final Condition released = mutex.newCondition();
+    // hold count of each mode of all the threads
+    private final int[] holdCounts = new int[MODE_NUM];
+    // hold count of each mode of the current thread, null if it holds nothing
+    private final ThreadLocal<int[]> threadHoldCounts = new ThreadLocal<>();
+    private Thread exclusiveOwner = null;
+    private int waitingExclusive = 0;
+    private int waiters = 0;
+
+    public void lock(Mode mode) {
+        int[] mine = threadHoldCounts.get();
+        checkUpgrade(mode, mine);
+        mutex.lock();
+        try {
+            if (mode == Mode.EXCLUSIVE) {
+                waitingExclusive++;
+            }
+            try {
+                while (!canGrant(mode, mine)) {
+                    waiters++;
+                    try {
+                        released.awaitUninterruptibly();
+                    } finally {
+                        waiters--;
+                    }
+                }
+            } finally {
+                if (mode == Mode.EXCLUSIVE) {
+                    waitingExclusive--;
+                }
+            }
+            grant(mode, mine);
+        } finally {
+            mutex.unlock();
+        }
+    }
+
+    public boolean tryLock(Mode mode, long timeout, TimeUnit unit) throws InterruptedException {
+        int[] mine = threadHoldCounts.get();
+        if (mode == Mode.EXCLUSIVE && mine != null && mine[Mode.EXCLUSIVE.ordinal()] == 0) {
+            return false;
+        }
+        checkUpgrade(mode, mine);
+        long nanos = unit.toNanos(timeout);
+        if (!mutex.tryLock(nanos, TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+        try {
+            if (mode == Mode.EXCLUSIVE) {
+                waitingExclusive++;
+            }
+            try {
+                while (!canGrant(mode, mine)) {
+                    if (nanos <= 0L) {
+                        return false;
+                    }
+                    waiters++;
+                    try {
+                        nanos = released.awaitNanos(nanos);
+                    } finally {
+                        waiters--;
+                    }
+                }
+            } finally {
+                if (mode == Mode.EXCLUSIVE) {
+                    waitingExclusive--;
+                    // the requests of the other threads may be blocked by this one only
+                    if (waiters > 0) {
+                        released.signalAll();
+                    }
+                }
+            }
+            grant(mode, mine);
+            return true;
+        } finally {
+            mutex.unlock();
+        }
+    }
+
+    public void unlock(Mode mode) {
+        int[] mine = threadHoldCounts.get();
+        Preconditions.checkState(mine != null && mine[mode.ordinal()] > 0,
+                "unlock " + mode + " which is not held by current thread");
+        mine[mode.ordinal()]--;
+        if (isEmpty(mine)) {
+            threadHoldCounts.remove();
+        }
+        mutex.lock();
+        try {
+            holdCounts[mode.ordinal()]--;
+            if (mode == Mode.EXCLUSIVE && mine[Mode.EXCLUSIVE.ordinal()] == 0) {
+                exclusiveOwner = null;
+            }
+            if (waiters > 0) {
+                released.signalAll();
+            }
+        } finally {
+            mutex.unlock();
+        }
+    }
+
+    public boolean isHeldByCurrentThread(Mode mode) {
+        int[] mine = threadHoldCounts.get();
+        return mine != null && mine[mode.ordinal()] > 0;
+    }
+
+    // the thread holding the EXCLUSIVE mode, or null
+    public Thread getOwner() {
+        mutex.lock();
+        try {
+            return exclusiveOwner;
+        } finally {
+            mutex.unlock();
+        }
+    }
+
+    private static void checkUpgrade(Mode mode, int[] mine) {
+        if (mine == null) {
+            return;
+        }
+        Preconditions.checkState(mode != Mode.EXCLUSIVE || mine[Mode.EXCLUSIVE.ordinal()] > 0,
+                "EXCLUSIVE can not be upgraded from the other modes");
+        boolean holdsIntention =
+                mine[Mode.INTENTION_SHARED.ordinal()] > 0 || mine[Mode.INTENTION_EXCLUSIVE.ordinal()] > 0;
+        Preconditions.checkState(mode != Mode.SHARED || !holdsIntention || mine[Mode.SHARED.ordinal()] > 0
+                        || mine[Mode.EXCLUSIVE.ordinal()] > 0,
+                "SHARED can not be upgraded from the intention modes, lock the children instead");
+        Preconditions.checkState(mode != Mode.INTENTION_EXCLUSIVE || mine[Mode.SHARED.ordinal()] == 0
+                        || mine[Mode.EXCLUSIVE.ordinal()] > 0,
+                "INTENTION_EXCLUSIVE can not be upgraded from SHARED");
+    }
+
+    private boolean canGrant(Mode mode, int[] mine) {
+        if (mine == null && mode != Mode.EXCLUSIVE && waitingExclusive > 0) {
+            return false;
+        }
+        for (int i = 0; i < MODE_NUM; i++) {
+            int others = holdCounts[i] - (mine == null ? 0 : mine[i]);
+            if (others > 0 && !COMPATIBLE[mode.ordinal()][i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void grant(Mode mode, int[] mine) {
+        if (mine == null) {
+            mine = new int[MODE_NUM];
+            threadHoldCounts.set(mine);
+        }
+        mine[mode.ordinal()]++;
+        holdCounts[mode.ordinal()]++;
+        if (mode == Mode.EXCLUSIVE) {
+            exclusiveOwner = Thread.currentThread();
+        }
+    }
+
+    private static boolean isEmpty(int[] counts) {
+        for (int count : counts) {
+            if (count > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -24,9 +24,21 @@ package com.starrocks.common.util;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+import com.starrocks.common.Config;
+import com.starrocks.thrift.TRuntimeProfileTree;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.thrift.TDeserializer;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TCompactProtocol;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Deque;
@@ -38,6 +50,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 /*
  * if you want to visit the atrribute(such as queryID,defaultDb)
@@ -47,11 +61,15 @@ import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
  * why the element in the finished profile arary is not RuntimeProfile,
  * the purpose is let coordinator can destruct earlier(the fragment profile is in Coordinator)
  *
+ * The profile is kept as compressed TRuntimeProfileTree, and only pretty printed when it is requested.
+ * The total bytes of the kept profiles is limited by Config.profile_info_reserved_bytes, the oldest
+ * profiles exceeding the limit are spilled to Config.profile_spill_dir or dropped.
  */
 public class ProfileManager {
     private static final Logger LOG = LogManager.getLogger(ProfileManager.class);
     private static ProfileManager INSTANCE = null;
     private static final int ARRAY_SIZE = 1000;
+    private static final String SPILL_FILE_SUFFIX = ".profile";
     public static final String QUERY_ID = "Query ID";
     public static final String START_TIME = "Start Time";
     public static final String END_TIME = "End Time";
@@ -69,18 +87,24 @@ public class ProfileManager {
             Arrays.asList(QUERY_ID, USER, DEFAULT_DB, SQL_STATEMENT, QUERY_TYPE,
                     START_TIME, END_TIME, TOTAL_TIME, QUERY_STATE));
 
-    private class ProfileElement {
+    private static class ProfileElement {
         public Map<String, String> infoStrings = Maps.newHashMap();
-        public String profileContent;
+        // compressed TRuntimeProfileTree, null if it has been spilled or dropped
+        public volatile byte[] profileContent;
+        // the content taken from profileContent under the lock to be spilled, null after spilled
+        public volatile byte[] spillingContent;
+        public volatile File spillFile;
     }
 
-    // only protect profileDeque; profileMap is concurrent, no need to protect
+    // only protect profileDeque and profileBytes; profileMap is concurrent, no need to protect
     private ReentrantReadWriteLock lock;
     private ReadLock readLock;
     private WriteLock writeLock;
 
     private Deque<ProfileElement> profileDeque;
     private Map<String, ProfileElement> profileMap; // from QueryId to RuntimeProfile
+    // total bytes of profileContent kept in memory
+    private long profileBytes = 0;
 
     public static ProfileManager getInstance() {
         if (INSTANCE == null) {
@@ -95,6 +119,7 @@ public class ProfileManager {
         writeLock = lock.writeLock();
         profileDeque = new LinkedList<ProfileElement>();
         profileMap = new ConcurrentHashMap<String, ProfileElement>();
+        cleanSpillDir();
     }
 
     public ProfileElement createElement(RuntimeProfile profile) {
@@ -103,13 +128,17 @@ public class ProfileManager {
         for (String header : PROFILE_HEADERS) {
             element.infoStrings.put(header, summaryProfile.getInfoString(header));
         }
-        element.profileContent = profile.toString();
+        try {
+            element.profileContent = compress(profile);
+        } catch (TException | IOException e) {
+            LOG.warn("failed to serialize profile of query {}", element.infoStrings.get(QUERY_ID), e);
+        }
         return element;
     }
 
-    public String pushProfile(RuntimeProfile profile) {
+    public void pushProfile(RuntimeProfile profile) {
         if (profile == null) {
-            return "";
+            return;
         }
 
         ProfileElement element = createElement(profile);
@@ -121,19 +150,44 @@ public class ProfileManager {
                     + "may be forget to insert 'QUERY_ID' column into infoStrings");
         }
 
+        List<ProfileElement> removedElements = Lists.newArrayList();
+        List<ProfileElement> spilledElements = Lists.newArrayList();
         profileMap.put(queryId, element);
         writeLock.lock();
         try {
             if (profileDeque.size() >= ARRAY_SIZE) {
-                profileMap.remove(profileDeque.getFirst().infoStrings.get(QUERY_ID));
-                profileDeque.removeFirst();
+                ProfileElement removed = profileDeque.removeFirst();
+                profileMap.remove(removed.infoStrings.get(QUERY_ID));
+                profileBytes -= contentBytes(removed);
+                removedElements.add(removed);
             }
             profileDeque.addLast(element);
+            profileBytes += contentBytes(element);
+
+            // release the oldest profiles in memory until the total bytes is under the limit
+            Iterator<ProfileElement> iter = profileDeque.iterator();
+            while (profileBytes > Config.profile_info_reserved_bytes && iter.hasNext()) {
+                ProfileElement oldest = iter.next();
+                if (oldest.profileContent == null || oldest == element) {
+                    continue;
+                }
+                profileBytes -= contentBytes(oldest);
+                // taken under the lock, so it's neither picked again nor subtracted again when removed
+                oldest.spillingContent = oldest.profileContent;
+                oldest.profileContent = null;
+                spilledElements.add(oldest);
+            }
         } finally {
             writeLock.unlock();
         }
 
-        return element.profileContent;
+        // do the file operations out of the lock
+        for (ProfileElement removed : removedElements) {
+            deleteSpillFile(removed);
+        }
+        for (ProfileElement spilled : spilledElements) {
+            spill(spilled);
+        }
     }
 
     public List<List<String>> getAllQueries() {
@@ -158,16 +212,103 @@ public class ProfileManager {
     }
 
     public String getProfile(String queryID) {
-        readLock.lock();
+        ProfileElement element = profileMap.get(queryID);
+        if (element == null) {
+            return null;
+        }
+
         try {
-            ProfileElement element = profileMap.get(queryID);
-            if (element == null) {
-                return null;
+            byte[] content = element.profileContent;
+            if (content == null) {
+                content = element.spillingContent;
             }
+            if (content == null) {
+                File spillFile = element.spillFile;
+                if (spillFile == null) {
+                    return null;
+                }
+                content = Files.readAllBytes(spillFile.toPath());
+            }
+            return render(content);
+        } catch (TException | IOException e) {
+            LOG.warn("failed to render profile of query {}", queryID, e);
+            return null;
+        }
+    }
 
-            return element.profileContent;
-        } finally {
-            readLock.unlock();
+    private static long contentBytes(ProfileElement element) {
+        byte[] content = element.profileContent;
+        return content == null ? 0 : content.length;
+    }
+
+    private static byte[] compress(RuntimeProfile profile) throws TException, IOException {
+        byte[] serialized = new TSerializer(new TCompactProtocol.Factory()).serialize(profile.toThrift());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(serialized.length / 4);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes)) {
+            out.write(serialized);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String render(byte[] content) throws TException, IOException {
+        byte[] serialized;
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(content))) {
+            serialized = ByteStreams.toByteArray(in);
+        }
+        TRuntimeProfileTree tree = new TRuntimeProfileTree();
+        new TDeserializer(new TCompactProtocol.Factory()).deserialize(tree, serialized);
+        RuntimeProfile profile = new RuntimeProfile(tree.getNodes().get(0).getName());
+        profile.update(tree);
+        return profile.toString();
+    }
+
+    private void spill(ProfileElement element) {
+        byte[] content = element.spillingContent;
+        String queryId = element.infoStrings.get(QUERY_ID);
+        if (!Strings.isNullOrEmpty(Config.profile_spill_dir) && !Strings.isNullOrEmpty(queryId)) {
+            File spillFile = new File(Config.profile_spill_dir, queryId + SPILL_FILE_SUFFIX);
+            try {
+                Files.write(spillFile.toPath(), content);
+                element.spillFile = spillFile;
+            } catch (IOException e) {
+                LOG.warn("failed to spill profile of query {} to {}", queryId, spillFile, e);
+            }
+        }
+        element.spillingContent = null;
+        // the element may be removed from deque while spilling
+        if (!profileMap.containsKey(queryId)) {
+            deleteSpillFile(element);
+        }
+    }
+
+    private void deleteSpillFile(ProfileElement element) {
+        File spillFile = element.spillFile;
+        if (spillFile != null) {
+            element.spillFile = null;
+            if (!spillFile.delete()) {
+                LOG.warn("failed to delete spilled profile {}", spillFile);
+            }
+        }
+    }
+
+    // the spilled profiles of the previous process are useless
+    private void cleanSpillDir() {
+        if (Strings.isNullOrEmpty(Config.profile_spill_dir)) {
+            return;
+        }
+        File spillDir = new File(Config.profile_spill_dir);
+        if (!spillDir.exists() && !spillDir.mkdirs()) {
+            LOG.warn("failed to create profile spill dir {}", spillDir);
+            return;
+        }
+        File[] files = spillDir.listFiles((dir, name) -> name.endsWith(SPILL_FILE_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (!file.delete()) {
+                LOG.warn("failed to delete spilled profile {}", file);
+            }
         }
     }
 }
@@ -0,0 +1,127 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.common.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded lock-free multi-producer multi-consumer queue backed by preallocated slots.
+ * Every slot has a sequence telling whether it is ready to be written or read in the current lap,
+ * so producers and consumers only contend on the CAS of their own cursor.
+ * offer() never blocks, it fails when the buffer is full.
+ */
+public class RingBuffer<T> {
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    // next position to write
+    private final AtomicLong tail = new AtomicLong(0);
+    // next position to read
+    private final AtomicLong head = new AtomicLong(0);
+
+    /**
+     * @param capacity rounded up to the power of 2
+     */
+    public RingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0 && capacity <= (1 << 30), "invalid capacity " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    // approximate number of elements in the buffer
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return false if the buffer is full
+     */
+    public boolean offer(T element) {
+        Preconditions.checkNotNull(element);
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.set(index, element);
+                    // publish the slot to consumers
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // the slot is not consumed in the previous lap
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * @return null if the buffer is empty
+     */
+    public T poll() {
+        long pos = head.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    T element = slots.get(index);
+                    slots.set(index, null);
+                    // release the slot to producers of the next lap
+                    sequences.set(index, pos + mask + 1);
+                    return element;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                // the slot is not published yet
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    /**
+     * Move at most maxElements elements to the collection
+     *
+     * @return number of elements moved
+     */
+    public int drainTo(Collection<? super T> collection, int maxElements) {
+        int count = 0;
+        while (count < maxElements) {
+            T element = poll();
+            if (element == null) {
+                break;
+            }
+            collection.add(element);
+            count++;
+        }
+        return count;
+    }
+}
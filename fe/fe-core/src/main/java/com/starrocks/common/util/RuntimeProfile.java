@@ -193,6 +193,10 @@ public class RuntimeProfile {
             }
         }
 
+        if (node.isSetLocal_time_percent()) {
+            this.localTimePercent = node.local_time_percent;
+        }
+
         idx.setRef(idx.getRef() + 1);
 
         for (int i = 0; i < node.num_children; i++) {
@@ -209,6 +213,42 @@ public class RuntimeProfile {
         }
     }
 
+    // Flatten the profile tree by preorder traversal, which could be restored by update()
+    public TRuntimeProfileTree toThrift() {
+        TRuntimeProfileTree tree = new TRuntimeProfileTree(Lists.newArrayList());
+        toThrift(tree.nodes, true);
+        return tree;
+    }
+
+    private void toThrift(List<TRuntimeProfileNode> nodes, boolean indent) {
+        TRuntimeProfileNode node = new TRuntimeProfileNode();
+        node.setName(name == null ? "" : name);
+        node.setNum_children(childList.size());
+        node.setMetadata(-1);
+        node.setIndent(indent);
+
+        List<TCounter> counters = Lists.newArrayList();
+        counterMap.forEach((counterName, counter) ->
+                counters.add(new TCounter(counterName, counter.getType(), counter.getValue())));
+        node.setCounters(counters);
+        Map<String, Set<String>> childCounters = Maps.newHashMap();
+        childCounterMap.forEach((parentCounterName, childCounterNames) ->
+                childCounters.put(parentCounterName, Sets.newTreeSet(childCounterNames)));
+        node.setChild_counters_map(childCounters);
+
+        // null value is printed as "null" by prettyPrint, keep it unchanged after restored
+        Map<String, String> nodeInfoStrings = Maps.newHashMap();
+        infoStrings.forEach((key, value) -> nodeInfoStrings.put(key, String.valueOf(value)));
+        node.setInfo_strings(nodeInfoStrings);
+        node.setInfo_strings_display_order(Lists.newArrayList(infoStringsDisplayOrder));
+        node.setLocal_time_percent(localTimePercent);
+        nodes.add(node);
+
+        for (Pair<RuntimeProfile, Boolean> pair : childList) {
+            pair.first.toThrift(nodes, pair.second);
+        }
+    }
+
     // Print the profile:
     //  1. Profile Name
     //  2. Info Strings
@@ -28,8 +28,9 @@ import java.util.List;
  * 1. GET /
  * 2. GET {index}/_mapping
  * 3. GET {index}/_search_shards
+ * 4. GET {index}/_stats/docs?level=shards
  * <p>
- * note: step 1 is not necessary
+ * note: step 1 is not necessary, step 4 is only sent when sliced scroll is enabled
  */
 public class EsMetaStateTracker {
 
@@ -40,6 +41,9 @@ public class EsMetaStateTracker {
         builtinSearchPhase.add(new VersionPhase(client));
         builtinSearchPhase.add(new MappingPhase(client));
         builtinSearchPhase.add(new PartitionPhase(client));
+        if (esTable.docsPerSlice() > 0) {
+            builtinSearchPhase.add(new ShardStatsPhase(client));
+        }
         searchContext = new SearchContext(esTable);
     }
 
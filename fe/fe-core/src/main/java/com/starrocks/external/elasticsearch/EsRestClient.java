@@ -144,6 +144,22 @@ public class EsRestClient {
         return EsShardPartitions.findShardPartitions(indexName, searchShards);
     }
 
+    /**
+     * Get doc count of every primary shard
+     *
+     * @param indexName
+     * @return index name -> shard id -> doc count
+     * @throws StarRocksESException
+     */
+    public Map<String, Map<Integer, Long>> getShardDocCounts(String indexName) throws StarRocksESException {
+        String path = indexName + "/_stats/docs?level=shards";
+        String indexStats = execute(path);
+        if (indexStats == null) {
+            throw new StarRocksESException("request index [" + indexName + "] shard stats failure");
+        }
+        return EsShardPartitions.parseShardDocCounts(indexStats);
+    }
+
     /**
      * execute request for specific path, it will try again nodes.length times if it fails
      *
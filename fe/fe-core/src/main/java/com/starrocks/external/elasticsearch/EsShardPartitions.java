@@ -45,6 +45,8 @@ public class EsShardPartitions {
     private SingleRangePartitionDesc partitionDesc;
     private PartitionKey partitionKey;
     private long partitionId = -1;
+    // shardid -> doc count of the primary shard, only fetched when sliced scroll is enabled
+    private Map<Integer, Long> shardDocCounts = Maps.newHashMap();
 
     public EsShardPartitions(String indexName) {
         this.indexName = indexName;
@@ -98,6 +100,76 @@ public class EsShardPartitions {
         return partitions;
     }
 
+    /**
+     * Parse primary shard doc counts from the json
+     *
+     * @param indexStats the return value of _stats/docs?level=shards
+     * @return index name -> shard id -> doc count
+     */
+    public static Map<String, Map<Integer, Long>> parseShardDocCounts(String indexStats) {
+        Map<String, Map<Integer, Long>> docCounts = Maps.newHashMap();
+        JSONObject indices = new JSONObject(indexStats).optJSONObject("indices");
+        if (indices == null) {
+            return docCounts;
+        }
+        for (String index : indices.keySet()) {
+            JSONObject shards = indices.getJSONObject(index).optJSONObject("shards");
+            if (shards == null) {
+                continue;
+            }
+            Map<Integer, Long> indexDocCounts = Maps.newHashMap();
+            for (String shardId : shards.keySet()) {
+                JSONArray shardCopies = shards.getJSONArray(shardId);
+                for (int i = 0; i < shardCopies.length(); i++) {
+                    JSONObject shardCopy = shardCopies.getJSONObject(i);
+                    if (shardCopy.getJSONObject("routing").getBoolean("primary")) {
+                        indexDocCounts.put(Integer.parseInt(shardId),
+                                shardCopy.getJSONObject("docs").getLong("count"));
+                        break;
+                    }
+                }
+            }
+            docCounts.put(index, indexDocCounts);
+        }
+        return docCounts;
+    }
+
+    public void setShardDocCounts(Map<String, Map<Integer, Long>> docCounts) {
+        Map<Integer, Long> shardDocCounts = Maps.newHashMap();
+        for (Map.Entry<Integer, List<EsShardRouting>> entry : shardRoutings.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            EsShardRouting routing = entry.getValue().get(0);
+            Map<Integer, Long> indexDocCounts = docCounts.get(routing.getIndexName());
+            if (indexDocCounts != null && indexDocCounts.containsKey(routing.getShardId())) {
+                shardDocCounts.put(entry.getKey(), indexDocCounts.get(routing.getShardId()));
+            }
+        }
+        this.shardDocCounts = shardDocCounts;
+    }
+
+    public long getShardDocCount(int shardId) {
+        return shardDocCounts.getOrDefault(shardId, -1L);
+    }
+
+    /**
+     * The number of slices used to scroll the shard in parallel
+     *
+     * @param shardId      the key of `shardRoutings`
+     * @param docsPerSlice expected docs scanned by one slice, sliced scroll is disabled if it is not positive
+     * @param maxSlices    upper bound of the slices, usually decided by the available BE cores
+     * @return 1 if the shard should not be sliced
+     */
+    public int getSliceNum(int shardId, long docsPerSlice, int maxSlices) {
+        long docCount = getShardDocCount(shardId);
+        if (docsPerSlice <= 0 || docCount <= docsPerSlice || maxSlices <= 1) {
+            return 1;
+        }
+        long sliceNum = (docCount + docsPerSlice - 1) / docsPerSlice;
+        return (int) Math.min(sliceNum, maxSlices);
+    }
+
     public void addHttpAddress(Map<String, EsNodeInfo> nodesInfo) {
         for (Map.Entry<Integer, List<EsShardRouting>> entry : shardRoutings.entrySet()) {
             List<EsShardRouting> shardRoutings = entry.getValue();
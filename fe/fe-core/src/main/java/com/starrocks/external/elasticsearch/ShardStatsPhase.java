@@ -0,0 +1,41 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.external.elasticsearch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Fetch the doc count of every primary shard from remote ES Cluster, which is used to decide
+ * how many slices a shard is scrolled with
+ */
+public class ShardStatsPhase implements SearchPhase {
+
+    private static final Logger LOG = LogManager.getLogger(ShardStatsPhase.class);
+
+    private EsRestClient client;
+    private Map<String, Map<Integer, Long>> shardDocCounts;
+
+    public ShardStatsPhase(EsRestClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public void execute(SearchContext context) throws StarRocksESException {
+        try {
+            shardDocCounts = client.getShardDocCounts(context.sourceIndex());
+        } catch (StarRocksESException e) {
+            // shard stats is only an optimization hint, fall back to scroll every shard with one slice
+            LOG.warn("fetch index [{}] shard stats failure, sliced scroll is disabled", context.sourceIndex(), e);
+            shardDocCounts = Collections.emptyMap();
+        }
+    }
+
+    @Override
+    public void postProcess(SearchContext context) throws StarRocksESException {
+        context.partitions().setShardDocCounts(shardDocCounts);
+    }
+}
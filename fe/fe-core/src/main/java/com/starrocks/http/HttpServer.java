@@ -37,6 +37,7 @@ import com.starrocks.http.common.StarRocksHttpPostObjectAggregator;
 import com.starrocks.http.meta.ColocateMetaService;
 import com.starrocks.http.meta.GlobalDictMetaService;
 import com.starrocks.http.meta.MetaService.CheckAction;
+import com.starrocks.http.meta.MetaService.CheckpointAction;
 import com.starrocks.http.meta.MetaService.DumpAction;
 import com.starrocks.http.meta.MetaService.ImageAction;
 import com.starrocks.http.meta.MetaService.InfoAction;
@@ -169,6 +170,7 @@ public class HttpServer {
         PutAction.registerAction(controller, imageDir);
         JournalIdAction.registerAction(controller, imageDir);
         CheckAction.registerAction(controller, imageDir);
+        CheckpointAction.registerAction(controller, imageDir);
         DumpAction.registerAction(controller, imageDir);
         RoleAction.registerAction(controller, imageDir);
 
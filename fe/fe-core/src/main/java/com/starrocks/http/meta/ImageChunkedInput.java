@@ -0,0 +1,90 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.http.meta;
+
+import com.starrocks.master.MetaHelper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedInput;
+import org.xerial.snappy.Snappy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.zip.CRC32;
+
+/**
+ * Streams an image file from the given offset as snappy compressed frames, see MetaHelper for the format.
+ * Only one chunk is compressed at a time, so the whole image is never held in memory.
+ */
+public class ImageChunkedInput implements ChunkedInput<ByteBuf> {
+    private final RandomAccessFile file;
+    private final long startOffset;
+    private final long endOffset;
+    private final int chunkSize;
+    private long offset;
+    private boolean endOfInput = false;
+
+    public ImageChunkedInput(File file, long offset, int chunkSize) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        this.startOffset = offset;
+        this.endOffset = this.file.length();
+        this.chunkSize = chunkSize;
+        this.offset = offset;
+        this.file.seek(offset);
+    }
+
+    @Override
+    public boolean isEndOfInput() {
+        return endOfInput;
+    }
+
+    @Override
+    public void close() throws Exception {
+        file.close();
+    }
+
+    @Deprecated
+    @Override
+    public ByteBuf readChunk(ChannelHandlerContext ctx) throws Exception {
+        return readChunk(ctx.alloc());
+    }
+
+    @Override
+    public ByteBuf readChunk(ByteBufAllocator allocator) throws Exception {
+        if (endOfInput) {
+            return null;
+        }
+        if (offset >= endOffset) {
+            // an empty frame marks the end of the image
+            endOfInput = true;
+            ByteBuf buf = allocator.buffer(MetaHelper.FRAME_HEADER_BYTES);
+            buf.writeInt(0).writeInt(0).writeLong(0L);
+            return buf;
+        }
+
+        byte[] raw = new byte[(int) Math.min(chunkSize, endOffset - offset)];
+        file.readFully(raw);
+        byte[] compressed = Snappy.compress(raw);
+        CRC32 crc32 = new CRC32();
+        crc32.update(raw, 0, raw.length);
+
+        ByteBuf buf = allocator.buffer(MetaHelper.FRAME_HEADER_BYTES + compressed.length);
+        buf.writeInt(raw.length).writeInt(compressed.length).writeLong(crc32.getValue());
+        buf.writeBytes(compressed);
+        offset += raw.length;
+        return buf;
+    }
+
+    @Override
+    public long length() {
+        // the compressed length is unknown until the end
+        return -1;
+    }
+
+    @Override
+    public long progress() {
+        return offset - startOffset;
+    }
+}
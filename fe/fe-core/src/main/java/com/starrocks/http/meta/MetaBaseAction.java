@@ -28,11 +28,21 @@ import com.starrocks.http.action.WebBaseAction;
 import com.starrocks.master.MetaHelper;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.system.Frontend;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpChunkedInput;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
+import java.io.IOException;
 
 public class MetaBaseAction extends WebBaseAction {
     private static final Logger LOG = LogManager.getLogger(MetaBaseAction.class);
@@ -91,6 +101,46 @@ public class MetaBaseAction extends WebBaseAction {
         return;
     }
 
+    // Send the image from offset in compressed frames, see MetaHelper for the format.
+    protected void writeCompressedImageResponse(BaseRequest request, BaseResponse response, File file, long offset) {
+        HttpResponse responseObj = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        HttpUtil.setTransferEncodingChunked(responseObj, true);
+        boolean keepAlive = HttpUtil.isKeepAlive(request.getRequest());
+        if (keepAlive) {
+            response.updateHeader(HttpHeaderNames.CONNECTION.toString(), HttpHeaderValues.KEEP_ALIVE.toString());
+        }
+        response.updateHeader(HttpHeaderNames.CONTENT_TYPE.toString(),
+                HttpHeaderValues.APPLICATION_OCTET_STREAM.toString());
+        response.updateHeader(CONTENT_DISPOSITION, "attachment; filename=" + file.getName());
+        response.updateHeader(MetaHelper.X_IMAGE_SIZE, String.valueOf(file.length()));
+        response.updateHeader(MetaHelper.X_IMAGE_COMPRESS, MetaHelper.COMPRESS_SNAPPY);
+        response.updateHeader(MetaHelper.X_IMAGE_OFFSET, String.valueOf(offset));
+        response.updateHeader(MetaHelper.X_IMAGE_TAG, MetaHelper.getImageTag(file));
+
+        ImageChunkedInput input;
+        try {
+            input = new ImageChunkedInput(file, offset, MetaHelper.IMAGE_CHUNK_BYTES);
+        } catch (IOException e) {
+            LOG.warn("failed to open image file {}", file, e);
+            writeResponse(request, response, HttpResponseStatus.INTERNAL_SERVER_ERROR);
+            return;
+        }
+        writeCookies(response, responseObj);
+        writeCustomHeaders(response, responseObj);
+
+        request.getContext().write(responseObj);
+        // HttpChunkedInput writes the end marker (LastHttpContent) for us.
+        ChannelFuture future = request.getContext().writeAndFlush(new HttpChunkedInput(input));
+        future.addListener((ChannelFutureListener) f -> {
+            if (!f.isSuccess()) {
+                LOG.warn("failed to send image file {}", file, f.cause());
+            }
+        });
+        if (!keepAlive) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
     private boolean isFromValidFe(BaseRequest request) {
         String clientHost = request.getHostString();
         Frontend fe = GlobalStateMgr.getCurrentState().getFeByHost(clientHost);
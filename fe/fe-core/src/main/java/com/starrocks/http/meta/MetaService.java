@@ -43,7 +43,6 @@ import org.apache.logging.log4j.Logger;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.OutputStream;
 
 public class MetaService {
     private static final int TIMEOUT_SECOND = 10;
@@ -81,7 +80,23 @@ public class MetaService {
                 return;
             }
 
-            writeFileResponse(request, response, imageFile);
+            // FEs of older versions download the raw file
+            if (!MetaHelper.COMPRESS_SNAPPY.equals(request.getSingleParameter(MetaHelper.COMPRESS))) {
+                writeFileResponse(request, response, imageFile);
+                return;
+            }
+
+            // resume from the offset only if the part on the client is of the same image file
+            long offset = 0;
+            String offsetStr = request.getSingleParameter(MetaHelper.OFFSET);
+            String tag = request.getSingleParameter(MetaHelper.TAG);
+            if (!Strings.isNullOrEmpty(offsetStr) && MetaHelper.getImageTag(imageFile).equals(tag)) {
+                offset = checkLongParam(offsetStr);
+                if (offset < 0 || offset > imageFile.length()) {
+                    offset = 0;
+                }
+            }
+            writeCompressedImageResponse(request, response, imageFile, offset);
         }
     }
 
@@ -201,9 +216,7 @@ public class MetaService {
 
             File dir = new File(GlobalStateMgr.getCurrentState().getImageDir());
             try {
-                OutputStream out = MetaHelper.getOutputStream(filename, dir);
-                MetaHelper.getRemoteFile(url, TIMEOUT_SECOND * 1000, out);
-                MetaHelper.complete(filename, dir);
+                MetaHelper.downloadImage(url, TIMEOUT_SECOND * 1000, filename, dir);
                 writeResponse(request, response);
             } catch (FileNotFoundException e) {
                 LOG.warn("file not found. file: {}", filename, e);
@@ -227,6 +240,69 @@ public class MetaService {
         }
     }
 
+    /*
+     * Sent by the master to a follower or observer when Config.checkpoint_on_non_master is set.
+     * The node saves an image of its replayed catalog whose journal id is at least the given version,
+     * and returns the actual journal id of the image in the header, so that the master can fetch it
+     * with /image.
+     */
+    public static class CheckpointAction extends MetaBaseAction {
+        private static final Logger LOG = LogManager.getLogger(CheckpointAction.class);
+
+        private static final String VERSION = "version";
+
+        public CheckpointAction(ActionController controller, File imageDir) {
+            super(controller, imageDir);
+        }
+
+        public static void registerAction(ActionController controller, File imageDir)
+                throws IllegalArgException {
+            controller.registerHandler(HttpMethod.GET, "/checkpoint", new CheckpointAction(controller, imageDir));
+        }
+
+        @Override
+        public void executeGet(BaseRequest request, BaseResponse response) {
+            String versionStr = request.getSingleParameter(VERSION);
+            if (Strings.isNullOrEmpty(versionStr)) {
+                response.appendContent("Miss version parameter");
+                writeResponse(request, response, HttpResponseStatus.BAD_REQUEST);
+                return;
+            }
+            long version = checkLongParam(versionStr);
+            if (version < 0) {
+                writeResponse(request, response, HttpResponseStatus.BAD_REQUEST);
+                return;
+            }
+
+            GlobalStateMgr globalStateMgr = GlobalStateMgr.getCurrentState();
+            if (globalStateMgr.isMaster()) {
+                response.appendContent("this node is master, reject checkpoint");
+                writeResponse(request, response, HttpResponseStatus.BAD_REQUEST);
+                return;
+            }
+
+            long imageVersion;
+            try {
+                imageVersion = globalStateMgr.saveImageOnNonMaster(version);
+            } catch (Exception e) {
+                LOG.warn("failed to save image for version {}", version, e);
+                response.appendContent("failed to save image: " + e.getMessage());
+                writeResponse(request, response, HttpResponseStatus.INTERNAL_SERVER_ERROR);
+                return;
+            }
+
+            MetaCleaner cleaner = new MetaCleaner(Config.meta_dir + "/image");
+            try {
+                cleaner.clean();
+            } catch (IOException e) {
+                LOG.error("Follower/Observer delete old image file fail.", e);
+            }
+
+            response.updateHeader(VERSION, Long.toString(imageVersion));
+            writeResponse(request, response);
+        }
+    }
+
     public static class JournalIdAction extends MetaBaseAction {
         public JournalIdAction(ActionController controller, File imageDir) {
             super(controller, imageDir);
@@ -60,6 +60,7 @@ import com.starrocks.persist.BackendIdsUpdateInfo;
 import com.starrocks.persist.BackendTabletsInfo;
 import com.starrocks.persist.BatchDropInfo;
 import com.starrocks.persist.BatchModifyPartitionsInfo;
+import com.starrocks.persist.ChangeMaterializedViewRefreshSchemeLog;
 import com.starrocks.persist.ClusterInfo;
 import com.starrocks.persist.ColocatePersistInfo;
 import com.starrocks.persist.ConsistencyCheckInfo;
@@ -521,6 +522,10 @@ public class JournalEntity implements Writable {
                 data = DropTasksLog.read(in);
                 isRead = true;
                 break;
+            case OperationType.OP_CHANGE_MATERIALIZED_VIEW_REFRESH_SCHEME:
+                data = ChangeMaterializedViewRefreshSchemeLog.read(in);
+                isRead = true;
+                break;
             case OperationType.OP_CREATE_TASK_RUN:
                 data = TaskRunStatus.read(in);
                 isRead = true;
@@ -25,7 +25,6 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Range;
 import com.google.common.collect.Sets;
 import com.google.gson.annotations.SerializedName;
 import com.starrocks.analysis.BinaryPredicate;
@@ -48,7 +47,6 @@ import com.starrocks.catalog.MaterializedIndexMeta;
 import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Partition;
 import com.starrocks.catalog.PartitionInfo;
-import com.starrocks.catalog.PartitionKey;
 import com.starrocks.catalog.PartitionType;
 import com.starrocks.catalog.PrimitiveType;
 import com.starrocks.catalog.RangePartitionInfo;
@@ -399,11 +397,10 @@ public class DeleteHandler implements Writable {
         RangePartitionInfo rangePartitionInfo = (RangePartitionInfo) partitionInfo;
         Map<String, PartitionColumnFilter> columnFilters = extractColumnFilter(stmt, olapTable,
                 rangePartitionInfo.getPartitionColumns());
-        Map<Long, Range<PartitionKey>> keyRangeById = rangePartitionInfo.getIdToRange(false);
         if (columnFilters.isEmpty()) {
             partitionNames.addAll(olapTable.getPartitionNames());
         } else {
-            RangePartitionPruner pruner = new RangePartitionPruner(keyRangeById,
+            RangePartitionPruner pruner = new RangePartitionPruner(rangePartitionInfo.getRangeIndex(),
                     rangePartitionInfo.getPartitionColumns(), columnFilters);
             Collection<Long> selectedPartitionIds = pruner.prune();
 
@@ -0,0 +1,167 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.load.routineload;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.starrocks.common.DdlException;
+import com.starrocks.common.UserException;
+import com.starrocks.common.util.KafkaUtil;
+import com.starrocks.proto.PKafkaOffsetProxyRequest;
+import com.starrocks.proto.PKafkaOffsetProxyResult;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lag and consuming rate of the partitions of a kafka routine load job.
+ *
+ * The latest offsets of all the jobs are got by one batch request, see refresh(). The lag of a partition is
+ * the latest offset minus the offset to consume next, and the consuming rate is the moving average of the
+ * offsets consumed per second between two refreshes. They are only kept in memory, and used to schedule the
+ * tasks and to report the lag metrics.
+ */
+public class KafkaLagTracker {
+    private static final Logger LOG = LogManager.getLogger(KafkaLagTracker.class);
+
+    // weight of the newest sample in the moving average of the consuming rate
+    private static final double RATE_SMOOTHING = 0.3;
+    // lower bound of the consuming rate, a partition that has not been consumed yet is still comparable
+    private static final double MIN_RATE = 1.0;
+
+    private Map<Integer, Long> latestOffsets = ImmutableMap.of();
+    // the offsets to consume next at the last update
+    private Map<Integer, Long> consumedOffsets = ImmutableMap.of();
+    private final Map<Integer, Double> rates = Maps.newHashMap();
+    private long updateTimeMs = -1L;
+
+    /**
+     * Gets the latest offsets of the partitions of all the jobs in one request, and updates the tracker of
+     * each job with them.
+     */
+    public static void refresh(List<KafkaRoutineLoadJob> jobs) throws UserException {
+        List<KafkaRoutineLoadJob> requestedJobs = new ArrayList<>();
+        List<PKafkaOffsetProxyRequest> requests = new ArrayList<>();
+        for (KafkaRoutineLoadJob job : jobs) {
+            KafkaProgress progress = (KafkaProgress) job.getProgress();
+            if (!progress.hasPartition()) {
+                continue;
+            }
+            try {
+                job.convertCustomProperties(false);
+            } catch (DdlException e) {
+                LOG.warn("convert custom properties of routine load job {} failed", job.getName(), e);
+                continue;
+            }
+            PKafkaOffsetProxyRequest request = new PKafkaOffsetProxyRequest();
+            request.kafkaInfo = KafkaUtil.genPKafkaLoadInfo(job.getBrokerList(), job.getTopic(),
+                    ImmutableMap.copyOf(job.getConvertedCustomProperties()));
+            request.partitionIds = new ArrayList<>(progress.getPartitionIdToOffset().keySet());
+            requests.add(request);
+            requestedJobs.add(job);
+        }
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        List<PKafkaOffsetProxyResult> results = KafkaUtil.getBatchOffsets(requests);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < requestedJobs.size(); i++) {
+            KafkaRoutineLoadJob job = requestedJobs.get(i);
+            PKafkaOffsetProxyResult result = results.get(i);
+            Map<Integer, Long> progress = ((KafkaProgress) job.getProgress()).getPartitionIdToOffset();
+
+            Map<Integer, Long> latestOffsets = Maps.newHashMap();
+            Map<Integer, Long> consumedOffsets = Maps.newHashMap();
+            for (int j = 0; j < result.partitionIds.size(); j++) {
+                int partitionId = result.partitionIds.get(j);
+                Long offset = progress.get(partitionId);
+                if (offset == null) {
+                    continue;
+                }
+                if (offset == KafkaProgress.OFFSET_BEGINNING_VAL) {
+                    offset = result.beginningOffsets.get(j);
+                } else if (offset == KafkaProgress.OFFSET_END_VAL) {
+                    offset = result.latestOffsets.get(j);
+                }
+                latestOffsets.put(partitionId, result.latestOffsets.get(j));
+                consumedOffsets.put(partitionId, offset);
+            }
+            job.getLagTracker().update(latestOffsets, consumedOffsets, now);
+        }
+    }
+
+    public synchronized void update(Map<Integer, Long> latestOffsets, Map<Integer, Long> consumedOffsets,
+                                    long nowMs) {
+        if (updateTimeMs > 0 && nowMs > updateTimeMs) {
+            double seconds = (nowMs - updateTimeMs) / 1000.0;
+            for (Map.Entry<Integer, Long> entry : consumedOffsets.entrySet()) {
+                Long lastOffset = this.consumedOffsets.get(entry.getKey());
+                if (lastOffset == null || entry.getValue() < lastOffset) {
+                    continue;
+                }
+                double sample = (entry.getValue() - lastOffset) / seconds;
+                Double rate = rates.get(entry.getKey());
+                rates.put(entry.getKey(),
+                        rate == null ? sample : RATE_SMOOTHING * sample + (1 - RATE_SMOOTHING) * rate);
+            }
+        }
+        rates.keySet().retainAll(consumedOffsets.keySet());
+        this.latestOffsets = ImmutableMap.copyOf(latestOffsets);
+        this.consumedOffsets = ImmutableMap.copyOf(consumedOffsets);
+        this.updateTimeMs = nowMs;
+    }
+
+    /**
+     * Returns the latest offsets if they were got within expireMs, otherwise null.
+     */
+    public synchronized Map<Integer, Long> getLatestOffsets(long expireMs) {
+        if (updateTimeMs < 0 || System.currentTimeMillis() - updateTimeMs > expireMs) {
+            return null;
+        }
+        return latestOffsets;
+    }
+
+    /**
+     * Returns the lag of each partition with a known latest offset, given the offsets to consume next.
+     */
+    public synchronized Map<Integer, Long> getLags(Map<Integer, Long> offsets) {
+        Map<Integer, Long> lags = Maps.newHashMap();
+        for (Map.Entry<Integer, Long> entry : offsets.entrySet()) {
+            Long latestOffset = latestOffsets.get(entry.getKey());
+            long offset = entry.getValue();
+            if (latestOffset == null) {
+                continue;
+            }
+            if (offset == KafkaProgress.OFFSET_BEGINNING_VAL || offset == KafkaProgress.OFFSET_END_VAL) {
+                // not consumed yet, use the offset resolved at the last refresh
+                Long consumedOffset = consumedOffsets.get(entry.getKey());
+                if (consumedOffset == null) {
+                    continue;
+                }
+                offset = consumedOffset;
+            }
+            lags.put(entry.getKey(), Math.max(0L, latestOffset - offset));
+        }
+        return lags;
+    }
+
+    /**
+     * Returns the seconds the slowest of the partitions needs to consume its lag at its consuming rate,
+     * or 0 if the lag and the rate of none of them are known yet, which takes two refreshes.
+     */
+    public synchronized double getCatchUpSeconds(Map<Integer, Long> offsets) {
+        double seconds = 0;
+        for (Map.Entry<Integer, Long> entry : getLags(offsets).entrySet()) {
+            Double rate = rates.get(entry.getKey());
+            if (rate == null) {
+                continue;
+            }
+            seconds = Math.max(seconds, entry.getValue() / Math.max(rate, MIN_RATE));
+        }
+        return seconds;
+    }
+}
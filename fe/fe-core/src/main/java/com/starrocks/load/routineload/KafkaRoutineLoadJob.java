@@ -86,6 +86,8 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
     // kafka properties, property prefix will be mapped to kafka custom parameters, which can be extended in the future
     private Map<String, String> customProperties = Maps.newHashMap();
     private Map<String, String> convertedCustomProperties = Maps.newHashMap();
+    // not persisted, only used by the master to schedule the tasks
+    private final KafkaLagTracker lagTracker = new KafkaLagTracker();
 
     public KafkaRoutineLoadJob() {
         // for serialization, id is dummy
@@ -112,6 +114,10 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
         return convertedCustomProperties;
     }
 
+    public KafkaLagTracker getLagTracker() {
+        return lagTracker;
+    }
+
     @Override
     public void prepare() throws UserException {
         super.prepare();
@@ -163,14 +169,12 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
         try {
             if (state == JobState.NEED_SCHEDULE) {
                 // divide kafkaPartitions into tasks
+                List<List<Integer>> taskPartitions = dividePartitions(currentConcurrentTaskNum);
                 for (int i = 0; i < currentConcurrentTaskNum; i++) {
                     Map<Integer, Long> taskKafkaProgress = Maps.newHashMap();
-                    for (int j = 0; j < currentKafkaPartitions.size(); j++) {
-                        if (j % currentConcurrentTaskNum == i) {
-                            int kafkaPartition = currentKafkaPartitions.get(j);
-                            taskKafkaProgress.put(kafkaPartition,
-                                    ((KafkaProgress) progress).getOffsetByPartition(kafkaPartition));
-                        }
+                    for (int kafkaPartition : taskPartitions.get(i)) {
+                        taskKafkaProgress.put(kafkaPartition,
+                                ((KafkaProgress) progress).getOffsetByPartition(kafkaPartition));
                     }
                     long timeToExecuteMs = System.currentTimeMillis() + taskSchedIntervalS * 1000;
                     KafkaTaskInfo kafkaTaskInfo = new KafkaTaskInfo(UUID.randomUUID(), id, clusterName,
@@ -193,6 +197,38 @@ public class KafkaRoutineLoadJob extends RoutineLoadJob {
         }
     }
 
+    // Balance the lag of the partitions across the tasks: the partitions are assigned in descending order of
+    // lag, each to the task with the least total lag. The partitions are dealt in turn if no lag is known.
+    private List<List<Integer>> dividePartitions(int taskNum) {
+        List<List<Integer>> taskPartitions = Lists.newArrayList();
+        for (int i = 0; i < taskNum; i++) {
+            taskPartitions.add(Lists.newArrayList());
+        }
+        Map<Integer, Long> lags = lagTracker.getLags(((KafkaProgress) progress).getPartitionIdToOffset());
+        List<Integer> partitions = Lists.newArrayList(currentKafkaPartitions);
+        if (lags.isEmpty()) {
+            for (int j = 0; j < partitions.size(); j++) {
+                taskPartitions.get(j % taskNum).add(partitions.get(j));
+            }
+            return taskPartitions;
+        }
+
+        partitions.sort((p1, p2) -> Long.compare(lags.getOrDefault(p2, 0L), lags.getOrDefault(p1, 0L)));
+        long[] taskLags = new long[taskNum];
+        for (int partition : partitions) {
+            int target = 0;
+            for (int i = 1; i < taskNum; i++) {
+                if (taskLags[i] < taskLags[target] || (taskLags[i] == taskLags[target]
+                        && taskPartitions.get(i).size() < taskPartitions.get(target).size())) {
+                    target = i;
+                }
+            }
+            taskPartitions.get(target).add(partition);
+            taskLags[target] += lags.getOrDefault(partition, 0L);
+        }
+        return taskPartitions;
+    }
+
     @Override
     public int calculateCurrentConcurrentTaskNum() throws MetaNotFoundException {
         SystemInfoService systemInfoService = GlobalStateMgr.getCurrentSystemInfo();
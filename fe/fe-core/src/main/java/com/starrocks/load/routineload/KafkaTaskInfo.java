@@ -59,6 +59,9 @@ public class KafkaTaskInfo extends RoutineLoadTaskInfo {
     // offset is the latest existing message offset + 1
     private Map<Integer, Long> latestPartOffset;
 
+    // the time to consume data on BE, see adjustConsumeTime()
+    private long consumeSecond = Config.routine_load_task_consume_second;
+
     public KafkaTaskInfo(UUID id, long jobId, String clusterName, long taskScheduleIntervalMs, long timeToExecuteMs,
                          Map<Integer, Long> partitionIdToOffset) {
         super(id, jobId, clusterName, taskScheduleIntervalMs, timeToExecuteMs);
@@ -83,6 +86,21 @@ public class KafkaTaskInfo extends RoutineLoadTaskInfo {
         }
 
         KafkaRoutineLoadJob kafkaRoutineLoadJob = (KafkaRoutineLoadJob) routineLoadJob;
+        // the latest offsets refreshed by the task scheduler are enough to know that there is new data,
+        // but not that there is none, as they may be older than the progress
+        Map<Integer, Long> cachedOffsets = kafkaRoutineLoadJob.getLagTracker().getLatestOffsets(
+                RoutineLoadTaskScheduler.KAFKA_OFFSETS_EXPIRE_MS);
+        if (cachedOffsets != null) {
+            for (Map.Entry<Integer, Long> entry : partitionIdToOffset.entrySet()) {
+                Long latestOffset = cachedOffsets.get(entry.getKey());
+                if (latestOffset != null && entry.getValue() >= 0 && latestOffset > entry.getValue()) {
+                    this.latestPartOffset = cachedOffsets;
+                    adjustConsumeTime(kafkaRoutineLoadJob);
+                    return true;
+                }
+            }
+        }
+
         Map<Integer, Long> latestOffsets = KafkaUtil.getLatestOffsets(kafkaRoutineLoadJob.getBrokerList(),
                 kafkaRoutineLoadJob.getTopic(),
                 ImmutableMap.copyOf(kafkaRoutineLoadJob.getConvertedCustomProperties()),
@@ -94,6 +112,7 @@ public class KafkaTaskInfo extends RoutineLoadTaskInfo {
             if (latestOffset != null) {
                 if (latestOffset > consumeOffset) {
                     this.latestPartOffset = latestOffsets;
+                    adjustConsumeTime(kafkaRoutineLoadJob);
                     return true;
                 } else if (latestOffset < consumeOffset) {
                     throw new RoutineLoadPauseException(
@@ -105,6 +124,27 @@ public class KafkaTaskInfo extends RoutineLoadTaskInfo {
         return false;
     }
 
+    @Override
+    public double getCatchUpSeconds() {
+        RoutineLoadJob routineLoadJob = routineLoadManager.getJob(jobId);
+        if (!(routineLoadJob instanceof KafkaRoutineLoadJob)) {
+            return 0;
+        }
+        return ((KafkaRoutineLoadJob) routineLoadJob).getLagTracker().getCatchUpSeconds(partitionIdToOffset);
+    }
+
+    // A task far behind consumes longer than routine_load_task_consume_second, up to
+    // routine_load_task_max_consume_second, so that it catches up with fewer transactions.
+    // The timeout is scaled with it. This must be done before the txn begins, which takes the timeout.
+    private void adjustConsumeTime(KafkaRoutineLoadJob job) {
+        long consumeSecond = Config.routine_load_task_consume_second;
+        long maxConsumeSecond = Math.max(consumeSecond, Config.routine_load_task_max_consume_second);
+        double catchUpSeconds = job.getLagTracker().getCatchUpSeconds(partitionIdToOffset);
+        this.consumeSecond = Math.max(consumeSecond, Math.min((long) catchUpSeconds, maxConsumeSecond));
+        this.timeoutMs = 1000 * Config.routine_load_task_timeout_second * this.consumeSecond
+                / Math.max(consumeSecond, 1);
+    }
+
     @Override
     public boolean isProgressKeepUp(RoutineLoadProgress progress) {
         KafkaProgress kProgress = (KafkaProgress) progress;
@@ -156,7 +196,7 @@ public class KafkaTaskInfo extends RoutineLoadTaskInfo {
         tRoutineLoadTask.setKafka_load_info(tKafkaLoadInfo);
         tRoutineLoadTask.setType(TLoadSourceType.KAFKA);
         tRoutineLoadTask.setParams(plan(routineLoadJob));
-        tRoutineLoadTask.setMax_interval_s(Config.routine_load_task_consume_second);
+        tRoutineLoadTask.setMax_interval_s(consumeSecond);
         tRoutineLoadTask.setMax_batch_rows(routineLoadJob.getMaxBatchRows());
         tRoutineLoadTask.setMax_batch_size(Config.max_routine_load_batch_size);
         if (!routineLoadJob.getFormat().isEmpty() && routineLoadJob.getFormat().equalsIgnoreCase("json")) {
@@ -84,6 +84,10 @@ public abstract class RoutineLoadTaskInfo {
     // record task schedule info
     protected String msg;
 
+    // the priority in the queue of RoutineLoadTaskScheduler, set when the task is put into the queue
+    private double schedulePriority = 0;
+    private long enqueueSeq = 0;
+
     public RoutineLoadTaskInfo(UUID id, long jobId, String clusterName, long taskScheduleIntervalMs,
                                long timeToExecuteMs) {
         this.id = id;
@@ -149,6 +153,27 @@ public abstract class RoutineLoadTaskInfo {
         return taskScheduleIntervalMs;
     }
 
+    /**
+     * Returns the estimated seconds the task needs to consume the data already in the source, tasks far
+     * behind are scheduled first. 0 if unknown.
+     */
+    public double getCatchUpSeconds() {
+        return 0;
+    }
+
+    public double getSchedulePriority() {
+        return schedulePriority;
+    }
+
+    public long getEnqueueSeq() {
+        return enqueueSeq;
+    }
+
+    public void setSchedulePriority(double schedulePriority, long enqueueSeq) {
+        this.schedulePriority = schedulePriority;
+        this.enqueueSeq = enqueueSeq;
+    }
+
     public long getTimeoutMs() {
         return timeoutMs;
     }
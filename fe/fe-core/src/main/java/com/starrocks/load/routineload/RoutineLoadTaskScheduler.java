@@ -23,7 +23,7 @@ package com.starrocks.load.routineload;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
 import com.starrocks.common.ClientPool;
 import com.starrocks.common.Config;
 import com.starrocks.common.InternalErrorCode;
@@ -45,20 +45,26 @@ import com.starrocks.thrift.TStatusCode;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 /**
  * Routine load task scheduler is a function which allocate task to be.
  * Step1: update backend slot if interval more than BACKEND_SLOT_UPDATE_INTERVAL_MS
- * Step2: submit beIdToBatchTask when queue is empty
+ * Step2: refresh the latest offsets of all kafka jobs if interval more than KAFKA_OFFSETS_REFRESH_INTERVAL_MS
  * Step3: take a task from queue and schedule this task
  * <p>
- * The scheduler will be blocked in step3 till the queue receive a new task
+ * The scheduler will be blocked in step3 till the queue receive a new task, or the offsets need refreshing.
+ * The task which needs the longest time to catch up with its kafka partitions is taken first,
+ * see RoutineLoadTaskInfo.getCatchUpSeconds(), tasks with the same priority are taken in FIFO order.
  */
 public class RoutineLoadTaskScheduler extends MasterDaemon {
 
@@ -66,13 +72,23 @@ public class RoutineLoadTaskScheduler extends MasterDaemon {
 
     private static final long BACKEND_SLOT_UPDATE_INTERVAL_MS = 10000; // 10s
     private static final long SLOT_FULL_SLEEP_MS = 10000; // 10s
+    private static final long KAFKA_OFFSETS_REFRESH_INTERVAL_MS = 5000; // 5s
+    // the cached latest offsets older than this are not used to check if a task is ready to execute
+    public static final long KAFKA_OFFSETS_EXPIRE_MS = 2 * KAFKA_OFFSETS_REFRESH_INTERVAL_MS;
+
+    private static final Comparator<RoutineLoadTaskInfo> TASK_PRIORITY_COMPARATOR =
+            Comparator.comparingDouble(RoutineLoadTaskInfo::getSchedulePriority).reversed()
+                    .thenComparingLong(RoutineLoadTaskInfo::getEnqueueSeq);
 
     private final RoutineLoadManager routineLoadManager;
-    private final LinkedBlockingQueue<RoutineLoadTaskInfo> needScheduleTasksQueue = Queues.newLinkedBlockingQueue();
+    private final AtomicLong enqueueSeq = new AtomicLong(0);
+    private final BlockingQueue<RoutineLoadTaskInfo> needScheduleTasksQueue =
+            new PriorityBlockingQueue<>(16, TASK_PRIORITY_COMPARATOR);
     private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
     private final ExecutorService threadPool = Executors.newFixedThreadPool(10);
 
     private long lastBackendSlotUpdateTime = -1;
+    private long lastKafkaOffsetsRefreshTime = -1;
 
     @VisibleForTesting
     public RoutineLoadTaskScheduler() {
@@ -107,9 +123,15 @@ public class RoutineLoadTaskScheduler extends MasterDaemon {
             return;
         }
 
+        refreshKafkaOffsetsIfNecessary();
+
         try {
             // This step will be blocked when queue is empty
-            RoutineLoadTaskInfo routineLoadTaskInfo = needScheduleTasksQueue.take();
+            RoutineLoadTaskInfo routineLoadTaskInfo =
+                    needScheduleTasksQueue.poll(KAFKA_OFFSETS_REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            if (routineLoadTaskInfo == null) {
+                return;
+            }
 
             if (routineLoadTaskInfo.getTimeToExecuteMs() > System.currentTimeMillis()) {
                 // delay adding to queue to avoid endless loop
@@ -138,7 +160,7 @@ public class RoutineLoadTaskScheduler extends MasterDaemon {
         }
         scheduledExecutorService.schedule(() -> {
             try {
-                needScheduleTasksQueue.put(routineLoadTaskInfo);
+                needScheduleTasksQueue.put(prioritize(routineLoadTaskInfo));
             } catch (InterruptedException exception) {
                 LOG.warn("put task to queue failed", exception);
             }
@@ -291,13 +313,48 @@ public class RoutineLoadTaskScheduler extends MasterDaemon {
         }
     }
 
+    // the latest offsets of all the kafka jobs are got in one batch request, instead of one request
+    // for each task, and are used to estimate the lag of the tasks
+    private void refreshKafkaOffsetsIfNecessary() {
+        long currentTime = System.currentTimeMillis();
+        if (lastKafkaOffsetsRefreshTime != -1
+                && currentTime - lastKafkaOffsetsRefreshTime < KAFKA_OFFSETS_REFRESH_INTERVAL_MS) {
+            return;
+        }
+        lastKafkaOffsetsRefreshTime = currentTime;
+        List<KafkaRoutineLoadJob> kafkaJobs = routineLoadManager.getRoutineLoadJobByState(
+                        Sets.newHashSet(JobState.NEED_SCHEDULE, JobState.RUNNING)).stream()
+                .filter(job -> job instanceof KafkaRoutineLoadJob)
+                .map(job -> (KafkaRoutineLoadJob) job)
+                .collect(Collectors.toList());
+        try {
+            KafkaLagTracker.refresh(kafkaJobs);
+        } catch (Exception e) {
+            LOG.warn("failed to refresh the latest offsets of kafka routine load jobs", e);
+        }
+    }
+
+    private RoutineLoadTaskInfo prioritize(RoutineLoadTaskInfo routineLoadTaskInfo) {
+        double priority = 0;
+        try {
+            priority = routineLoadTaskInfo.getCatchUpSeconds();
+        } catch (Exception e) {
+            LOG.warn("failed to get the lag of routine load task {}", DebugUtil.printId(routineLoadTaskInfo.getId()),
+                    e);
+        }
+        routineLoadTaskInfo.setSchedulePriority(priority, enqueueSeq.incrementAndGet());
+        return routineLoadTaskInfo;
+    }
+
     public void addTaskInQueue(RoutineLoadTaskInfo routineLoadTaskInfo) {
-        needScheduleTasksQueue.add(routineLoadTaskInfo);
+        needScheduleTasksQueue.add(prioritize(routineLoadTaskInfo));
         LOG.debug("total tasks num in routine load task queue: {}", needScheduleTasksQueue.size());
     }
 
     public void addTasksInQueue(List<RoutineLoadTaskInfo> routineLoadTaskInfoList) {
-        needScheduleTasksQueue.addAll(routineLoadTaskInfoList);
+        for (RoutineLoadTaskInfo routineLoadTaskInfo : routineLoadTaskInfoList) {
+            needScheduleTasksQueue.add(prioritize(routineLoadTaskInfo));
+        }
         LOG.debug("total tasks num in routine load task queue: {}", needScheduleTasksQueue.size());
     }
 
@@ -23,6 +23,7 @@ package com.starrocks.master;
 
 import com.starrocks.common.Config;
 import com.starrocks.common.FeConstants;
+import com.starrocks.common.Pair;
 import com.starrocks.common.util.MasterDaemon;
 import com.starrocks.metric.MetricRepo;
 import com.starrocks.persist.EditLog;
@@ -34,10 +35,13 @@ import org.apache.commons.io.output.NullOutputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Checkpoint daemon is running on master node. handle the checkpoint work for starrocks.
@@ -79,36 +83,20 @@ public class Checkpoint extends MasterDaemon {
         }
 
         long replayedJournalId = -1;
-        // generate new image file
-        LOG.info("begin to generate new image: image.{}", checkPointVersion);
-        globalStateMgr = GlobalStateMgr.getCurrentState();
-        globalStateMgr.setEditLog(editLog);
-        try {
-            globalStateMgr.loadImage(imageDir);
-            globalStateMgr.replayJournal(checkPointVersion);
-            if (globalStateMgr.getReplayedJournalId() != checkPointVersion) {
-                LOG.error("checkpoint version should be {}, actual replayed journal id is {}",
-                        checkPointVersion, globalStateMgr.getReplayedJournalId());
-                return;
+        // the non master node which saved the image, it does not need the image to be pushed back
+        String imageSourceHost = null;
+        if (Config.checkpoint_on_non_master) {
+            Pair<String, Long> image = checkpointOnNonMaster(imageVersion, checkPointVersion);
+            if (image != null) {
+                imageSourceHost = image.first;
+                replayedJournalId = image.second;
             }
-
-            globalStateMgr.clearExpiredJobs();
-
-            globalStateMgr.saveImage();
-            replayedJournalId = globalStateMgr.getReplayedJournalId();
-            if (MetricRepo.isInit) {
-                MetricRepo.COUNTER_IMAGE_WRITE.increase(1L);
+        }
+        if (replayedJournalId < 0) {
+            replayedJournalId = checkpointLocally(checkPointVersion);
+            if (replayedJournalId < 0) {
+                return;
             }
-            GlobalStateMgr.getServingState().setImageJournalId(checkPointVersion);
-            LOG.info("checkpoint finished save image.{}", replayedJournalId);
-        } catch (Exception e) {
-            e.printStackTrace();
-            LOG.error("Exception when generate new image file", e);
-            return;
-        } finally {
-            // destroy checkpoint globalStateMgr, reclaim memory
-            globalStateMgr = null;
-            GlobalStateMgr.destroyCheckpoint();
         }
 
         // push image file to all the other non master nodes
@@ -124,6 +112,10 @@ public class Checkpoint extends MasterDaemon {
                     // skip master itself
                     continue;
                 }
+                if (host.equals(imageSourceHost)) {
+                    successPushed++;
+                    continue;
+                }
                 int port = Config.http_port;
 
                 String url = "http://" + host + ":" + port + "/put?version=" + replayedJournalId
@@ -202,4 +194,96 @@ public class Checkpoint extends MasterDaemon {
         }
 
     }
+
+    // Load the image and replay the journal into a second catalog, then save it. Returns the journal id of
+    // the new image, or -1 on failure.
+    private long checkpointLocally(long checkPointVersion) {
+        LOG.info("begin to generate new image: image.{}", checkPointVersion);
+        globalStateMgr = GlobalStateMgr.getCurrentState();
+        globalStateMgr.setEditLog(editLog);
+        try {
+            globalStateMgr.loadImage(imageDir);
+            globalStateMgr.replayJournal(checkPointVersion);
+            if (globalStateMgr.getReplayedJournalId() != checkPointVersion) {
+                LOG.error("checkpoint version should be {}, actual replayed journal id is {}",
+                        checkPointVersion, globalStateMgr.getReplayedJournalId());
+                return -1;
+            }
+
+            globalStateMgr.clearExpiredJobs();
+
+            globalStateMgr.saveImage();
+            long replayedJournalId = globalStateMgr.getReplayedJournalId();
+            if (MetricRepo.isInit) {
+                MetricRepo.COUNTER_IMAGE_WRITE.increase(1L);
+            }
+            GlobalStateMgr.getServingState().setImageJournalId(checkPointVersion);
+            LOG.info("checkpoint finished save image.{}", replayedJournalId);
+            return replayedJournalId;
+        } catch (Exception e) {
+            e.printStackTrace();
+            LOG.error("Exception when generate new image file", e);
+            return -1;
+        } finally {
+            // destroy checkpoint globalStateMgr, reclaim memory
+            globalStateMgr = null;
+            GlobalStateMgr.destroyCheckpoint();
+        }
+    }
+
+    /*
+     * Ask the alive non master nodes, the most up to date first, to save an image from the catalog they
+     * have replayed, and download it into the local image dir. Expired jobs are not cleared from such an
+     * image, because the serving catalog of that node must stay the same as the journal.
+     * Returns the host and the journal id of the new image, or null if no node made it.
+     */
+    private Pair<String, Long> checkpointOnNonMaster(long imageVersion, long checkPointVersion) {
+        List<Frontend> candidates = GlobalStateMgr.getServingState().getFrontends(null).stream()
+                .filter(fe -> fe.isAlive() && !fe.getHost().equals(GlobalStateMgr.getServingState().getMasterIp()))
+                .sorted(Comparator.comparingLong(Frontend::getReplayedJournalId).reversed())
+                .collect(Collectors.toList());
+        int port = Config.http_port;
+        for (Frontend fe : candidates) {
+            String host = fe.getHost();
+            long version;
+            HttpURLConnection conn = null;
+            try {
+                URL url = new URL("http://" + host + ":" + port + "/checkpoint?version=" + checkPointVersion);
+                LOG.info("begin to generate new image on {}: {}", host, url);
+                conn = (HttpURLConnection) url.openConnection();
+                conn.setConnectTimeout(CONNECT_TIMEOUT_SECOND * 1000);
+                conn.setReadTimeout(PUT_TIMEOUT_SECOND * 1000);
+                if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                    LOG.warn("failed to generate new image on {}, response code {}", host, conn.getResponseCode());
+                    continue;
+                }
+                version = Long.parseLong(conn.getHeaderField("version"));
+            } catch (IOException | NumberFormatException e) {
+                LOG.warn("failed to generate new image on {}", host, e);
+                continue;
+            } finally {
+                if (conn != null) {
+                    conn.disconnect();
+                }
+            }
+            if (version <= imageVersion) {
+                LOG.warn("image.{} generated on {} is not newer than local image.{}", version, host, imageVersion);
+                continue;
+            }
+
+            String filename = Storage.IMAGE + "." + version;
+            File dir = new File(imageDir);
+            String url = "http://" + host + ":" + port + "/image?version=" + version;
+            try {
+                MetaHelper.downloadImage(url, PUT_TIMEOUT_SECOND * 1000, filename, dir);
+            } catch (IOException e) {
+                LOG.warn("failed to download image. url = {}", url, e);
+                continue;
+            }
+            GlobalStateMgr.getServingState().setImageJournalId(version);
+            LOG.info("checkpoint finished, got image.{} from {}", version, host);
+            return new Pair<>(host, version);
+        }
+        return null;
+    }
 }
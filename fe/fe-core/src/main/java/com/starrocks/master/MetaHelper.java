@@ -21,10 +21,17 @@
 
 package com.starrocks.master;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
 import com.starrocks.common.io.IOUtils;
 import com.starrocks.server.GlobalStateMgr;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.xerial.snappy.Snappy;
 
 import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -32,12 +39,37 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
 
+/*
+ * Images are transferred between FEs in snappy compressed frames when both sides support it:
+ *
+ *   | raw length (int) | compressed length (int) | crc32 of raw bytes (long) | compressed bytes |
+ *
+ * and a frame with raw length 0 marks the end. The receiver verifies every frame before appending it to the
+ * .part file, so the .part file always holds a valid prefix of the image and a failed download resumes from
+ * its length. The X-Image-Tag header identifies the image file on the sender, a download only resumes if the
+ * tag is unchanged, otherwise it starts over.
+ */
 public class MetaHelper {
+    private static final Logger LOG = LogManager.getLogger(MetaHelper.class);
+
     private static final String PART_SUFFIX = ".part";
+    private static final String TAG_SUFFIX = ".tag";
     public static final String X_IMAGE_SIZE = "X-Image-Size";
+    public static final String X_IMAGE_COMPRESS = "X-Image-Compress";
+    public static final String X_IMAGE_OFFSET = "X-Image-Offset";
+    public static final String X_IMAGE_TAG = "X-Image-Tag";
+    public static final String COMPRESS = "compress";
+    public static final String OFFSET = "offset";
+    public static final String TAG = "tag";
+    public static final String COMPRESS_SNAPPY = "snappy";
+    public static final int FRAME_HEADER_BYTES = 16;
+    public static final int IMAGE_CHUNK_BYTES = 4 * 1024 * 1024;
     private static final int BUFFER_BYTES = 8 * 1024;
     private static final int CHECKPOINT_LIMIT_BYTES = 30 * 1024 * 1024;
+    private static final int MAX_DOWNLOAD_ATTEMPTS = 3;
 
     public static File getMasterImageDir() {
         String metaDir = GlobalStateMgr.getCurrentState().getImageDir();
@@ -64,6 +96,10 @@ public class MetaHelper {
         return new FileOutputStream(file);
     }
 
+    public static String getImageTag(File imageFile) {
+        return imageFile.length() + "-" + imageFile.lastModified();
+    }
+
     // download file from remote node
     public static void getRemoteFile(String urlStr, int timeout, OutputStream out)
             throws IOException {
@@ -74,30 +110,155 @@ public class MetaHelper {
             conn = (HttpURLConnection) url.openConnection();
             conn.setConnectTimeout(timeout);
             conn.setReadTimeout(timeout);
+            copyRawFile(conn, out);
+        } finally {
+            if (conn != null) {
+                conn.disconnect();
+            }
+            if (out != null) {
+                out.close();
+            }
+        }
+    }
 
-            // Get image size
-            long imageSize = -1;
-            String imageSizeStr = conn.getHeaderField(X_IMAGE_SIZE);
-            if (imageSizeStr != null) {
-                imageSize = Long.parseLong(imageSizeStr);
+    private static void copyRawFile(HttpURLConnection conn, OutputStream out) throws IOException {
+        // Get image size
+        long imageSize = -1;
+        String imageSizeStr = conn.getHeaderField(X_IMAGE_SIZE);
+        if (imageSizeStr != null) {
+            imageSize = Long.parseLong(imageSizeStr);
+        }
+
+        BufferedInputStream bin = new BufferedInputStream(conn.getInputStream());
+
+        // Do not limit speed in client side.
+        long bytes = IOUtils.copyBytes(bin, out, BUFFER_BYTES, CHECKPOINT_LIMIT_BYTES, true);
+
+        if ((imageSize > 0) && (bytes != imageSize)) {
+            throw new IOException("Unexpected image size, expected: " + imageSize + ", actual: " + bytes);
+        }
+    }
+
+    /**
+     * Download an image from the /image url of a remote node into dir/filename, in compressed frames and
+     * resuming from what earlier attempts left in the .part file.
+     */
+    public static File downloadImage(String urlStr, int timeout, String filename, File dir) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                downloadImageOnce(urlStr, timeout, filename, dir);
+                break;
+            } catch (IOException e) {
+                if (attempt >= MAX_DOWNLOAD_ATTEMPTS) {
+                    throw e;
+                }
+                LOG.warn("failed to download image from {}, attempt {}, will resume", urlStr, attempt, e);
             }
+        }
+        new File(dir, filename + PART_SUFFIX + TAG_SUFFIX).delete();
+        return complete(filename, dir);
+    }
+
+    private static void downloadImageOnce(String urlStr, int timeout, String filename, File dir)
+            throws IOException {
+        File partFile = new File(dir, filename + PART_SUFFIX);
+        File tagFile = new File(dir, filename + PART_SUFFIX + TAG_SUFFIX);
+        long offset = 0;
+        String tag = "";
+        if (partFile.exists() && tagFile.exists()) {
+            offset = partFile.length();
+            tag = Files.asCharSource(tagFile, StandardCharsets.UTF_8).read().trim();
+        }
 
-            BufferedInputStream bin = new BufferedInputStream(conn.getInputStream());
+        URL url = new URL(urlStr + "&" + COMPRESS + "=" + COMPRESS_SNAPPY + "&" + OFFSET + "=" + offset
+                + "&" + TAG + "=" + tag);
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection) url.openConnection();
+            conn.setConnectTimeout(timeout);
+            conn.setReadTimeout(timeout);
+            if (!COMPRESS_SNAPPY.equals(conn.getHeaderField(X_IMAGE_COMPRESS))) {
+                // the remote node does not support compressed transfer, download the whole file
+                tagFile.delete();
+                try (OutputStream out = new FileOutputStream(partFile)) {
+                    copyRawFile(conn, out);
+                }
+                return;
+            }
 
-            // Do not limit speed in client side.
-            long bytes = IOUtils.copyBytes(bin, out, BUFFER_BYTES, CHECKPOINT_LIMIT_BYTES, true);
+            long imageSize = Long.parseLong(conn.getHeaderField(X_IMAGE_SIZE));
+            long remoteOffset = Long.parseLong(conn.getHeaderField(X_IMAGE_OFFSET));
+            String remoteTag = conn.getHeaderField(X_IMAGE_TAG);
+            if (remoteOffset != offset && remoteOffset != 0) {
+                throw new IOException("Unexpected image offset, expected: " + offset + ", actual: " + remoteOffset);
+            }
+            if (remoteOffset == 0 && !Strings.isNullOrEmpty(remoteTag)) {
+                // start over, the image on the remote node is not the one we have a part of
+                Files.asCharSink(tagFile, StandardCharsets.UTF_8).write(remoteTag);
+            }
 
-            if ((imageSize > 0) && (bytes != imageSize)) {
-                throw new IOException("Unexpected image size, expected: " + imageSize + ", actual: " + bytes);
+            long received;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(conn.getInputStream()));
+                    OutputStream out = new FileOutputStream(partFile, remoteOffset != 0)) {
+                received = receiveFrames(in, out);
+            }
+            if (remoteOffset + received != imageSize) {
+                throw new IOException("Unexpected image size, expected: " + imageSize
+                        + ", actual: " + (remoteOffset + received));
             }
         } finally {
             if (conn != null) {
                 conn.disconnect();
             }
-            if (out != null) {
-                out.close();
-            }
         }
     }
 
+    // Returns the number of raw bytes received.
+    @VisibleForTesting
+    static long receiveFrames(DataInputStream in, OutputStream out) throws IOException {
+        long rawBytes = 0;
+        long wireBytes = 0;
+        long startTime = System.currentTimeMillis();
+        CRC32 crc32 = new CRC32();
+        byte[] compressed = new byte[0];
+        while (true) {
+            int rawLength = in.readInt();
+            int compressedLength = in.readInt();
+            long checksum = in.readLong();
+            if (rawLength == 0) {
+                return rawBytes;
+            }
+            if (rawLength < 0 || compressedLength < 0) {
+                throw new IOException("Corrupted image frame, raw length: " + rawLength
+                        + ", compressed length: " + compressedLength);
+            }
+            if (compressed.length < compressedLength) {
+                compressed = new byte[compressedLength];
+            }
+            in.readFully(compressed, 0, compressedLength);
+
+            byte[] raw = new byte[rawLength];
+            if (Snappy.uncompress(compressed, 0, compressedLength, raw, 0) != rawLength) {
+                throw new IOException("Corrupted image frame at " + rawBytes + ", unexpected raw length");
+            }
+            crc32.reset();
+            crc32.update(raw, 0, rawLength);
+            if (crc32.getValue() != checksum) {
+                throw new IOException("Corrupted image frame at " + rawBytes + ", checksum mismatch");
+            }
+            out.write(raw);
+            rawBytes += rawLength;
+            wireBytes += FRAME_HEADER_BYTES + compressedLength;
+
+            // the same limit as IOUtils.copyBytes, applied to the bytes on the wire
+            long sleepTime = wireBytes / CHECKPOINT_LIMIT_BYTES * 1000 / 1024 - (System.currentTimeMillis() - startTime);
+            if (sleepTime > 0) {
+                try {
+                    Thread.sleep(sleepTime);
+                } catch (InterruptedException ignored) {
+                    // ignore
+                }
+            }
+        }
+    }
 }
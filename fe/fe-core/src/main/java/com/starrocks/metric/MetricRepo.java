@@ -23,7 +23,6 @@ package com.starrocks.metric;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import com.starrocks.alter.Alter;
 import com.starrocks.alter.AlterJob.JobType;
@@ -31,23 +30,21 @@ import com.starrocks.catalog.Database;
 import com.starrocks.catalog.Table;
 import com.starrocks.catalog.TabletInvertedIndex;
 import com.starrocks.common.Config;
-import com.starrocks.common.DdlException;
 import com.starrocks.common.ThreadPoolManager;
 import com.starrocks.common.UserException;
-import com.starrocks.common.util.KafkaUtil;
 import com.starrocks.load.EtlJobType;
 import com.starrocks.load.loadv2.JobState;
 import com.starrocks.load.loadv2.LoadManager;
+import com.starrocks.load.routineload.KafkaLagTracker;
 import com.starrocks.load.routineload.KafkaProgress;
 import com.starrocks.load.routineload.KafkaRoutineLoadJob;
 import com.starrocks.load.routineload.RoutineLoadJob;
 import com.starrocks.load.routineload.RoutineLoadManager;
+import com.starrocks.load.routineload.RoutineLoadTaskScheduler;
 import com.starrocks.metric.Metric.MetricType;
 import com.starrocks.metric.Metric.MetricUnit;
 import com.starrocks.monitor.jvm.JvmService;
 import com.starrocks.monitor.jvm.JvmStats;
-import com.starrocks.proto.PKafkaOffsetProxyRequest;
-import com.starrocks.proto.PKafkaOffsetProxyResult;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.service.ExecuteEnv;
 import com.starrocks.system.Backend;
@@ -55,7 +52,6 @@ import com.starrocks.system.SystemInfoService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
@@ -81,6 +77,8 @@ public final class MetricRepo {
     public static LongCounterMetric COUNTER_QUERY_TIMEOUT;
     public static LongCounterMetric COUNTER_QUERY_SUCCESS;
     public static LongCounterMetric COUNTER_SLOW_QUERY;
+    public static LongCounterMetric COUNTER_QUERY_DETAIL_DROPPED;
+    public static LongCounterMetric COUNTER_AUDIT_EVENT_DROPPED;
     public static LongCounterMetric COUNTER_LOAD_ADD;
     public static LongCounterMetric COUNTER_LOAD_FINISHED;
     public static LongCounterMetric COUNTER_EDIT_LOG_WRITE;
@@ -99,6 +97,8 @@ public final class MetricRepo {
 
     public static Histogram HISTO_QUERY_LATENCY;
     public static Histogram HISTO_EDIT_LOG_WRITE_LATENCY;
+    public static Histogram HISTO_DB_LOCK_WAIT_LATENCY;
+    public static Histogram HISTO_TABLE_LOCK_WAIT_LATENCY;
 
     // following metrics will be updated by metric calculator
     public static GaugeMetricImpl<Double> GAUGE_QUERY_PER_SECOND;
@@ -316,6 +316,12 @@ public final class MetricRepo {
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_SUCCESS);
         COUNTER_SLOW_QUERY = new LongCounterMetric("slow_query", MetricUnit.REQUESTS, "total slow query");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_SLOW_QUERY);
+        COUNTER_QUERY_DETAIL_DROPPED = new LongCounterMetric("query_detail_dropped", MetricUnit.REQUESTS,
+                "total query details dropped before timeout because the query detail queue is full");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_QUERY_DETAIL_DROPPED);
+        COUNTER_AUDIT_EVENT_DROPPED = new LongCounterMetric("audit_event_dropped", MetricUnit.REQUESTS,
+                "total audit events dropped because the audit event queue is full");
+        STARROCKS_METRIC_REGISTER.addMetric(COUNTER_AUDIT_EVENT_DROPPED);
         COUNTER_LOAD_ADD = new LongCounterMetric("load_add", MetricUnit.REQUESTS, "total load submit");
         STARROCKS_METRIC_REGISTER.addMetric(COUNTER_LOAD_ADD);
         COUNTER_ROUTINE_LOAD_PAUSED =
@@ -363,6 +369,10 @@ public final class MetricRepo {
         HISTO_QUERY_LATENCY = METRIC_REGISTER.histogram(MetricRegistry.name("query", "latency", "ms"));
         HISTO_EDIT_LOG_WRITE_LATENCY =
                 METRIC_REGISTER.histogram(MetricRegistry.name("editlog", "write", "latency", "ms"));
+        HISTO_DB_LOCK_WAIT_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("db", "lock", "wait", "latency", "ms"));
+        HISTO_TABLE_LOCK_WAIT_LATENCY =
+                METRIC_REGISTER.histogram(MetricRegistry.name("table", "lock", "wait", "latency", "ms"));
 
         // init system metrics
         initSystemMetrics();
@@ -550,62 +560,47 @@ public final class MetricRepo {
         List<RoutineLoadJob> jobs = GlobalStateMgr.getCurrentState().getRoutineLoadManager().getRoutineLoadJobByState(
                 Sets.newHashSet(RoutineLoadJob.JobState.NEED_SCHEDULE, RoutineLoadJob.JobState.RUNNING));
 
-        List<RoutineLoadJob> kafkaJobs = jobs.stream()
+        List<KafkaRoutineLoadJob> kafkaJobs = jobs.stream()
                 .filter(job -> (job instanceof KafkaRoutineLoadJob)
                         && ((KafkaProgress) job.getProgress()).hasPartition())
+                .map(job -> (KafkaRoutineLoadJob) job)
                 .collect(Collectors.toList());
 
         if (kafkaJobs.size() <= 0) {
             return;
         }
 
-        // get all partitions offset in a batch api
-        List<PKafkaOffsetProxyRequest> requests = new ArrayList<>();
-        for (RoutineLoadJob job : kafkaJobs) {
-            KafkaRoutineLoadJob kJob = (KafkaRoutineLoadJob) job;
+        // the latest offsets are refreshed by the routine load task scheduler, only the ones it has not
+        // refreshed lately are got here, in a batch api
+        List<KafkaRoutineLoadJob> staleJobs = kafkaJobs.stream()
+                .filter(job -> job.getLagTracker().getLatestOffsets(
+                        RoutineLoadTaskScheduler.KAFKA_OFFSETS_EXPIRE_MS) == null)
+                .collect(Collectors.toList());
+        if (!staleJobs.isEmpty()) {
             try {
-                kJob.convertCustomProperties(false);
-            } catch (DdlException e) {
-                LOG.warn("convert custom properties failed", e);
-                return;
+                KafkaLagTracker.refresh(staleJobs);
+            } catch (UserException e) {
+                LOG.warn("get batch offsets failed", e);
+                kafkaJobs.removeAll(staleJobs);
             }
-            PKafkaOffsetProxyRequest offsetProxyRequest = new PKafkaOffsetProxyRequest();
-            offsetProxyRequest.kafkaInfo = KafkaUtil.genPKafkaLoadInfo(kJob.getBrokerList(), kJob.getTopic(),
-                    ImmutableMap.copyOf(kJob.getConvertedCustomProperties()));
-            offsetProxyRequest.partitionIds = new ArrayList<>(
-                    ((KafkaProgress) kJob.getProgress()).getPartitionIdToOffset().keySet());
-            requests.add(offsetProxyRequest);
-        }
-        List<PKafkaOffsetProxyResult> offsetProxyResults;
-        try {
-            offsetProxyResults = KafkaUtil.getBatchOffsets(requests);
-        } catch (UserException e) {
-            LOG.warn("get batch offsets failed", e);
-            return;
         }
 
-        for (int i = 0; i < kafkaJobs.size(); i++) {
-            KafkaRoutineLoadJob kJob = (KafkaRoutineLoadJob) kafkaJobs.get(i);
-            ImmutableMap<Integer, Long> partitionIdToProgress =
-                    ((KafkaProgress) kJob.getProgress()).getPartitionIdToOffset();
-
-            // offset of partitionIds[i] is beginningOffsets[i] and latestOffsets[i]
-            List<Integer> partitionIds = offsetProxyResults.get(i).partitionIds;
-            List<Long> beginningOffsets = offsetProxyResults.get(i).beginningOffsets;
-            List<Long> latestOffsets = offsetProxyResults.get(i).latestOffsets;
+        for (KafkaRoutineLoadJob kJob : kafkaJobs) {
+            Map<Integer, Long> partitionLags = kJob.getLagTracker().getLags(
+                    ((KafkaProgress) kJob.getProgress()).getPartitionIdToOffset());
 
             long maxLag = Long.MIN_VALUE;
-            for (int j = 0; j < partitionIds.size(); j++) {
-                int partitionId = partitionIds.get(j);
-                if (!partitionIdToProgress.containsKey(partitionId)) {
-                    continue;
-                }
-                long progress = partitionIdToProgress.get(partitionId);
-                if (progress == KafkaProgress.OFFSET_BEGINNING_VAL) {
-                    progress = beginningOffsets.get(j);
+            for (Map.Entry<Integer, Long> entry : partitionLags.entrySet()) {
+                maxLag = Math.max(entry.getValue(), maxLag);
+                if (entry.getValue() >= Config.min_routine_load_lag_for_metrics) {
+                    GaugeMetricImpl<Long> metric =
+                            new GaugeMetricImpl<>("routine_load_lag_of_partition", MetricUnit.NOUNIT,
+                                    "routine load kafka lag of a partition");
+                    metric.addLabel(new MetricLabel("job_name", kJob.getName()));
+                    metric.addLabel(new MetricLabel("partition", String.valueOf(entry.getKey())));
+                    metric.setValue(entry.getValue());
+                    visitor.visit(metric);
                 }
-
-                maxLag = Math.max(latestOffsets.get(j) - progress, maxLag);
             }
             if (maxLag >= Config.min_routine_load_lag_for_metrics) {
                 GaugeMetricImpl<Long> metric =
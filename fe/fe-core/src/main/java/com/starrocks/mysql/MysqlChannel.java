@@ -21,13 +21,17 @@
 
 package com.starrocks.mysql;
 
+import com.google.common.collect.Lists;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This class used to read/write MySQL logical packet.
@@ -41,6 +45,9 @@ public class MysqlChannel {
     // MySQL packet header length
     protected static final int PACKET_HEADER_LEN = 4;
     protected static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+    protected static final long SEND_BUFFER_IDLE_RELEASE_MS = 60 * 1000L;
+    // max num of the pooled buffers written by one gathering write
+    private static final int MAX_GATHERED_BUFFERS = 16;
     // logger for this class
     protected static final Logger LOG = LogManager.getLogger(MysqlChannel.class);
     // next sequence id to receive or send
@@ -52,6 +59,10 @@ public class MysqlChannel {
     // default packet byte buffer for most packet
     protected ByteBuffer defaultBuffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
     protected ByteBuffer sendBuffer;
+    // held while a command runs, the send buffer of an idle connection is released out of the command
+    private final ReentrantLock commandLock = new ReentrantLock();
+    // guarded by commandLock
+    private long lastCommandTime = System.currentTimeMillis();
     // for log and show
     protected String remoteHostPortString;
     protected String remoteIp;
@@ -189,6 +200,19 @@ public class MysqlChannel {
         return result;
     }
 
+    protected void realNetSend(ByteBuffer[] buffers) throws IOException {
+        long bufLen = 0;
+        for (ByteBuffer buffer : buffers) {
+            bufLen += buffer.remaining();
+        }
+        long writeLen = channel.write(buffers);
+        if (bufLen != writeLen) {
+            throw new IOException("Write mysql packet failed.[write=" + writeLen
+                    + ", needToWrite=" + bufLen + "]");
+        }
+        isSend = true;
+    }
+
     protected void realNetSend(ByteBuffer buffer) throws IOException {
         long bufLen = buffer.remaining();
         long writeLen = channel.write(buffer);
@@ -225,6 +249,32 @@ public class MysqlChannel {
         }
     }
 
+    public void beginCommand() {
+        commandLock.lock();
+    }
+
+    public void endCommand() {
+        lastCommandTime = System.currentTimeMillis();
+        commandLock.unlock();
+    }
+
+    // the send buffer is at least 256KB, it is kept for the following commands, and released only once the
+    // connection is idle for a while, so an idle connection holds only the small receive buffers
+    public void releaseIdleSendBuffer(long now) {
+        if (!commandLock.tryLock()) {
+            // a command is running
+            return;
+        }
+        try {
+            if (sendBuffer != null && sendBuffer.position() == 0
+                    && now - lastCommandTime >= SEND_BUFFER_IDLE_RELEASE_MS) {
+                sendBuffer = null;
+            }
+        } finally {
+            commandLock.unlock();
+        }
+    }
+
     public boolean isSendBufferNull() {
         return this.sendBuffer == null;
     }
@@ -275,6 +325,91 @@ public class MysqlChannel {
         accSequenceId();
     }
 
+    /**
+     * Send the packets, e.g. the rows of a result batch, in the same way as sendOnePacket one by one.
+     * The packets are framed into the pooled direct buffers, which are written by one gathering write
+     * when MAX_GATHERED_BUFFERS of them are full and at the end, so no flush is needed after it.
+     */
+    public void sendPackets(List<ByteBuffer> packets) throws IOException {
+        // the packets buffered before, e.g. the fields of the result, go first
+        flush();
+        try (GatheringSender sender = new GatheringSender()) {
+            ByteBuffer header = ByteBuffer.allocate(PACKET_HEADER_LEN);
+            for (ByteBuffer packet : packets) {
+                ByteBuffer payload = packet.duplicate();
+                int end = payload.limit();
+                int length;
+                do {
+                    length = Math.min(end - payload.position(), MAX_PHYSICAL_PACKET_LENGTH);
+                    header.clear();
+                    header.put((byte) length).put((byte) (length >> 8)).put((byte) (length >> 16));
+                    header.put((byte) sequenceId);
+                    header.flip();
+                    sender.put(header);
+                    payload.limit(payload.position() + length);
+                    sender.put(payload);
+                    accSequenceId();
+                } while (length == MAX_PHYSICAL_PACKET_LENGTH);
+            }
+            sender.send();
+        }
+    }
+
+    // frames the packets into the pooled buffers, and writes the full ones by gathering writes
+    private class GatheringSender implements Closeable {
+        private final List<ByteBuffer> buffers = Lists.newArrayList();
+        // index of the buffer being put into, -1 if none
+        private int current = -1;
+
+        void put(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                if (current < 0 || !buffers.get(current).hasRemaining()) {
+                    nextBuffer();
+                }
+                ByteBuffer buffer = buffers.get(current);
+                int srcLimit = src.limit();
+                src.limit(src.position() + Math.min(src.remaining(), buffer.remaining()));
+                buffer.put(src);
+                src.limit(srcLimit);
+            }
+        }
+
+        private void nextBuffer() throws IOException {
+            if (current == MAX_GATHERED_BUFFERS - 1) {
+                send();
+            }
+            current++;
+            if (current == buffers.size()) {
+                buffers.add(MysqlSendBufferPool.allocate());
+            }
+        }
+
+        void send() throws IOException {
+            if (current < 0) {
+                return;
+            }
+            ByteBuffer[] toSend = new ByteBuffer[current + 1];
+            for (int i = 0; i <= current; i++) {
+                toSend[i] = buffers.get(i);
+                toSend[i].flip();
+            }
+            try {
+                realNetSend(toSend);
+            } finally {
+                for (ByteBuffer buffer : toSend) {
+                    buffer.clear();
+                }
+                current = -1;
+            }
+        }
+
+        @Override
+        public void close() {
+            buffers.forEach(MysqlSendBufferPool::release);
+            buffers.clear();
+        }
+    }
+
     public void sendAndFlush(ByteBuffer packet) throws IOException {
         sendOnePacket(packet);
         flush();
@@ -0,0 +1,45 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.mysql;
+
+import com.starrocks.common.Config;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The direct buffers to frame the query results into, shared by all the connections.
+ * <p>
+ * The results are copied into the direct buffers once and written from them, instead of being copied into the
+ * heap send buffer of the channel and then into a temporary direct buffer by the socket channel.
+ * At most mysql_send_buffer_pool_size buffers are kept, the others are freed by gc after released.
+ */
+public class MysqlSendBufferPool {
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ConcurrentLinkedQueue<ByteBuffer> BUFFERS = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger NUM_BUFFERS = new AtomicInteger(0);
+
+    public static ByteBuffer allocate() {
+        ByteBuffer buffer = BUFFERS.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        NUM_BUFFERS.decrementAndGet();
+        return buffer;
+    }
+
+    public static void release(ByteBuffer buffer) {
+        buffer.clear();
+        if (NUM_BUFFERS.incrementAndGet() <= Config.mysql_send_buffer_pool_size) {
+            BUFFERS.offer(buffer);
+        } else {
+            NUM_BUFFERS.decrementAndGet();
+        }
+    }
+
+    public static int size() {
+        return NUM_BUFFERS.get();
+    }
+}
@@ -60,6 +60,8 @@ public class AcceptListener implements ChannelListener<AcceptingChannel<StreamCo
 
             try {
                 channel.getWorker().execute(() -> {
+                    // the handshake writes to the send buffer like a command
+                    context.getMysqlChannel().beginCommand();
                     try {
                         // Set thread local info
                         context.setThreadLocalInfo();
@@ -93,6 +95,7 @@ public class AcceptListener implements ChannelListener<AcceptingChannel<StreamCo
                         }
                         context.cleanup();
                     } finally {
+                        context.getMysqlChannel().endCommand();
                         ConnectContext.remove();
                     }
                 });
@@ -44,6 +44,13 @@ public class NConnectContext extends ConnectContext {
         returnRows = 0;
     }
 
+    @Override
+    public void checkTimeout(long now) {
+        super.checkTimeout(now);
+        // the connection holds no thread when idle, release its send buffer too
+        mysqlChannel.releaseIdleSendBuffer(now);
+    }
+
     @Override
     public NMysqlChannel getMysqlChannel() {
         return mysqlChannel;
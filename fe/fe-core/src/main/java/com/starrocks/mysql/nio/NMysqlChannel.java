@@ -76,6 +76,21 @@ public class NMysqlChannel extends MysqlChannel {
      * @param buffer
      * @throws IOException
      */
+    @Override
+    protected void realNetSend(ByteBuffer[] buffers) throws IOException {
+        long bufLen = 0;
+        for (ByteBuffer buffer : buffers) {
+            bufLen += buffer.remaining();
+        }
+        long writeLen = Channels.writeBlocking(conn.getSinkChannel(), buffers, 0, buffers.length);
+        if (bufLen != writeLen) {
+            throw new IOException("Write mysql packet failed.[write=" + writeLen
+                    + ", needToWrite=" + bufLen + "]");
+        }
+        Channels.flushBlocking(conn.getSinkChannel());
+        isSend = true;
+    }
+
     @Override
     protected void realNetSend(ByteBuffer buffer) throws IOException {
         long bufLen = buffer.remaining();
@@ -26,6 +26,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.xnio.ChannelListener;
 import org.xnio.XnioIoThread;
+import org.xnio.XnioWorker;
 import org.xnio.conduits.ConduitStreamSourceChannel;
 
 /**
@@ -39,6 +40,8 @@ public class ReadListener implements ChannelListener<ConduitStreamSourceChannel>
     public ReadListener(NConnectContext nConnectContext, ConnectProcessor connectProcessor) {
         this.ctx = nConnectContext;
         this.connectProcessor = connectProcessor;
+        // a query waiting on its result releases the task thread, and is resumed by process()
+        this.connectProcessor.setSuspendable(true);
     }
 
     @Override
@@ -48,25 +51,12 @@ public class ReadListener implements ChannelListener<ConduitStreamSourceChannel>
         XnioIoThread.requireCurrentThread();
         ctx.suspendAcceptQuery();
         // start async query handle in task thread.
+        execute(channel.getWorker(), false);
+    }
+
+    private void execute(XnioWorker worker, boolean resume) {
         try {
-            channel.getWorker().execute(() -> {
-                ctx.setThreadLocalInfo();
-                try {
-                    connectProcessor.processOnce();
-                    if (!ctx.isKilled()) {
-                        ctx.resumeAcceptQuery();
-                    } else {
-                        ctx.stopAcceptQuery();
-                        ctx.cleanup();
-                    }
-                } catch (Exception e) {
-                    LOG.warn("Exception happened in one session(" + ctx + ").", e);
-                    ctx.setKilled();
-                    ctx.cleanup();
-                } finally {
-                    ConnectContext.remove();
-                }
-            });
+            worker.execute(() -> process(worker, resume));
         } catch (Throwable e) {
             if (e instanceof Error) {
                 LOG.error("connect processor exception because ", e);
@@ -78,6 +68,37 @@ public class ReadListener implements ChannelListener<ConduitStreamSourceChannel>
             ctx.cleanup();
             ConnectContext.remove();
         }
+    }
 
+    // process one command, or resume the one suspended waiting on its result
+    private void process(XnioWorker worker, boolean resume) {
+        ctx.setThreadLocalInfo();
+        try {
+            ctx.getMysqlChannel().beginCommand();
+            try {
+                if (resume) {
+                    connectProcessor.resumeOnce();
+                } else {
+                    connectProcessor.processOnce();
+                }
+            } finally {
+                ctx.getMysqlChannel().endCommand();
+            }
+            if (connectProcessor.isSuspended()) {
+                // the reads stay suspended until the command is finished
+                connectProcessor.getResultWait().thenRun(() -> execute(worker, true));
+            } else if (!ctx.isKilled()) {
+                ctx.resumeAcceptQuery();
+            } else {
+                ctx.stopAcceptQuery();
+                ctx.cleanup();
+            }
+        } catch (Exception e) {
+            LOG.warn("Exception happened in one session(" + ctx + ").", e);
+            ctx.setKilled();
+            ctx.cleanup();
+        } finally {
+            ConnectContext.remove();
+        }
     }
 }
@@ -101,6 +101,9 @@ public class Auth implements Writable {
     private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     private Class<?> authClazz = null;
 
+    // resolved privileges of database and table, invalidated by any modification under write lock
+    private final PrivilegeCache privilegeCache = new PrivilegeCache();
+
     private void readLock() {
         lock.readLock().lock();
     }
@@ -114,6 +117,7 @@ public class Auth implements Writable {
     }
 
     private void writeUnlock() {
+        privilegeCache.invalidateAll();
         lock.writeLock().unlock();
     }
 
@@ -358,9 +362,8 @@ public class Auth implements Writable {
             return false;
         }
 
-        PrivBitSet savedPrivs = PrivBitSet.of();
-        if (checkGlobalInternal(currentUser, wanted, savedPrivs)
-                || checkDbInternal(currentUser, db, wanted, savedPrivs)) {
+        PrivBitSet savedPrivs = getCachedPrivs(currentUser, db, null);
+        if (Privilege.satisfy(savedPrivs, wanted)) {
             return true;
         }
 
@@ -400,10 +403,8 @@ public class Auth implements Writable {
             return false;
         }
 
-        PrivBitSet savedPrivs = PrivBitSet.of();
-        if (checkGlobalInternal(currentUser, wanted, savedPrivs)
-                || checkDbInternal(currentUser, db, wanted, savedPrivs)
-                || checkTblInternal(currentUser, db, tbl, wanted, savedPrivs)) {
+        PrivBitSet savedPrivs = getCachedPrivs(currentUser, db, tbl);
+        if (Privilege.satisfy(savedPrivs, wanted)) {
             return true;
         }
 
@@ -500,38 +501,37 @@ public class Auth implements Writable {
         return false;
     }
 
-    private boolean checkGlobalInternal(UserIdentity currentUser, PrivPredicate wanted, PrivBitSet savedPrivs) {
-        readLock();
-        try {
-            userPrivTable.getPrivs(currentUser, savedPrivs);
-            if (Privilege.satisfy(savedPrivs, wanted)) {
-                return true;
-            }
-            return false;
-        } finally {
-            readUnlock();
+    /*
+     * Get the union of the global, database and table privileges of user, which is equal to checking the privileges
+     * level by level because satisfying is monotonic. Only the database privileges are resolved if tbl is null.
+     * The returned privileges must not be modified.
+     */
+    private PrivBitSet getCachedPrivs(UserIdentity currentUser, String db, String tbl) {
+        PrivBitSet privs = privilegeCache.get(currentUser, db, tbl);
+        if (privs != null) {
+            return privs;
         }
-    }
 
-    private boolean checkDbInternal(UserIdentity currentUser, String db, PrivPredicate wanted,
-                                    PrivBitSet savedPrivs) {
         readLock();
         try {
-            dbPrivTable.getPrivs(currentUser, db, savedPrivs);
-            if (Privilege.satisfy(savedPrivs, wanted)) {
-                return true;
+            long generation = privilegeCache.getGeneration();
+            privs = PrivBitSet.of();
+            userPrivTable.getPrivs(currentUser, privs);
+            dbPrivTable.getPrivs(currentUser, db, privs);
+            if (tbl != null) {
+                tablePrivTable.getPrivs(currentUser, db, tbl, privs);
             }
+            privilegeCache.put(currentUser, db, tbl, generation, privs);
+            return privs;
         } finally {
             readUnlock();
         }
-        return false;
     }
 
-    private boolean checkTblInternal(UserIdentity currentUser, String db, String tbl,
-                                     PrivPredicate wanted, PrivBitSet savedPrivs) {
+    private boolean checkGlobalInternal(UserIdentity currentUser, PrivPredicate wanted, PrivBitSet savedPrivs) {
         readLock();
         try {
-            tablePrivTable.getPrivs(currentUser, db, tbl, savedPrivs);
+            userPrivTable.getPrivs(currentUser, savedPrivs);
             if (Privilege.satisfy(savedPrivs, wanted)) {
                 return true;
             }
@@ -561,6 +561,7 @@ public class Auth implements Writable {
         dbPrivTable.clear();
         tablePrivTable.clear();
         resourcePrivTable.clear();
+        privilegeCache.invalidateAll();
     }
 
     // create user
@@ -1722,6 +1723,7 @@ public class Auth implements Writable {
             // init root and admin user
             initUser();
         }
+        privilegeCache.invalidateAll();
     }
 
     /**
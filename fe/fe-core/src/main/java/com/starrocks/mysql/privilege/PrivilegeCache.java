@@ -0,0 +1,99 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.mysql.privilege;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.starrocks.analysis.UserIdentity;
+import com.starrocks.common.Config;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache the privileges of a user on a database or table, which are resolved from the global, database
+ * and table level priv tables. So the hot path of authorization needs neither the lock of Auth nor the
+ * pattern matching of priv entries.
+ * Every modification of Auth bumps the generation, the privileges resolved in older generations are stale.
+ */
+public class PrivilegeCache {
+
+    private static class Key {
+        private final UserIdentity user;
+        private final String db;
+        // null for the privileges on database
+        private final String tbl;
+
+        public Key(UserIdentity user, String db, String tbl) {
+            this.user = user;
+            this.db = db;
+            this.tbl = tbl;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return user.equals(key.user) && Objects.equals(db, key.db) && Objects.equals(tbl, key.tbl);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(user, db, tbl);
+        }
+    }
+
+    private static class Value {
+        private final long generation;
+        // never modified once it is cached
+        private final PrivBitSet privs;
+
+        public Value(long generation, PrivBitSet privs) {
+            this.generation = generation;
+            this.privs = privs;
+        }
+    }
+
+    private final AtomicLong generation = new AtomicLong(0);
+    private final Cache<Key, Value> cache = Caffeine.newBuilder()
+            .maximumSize(Config.privilege_cache_size)
+            .build();
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * @return the cached privileges, or null if it is not cached or stale
+     */
+    public PrivBitSet get(UserIdentity user, String db, String tbl) {
+        Value value = cache.getIfPresent(new Key(user, db, tbl));
+        if (value == null || value.generation != generation.get()) {
+            return null;
+        }
+        return value.privs;
+    }
+
+    /**
+     * @param generation the generation when the privileges are resolved, it must be got with the lock of Auth
+     */
+    public void put(UserIdentity user, String db, String tbl, long generation, PrivBitSet privs) {
+        if (user == null) {
+            return;
+        }
+        cache.put(new Key(user, db, tbl), new Value(generation, privs));
+    }
+
+    /**
+     * Make all the cached privileges stale, must be called before the write lock of Auth is released
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,54 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.google.gson.annotations.SerializedName;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.common.io.Text;
+import com.starrocks.common.io.Writable;
+import com.starrocks.persist.gson.GsonUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// the refresh scheme of an asynchronous materialized view after a refresh
+public class ChangeMaterializedViewRefreshSchemeLog implements Writable {
+
+    @SerializedName(value = "id")
+    private long id;
+
+    @SerializedName(value = "dbId")
+    private long dbId;
+
+    @SerializedName(value = "refreshScheme")
+    private MaterializedView.MvRefreshScheme refreshScheme;
+
+    public ChangeMaterializedViewRefreshSchemeLog(MaterializedView materializedView) {
+        this.id = materializedView.getId();
+        this.dbId = materializedView.getDbId();
+        this.refreshScheme = materializedView.getRefreshScheme();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getDbId() {
+        return dbId;
+    }
+
+    public MaterializedView.MvRefreshScheme getRefreshScheme() {
+        return refreshScheme;
+    }
+
+    public static ChangeMaterializedViewRefreshSchemeLog read(DataInput in) throws IOException {
+        return GsonUtils.GSON.fromJson(Text.readString(in), ChangeMaterializedViewRefreshSchemeLog.class);
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        String json = GsonUtils.GSON.toJson(this);
+        Text.writeString(out, json);
+    }
+}
@@ -211,6 +211,12 @@ public class EditLog {
                     globalStateMgr.replayCreateMaterializedView(info.getDbName(), ((MaterializedView) info.getTable()));
                     break;
                 }
+                case OperationType.OP_CHANGE_MATERIALIZED_VIEW_REFRESH_SCHEME: {
+                    ChangeMaterializedViewRefreshSchemeLog log =
+                            (ChangeMaterializedViewRefreshSchemeLog) journal.getData();
+                    globalStateMgr.replayChangeMaterializedViewRefreshScheme(log);
+                    break;
+                }
                 case OperationType.OP_ADD_PARTITION: {
                     PartitionPersistInfo info = (PartitionPersistInfo) journal.getData();
                     LOG.info("Begin to unprotect add partition. db = " + info.getDbId()
@@ -1002,6 +1008,10 @@ public class EditLog {
         logEdit(OperationType.OP_CREATE_MATERIALIZED_VIEW, info);
     }
 
+    public void logMvChangeRefreshScheme(ChangeMaterializedViewRefreshSchemeLog log) {
+        logEdit(OperationType.OP_CHANGE_MATERIALIZED_VIEW_REFRESH_SCHEME, log);
+    }
+
     public void logWorkGroupOp(WorkGroupOpEntry op) {
         logEdit(OperationType.OP_WORKGROUP, op);
     }
@@ -227,4 +227,5 @@ public class OperationType {
     public static final short OP_DROP_TASK_RUNS = 10083;
 
     public static final short OP_CREATE_MATERIALIZED_VIEW = 10094;
+    public static final short OP_CHANGE_MATERIALIZED_VIEW_REFRESH_SCHEME = 10095;
 }
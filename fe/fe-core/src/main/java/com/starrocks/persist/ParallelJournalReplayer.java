@@ -0,0 +1,126 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.journal.JournalEntity;
+import com.starrocks.meta.MetaContext;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.transaction.TransactionState;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Applies journal entries of different databases on multiple threads.
+ *
+ * Only the high frequency operations of loading and tablet scheduling, which touch a single database and which
+ * the master already runs concurrently for different databases, are dispatched. They are routed by database id
+ * to single threaded executors, so the entries of one database are still applied in journal order. Any other
+ * entry is a barrier, the caller has to wait for all the dispatched entries before applying it by itself.
+ *
+ * The caller advances the replayed journal id only after waitForAll(), so the id always points to the end of
+ * a fully applied prefix of the journal.
+ */
+public class ParallelJournalReplayer {
+    private static final Logger LOG = LogManager.getLogger(ParallelJournalReplayer.class);
+
+    public static final long NOT_PARTITIONED = -1;
+
+    // bound the entries in flight, so the replayed journal id does not lag behind too much
+    private static final int MAX_PENDING_ENTRIES = 1024;
+
+    private final GlobalStateMgr globalStateMgr;
+    private final MetaContext metaContext;
+    private final ThreadPoolExecutor[] executors;
+    private final List<Future<?>> pendingFutures = new ArrayList<>();
+
+    public ParallelJournalReplayer(GlobalStateMgr globalStateMgr, MetaContext metaContext, int parallelism) {
+        this.globalStateMgr = globalStateMgr;
+        this.metaContext = metaContext;
+        this.executors = new ThreadPoolExecutor[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            // one thread per executor keeps the entries of a database in order
+            executors[i] = ThreadPoolManager.newDaemonFixedThreadPool(1, MAX_PENDING_ENTRIES,
+                    "journal-replayer-" + i, false);
+        }
+    }
+
+    /**
+     * Returns the database id the entry should be serialized on, or NOT_PARTITIONED if the entry has to be
+     * applied after all the entries before it.
+     */
+    @VisibleForTesting
+    static long getPartitionKey(JournalEntity entity) {
+        switch (entity.getOpCode()) {
+            case OperationType.OP_UPSERT_TRANSACTION_STATE:
+            case OperationType.OP_DELETE_TRANSACTION_STATE:
+                return ((TransactionState) entity.getData()).getDbId();
+            case OperationType.OP_ADD_REPLICA:
+            case OperationType.OP_UPDATE_REPLICA:
+            case OperationType.OP_DELETE_REPLICA:
+                return ((ReplicaPersistInfo) entity.getData()).getDbId();
+            default:
+                return NOT_PARTITIONED;
+        }
+    }
+
+    /**
+     * Dispatches the entry if it can be applied in parallel, returns false if it is a barrier.
+     */
+    public boolean trySubmit(JournalEntity entity) {
+        long key = getPartitionKey(entity);
+        if (key == NOT_PARTITIONED) {
+            return false;
+        }
+        ThreadPoolExecutor executor = executors[(int) (Math.abs(key) % executors.length)];
+        pendingFutures.add(executor.submit(() -> {
+            metaContext.setThreadLocalInfo();
+            try {
+                EditLog.loadJournal(globalStateMgr, entity);
+            } catch (Throwable t) {
+                // same as a failure of serial replay, part of the journal is applied and can not be rolled back
+                LOG.error("failed to replay journal, op code {}", entity.getOpCode(), t);
+                System.exit(-1);
+            } finally {
+                MetaContext.remove();
+            }
+        }));
+        return true;
+    }
+
+    public boolean isFull() {
+        return pendingFutures.size() >= MAX_PENDING_ENTRIES;
+    }
+
+    /**
+     * Waits until all the dispatched entries are applied, returns the number of them.
+     * The wait is not interruptible, the caller must not lose count of the applied entries.
+     */
+    public int waitForAll() {
+        int num = pendingFutures.size();
+        try {
+            for (Future<?> future : pendingFutures) {
+                Uninterruptibles.getUninterruptibly(future);
+            }
+        } catch (ExecutionException e) {
+            // unreachable, the task exits the process on failure
+            throw new IllegalStateException(e);
+        }
+        pendingFutures.clear();
+        return num;
+    }
+
+    public void shutdown() {
+        for (ThreadPoolExecutor executor : executors) {
+            executor.shutdown();
+        }
+    }
+}
@@ -360,7 +360,7 @@ public class AggregationNode extends PlanNode {
             return false;
         }
         if (probeExpr.isBoundByTupleIds(getTupleIds())) {
-            if (probeExpr instanceof SlotRef) {
+            if (probeExpr instanceof SlotRef && description.canPushAcrossAggregation()) {
                 for (Expr gexpr : aggInfo.getGroupingExprs()) {
                     // push down only when both of them are slot ref and slot id match.
                     if ((gexpr instanceof SlotRef) &&
@@ -41,6 +41,7 @@ import com.starrocks.external.elasticsearch.EsShardRouting;
 import com.starrocks.external.elasticsearch.EsTablePartitions;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.system.Backend;
+import com.starrocks.system.BackendCoreStat;
 import com.starrocks.thrift.TEsScanNode;
 import com.starrocks.thrift.TEsScanRange;
 import com.starrocks.thrift.TExplainLevel;
@@ -220,9 +221,11 @@ public class EsScanNode extends ScanNode {
     public List<TScanRangeLocations> computeShardLocations(List<EsShardPartitions> selectedIndex) {
         int size = backendList.size();
         int beIndex = random.nextInt(size);
+        int maxSlicesPerShard = getMaxSlicesPerShard(selectedIndex);
         List<TScanRangeLocations> result = Lists.newArrayList();
         for (EsShardPartitions indexState : selectedIndex) {
-            for (List<EsShardRouting> shardRouting : indexState.getShardRoutings().values()) {
+            for (Map.Entry<Integer, List<EsShardRouting>> shardEntry : indexState.getShardRoutings().entrySet()) {
+                List<EsShardRouting> shardRouting = shardEntry.getValue();
                 // get backends
                 Set<Backend> colocatedBes = Sets.newHashSet();
                 int numBe = Math.min(3, size);
@@ -247,28 +250,36 @@ public class EsScanNode extends ScanNode {
                     Collections.shuffle(candidateBeList);
                 }
 
-                // Locations
-                TScanRangeLocations locations = new TScanRangeLocations();
-                for (int i = 0; i < numBe && i < candidateBeList.size(); ++i) {
-                    TScanRangeLocation location = new TScanRangeLocation();
-                    Backend be = candidateBeList.get(i);
-                    location.setBackend_id(be.getId());
-                    location.setServer(new TNetworkAddress(be.getHost(), be.getBePort()));
-                    locations.addToLocations(location);
-                }
+                // a large shard is scrolled by multiple slices in parallel, each slice is an individual scan range
+                int sliceNum = indexState.getSliceNum(shardEntry.getKey(), table.docsPerSlice(), maxSlicesPerShard);
+                for (int sliceId = 0; sliceId < sliceNum; ++sliceId) {
+                    // Locations, rotate the candidate backends to spread the slices of one shard
+                    TScanRangeLocations locations = new TScanRangeLocations();
+                    for (int i = 0; i < numBe && i < candidateBeList.size(); ++i) {
+                        TScanRangeLocation location = new TScanRangeLocation();
+                        Backend be = candidateBeList.get((i + sliceId) % candidateBeList.size());
+                        location.setBackend_id(be.getId());
+                        location.setServer(new TNetworkAddress(be.getHost(), be.getBePort()));
+                        locations.addToLocations(location);
+                    }
 
-                // Generate on es scan range
-                TEsScanRange esScanRange = new TEsScanRange();
-                esScanRange.setEs_hosts(shardAllocations);
-                esScanRange.setIndex(shardRouting.get(0).getIndexName());
-                esScanRange.setType(table.getMappingType());
-                esScanRange.setShard_id(shardRouting.get(0).getShardId());
-                // Scan range
-                TScanRange scanRange = new TScanRange();
-                scanRange.setEs_scan_range(esScanRange);
-                locations.setScan_range(scanRange);
-                // result
-                result.add(locations);
+                    // Generate on es scan range
+                    TEsScanRange esScanRange = new TEsScanRange();
+                    esScanRange.setEs_hosts(shardAllocations);
+                    esScanRange.setIndex(shardRouting.get(0).getIndexName());
+                    esScanRange.setType(table.getMappingType());
+                    esScanRange.setShard_id(shardRouting.get(0).getShardId());
+                    if (sliceNum > 1) {
+                        esScanRange.setSlice_id(sliceId);
+                        esScanRange.setSlice_max(sliceNum);
+                    }
+                    // Scan range
+                    TScanRange scanRange = new TScanRange();
+                    scanRange.setEs_scan_range(esScanRange);
+                    locations.setScan_range(scanRange);
+                    // result
+                    result.add(locations);
+                }
             }
 
         }
@@ -283,6 +294,26 @@ public class EsScanNode extends ScanNode {
         return result;
     }
 
+    /**
+     * The slices of all selected shards should not exceed the total cores of alive backends,
+     * more slices could not be scanned in parallel but only increase the load of ES cluster
+     */
+    private int getMaxSlicesPerShard(List<EsShardPartitions> selectedIndex) {
+        if (table.docsPerSlice() <= 0) {
+            return 1;
+        }
+        int numShards = 0;
+        for (EsShardPartitions indexState : selectedIndex) {
+            numShards += indexState.getShardRoutings().size();
+        }
+        int totalCores = 0;
+        for (Backend be : backendList) {
+            int cores = BackendCoreStat.getCoresOfBe(be.getId());
+            totalCores += cores > 0 ? cores : BackendCoreStat.getAvgNumOfHardwareCoresOfBe();
+        }
+        return Math.max(1, totalCores / Math.max(1, numShards));
+    }
+
     /**
      * if the index name is an alias or index pattern, then the es table is related
      * with one or more indices some indices could be pruned by using partition info
@@ -39,6 +39,7 @@ import com.starrocks.common.IdGenerator;
 import com.starrocks.common.UserException;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.qe.SessionVariable;
+import com.starrocks.sql.optimizer.base.RuntimeFilterEstimate;
 import com.starrocks.thrift.TEqJoinCondition;
 import com.starrocks.thrift.TExplainLevel;
 import com.starrocks.thrift.THashJoinNode;
@@ -50,6 +51,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -78,6 +80,8 @@ public abstract class JoinNode extends PlanNode implements RuntimeFilterBuildNod
     protected boolean isShuffleHashBucket = false;
 
     protected final List<RuntimeFilterDescription> buildRuntimeFilters = Lists.newArrayList();
+    // the runtime filters planned by the optimizer, keyed by the order of the equal join conjunct
+    protected Map<Integer, RuntimeFilterEstimate> runtimeFilterEstimates;
     protected final List<Integer> filter_null_value_columns = Lists.newArrayList();
     protected List<Expr> partitionExprs;
     protected List<Integer> outputSlots;
@@ -90,6 +94,10 @@ public abstract class JoinNode extends PlanNode implements RuntimeFilterBuildNod
         buildRuntimeFilters.removeIf(RuntimeFilterDescription::isHasRemoteTargets);
     }
 
+    public void setRuntimeFilterEstimates(Map<Integer, RuntimeFilterEstimate> runtimeFilterEstimates) {
+        this.runtimeFilterEstimates = runtimeFilterEstimates;
+    }
+
     public JoinNode(String planNodename, PlanNodeId id, PlanNode outer, PlanNode inner, TableRef innerRef,
                     List<Expr> eqJoinConjuncts, List<Expr> otherJoinConjuncts) {
         super(id, planNodename);
@@ -181,6 +189,21 @@ public abstract class JoinNode extends PlanNode implements RuntimeFilterBuildNod
             Preconditions.checkArgument(BinaryPredicate.IS_EQ_NULL_PREDICATE.apply(joinConjunct) ||
                     BinaryPredicate.IS_EQ_PREDICATE.apply(joinConjunct));
             RuntimeFilterDescription rf = new RuntimeFilterDescription(sessionVariable);
+            if (runtimeFilterEstimates != null) {
+                // the optimizer does not expect this filter to filter enough rows
+                if (!runtimeFilterEstimates.containsKey(i)) {
+                    continue;
+                }
+                RuntimeFilterEstimate estimate = runtimeFilterEstimates.get(i);
+                rf.setEstimate(estimate);
+                // keep the defaults for the operators the optimizer does not reach
+                if (estimate.isExchangeEvaluated()) {
+                    rf.setOnlyLocal(!estimate.canPushAcrossExchange());
+                }
+                if (estimate.isAggregationEvaluated()) {
+                    rf.setPushAcrossAggregation(estimate.canPushAcrossAggregation());
+                }
+            }
             rf.setFilterId(runtimeFilterIdIdGenerator.getNextId().asInt());
             rf.setBuildPlanNodeId(this.id.asInt());
             rf.setExprOrder(i);
@@ -110,6 +110,11 @@ public class OlapScanNode extends ScanNode {
     private long selectedIndexId = -1;
     private int selectedPartitionNum = 0;
     private Collection<Long> selectedPartitionIds = Lists.newArrayList();
+    // the key of the actual row count reported to the cardinality feedback, the factor the estimated row count
+    // is corrected by, and the estimated row count before the correction
+    private String cardinalityFeedbackKey = null;
+    private double cardinalityFeedbackFactor = 1;
+    private double uncorrectedCardinality = -1;
     private long actualRows = 0;
 
     // List of tablets will be scanned by current olap_scan_node
@@ -234,9 +239,9 @@ public class OlapScanNode extends ScanNode {
 
     private Collection<Long> partitionPrune(RangePartitionInfo partitionInfo, PartitionNames partitionNames)
             throws AnalysisException {
-        Map<Long, Range<PartitionKey>> keyRangeById = null;
+        PartitionPruner partitionPruner = null;
         if (partitionNames != null) {
-            keyRangeById = Maps.newHashMap();
+            Map<Long, Range<PartitionKey>> keyRangeById = Maps.newHashMap();
             for (String partName : partitionNames.getPartitionNames()) {
                 Partition part = olapTable.getPartition(partName, partitionNames.isTemp());
                 if (part == null) {
@@ -244,11 +249,12 @@ public class OlapScanNode extends ScanNode {
                 }
                 keyRangeById.put(part.getId(), partitionInfo.getRange(part.getId()));
             }
+            partitionPruner = new RangePartitionPruner(keyRangeById,
+                    partitionInfo.getPartitionColumns(), columnFilters);
         } else {
-            keyRangeById = partitionInfo.getIdToRange(false);
+            partitionPruner = new RangePartitionPruner(partitionInfo.getRangeIndex(),
+                    partitionInfo.getPartitionColumns(), columnFilters);
         }
-        PartitionPruner partitionPruner = new RangePartitionPruner(keyRangeById,
-                partitionInfo.getPartitionColumns(), columnFilters);
         return partitionPruner.prune();
     }
 
@@ -673,6 +679,24 @@ public class OlapScanNode extends ScanNode {
         this.totalTabletsNum = totalTabletsNum;
     }
 
+    public void setCardinalityFeedback(String key, double factor, double uncorrectedCardinality) {
+        this.cardinalityFeedbackKey = key;
+        this.cardinalityFeedbackFactor = factor;
+        this.uncorrectedCardinality = uncorrectedCardinality;
+    }
+
+    public String getCardinalityFeedbackKey() {
+        return cardinalityFeedbackKey;
+    }
+
+    public double getCardinalityFeedbackFactor() {
+        return cardinalityFeedbackFactor;
+    }
+
+    public double getUncorrectedCardinality() {
+        return uncorrectedCardinality;
+    }
+
     @Override
     public boolean canDoReplicatedJoin() {
         return Utils.canDoReplicatedJoin(olapTable, selectedIndexId, selectedPartitionIds, scanTabletIds);
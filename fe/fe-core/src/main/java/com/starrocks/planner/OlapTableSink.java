@@ -91,6 +91,8 @@ public class OlapTableSink extends DataSink {
 
     // set after init called
     private TDataSink tDataSink;
+    // BE id -> path hash of the replicas written, set after complete called
+    private Multimap<Long, Long> bePathsMap;
 
     public OlapTableSink(OlapTable dstTable, TupleDescriptor tupleDescriptor, List<Long> partitionIds) {
         this.dstTable = dstTable;
@@ -342,9 +344,14 @@ public class OlapTableSink extends DataSink {
         if (!st.ok()) {
             throw new DdlException(st.getErrorMsg());
         }
+        bePathsMap = allBePathsMap;
         return locationParam;
     }
 
+    public Multimap<Long, Long> getBePathsMap() {
+        return bePathsMap;
+    }
+
     private TNodesInfo createStarrocksNodesInfo() {
         TNodesInfo nodesInfo = new TNodesInfo();
         SystemInfoService systemInfoService = GlobalStateMgr.getCurrentState().getOrCreateSystemInfo(clusterId);
@@ -24,13 +24,12 @@ package com.starrocks.planner;
 import com.google.common.collect.BoundType;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Range;
-import com.google.common.collect.RangeMap;
 import com.google.common.collect.Sets;
-import com.google.common.collect.TreeRangeMap;
 import com.starrocks.analysis.LiteralExpr;
 import com.starrocks.analysis.NullLiteral;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.PartitionRangeIndex;
 import com.starrocks.catalog.Type;
 import com.starrocks.common.AnalysisException;
 import org.apache.logging.log4j.LogManager;
@@ -46,6 +45,7 @@ public class RangePartitionPruner implements PartitionPruner {
     private static final Logger LOG = LogManager.getLogger(RangePartitionPruner.class);
 
     private Map<Long, Range<PartitionKey>> partitionRangeMap;
+    private PartitionRangeIndex partitionRangeIndex;
     private List<Column> partitionColumns;
     private Map<String, PartitionColumnFilter> partitionColumnFilters;
 
@@ -57,7 +57,16 @@ public class RangePartitionPruner implements PartitionPruner {
         partitionColumnFilters = filters;
     }
 
-    private List<Long> prune(RangeMap<PartitionKey, Long> rangeMap,
+    // prune by the range index shared by the queries on the same partitions
+    public RangePartitionPruner(PartitionRangeIndex rangeIndex,
+                                List<Column> columns,
+                                Map<String, PartitionColumnFilter> filters) {
+        partitionRangeIndex = rangeIndex;
+        partitionColumns = columns;
+        partitionColumnFilters = filters;
+    }
+
+    private List<Long> prune(PartitionRangeIndex rangeIndex,
                              int columnIdx,
                              PartitionKey minKey,
                              PartitionKey maxKey,
@@ -67,7 +76,7 @@ public class RangePartitionPruner implements PartitionPruner {
         // the last column in partition Key
         if (columnIdx == partitionColumns.size()) {
             try {
-                return Lists.newArrayList(rangeMap.subRangeMap(Range.closed(minKey, maxKey)).asMapOfRanges().values());
+                return rangeIndex.getIntersectedPartitionIds(Range.closed(minKey, maxKey));
             } catch (IllegalArgumentException e) {
                 return Lists.newArrayList();
             }
@@ -82,8 +91,7 @@ public class RangePartitionPruner implements PartitionPruner {
                     keyColumn.getPrimitiveType());
             List<Long> result;
             try {
-                result = Lists.newArrayList(
-                        rangeMap.subRangeMap(Range.closed(minKey, maxKey)).asMapOfRanges().values());
+                result = rangeIndex.getIntersectedPartitionIds(Range.closed(minKey, maxKey));
             } catch (IllegalArgumentException e) {
                 result = Lists.newArrayList();
             }
@@ -108,7 +116,7 @@ public class RangePartitionPruner implements PartitionPruner {
                     minKey.pushColumn(filter.lowerBound, keyColumn.getPrimitiveType());
                     maxKey.pushColumn(filter.upperBound, keyColumn.getPrimitiveType());
                 }
-                List<Long> result = prune(rangeMap, columnIdx + 1, minKey, maxKey, complex);
+                List<Long> result = prune(rangeIndex, columnIdx + 1, minKey, maxKey, complex);
                 minKey.popColumn();
                 maxKey.popColumn();
                 return result;
@@ -153,8 +161,7 @@ public class RangePartitionPruner implements PartitionPruner {
 
             List<Long> result;
             try {
-                result = Lists.newArrayList(rangeMap.subRangeMap(
-                        Range.range(minKey, lowerType, maxKey, upperType)).asMapOfRanges().values());
+                result = rangeIndex.getIntersectedPartitionIds(Range.range(minKey, lowerType, maxKey, upperType));
             } catch (IllegalArgumentException e) {
                 result = Lists.newArrayList();
             }
@@ -172,7 +179,7 @@ public class RangePartitionPruner implements PartitionPruner {
         for (LiteralExpr expr : inPredicateLiterals) {
             minKey.pushColumn(expr, keyColumn.getPrimitiveType());
             maxKey.pushColumn(expr, keyColumn.getPrimitiveType());
-            Collection<Long> subList = prune(rangeMap, columnIdx + 1, minKey, maxKey, newComplex);
+            Collection<Long> subList = prune(rangeIndex, columnIdx + 1, minKey, maxKey, newComplex);
             resultSet.addAll(subList);
             minKey.popColumn();
             maxKey.popColumn();
@@ -184,11 +191,9 @@ public class RangePartitionPruner implements PartitionPruner {
     public List<Long> prune() throws AnalysisException {
         PartitionKey minKey = new PartitionKey();
         PartitionKey maxKey = new PartitionKey();
-        // Map to RangeMapTree
-        RangeMap<PartitionKey, Long> rangeMap = TreeRangeMap.create();
-        for (Map.Entry<Long, Range<PartitionKey>> entry : partitionRangeMap.entrySet()) {
-            rangeMap.put(entry.getValue(), entry.getKey());
+        if (partitionRangeIndex == null) {
+            partitionRangeIndex = new PartitionRangeIndex(partitionRangeMap);
         }
-        return prune(rangeMap, 0, minKey, maxKey, 1);
+        return prune(partitionRangeIndex, 0, minKey, maxKey, 1);
     }
 }
@@ -5,6 +5,7 @@ package com.starrocks.planner;
 import com.google.common.collect.Lists;
 import com.starrocks.analysis.Expr;
 import com.starrocks.qe.SessionVariable;
+import com.starrocks.sql.optimizer.base.RuntimeFilterEstimate;
 import com.starrocks.thrift.TNetworkAddress;
 import com.starrocks.thrift.TRuntimeFilterBuildJoinMode;
 import com.starrocks.thrift.TRuntimeFilterDescription;
@@ -44,6 +45,9 @@ public class RuntimeFilterDescription {
     private SessionVariable sessionVariable;
 
     private boolean onlyLocal;
+    private boolean pushAcrossAggregation;
+    // planned by the optimizer, null if the filter is planned by the shape of the plan only
+    private RuntimeFilterEstimate estimate;
 
     private List<Integer> bucketSeqToInstance = Lists.newArrayList();
 
@@ -61,6 +65,8 @@ public class RuntimeFilterDescription {
         equalForNull = false;
         sessionVariable = sv;
         onlyLocal = false;
+        pushAcrossAggregation = true;
+        estimate = null;
     }
 
     public boolean getEqualForNull() {
@@ -155,6 +161,18 @@ public class RuntimeFilterDescription {
         this.onlyLocal = onlyLocal;
     }
 
+    public boolean canPushAcrossAggregation() {
+        return pushAcrossAggregation;
+    }
+
+    public void setPushAcrossAggregation(boolean pushAcrossAggregation) {
+        this.pushAcrossAggregation = pushAcrossAggregation;
+    }
+
+    public void setEstimate(RuntimeFilterEstimate estimate) {
+        this.estimate = estimate;
+    }
+
     public boolean isLocalApplicable() {
         return joinMode.equals(JoinNode.DistributionMode.BROADCAST) ||
                 joinMode.equals(JoinNode.DistributionMode.COLOCATE) ||
@@ -226,6 +244,9 @@ public class RuntimeFilterDescription {
         } else {
             sb.append(", build_expr = (").append(buildExpr.toSql()).append(")");
             sb.append(", remote = ").append(hasRemoteTargets);
+            if (estimate != null) {
+                sb.append(", ").append(estimate);
+            }
         }
         return sb.toString();
     }
@@ -0,0 +1,229 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.planner;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.MaterializedIndexMeta;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.common.Config;
+import com.starrocks.common.DdlException;
+import com.starrocks.common.Status;
+import com.starrocks.common.UserException;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.optimizer.statistics.IDictManager;
+import com.starrocks.task.StreamLoadTask;
+import com.starrocks.thrift.TBrokerRangeDesc;
+import com.starrocks.thrift.TExecPlanFragmentParams;
+import com.starrocks.thrift.TFileType;
+import com.starrocks.thrift.TOlapTableSink;
+import com.starrocks.thrift.TScanRange;
+import com.starrocks.thrift.TScanRangeParams;
+import com.starrocks.thrift.TStreamLoadPutRequest;
+import com.starrocks.thrift.TUniqueId;
+
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plans of the stream loads, reused by the later loads with the same parameters to the same table.
+ *
+ * A cached plan is a template, the ids of the load and the transaction and the query globals are replaced
+ * in a copy of it for each load. The template is only reused while the signature of the table is unchanged,
+ * which covers the schema and the partitions of the table, the version of its tablets and replicas kept by
+ * the inverted index, and the alive backends. The signature is built without visiting the tablets.
+ *
+ * Planning checks the quorum of the normal replicas of each tablet (REPLICA_FEW_ERR) and the disk capacity of
+ * the backends written. On a hit, the disk capacity of the backends of the template is checked again, but the
+ * quorum is not, as it visits every replica. A replica becoming bad or changing its state, e.g. by a
+ * decommission, changes no version, so the template is reused until it expires after
+ * stream_load_plan_cache_expire_second in that case, and the load fails on the backends instead.
+ *
+ * The plans using the global dicts are not cached, the dicts may be changed by any load.
+ */
+public class StreamLoadPlanCache {
+    private static final StreamLoadPlanCache INSTANCE = new StreamLoadPlanCache();
+
+    private final Cache<Key, Template> cache = CacheBuilder.newBuilder()
+            .maximumSize(Config.stream_load_plan_cache_size)
+            .expireAfterWrite(Config.stream_load_plan_cache_expire_second, TimeUnit.SECONDS)
+            .build();
+
+    public static StreamLoadPlanCache getInstance() {
+        return INSTANCE;
+    }
+
+    // must be called with the read lock of table
+    public TExecPlanFragmentParams plan(Database db, OlapTable table, TStreamLoadPutRequest request)
+            throws UserException {
+        if (!Config.enable_stream_load_plan_cache) {
+            return createPlanner(db, table, request).plan(request.getLoadId());
+        }
+
+        Key key = new Key(db.getId(), table.getId(), request);
+        List<Long> signature = getSignature(table);
+        Template template = cache.getIfPresent(key);
+        if (template != null && template.signature.equals(signature)) {
+            // the same check as OlapTableSink, for a load planned to the disks since filled
+            Status st = GlobalStateMgr.getCurrentSystemInfo().checkExceedDiskCapacityLimit(template.bePathsMap, true);
+            if (!st.ok()) {
+                throw new DdlException(st.getErrorMsg());
+            }
+            TExecPlanFragmentParams params = template.params.deepCopy();
+            patch(params, request);
+            return params;
+        }
+
+        StreamLoadPlanner planner = createPlanner(db, table, request);
+        TExecPlanFragmentParams params = planner.plan(request.getLoadId());
+        if (planner.useGlobalDict()) {
+            cache.invalidate(key);
+        } else {
+            cache.put(key, new Template(params.deepCopy(), signature, planner.getBePathsMap()));
+        }
+        return params;
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    // not private to be replaced by the tests
+    static StreamLoadPlanner createPlanner(Database db, OlapTable table, TStreamLoadPutRequest request)
+            throws UserException {
+        StreamLoadTask streamLoadTask = StreamLoadTask.fromTStreamLoadPutRequest(request, db);
+        return new StreamLoadPlanner(db, table, streamLoadTask);
+    }
+
+    // everything of the table the plan depends on, except the health of the replicas,
+    // only the state of the table itself is used, so the changes of the other tables do not invalidate it
+    private static List<Long> getSignature(OlapTable table) {
+        List<Long> signature = Lists.newArrayList();
+        signature.add((long) table.getState().ordinal());
+        for (Map.Entry<Long, MaterializedIndexMeta> entry : table.getIndexIdToMeta().entrySet()) {
+            signature.add(entry.getKey());
+            signature.add((long) entry.getValue().getSchemaHash());
+            signature.add((long) entry.getValue().getSchemaVersion());
+        }
+        for (Partition partition : table.getAllPartitions()) {
+            signature.add(partition.getId());
+            signature.add((long) table.getPartitionInfo().getReplicationNum(partition.getId()));
+        }
+        // the tablets and the backends of their replicas of the table, which are in the sink of the plan
+        signature.add(GlobalStateMgr.getCurrentInvertedIndex().getReplicaVersion(table.getId()));
+        // a plan without the global dicts must not be reused after a dict is created, see StreamLoadPlanner
+        if (Config.enable_dict_optimize_stream_load) {
+            for (Column column : table.getFullSchema()) {
+                if (column.getType().isVarchar()) {
+                    signature.add(IDictManager.getInstance().hasGlobalDict(table.getId(), column.getName()) ? 1L : 0L);
+                }
+            }
+        }
+        List<Long> backendIds = GlobalStateMgr.getCurrentSystemInfo().getBackendIds(true);
+        Collections.sort(backendIds);
+        signature.addAll(backendIds);
+        return signature;
+    }
+
+    // replace what differs between the loads sharing a template, see StreamLoadPlanner.plan()
+    static void patch(TExecPlanFragmentParams params, TStreamLoadPutRequest request) {
+        TUniqueId loadId = request.getLoadId();
+        params.getParams().setQuery_id(loadId);
+        params.getParams().setFragment_instance_id(new TUniqueId(loadId.hi, loadId.lo + 1));
+
+        TOlapTableSink sink = params.getFragment().getOutput_sink().getOlap_table_sink();
+        sink.setLoad_id(loadId);
+        sink.setTxn_id(request.getTxnId());
+
+        for (List<TScanRangeParams> scanRanges : params.getParams().getPer_node_scan_ranges().values()) {
+            for (TScanRangeParams scanRange : scanRanges) {
+                TScanRange range = scanRange.getScan_range();
+                if (!range.isSetBroker_scan_range()) {
+                    continue;
+                }
+                for (TBrokerRangeDesc rangeDesc : range.getBroker_scan_range().getRanges()) {
+                    if (rangeDesc.getFile_type() == TFileType.FILE_LOCAL) {
+                        rangeDesc.setPath(request.getPath());
+                    } else if (rangeDesc.getFile_type() == TFileType.FILE_STREAM) {
+                        rangeDesc.setLoad_id(loadId);
+                    }
+                }
+            }
+        }
+
+        Date now = new Date();
+        params.getQuery_globals().setNow_string(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(now));
+        params.getQuery_globals().setTimestamp_ms(now.getTime());
+    }
+
+    // the parameters of the request that do not change the plan are cleared
+    static TStreamLoadPutRequest normalize(TStreamLoadPutRequest request) {
+        TStreamLoadPutRequest normalized = request.deepCopy();
+        normalized.unsetCluster();
+        normalized.unsetUser();
+        normalized.unsetPasswd();
+        normalized.unsetUser_ip();
+        normalized.unsetAuth_code();
+        normalized.unsetLoadId();
+        normalized.unsetTxnId();
+        normalized.unsetPath();
+        normalized.unsetThrift_rpc_timeout_ms();
+        return normalized;
+    }
+
+    private static class Key {
+        private final long dbId;
+        private final long tableId;
+        private final TStreamLoadPutRequest request;
+
+        Key(long dbId, long tableId, TStreamLoadPutRequest request) {
+            this.dbId = dbId;
+            this.tableId = tableId;
+            this.request = normalize(request);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return dbId == other.dbId && tableId == other.tableId && request.equals(other.request);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(dbId, tableId, request);
+        }
+    }
+
+    private static class Template {
+        private final TExecPlanFragmentParams params;
+        private final List<Long> signature;
+        // BE id -> path hash of the replicas written
+        private final Multimap<Long, Long> bePathsMap;
+
+        Template(TExecPlanFragmentParams params, List<Long> signature, Multimap<Long, Long> bePathsMap) {
+            this.params = params;
+            this.signature = signature;
+            this.bePathsMap = bePathsMap;
+        }
+    }
+}
@@ -23,6 +23,7 @@ package com.starrocks.planner;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
 import com.starrocks.analysis.Analyzer;
 import com.starrocks.analysis.DescriptorTable;
 import com.starrocks.analysis.PartitionNames;
@@ -80,6 +81,8 @@ public class StreamLoadPlanner {
 
     private Analyzer analyzer;
     private DescriptorTable descTable;
+    private boolean useGlobalDict = false;
+    private Multimap<Long, Long> bePathsMap;
 
     public StreamLoadPlanner(Database db, OlapTable destTable, StreamLoadTask streamLoadTask) {
         this.db = db;
@@ -100,6 +103,16 @@ public class StreamLoadPlanner {
         return destTable;
     }
 
+    // can only be called after "plan()"
+    public boolean useGlobalDict() {
+        return useGlobalDict;
+    }
+
+    // the backends and the disks written, can only be called after "plan()"
+    public Multimap<Long, Long> getBePathsMap() {
+        return bePathsMap;
+    }
+
     // create the plan. the plan's query id and load id are same, using the parameter 'loadId'
     public TExecPlanFragmentParams plan(TUniqueId loadId) throws UserException {
         boolean isPrimaryKey = destTable.getKeysType() == KeysType.PRIMARY_KEYS;
@@ -163,6 +176,7 @@ public class StreamLoadPlanner {
         OlapTableSink olapTableSink = new OlapTableSink(destTable, tupleDesc, partitionIds);
         olapTableSink.init(loadId, streamLoadTask.getTxnId(), db.getId(), streamLoadTask.getTimeout());
         olapTableSink.complete();
+        bePathsMap = olapTableSink.getBePathsMap();
 
         // for stream load, we only need one fragment, ScanNode -> DataSink.
         // OlapTableSink can dispatch data to corresponding node.
@@ -171,6 +185,7 @@ public class StreamLoadPlanner {
         // After data loading, we need to check the global dict for low cardinality string column
         // whether update.
         fragment.setLoadGlobalDicts(globalDicts);
+        useGlobalDict = !globalDicts.isEmpty();
 
         fragment.finalize(null, false);
 
@@ -17,7 +17,10 @@
 
 package com.starrocks.qe;
 
-import com.google.common.collect.Queues;
+import com.google.common.collect.Lists;
+import com.starrocks.common.Config;
+import com.starrocks.common.util.RingBuffer;
+import com.starrocks.metric.MetricRepo;
 import com.starrocks.plugin.AuditEvent;
 import com.starrocks.plugin.AuditPlugin;
 import com.starrocks.plugin.Plugin;
@@ -27,8 +30,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Class for processing all audit events.
@@ -37,13 +40,16 @@ import java.util.concurrent.TimeUnit;
 public class AuditEventProcessor {
     private static final Logger LOG = LogManager.getLogger(AuditEventProcessor.class);
     private static final long UPDATE_PLUGIN_INTERVAL_MS = 60 * 1000; // 1min
+    private static final int MAX_DRAIN_BATCH_SIZE = 1024;
+    private static final long IDLE_WAIT_NS = TimeUnit.MILLISECONDS.toNanos(10);
 
     private PluginMgr pluginMgr;
 
     private List<Plugin> auditPlugins;
     private long lastUpdateTime = 0;
 
-    private BlockingQueue<AuditEvent> eventQueue = Queues.newLinkedBlockingDeque(10000);
+    // query threads never block on it, events are dropped when it is full
+    private RingBuffer<AuditEvent> eventQueue = new RingBuffer<>(Config.audit_event_queue_capacity);
     private Thread workerThread;
 
     private volatile boolean isStopped = false;
@@ -70,17 +76,18 @@ public class AuditEventProcessor {
     }
 
     public void handleAuditEvent(AuditEvent auditEvent) {
-        try {
-            eventQueue.put(auditEvent);
-        } catch (InterruptedException e) {
-            LOG.debug("encounter exception when handle audit event, ignore", e);
+        if (!eventQueue.offer(auditEvent)) {
+            LOG.debug("audit event queue is full, drop audit event of query {}", auditEvent.queryId);
+            if (MetricRepo.isInit) {
+                MetricRepo.COUNTER_AUDIT_EVENT_DROPPED.increase(1L);
+            }
         }
     }
 
     public class Worker implements Runnable {
         @Override
         public void run() {
-            AuditEvent auditEvent;
+            List<AuditEvent> auditEvents = Lists.newArrayListWithCapacity(MAX_DRAIN_BATCH_SIZE);
             while (!isStopped) {
                 // update audit plugin list every UPDATE_PLUGIN_INTERVAL_MS.
                 // because some of plugins may be installed or uninstalled at runtime.
@@ -90,25 +97,23 @@ public class AuditEventProcessor {
                     LOG.debug("update audit plugins. num: {}", auditPlugins.size());
                 }
 
-                try {
-                    auditEvent = eventQueue.poll(5, TimeUnit.SECONDS);
-                    if (auditEvent == null) {
-                        continue;
-                    }
-                } catch (InterruptedException e) {
-                    LOG.debug("encounter exception when getting audit event from queue, ignore", e);
+                if (eventQueue.drainTo(auditEvents, MAX_DRAIN_BATCH_SIZE) == 0) {
+                    LockSupport.parkNanos(IDLE_WAIT_NS);
                     continue;
                 }
 
-                try {
-                    for (Plugin plugin : auditPlugins) {
-                        if (((AuditPlugin) plugin).eventFilter(auditEvent.type)) {
-                            ((AuditPlugin) plugin).exec(auditEvent);
+                for (AuditEvent auditEvent : auditEvents) {
+                    try {
+                        for (Plugin plugin : auditPlugins) {
+                            if (((AuditPlugin) plugin).eventFilter(auditEvent.type)) {
+                                ((AuditPlugin) plugin).exec(auditEvent);
+                            }
                         }
+                    } catch (Exception e) {
+                        LOG.debug("encounter exception when processing audit event.", e);
                     }
-                } catch (Exception e) {
-                    LOG.debug("encounter exception when processing audit event.", e);
                 }
+                auditEvents.clear();
             }
         }
 
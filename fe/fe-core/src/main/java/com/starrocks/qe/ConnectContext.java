@@ -25,6 +25,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.starrocks.analysis.UserIdentity;
 import com.starrocks.catalog.InternalCatalog;
+import com.starrocks.catalog.Table;
 import com.starrocks.catalog.WorkGroup;
 import com.starrocks.cluster.ClusterNamespace;
 import com.starrocks.common.util.TimeUtils;
@@ -43,6 +44,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.nio.channels.SocketChannel;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -148,6 +150,10 @@ public class ConnectContext {
     // The related db ids for current sql
     protected Set<Long> currentSqlDbIds = Sets.newHashSet();
 
+    // The tables resolved by the analyzer for current sql, db id -> table id -> table.
+    // Only collected while planning a query, which locks these tables instead of the whole dbs.
+    protected Map<Long, Map<Long, Table>> resolvedTables = null;
+
     protected PlannerProfile plannerProfile;
 
     protected WorkGroup workGroup;
@@ -468,6 +474,14 @@ public class ConnectContext {
         this.currentSqlDbIds = currentSqlDbIds;
     }
 
+    public Map<Long, Map<Long, Table>> getResolvedTables() {
+        return resolvedTables;
+    }
+
+    public void setResolvedTables(Map<Long, Map<Long, Table>> resolvedTables) {
+        this.resolvedTables = resolvedTables;
+    }
+
     public PlannerProfile getPlannerProfile() {
         return plannerProfile;
     }
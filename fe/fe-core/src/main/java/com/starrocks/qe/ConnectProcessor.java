@@ -69,6 +69,7 @@ import java.nio.channels.AsynchronousCloseException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Process one mysql connection, receive one pakcet, process, send one packet.
@@ -80,11 +81,19 @@ public class ConnectProcessor {
     private ByteBuffer packetBuf;
 
     private StmtExecutor executor = null;
+    // whether the caller resumes a query suspended waiting on its result, see resumeOnce()
+    private boolean suspendable = false;
+    // the statement of the suspended query, for the audit log
+    private String suspendedStmt;
 
     public ConnectProcessor(ConnectContext context) {
         this.ctx = context;
     }
 
+    public void setSuspendable(boolean suspendable) {
+        this.suspendable = suspendable;
+    }
+
     // COM_INIT_DB: change current database of this session.
     private void handleInitDb() {
         String identifier = new String(packetBuf.array(), 1, packetBuf.limit() - 1);
@@ -284,8 +293,15 @@ public class ConnectProcessor {
                 ctx.setExecutor(executor);
 
                 ctx.setIsLastStmt(i == stmts.size() - 1);
+                // the following statements of a multi-statement query can not be resumed
+                executor.setSuspendable(suspendable && stmts.size() == 1);
 
                 executor.execute();
+                if (executor.isSuspended()) {
+                    // audited by resumeOnce()
+                    suspendedStmt = originStmt;
+                    return;
+                }
 
                 // do not execute following stmt when current stmt failed, this is consistent with mysql server
                 if (ctx.getState().getStateType() == QueryState.MysqlStateType.ERR) {
@@ -434,7 +450,9 @@ public class ConnectProcessor {
                 break;
             case COM_QUERY:
                 handleQuery();
-                ctx.setStartTime();
+                if (!isSuspended()) {
+                    ctx.setStartTime();
+                }
                 break;
             case COM_FIELD_LIST:
                 handleFieldList();
@@ -670,12 +688,52 @@ public class ConnectProcessor {
 
         // dispatch
         dispatch();
+        if (isSuspended()) {
+            // finished by resumeOnce()
+            return;
+        }
         // finalize
         finalizeCommand();
 
         ctx.setCommand(MysqlCommand.COM_SLEEP);
     }
 
+    public boolean isSuspended() {
+        return executor != null && executor.isSuspended();
+    }
+
+    // completes once the suspended query can be resumed
+    public CompletableFuture<Void> getResultWait() {
+        return executor.getResultWait();
+    }
+
+    // Continue the query suspended waiting on its result, it is either suspended again or finished
+    // like in processOnce()
+    public void resumeOnce() throws IOException {
+        try {
+            executor.resume();
+            if (executor.isSuspended()) {
+                return;
+            }
+        } catch (IOException e) {
+            // Client failed.
+            LOG.warn("Process one query failed because IOException: ", e);
+            ctx.getState().setError("StarRocks process failed");
+        } catch (Throwable e) {
+            LOG.warn("Process one query failed because unknown reason: ", e);
+            ctx.getState().setError("Unexpected exception: " + e.getMessage());
+        }
+
+        auditAfterExec(suspendedStmt, executor.getParsedStmt(), executor.getQueryStatisticsForAuditLog());
+        addFinishedQueryDetail();
+        suspendedStmt = null;
+        ctx.setStartTime();
+
+        finalizeCommand();
+
+        ctx.setCommand(MysqlCommand.COM_SLEEP);
+    }
+
     public void loop() {
         while (!ctx.isKilled()) {
             try {
@@ -21,6 +21,7 @@
 
 package com.starrocks.qe;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.HashMultimap;
@@ -121,6 +122,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutionException;
@@ -286,6 +288,10 @@ public class Coordinator {
         this.queryOptions.setQuery_type(type);
     }
 
+    public List<ScanNode> getScanNodes() {
+        return scanNodes;
+    }
+
     public Status getExecStatus() {
         return queryStatus;
     }
@@ -392,6 +398,15 @@ public class Coordinator {
         }
     }
 
+    // Compute the scan range assignment and fragment instances the same way exec() does,
+    // without dispatching anything to backends.
+    @VisibleForTesting
+    public void prepareExec() throws Exception {
+        prepare();
+        computeScanRangeAssignment();
+        computeFragmentExecParams();
+    }
+
     // Initiate asynchronous execution of query. Returns as soon as all plan fragments
     // have started executing at their respective backends.
     // 'Request' must contain at least a coordinator plan fragment (ie, can't
@@ -836,6 +851,14 @@ public class Coordinator {
         }
     }
 
+    // completes once getNext can return without waiting on the backends
+    public CompletableFuture<Void> whenNextReady() {
+        if (receiver == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return receiver.whenNextReady();
+    }
+
     public RowBatch getNext() throws Exception {
         if (receiver == null) {
             throw new UserException("There is no receiver.");
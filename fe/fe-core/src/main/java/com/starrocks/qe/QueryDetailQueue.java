@@ -22,62 +22,126 @@
 package com.starrocks.qe;
 
 import com.google.common.collect.Lists;
+import com.starrocks.common.Config;
+import com.starrocks.metric.MetricRepo;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 // Queue of QueryDetail.
 // It's used to collect queries for monitor.
+// QueryDetails are kept in a ring buffer without any global lock, the timeout ones are released by the
+// adding threads, and the oldest ones are overwritten when the buffer is full even if they are not timeout.
 public class QueryDetailQueue {
-    private static final LinkedList<QueryDetail> totalQueries = new LinkedList<QueryDetail>();
-
     //starrocks-manager pull queries every 1 second
     //metrics calculate query latency every 15 second
     //do not set cacheTime lower than these time
     private static final long cacheTimeNS = 30000000000L;
-    private static long latestMS;
-    private static long latestMSCnt;
 
-    public static synchronized void addAndRemoveTimeoutQueryDetail(QueryDetail queryDetail) {
+    // the sequence and event time are assigned together, so the details are ordered by both of them
+    private static final class Cursor {
+        private final long seq;
+        private final long eventTime;
+
+        private Cursor(long seq, long eventTime) {
+            this.seq = seq;
+            this.eventTime = eventTime;
+        }
+    }
+
+    private static final class Slot {
+        private final long seq;
+        private final QueryDetail queryDetail;
+
+        private Slot(long seq, QueryDetail queryDetail) {
+            this.seq = seq;
+            this.queryDetail = queryDetail;
+        }
+    }
+
+    private static final int capacity = Math.max(1, Config.query_detail_queue_capacity);
+    private static final AtomicReferenceArray<Slot> totalQueries = new AtomicReferenceArray<>(capacity);
+    private static final AtomicReference<Cursor> latest = new AtomicReference<>(new Cursor(-1, 0));
+    // the sequence of the oldest detail not released yet
+    private static final AtomicLong oldest = new AtomicLong(0);
+
+    public static void addAndRemoveTimeoutQueryDetail(QueryDetail queryDetail) {
         //set event time here to guarantee order
-        long now = getCurrentTimeNS();
-        queryDetail.setEventTime(now);
-        totalQueries.add(queryDetail);
+        Cursor cursor = nextCursor();
+        queryDetail.setEventTime(cursor.eventTime);
+        Slot overwritten = totalQueries.getAndSet((int) (cursor.seq % capacity), new Slot(cursor.seq, queryDetail));
+        if (overwritten != null && overwritten.queryDetail.getEventTime() >= cursor.eventTime - cacheTimeNS
+                && MetricRepo.isInit) {
+            MetricRepo.COUNTER_QUERY_DETAIL_DROPPED.increase(1L);
+        }
+        removeTimeoutQueryDetails(cursor.eventTime - cacheTimeNS);
+    }
 
-        Iterator<QueryDetail> it = totalQueries.iterator();
-        long deleteTime = now - cacheTimeNS;
-        while (it.hasNext()) {
-            QueryDetail detail = it.next();
-            if (detail.getEventTime() < deleteTime) {
-                it.remove();
-            } else {
-                break;
+    // release the timeout details from the oldest one, so they are not kept until being overwritten
+    private static void removeTimeoutQueryDetails(long deleteTime) {
+        while (true) {
+            long seq = oldest.get();
+            if (seq > latest.get().seq) {
+                return;
+            }
+            Slot slot = totalQueries.get((int) (seq % capacity));
+            if (slot == null || slot.seq < seq) {
+                // the sequence is assigned but the detail has not been put yet
+                return;
+            }
+            if (slot.seq == seq && slot.queryDetail.getEventTime() >= deleteTime) {
+                return;
+            }
+            // timeout, or overwritten by the newer ones
+            if (oldest.compareAndSet(seq, seq + 1) && slot.seq == seq) {
+                totalQueries.compareAndSet((int) (seq % capacity), slot, null);
             }
         }
     }
 
-    public static synchronized List<QueryDetail> getQueryDetailsAfterTime(long eventTime) {
+    public static List<QueryDetail> getQueryDetailsAfterTime(long eventTime) {
         List<QueryDetail> results = Lists.newArrayList();
-        for (QueryDetail queryDetail : totalQueries) {
-            if (queryDetail.getEventTime() > eventTime) {
-                results.add(queryDetail);
+        long deleteTime = System.currentTimeMillis() * 1000000 - cacheTimeNS;
+        long latestSeq = latest.get().seq;
+        // scan from the latest one until the event time is out of range
+        for (long seq = latestSeq; seq >= 0 && seq > latestSeq - capacity; seq--) {
+            Slot slot = totalQueries.get((int) (seq % capacity));
+            if (slot == null && seq < oldest.get()) {
+                // released since timeout
+                break;
+            }
+            if (slot == null || slot.seq < seq) {
+                // the sequence is assigned but the detail has not been put yet, drop the newer ones,
+                // otherwise the puller moves its event time past this one and never gets it
+                results.clear();
+                continue;
             }
+            if (slot.seq > seq) {
+                // overwritten by the newer ones
+                break;
+            }
+            long detailEventTime = slot.queryDetail.getEventTime();
+            if (detailEventTime <= eventTime || detailEventTime < deleteTime) {
+                break;
+            }
+            results.add(slot.queryDetail);
         }
+        Collections.reverse(results);
         return results;
     }
 
-    //must get lock before call
     //NOTICE: this is not precise nano seconds, but good enough to make eventTime in order and unique
-    private static long getCurrentTimeNS() {
-        long ms = System.currentTimeMillis();
-        if (ms == latestMS) {
-            latestMSCnt++;
-            return ms * 1000000 + latestMSCnt;
-        } else {
-            latestMS = ms;
-            latestMSCnt = 0;
-            return ms * 1000000;
+    private static Cursor nextCursor() {
+        while (true) {
+            Cursor prev = latest.get();
+            long now = System.currentTimeMillis() * 1000000;
+            Cursor next = new Cursor(prev.seq + 1, Math.max(now, prev.eventTime + 1));
+            if (latest.compareAndSet(prev, next)) {
+                return next;
+            }
         }
     }
 };
@@ -0,0 +1,99 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Waits on the result fetches of the queries suspended without a thread, see StmtExecutor.resume.
+ * The futures of the rpc client take no callback, so one thread polls all of them, and completes the wait of
+ * a fetch once the fetch is done or its query times out.
+ */
+public class ResultFetchWaiter {
+    private static final Logger LOG = LogManager.getLogger(ResultFetchWaiter.class);
+    private static final long POLL_INTERVAL_NS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final ResultFetchWaiter INSTANCE = new ResultFetchWaiter();
+
+    // the waits added, taken by the waiter thread
+    private final ConcurrentLinkedQueue<Wait> newWaits = new ConcurrentLinkedQueue<>();
+    // only accessed by the waiter thread
+    private final List<Wait> waits = Lists.newArrayList();
+    private final Thread thread;
+
+    private ResultFetchWaiter() {
+        thread = new Thread(this::run, "result-fetch-waiter");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static ResultFetchWaiter getInstance() {
+        return INSTANCE;
+    }
+
+    // The returned future is completed by the waiter thread, so its callbacks must not block
+    public CompletableFuture<Void> await(Future<?> fetch, long timeoutTs) {
+        Wait wait = new Wait(fetch, timeoutTs);
+        newWaits.add(wait);
+        LockSupport.unpark(thread);
+        return wait.done;
+    }
+
+    private void run() {
+        while (true) {
+            try {
+                Wait wait;
+                while ((wait = newWaits.poll()) != null) {
+                    waits.add(wait);
+                }
+                if (waits.isEmpty()) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                long now = System.currentTimeMillis();
+                Iterator<Wait> iterator = waits.iterator();
+                while (iterator.hasNext()) {
+                    wait = iterator.next();
+                    if (wait.fetch.isDone() || now >= wait.timeoutTs) {
+                        iterator.remove();
+                        complete(wait);
+                    }
+                }
+                if (!waits.isEmpty()) {
+                    LockSupport.parkNanos(this, POLL_INTERVAL_NS);
+                }
+            } catch (Throwable e) {
+                LOG.warn("result fetch waiter exception", e);
+            }
+        }
+    }
+
+    private static void complete(Wait wait) {
+        try {
+            wait.done.complete(null);
+        } catch (Throwable e) {
+            LOG.warn("failed to continue the query waiting on its result", e);
+        }
+    }
+
+    private static class Wait {
+        private final Future<?> fetch;
+        private final long timeoutTs;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Wait(Future<?> fetch, long timeoutTs) {
+            this.fetch = fetch;
+            this.timeoutTs = timeoutTs;
+        }
+    }
+}
@@ -38,6 +38,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.thrift.TDeserializer;
 import org.apache.thrift.TException;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -46,13 +47,17 @@ import java.util.concurrent.TimeoutException;
 public class ResultReceiver {
     private static final Logger LOG = LogManager.getLogger(ResultReceiver.class);
     private boolean isDone = false;
-    private boolean isCancel = false;
+    private volatile boolean isCancel = false;
     private long packetIdx = 0;
     private final long timeoutTs;
     private final TNetworkAddress address;
     private final PUniqueId finstId;
     private final Long backendId;
     private Thread currentThread;
+    // the fetch of the next batch, sent as soon as the current batch arrives, so the BE prepares and transfers
+    // the next batch while the current one is being sent to the client
+    private PFetchDataRequest pendingRequest;
+    private Future<PFetchDataResult> pendingFuture;
 
     public ResultReceiver(TUniqueId tid, Long backendId, TNetworkAddress address, int timeoutMs) {
         this.finstId = new PUniqueId();
@@ -70,10 +75,19 @@ public class ResultReceiver {
         final RowBatch rowBatch = new RowBatch();
         try {
             while (!isDone && !isCancel) {
-                PFetchDataRequest request = new PFetchDataRequest(finstId);
-
                 currentThread = Thread.currentThread();
-                Future<PFetchDataResult> future = BackendServiceProxy.getInstance().fetchDataAsync(address, request);
+                PFetchDataRequest request;
+                Future<PFetchDataResult> future;
+                synchronized (this) {
+                    request = pendingRequest;
+                    future = pendingFuture;
+                    pendingRequest = null;
+                    pendingFuture = null;
+                }
+                if (future == null) {
+                    request = new PFetchDataRequest(finstId);
+                    future = BackendServiceProxy.getInstance().fetchDataAsync(address, request);
+                }
                 PFetchDataResult pResult = null;
                 while (pResult == null) {
                     long currentTs = System.currentTimeMillis();
@@ -107,6 +121,9 @@ public class ResultReceiver {
 
                 packetIdx++;
                 isDone = pResult.eos;
+                if (!isDone && !isCancel) {
+                    prefetch();
+                }
 
                 byte[] serialResult = request.getSerializedResult();
                 if (serialResult != null && serialResult.length > 0) {
@@ -152,9 +169,62 @@ public class ResultReceiver {
         return rowBatch;
     }
 
+    // Completes once getNext can return without waiting on the backend, or once the query times out,
+    // the fetch of the next batch is sent here if not yet
+    public CompletableFuture<Void> whenNextReady() {
+        if (isDone || isCancel) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Future<PFetchDataResult> future;
+        synchronized (this) {
+            future = pendingFuture;
+        }
+        if (future == null) {
+            prefetch();
+            synchronized (this) {
+                future = pendingFuture;
+            }
+            if (future == null) {
+                // getNext sends the fetch again and reports the error
+                return CompletableFuture.completedFuture(null);
+            }
+        }
+        if (future.isDone()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return ResultFetchWaiter.getInstance().await(future, timeoutTs);
+    }
+
+    private void prefetch() {
+        PFetchDataRequest request = new PFetchDataRequest(finstId);
+        Future<PFetchDataResult> future;
+        try {
+            future = BackendServiceProxy.getInstance().fetchDataAsync(address, request);
+        } catch (RpcException e) {
+            // fetch it again in the next getNext, which reports the error if it still fails
+            LOG.debug("prefetch result rpc exception, finstId={}", DebugUtil.printId(finstId), e);
+            return;
+        }
+        synchronized (this) {
+            if (isCancel) {
+                // cancelled while the fetch is sent
+                future.cancel(true);
+                return;
+            }
+            pendingRequest = request;
+            pendingFuture = future;
+        }
+    }
+
     public void cancel() {
-        isCancel = true;
         synchronized (this) {
+            isCancel = true;
+            // the batch prefetched is never read
+            if (pendingFuture != null) {
+                pendingFuture.cancel(true);
+                pendingRequest = null;
+                pendingFuture = null;
+            }
             if (currentThread != null) {
                 // TODO(cmy): we cannot interrupt this thread, or we may throw
                 // java.nio.channels.ClosedByInterruptException when we call
@@ -189,6 +189,11 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String CBO_CTE_REUSE_RATE = "cbo_cte_reuse_rate";
     public static final String ENABLE_SQL_DIGEST = "enable_sql_digest";
     public static final String CBO_MAX_REORDER_NODE = "cbo_max_reorder_node";
+    public static final String ENABLE_MATERIALIZED_VIEW_REWRITE = "enable_materialized_view_rewrite";
+    public static final String ENABLE_DYNAMIC_PARTITION_PRUNE = "enable_dynamic_partition_prune";
+    public static final String DYNAMIC_PARTITION_PRUNE_MAX_DIM_ROWS = "dynamic_partition_prune_max_dim_rows";
+    public static final String DYNAMIC_PARTITION_PRUNE_TIMEOUT = "dynamic_partition_prune_timeout";
+    public static final String ENABLE_CARDINALITY_FEEDBACK = "enable_cardinality_feedback";
     // --------  New planner session variables end --------
 
     // Type of compression of transmitted data
@@ -203,6 +208,9 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     public static final String GLOBAL_RUNTIME_FILTER_PROBE_MIN_SIZE = "global_runtime_filter_probe_min_size";
     public static final String GLOBAL_RUNTIME_FILTER_PROBE_MIN_SELECTIVITY =
             "global_runtime_filter_probe_min_selectivity";
+    // plan runtime filters in the optimizer by the estimated selectivity of them
+    public static final String ENABLE_COST_BASED_RUNTIME_FILTER = "enable_cost_based_runtime_filter";
+    public static final String RUNTIME_FILTER_MIN_SELECTIVITY = "runtime_filter_min_selectivity";
 
     public static final String ENABLE_COLUMN_EXPR_PREDICATE = "enable_column_expr_predicate";
     public static final String ENABLE_EXCHANGE_PASS_THROUGH = "enable_exchange_pass_through";
@@ -384,6 +392,27 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VarAttr(name = ENABLE_SQL_DIGEST, flag = VariableMgr.INVISIBLE)
     private boolean enableSQLDigest = false;
 
+    // rewrite the queries to scan the fresh asynchronous materialized views if they cost less
+    @VarAttr(name = ENABLE_MATERIALIZED_VIEW_REWRITE)
+    private boolean enableMaterializedViewRewrite = true;
+
+    // prune the partitions of a fact table by the join keys read from a filtered dimension table
+    // with at most dynamic_partition_prune_max_dim_rows rows while planning
+    @VarAttr(name = ENABLE_DYNAMIC_PARTITION_PRUNE)
+    private boolean enableDynamicPartitionPrune = false;
+
+    @VarAttr(name = DYNAMIC_PARTITION_PRUNE_MAX_DIM_ROWS)
+    private long dynamicPartitionPruneMaxDimRows = 100000;
+
+    // the timeout in seconds of reading the join keys, the partitions are not pruned if it's exceeded
+    @VarAttr(name = DYNAMIC_PARTITION_PRUNE_TIMEOUT)
+    private int dynamicPartitionPruneTimeout = 5;
+
+    // correct the estimated row counts of olap scans by the actual ones in the profiles of the former queries,
+    // which are only reported if the profile is enabled
+    @VarAttr(name = ENABLE_CARDINALITY_FEEDBACK)
+    private boolean enableCardinalityFeedback = false;
+
     /*
      * the parallel exec instance num for one Fragment in one BE
      * 1 means disable this feature
@@ -495,6 +524,12 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
     @VariableMgr.VarAttr(name = GLOBAL_RUNTIME_FILTER_PROBE_MIN_SELECTIVITY, flag = VariableMgr.INVISIBLE)
     private float globalRuntimeFilterProbeMinSelectivity = 0.5f;
 
+    @VariableMgr.VarAttr(name = ENABLE_COST_BASED_RUNTIME_FILTER)
+    private boolean enableCostBasedRuntimeFilter = false;
+    // a runtime filter is built only if it is estimated to filter at least this ratio of the probe rows
+    @VariableMgr.VarAttr(name = RUNTIME_FILTER_MIN_SELECTIVITY, flag = VariableMgr.INVISIBLE)
+    private float runtimeFilterMinSelectivity = 0.1f;
+
     //In order to be compatible with the logic of the old planner,
     //When the column name is the same as the alias name,
     //the alias will be used as the groupby column if set to true.
@@ -782,6 +817,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         return cboMaxReorderNodeUseDP;
     }
 
+    public void setCboMaxReorderNodeUseDP(long cboMaxReorderNodeUseDP) {
+        this.cboMaxReorderNodeUseDP = cboMaxReorderNodeUseDP;
+    }
+
     public boolean isCboEnableGreedyJoinReorder() {
         return cboEnableGreedyJoinReorder;
     }
@@ -858,6 +897,10 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         return globalRuntimeFilterBuildMaxSize;
     }
 
+    public void setGlobalRuntimeFilterBuildMaxSize(long globalRuntimeFilterBuildMaxSize) {
+        this.globalRuntimeFilterBuildMaxSize = globalRuntimeFilterBuildMaxSize;
+    }
+
     public long getGlobalRuntimeFilterProbeMinSize() {
         return globalRuntimeFilterProbeMinSize;
     }
@@ -866,6 +909,22 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         return globalRuntimeFilterProbeMinSelectivity;
     }
 
+    public boolean isEnableCostBasedRuntimeFilter() {
+        return enableCostBasedRuntimeFilter;
+    }
+
+    public void setEnableCostBasedRuntimeFilter(boolean enableCostBasedRuntimeFilter) {
+        this.enableCostBasedRuntimeFilter = enableCostBasedRuntimeFilter;
+    }
+
+    public float getRuntimeFilterMinSelectivity() {
+        return runtimeFilterMinSelectivity;
+    }
+
+    public void setRuntimeFilterMinSelectivity(float runtimeFilterMinSelectivity) {
+        this.runtimeFilterMinSelectivity = runtimeFilterMinSelectivity;
+    }
+
     public boolean isEnablePipelineEngine() {
         return enablePipelineEngine;
     }
@@ -989,6 +1048,38 @@ public class SessionVariable implements Serializable, Writable, Cloneable {
         return enableSQLDigest;
     }
 
+    public boolean isEnableMaterializedViewRewrite() {
+        return enableMaterializedViewRewrite;
+    }
+
+    public void setEnableMaterializedViewRewrite(boolean enableMaterializedViewRewrite) {
+        this.enableMaterializedViewRewrite = enableMaterializedViewRewrite;
+    }
+
+    public boolean isEnableDynamicPartitionPrune() {
+        return enableDynamicPartitionPrune;
+    }
+
+    public void setEnableDynamicPartitionPrune(boolean enableDynamicPartitionPrune) {
+        this.enableDynamicPartitionPrune = enableDynamicPartitionPrune;
+    }
+
+    public long getDynamicPartitionPruneMaxDimRows() {
+        return dynamicPartitionPruneMaxDimRows;
+    }
+
+    public int getDynamicPartitionPruneTimeout() {
+        return dynamicPartitionPruneTimeout;
+    }
+
+    public boolean isEnableCardinalityFeedback() {
+        return enableCardinalityFeedback;
+    }
+
+    public void setEnableCardinalityFeedback(boolean enableCardinalityFeedback) {
+        this.enableCardinalityFeedback = enableCardinalityFeedback;
+    }
+
     public String getJoinImplementationMode() {
         return joinImplementationMode;
     }
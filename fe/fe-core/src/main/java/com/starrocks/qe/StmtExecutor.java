@@ -101,6 +101,7 @@ import com.starrocks.sql.ast.SelectRelation;
 import com.starrocks.sql.common.ErrorType;
 import com.starrocks.sql.common.MetaUtils;
 import com.starrocks.sql.common.StarRocksPlannerException;
+import com.starrocks.sql.optimizer.statistics.CardinalityFeedback;
 import com.starrocks.sql.parser.ParsingException;
 import com.starrocks.sql.plan.ExecPlan;
 import com.starrocks.statistic.AnalyzeJob;
@@ -126,6 +127,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.starrocks.sql.common.UnsupportedException.unsupportedException;
@@ -149,6 +151,13 @@ public class StmtExecutor {
     private final boolean isProxy;
     private ShowResultSet proxyResultSet = null;
     private PQueryStatistics statisticsForAuditLog;
+    // set by the caller which resumes the query suspended waiting on its result, see resume()
+    private boolean suspendable = false;
+    // the wait of the query suspended on its next result batch, no thread is held meanwhile
+    private CompletableFuture<Void> resultWait;
+    private QueryResult queryResult;
+    private long beginTimeInNanoSecond;
+    private SessionVariable sessionVariableBackup;
 
     // this constructor is mainly for proxy
     public StmtExecutor(ConnectContext context, OriginStatement originStmt, boolean isProxy) {
@@ -205,6 +214,10 @@ public class StmtExecutor {
         if (coord != null) {
             coord.getQueryProfile().getCounterTotalTime().setValue(TimeUtils.getEstimatedTime(beginTimeInNanoSecond));
             coord.endProfile();
+            // before the counters of the instances are merged
+            if (coord.isDone() && coord.getExecStatus().ok()) {
+                CardinalityFeedback.getInstance().collect(coord.getScanNodes(), coord.getQueryProfile());
+            }
             coord.mergeIsomorphicProfiles();
             profile.addChild(coord.getQueryProfile());
             coord = null;
@@ -262,14 +275,14 @@ public class StmtExecutor {
     // Exception:
     //  IOException: talk with client failed.
     public void execute() throws Exception {
-        long beginTimeInNanoSecond = TimeUtils.getStartTime();
+        beginTimeInNanoSecond = TimeUtils.getStartTime();
         context.setStmtId(STMT_ID_GENERATOR.incrementAndGet());
 
         // set execution id.
         // Try to use query id as execution id when execute first time.
         UUID uuid = context.getQueryId();
         context.setExecutionId(UUIDUtil.toTUniqueId(uuid));
-        SessionVariable sessionVariableBackup = context.getSessionVariable();
+        sessionVariableBackup = context.getSessionVariable();
         try {
             // parsedStmt may already by set when constructing this StmtExecutor();
             resolveParseStmtForForward();
@@ -392,6 +405,10 @@ public class StmtExecutor {
                         handleQueryStmt(execPlan.getFragments(), execPlan.getScanNodes(),
                                 execPlan.getDescTbl().toThrift(),
                                 execPlan.getColNames(), execPlan.getOutputExprs(), explainStringBuilder.toString());
+                        if (isSuspended()) {
+                            // finished by resume()
+                            return;
+                        }
 
                         if (context.getSessionVariable().isReportSucc()) {
                             writeProfile(beginTimeInNanoSecond);
@@ -407,7 +424,9 @@ public class StmtExecutor {
                             throw e;
                         }
                     } finally {
-                        QeProcessorImpl.INSTANCE.unregisterQuery(context.getExecutionId());
+                        if (!isSuspended()) {
+                            QeProcessorImpl.INSTANCE.unregisterQuery(context.getExecutionId());
+                        }
                     }
                 }
             } else if (parsedStmt instanceof SetStmt) {
@@ -499,7 +518,59 @@ public class StmtExecutor {
                     }
                 }
             }
-            context.setSessionVariable(sessionVariableBackup);
+            if (!isSuspended()) {
+                context.setSessionVariable(sessionVariableBackup);
+            }
+        }
+    }
+
+    public void setSuspendable(boolean suspendable) {
+        this.suspendable = suspendable;
+    }
+
+    public boolean isSuspended() {
+        return resultWait != null;
+    }
+
+    // completes once the next result batch of the suspended query arrives
+    public CompletableFuture<Void> getResultWait() {
+        return resultWait;
+    }
+
+    // Continue the query suspended waiting on its next result batch, once the batch arrives.
+    // The query is either suspended again or finished like in execute(), but not retried.
+    public void resume() throws Exception {
+        resultWait = null;
+        try {
+            try {
+                if (!sendQueryResult()) {
+                    return;
+                }
+                finishQueryResult();
+                if (context.getSessionVariable().isReportSucc()) {
+                    writeProfile(beginTimeInNanoSecond);
+                }
+            } finally {
+                if (!isSuspended()) {
+                    QeProcessorImpl.INSTANCE.unregisterQuery(context.getExecutionId());
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("execute IOException ", e);
+            context.getState().setError(e.getMessage());
+            throw e;
+        } catch (UserException e) {
+            LOG.info("execute Exception. {}", e.getMessage());
+            context.getState().setError(e.getMessage());
+            context.getState().setErrType(QueryState.ErrType.ANALYSIS_ERR);
+        } catch (Throwable e) {
+            String sql = originStmt != null ? originStmt.originStmt : "";
+            LOG.warn("execute Exception, sql " + sql, e);
+            context.getState().setError(e.getMessage());
+        } finally {
+            if (!isSuspended()) {
+                context.setSessionVariable(sessionVariableBackup);
+            }
         }
     }
 
@@ -566,11 +637,9 @@ public class StmtExecutor {
         long profileEndTime = System.currentTimeMillis();
         profile.getChildMap().get("Summary")
                 .addInfoString(ProfileManager.PROFILE_TIME, DebugUtil.getPrettyStringMs(profileEndTime - profileBeginTime));
-        StringBuilder builder = new StringBuilder();
-        profile.prettyPrint(builder, "");
-        String profileContent = ProfileManager.getInstance().pushProfile(profile);
+        ProfileManager.getInstance().pushProfile(profile);
         if (context.getQueryDetail() != null) {
-            context.getQueryDetail().setProfile(profileContent);
+            context.getQueryDetail().setProfile(profile.toString());
         }
     }
 
@@ -698,48 +767,57 @@ public class StmtExecutor {
         //          Query OK, 10 rows affected (0.01 sec)
         //
         // 2. If this is a query, send the result expr fields first, and send result data back to client.
-        RowBatch batch;
-        MysqlChannel channel = context.getMysqlChannel();
         boolean isOutfileQuery = false;
         if (queryStmt instanceof QueryStmt) {
             isOutfileQuery = ((QueryStmt) queryStmt).hasOutFileClause();
         } else if (queryStmt instanceof QueryStatement) {
             isOutfileQuery = ((QueryStatement) queryStmt).hasOutFileClause();
         }
-        boolean isSendFields = false;
+        queryResult = new QueryResult(colNames, outputExprs, isOutfileQuery);
+        if (sendQueryResult()) {
+            finishQueryResult();
+        }
+    }
+
+    // Send the result batches until the eos. Returns false if the query is suspended instead of waiting on
+    // the next batch, the batches are sent on by resume() then.
+    private boolean sendQueryResult() throws Exception {
+        MysqlChannel channel = context.getMysqlChannel();
         while (true) {
-            batch = coord.getNext();
+            if (suspendable && Config.enable_mysql_async_result_wait) {
+                CompletableFuture<Void> wait = coord.whenNextReady();
+                if (!wait.isDone()) {
+                    resultWait = wait;
+                    return false;
+                }
+            }
+            RowBatch batch = coord.getNext();
+            queryResult.batch = batch;
             // for outfile query, there will be only one empty batch send back with eos flag
-            if (batch.getBatch() != null && !isOutfileQuery) {
+            if (batch.getBatch() != null && !queryResult.isOutfileQuery) {
                 // For some language driver, getting error packet after fields packet will be recognized as a success result
                 // so We need to send fields after first batch arrived
-                if (!isSendFields) {
-                    sendFields(colNames, outputExprs);
-                    isSendFields = true;
-                }
-                if (channel.isSendBufferNull()) {
-                    int bufferSize = 0;
-                    for (ByteBuffer row : batch.getBatch().getRows()) {
-                        bufferSize += (row.position() - row.limit());
-                    }
-                    // +8 for header size
-                    channel.initBuffer(bufferSize + 8);
-                }
-
-                for (ByteBuffer row : batch.getBatch().getRows()) {
-                    channel.sendOnePacket(row);
+                if (!queryResult.isSendFields) {
+                    sendFields(queryResult.colNames, queryResult.outputExprs);
+                    queryResult.isSendFields = true;
                 }
+                channel.sendPackets(batch.getBatch().getRows());
                 context.updateReturnRows(batch.getBatch().getRows().size());
             }
             if (batch.isEos()) {
-                break;
+                return true;
             }
         }
-        if (!isSendFields && !isOutfileQuery) {
-            sendFields(colNames, outputExprs);
+    }
+
+    private void finishQueryResult() throws IOException {
+        boolean isOutfileQuery = queryResult.isOutfileQuery;
+        if (!queryResult.isSendFields && !isOutfileQuery) {
+            sendFields(queryResult.colNames, queryResult.outputExprs);
         }
 
-        statisticsForAuditLog = batch.getQueryStatistics();
+        statisticsForAuditLog = queryResult.batch.getQueryStatistics();
+        queryResult = null;
         if (!isOutfileQuery) {
             context.getState().setEof();
         } else {
@@ -763,6 +841,21 @@ public class StmtExecutor {
         }
     }
 
+    // the result of a query being sent to the client, kept while the query is suspended
+    private static class QueryResult {
+        private final List<String> colNames;
+        private final List<Expr> outputExprs;
+        private final boolean isOutfileQuery;
+        private boolean isSendFields = false;
+        private RowBatch batch;
+
+        QueryResult(List<String> colNames, List<Expr> outputExprs, boolean isOutfileQuery) {
+            this.colNames = colNames;
+            this.outputExprs = outputExprs;
+            this.isOutfileQuery = isOutfileQuery;
+        }
+    }
+
     private void handleAnalyzeStmt() throws Exception {
         AnalyzeStmt analyzeStmt = (AnalyzeStmt) parsedStmt;
         StatisticExecutor statisticExecutor = new StatisticExecutor();
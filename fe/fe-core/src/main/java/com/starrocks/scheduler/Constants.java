@@ -13,4 +13,10 @@ public class Constants {
         SUCCESS,
     }
 
+    // the source of a task decides how its TaskRun is processed
+    public enum TaskSource {
+        CTAS,
+        MV,
+    }
+
 }
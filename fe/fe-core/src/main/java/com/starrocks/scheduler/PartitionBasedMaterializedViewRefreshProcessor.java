@@ -0,0 +1,563 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.scheduler;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.AddPartitionClause;
+import com.starrocks.analysis.DateLiteral;
+import com.starrocks.analysis.DropPartitionClause;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.FunctionCallExpr;
+import com.starrocks.analysis.PartitionKeyDesc;
+import com.starrocks.analysis.PartitionNames;
+import com.starrocks.analysis.PartitionValue;
+import com.starrocks.analysis.ReplacePartitionClause;
+import com.starrocks.analysis.SingleRangePartitionDesc;
+import com.starrocks.analysis.SlotRef;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.analysis.StringLiteral;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.ExpressionRangePartitionInfo;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.PartitionInfo;
+import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.PrimitiveType;
+import com.starrocks.catalog.RangePartitionInfo;
+import com.starrocks.catalog.Table;
+import com.starrocks.cluster.ClusterNamespace;
+import com.starrocks.common.AnalysisException;
+import com.starrocks.common.Config;
+import com.starrocks.common.DdlException;
+import com.starrocks.common.ThreadPoolManager;
+import com.starrocks.common.util.UUIDUtil;
+import com.starrocks.persist.ChangeMaterializedViewRefreshSchemeLog;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.OriginStatement;
+import com.starrocks.qe.QueryState;
+import com.starrocks.qe.SessionVariable;
+import com.starrocks.qe.StmtExecutor;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.parser.SqlParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Refresh an asynchronous materialized view partition by partition.
+ * <p>
+ * The partitions of the view are derived from the partitions of its reference base table, the base table
+ * partitioned by the column of the partition expression of the view. A partition of the view covers the range of
+ * one partition of the reference table, or the ranges rounded by date_trunc of several partitions.
+ * <p>
+ * The visible versions of the partitions of the base tables are compared with the versions recorded by the last
+ * refresh. Only the partitions of the view covering a changed partition of the reference table are rebuilt,
+ * and all of them if another base table is changed. A partition is rebuilt into a temporary partition, which
+ * then replaces it, so the queries always see the complete data of the partition.
+ */
+public class PartitionBasedMaterializedViewRefreshProcessor implements TaskRunProcessor {
+    private static final Logger LOG = LogManager.getLogger(PartitionBasedMaterializedViewRefreshProcessor.class);
+
+    public static final String MV_ID = "mvId";
+
+    private static final String TEMP_PARTITION_PREFIX = "tp_";
+    private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Override
+    public void processTaskRun(TaskRunContext context) throws Exception {
+        ConnectContext ctx = context.getCtx();
+        long mvId = Long.parseLong(context.getProperties().get(MV_ID));
+        Database db = GlobalStateMgr.getCurrentState().getDb(ctx.getDatabase());
+        if (db == null) {
+            throw new DdlException("Database " + ctx.getDatabase() + " of materialized view " + mvId +
+                    " does not exist");
+        }
+
+        Snapshot snapshot = takeSnapshot(db, mvId);
+        MaterializedView mv = snapshot.mv;
+        Map<String, TargetPartition> targets = getTargetPartitions(snapshot);
+
+        // the partitions of the view to drop and to add
+        List<String> dropped = Lists.newArrayList();
+        for (Map.Entry<String, Range<PartitionKey>> entry : snapshot.mvRanges.entrySet()) {
+            TargetPartition target = targets.get(entry.getKey());
+            if (target == null || !target.range.equals(entry.getValue())) {
+                dropped.add(entry.getKey());
+            }
+        }
+        Set<String> added = Sets.newHashSet();
+        for (Map.Entry<String, TargetPartition> entry : targets.entrySet()) {
+            if (!entry.getValue().range.equals(snapshot.mvRanges.get(entry.getKey()))) {
+                added.add(entry.getKey());
+            }
+        }
+
+        // the partitions of the view to rebuild
+        Set<String> stale = Sets.newHashSet(added);
+        if (isOtherBaseTableChanged(snapshot)) {
+            stale.addAll(targets.keySet());
+        } else {
+            Map<Long, Long> refreshedVersions = snapshot.refreshedVersions.get(snapshot.refTableId);
+            Set<Long> changed = Sets.newHashSet();
+            for (Map.Entry<Long, Long> entry : snapshot.versions.get(snapshot.refTableId).entrySet()) {
+                if (refreshedVersions == null || !entry.getValue().equals(refreshedVersions.get(entry.getKey()))) {
+                    changed.add(entry.getKey());
+                }
+            }
+            for (Map.Entry<String, TargetPartition> entry : targets.entrySet()) {
+                if (!Collections.disjoint(entry.getValue().refPartitionIds, changed)) {
+                    stale.add(entry.getKey());
+                }
+            }
+        }
+        LOG.info("refresh materialized view {}, drop partitions {}, add partitions {}, rebuild partitions {}",
+                mv.getName(), dropped, added, stale);
+
+        for (String partitionName : dropped) {
+            dropPartition(db, mv, partitionName, false);
+        }
+        for (String partitionName : added) {
+            addPartition(db, mv, partitionName, targets.get(partitionName).range, false);
+        }
+        refreshPartitions(ctx, db, mv, snapshot, targets, stale);
+
+        // the data of the view is the result over the data of the snapshot, or newer
+        db.writeLock();
+        try {
+            if (db.getTable(mvId) != mv) {
+                throw new DdlException("Materialized view " + mv.getName() + " has been changed");
+            }
+            MaterializedView.AsyncRefreshContext refreshContext =
+                    new MaterializedView.AsyncRefreshContext(snapshot.versions);
+            // keep the schedule of the refresh
+            MaterializedView.MvRefreshScheme lastRefreshScheme = mv.getRefreshScheme();
+            if (lastRefreshScheme != null && lastRefreshScheme.getAsyncRefreshContext() != null) {
+                MaterializedView.AsyncRefreshContext lastRefreshContext = lastRefreshScheme.getAsyncRefreshContext();
+                refreshContext.setSchedule(lastRefreshContext.startTime, lastRefreshContext.step,
+                        lastRefreshContext.timeUnit);
+            }
+            MaterializedView.MvRefreshScheme refreshScheme = new MaterializedView.MvRefreshScheme(
+                    MaterializedView.RefreshType.ASYNC, refreshContext, System.currentTimeMillis());
+            mv.setRefreshScheme(refreshScheme);
+            GlobalStateMgr.getCurrentState().getEditLog()
+                    .logMvChangeRefreshScheme(new ChangeMaterializedViewRefreshSchemeLog(mv));
+        } finally {
+            db.writeUnlock();
+        }
+    }
+
+    private Snapshot takeSnapshot(Database db, long mvId) throws DdlException {
+        Snapshot snapshot = new Snapshot();
+        db.readLock();
+        try {
+            Table table = db.getTable(mvId);
+            if (!(table instanceof MaterializedView)) {
+                throw new DdlException("Materialized view " + mvId + " does not exist");
+            }
+            MaterializedView mv = (MaterializedView) table;
+            if (!mv.isActive()) {
+                throw new DdlException("Materialized view " + mv.getName() + " is not active");
+            }
+            PartitionInfo partitionInfo = mv.getPartitionInfo();
+            if (!(partitionInfo instanceof ExpressionRangePartitionInfo)) {
+                throw new DdlException("Materialized view " + mv.getName() + " is not partitioned by expression");
+            }
+            snapshot.mv = mv;
+            snapshot.partitionColumn = ((RangePartitionInfo) partitionInfo).getPartitionColumns().get(0);
+            parsePartitionExpr(snapshot, ((ExpressionRangePartitionInfo) partitionInfo).getPartitionExprs().get(0));
+
+            OlapTable refTable = null;
+            for (long tableId : mv.getBaseTableIds()) {
+                Table baseTable = db.getTable(tableId);
+                if (!(baseTable instanceof OlapTable)) {
+                    throw new DdlException("Base table " + tableId + " of materialized view " + mv.getName() +
+                            " does not exist");
+                }
+                OlapTable olapTable = (OlapTable) baseTable;
+                Map<Long, Long> versions = Maps.newHashMap();
+                for (Partition partition : olapTable.getPartitions()) {
+                    versions.put(partition.getId(), partition.getVisibleVersion());
+                }
+                snapshot.versions.put(tableId, versions);
+                if (isRefTable(olapTable, snapshot.partitionSlot) &&
+                        (refTable == null || olapTable.getName().equals(snapshot.partitionTableName))) {
+                    refTable = olapTable;
+                }
+            }
+            if (refTable == null) {
+                throw new DdlException("The base table partitioned by " + snapshot.partitionSlot.getColumnName() +
+                        " of materialized view " + mv.getName() + " does not exist");
+            }
+            snapshot.refTableId = refTable.getId();
+            RangePartitionInfo refPartitionInfo = (RangePartitionInfo) refTable.getPartitionInfo();
+            for (Partition partition : refTable.getPartitions()) {
+                snapshot.refRanges.put(partition.getId(), refPartitionInfo.getRange(partition.getId()));
+                snapshot.refPartitionNames.put(partition.getId(), partition.getName());
+            }
+            RangePartitionInfo mvPartitionInfo = (RangePartitionInfo) partitionInfo;
+            for (Partition partition : mv.getPartitions()) {
+                snapshot.mvRanges.put(partition.getName(), mvPartitionInfo.getRange(partition.getId()));
+            }
+            MaterializedView.MvRefreshScheme refreshScheme = mv.getRefreshScheme();
+            if (refreshScheme != null && refreshScheme.getAsyncRefreshContext() != null) {
+                snapshot.refreshedVersions.putAll(refreshScheme.getAsyncRefreshContext().baseTableVisibleVersionMap);
+            }
+        } finally {
+            db.readUnlock();
+        }
+        return snapshot;
+    }
+
+    // the partition expression is a column or date_trunc of a column of the reference table
+    private void parsePartitionExpr(Snapshot snapshot, Expr expr) throws DdlException {
+        if (expr instanceof SlotRef) {
+            snapshot.partitionSlot = (SlotRef) expr;
+        } else if (expr instanceof FunctionCallExpr
+                && ((FunctionCallExpr) expr).getFnName().getFunction().equalsIgnoreCase(FunctionSet.DATE_TRUNC)
+                && expr.getChild(0) instanceof StringLiteral && expr.getChild(1) instanceof SlotRef) {
+            snapshot.partitionSlot = (SlotRef) expr.getChild(1);
+            snapshot.timeUnit = ((StringLiteral) expr.getChild(0)).getStringValue().toLowerCase();
+        } else {
+            throw new DdlException("Unsupported partition expression " + expr.toSql() + " of materialized view " +
+                    snapshot.mv.getName());
+        }
+        if (snapshot.partitionSlot.getTblNameWithoutAnalyzed() != null) {
+            snapshot.partitionTableName = snapshot.partitionSlot.getTblNameWithoutAnalyzed().getTbl();
+        }
+    }
+
+    private static boolean isRefTable(OlapTable table, SlotRef partitionSlot) {
+        if (!(table.getPartitionInfo() instanceof RangePartitionInfo)) {
+            return false;
+        }
+        List<Column> partitionColumns = ((RangePartitionInfo) table.getPartitionInfo()).getPartitionColumns();
+        return partitionColumns.size() == 1 &&
+                partitionColumns.get(0).getName().equalsIgnoreCase(partitionSlot.getColumnName());
+    }
+
+    private static boolean isOtherBaseTableChanged(Snapshot snapshot) {
+        for (Map.Entry<Long, Map<Long, Long>> entry : snapshot.versions.entrySet()) {
+            if (entry.getKey() != snapshot.refTableId &&
+                    !entry.getValue().equals(snapshot.refreshedVersions.get(entry.getKey()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // partition name of the view -> the range and the partitions of the reference table it covers
+    private Map<String, TargetPartition> getTargetPartitions(Snapshot snapshot) throws AnalysisException,
+            DdlException {
+        Map<String, TargetPartition> targets = Maps.newHashMap();
+        if (snapshot.timeUnit == null) {
+            for (Map.Entry<Long, Range<PartitionKey>> entry : snapshot.refRanges.entrySet()) {
+                TargetPartition target = new TargetPartition(entry.getValue());
+                target.refPartitionIds.add(entry.getKey());
+                targets.put(snapshot.refPartitionNames.get(entry.getKey()), target);
+            }
+            return targets;
+        }
+
+        // round the ranges by the time unit, and merge the overlapped ones
+        TreeMap<PartitionKey, TargetPartition> rounded = new TreeMap<>();
+        for (Map.Entry<Long, Range<PartitionKey>> entry : snapshot.refRanges.entrySet()) {
+            Range<PartitionKey> range = roundRange(entry.getValue(), snapshot);
+            TargetPartition target = new TargetPartition(range);
+            target.refPartitionIds.add(entry.getKey());
+            rounded.merge(range.lowerEndpoint(), target, TargetPartition::merge);
+        }
+        TargetPartition current = null;
+        for (TargetPartition target : rounded.values()) {
+            if (current != null && target.range.lowerEndpoint().compareTo(current.range.upperEndpoint()) < 0) {
+                current = current.merge(target);
+            } else {
+                if (current != null) {
+                    targets.put(getPartitionName(current.range), current);
+                }
+                current = target;
+            }
+        }
+        if (current != null) {
+            targets.put(getPartitionName(current.range), current);
+        }
+        return targets;
+    }
+
+    private static String getPartitionName(Range<PartitionKey> range) {
+        return "p" + range.lowerEndpoint().getKeys().get(0).getStringValue().replaceAll("[^0-9]", "");
+    }
+
+    private Range<PartitionKey> roundRange(Range<PartitionKey> range, Snapshot snapshot) throws AnalysisException,
+            DdlException {
+        PartitionKey lower = range.lowerEndpoint();
+        if (!lower.isMinValue()) {
+            LocalDateTime time = toDateTime(lower);
+            lower = createPartitionKey(truncate(time, snapshot.timeUnit), snapshot.partitionColumn);
+        }
+        PartitionKey upper = range.upperEndpoint();
+        if (!upper.isMaxValue()) {
+            LocalDateTime time = toDateTime(upper);
+            LocalDateTime truncated = truncate(time, snapshot.timeUnit);
+            if (!truncated.equals(time)) {
+                truncated = next(truncated, snapshot.timeUnit);
+            }
+            upper = createPartitionKey(truncated, snapshot.partitionColumn);
+        }
+        return Range.closedOpen(lower, upper);
+    }
+
+    private static LocalDateTime toDateTime(PartitionKey key) throws DdlException {
+        if (!(key.getKeys().get(0) instanceof DateLiteral)) {
+            throw new DdlException("Partition key " + key + " is not a date");
+        }
+        return ((DateLiteral) key.getKeys().get(0)).toLocalDateTime();
+    }
+
+    private static PartitionKey createPartitionKey(LocalDateTime time, Column column) throws AnalysisException {
+        String value = column.getPrimitiveType() == PrimitiveType.DATE ?
+                time.toLocalDate().toString() : time.format(DATETIME_FORMATTER);
+        return PartitionKey.createPartitionKey(Collections.singletonList(new PartitionValue(value)),
+                Collections.singletonList(column));
+    }
+
+    private static LocalDateTime truncate(LocalDateTime time, String unit) throws DdlException {
+        switch (unit) {
+            case "second":
+                return time.truncatedTo(ChronoUnit.SECONDS);
+            case "minute":
+                return time.truncatedTo(ChronoUnit.MINUTES);
+            case "hour":
+                return time.truncatedTo(ChronoUnit.HOURS);
+            case "day":
+                return time.truncatedTo(ChronoUnit.DAYS);
+            case "week":
+                return time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "month":
+                return time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            case "quarter":
+                return time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1)
+                        .withMonth((time.getMonthValue() - 1) / 3 * 3 + 1);
+            case "year":
+                return time.truncatedTo(ChronoUnit.DAYS).withDayOfYear(1);
+            default:
+                throw new DdlException("Unsupported time unit " + unit + " of date_trunc");
+        }
+    }
+
+    private static LocalDateTime next(LocalDateTime time, String unit) throws DdlException {
+        switch (unit) {
+            case "second":
+                return time.plusSeconds(1);
+            case "minute":
+                return time.plusMinutes(1);
+            case "hour":
+                return time.plusHours(1);
+            case "day":
+                return time.plusDays(1);
+            case "week":
+                return time.plusWeeks(1);
+            case "month":
+                return time.plusMonths(1);
+            case "quarter":
+                return time.plusMonths(3);
+            case "year":
+                return time.plusYears(1);
+            default:
+                throw new DdlException("Unsupported time unit " + unit + " of date_trunc");
+        }
+    }
+
+    // rebuild the partitions in parallel, at most mv_refresh_partition_concurrency at a time
+    private void refreshPartitions(ConnectContext ctx, Database db, MaterializedView mv, Snapshot snapshot,
+                                   Map<String, TargetPartition> targets, Set<String> partitionNames)
+            throws Exception {
+        if (partitionNames.isEmpty()) {
+            return;
+        }
+        int concurrency = Math.max(1, Math.min(Config.mv_refresh_partition_concurrency, partitionNames.size()));
+        ThreadPoolExecutor executor = ThreadPoolManager.newDaemonFixedThreadPool(concurrency,
+                partitionNames.size(), "mv-refresh-" + mv.getId(), false);
+        try {
+            List<Future<Void>> futures = Lists.newArrayList();
+            for (String partitionName : partitionNames) {
+                Range<PartitionKey> range = targets.get(partitionName).range;
+                futures.add(executor.submit(() -> {
+                    refreshPartition(ctx, db, mv, snapshot.partitionColumn, partitionName, range);
+                    return null;
+                }));
+            }
+            Exception failure = null;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    LOG.warn("failed to refresh a partition of materialized view {}", mv.getName(), e.getCause());
+                    if (failure == null) {
+                        failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // insert the data of the partition into a temporary partition, then replace the partition with it
+    private void refreshPartition(ConnectContext parent, Database db, MaterializedView mv, Column partitionColumn,
+                                  String partitionName, Range<PartitionKey> range) throws Exception {
+        String tempPartitionName;
+        db.readLock();
+        try {
+            Partition partition = mv.getPartition(partitionName);
+            if (partition == null) {
+                throw new DdlException("Partition " + partitionName + " of materialized view " + mv.getName() +
+                        " does not exist");
+            }
+            tempPartitionName = TEMP_PARTITION_PREFIX + partition.getId();
+        } finally {
+            db.readUnlock();
+        }
+        addPartition(db, mv, tempPartitionName, range, true);
+        try {
+            String column = "`" + partitionColumn.getName() + "`";
+            List<String> predicates = Lists.newArrayList();
+            if (!range.lowerEndpoint().isMinValue()) {
+                predicates.add(column + " >= " + range.lowerEndpoint().getKeys().get(0).toSql());
+            }
+            if (!range.upperEndpoint().isMaxValue()) {
+                String upperPredicate = column + " < " + range.upperEndpoint().getKeys().get(0).toSql();
+                // the null values are in the first partition
+                predicates.add(range.lowerEndpoint().isMinValue() ?
+                        "(" + upperPredicate + " OR " + column + " IS NULL)" : upperPredicate);
+            }
+            String sql = "INSERT INTO `" + ClusterNamespace.getNameFromFullName(db.getFullName()) + "`.`" +
+                    mv.getName() + "` TEMPORARY PARTITION (`" + tempPartitionName + "`) SELECT * FROM (" +
+                    mv.getViewDefineSql() + ") mv_refresh_t";
+            if (!predicates.isEmpty()) {
+                sql += " WHERE " + String.join(" AND ", predicates);
+            }
+            execute(parent, sql);
+
+            ReplacePartitionClause clause = new ReplacePartitionClause(
+                    new PartitionNames(false, Lists.newArrayList(partitionName)),
+                    new PartitionNames(true, Lists.newArrayList(tempPartitionName)), null);
+            clause.analyze(null);
+            GlobalStateMgr.getCurrentState().replaceTempPartition(db, mv.getName(), clause);
+        } catch (Exception e) {
+            dropPartition(db, mv, tempPartitionName, true);
+            throw e;
+        }
+    }
+
+    // not private to be replaced by the tests
+    void execute(ConnectContext parent, String sql) throws Exception {
+        ConnectContext ctx = new ConnectContext();
+        ctx.setCluster(parent.getClusterName());
+        ctx.setGlobalStateMgr(parent.getGlobalStateMgr());
+        ctx.setDatabase(parent.getDatabase());
+        ctx.setQualifiedUser(parent.getQualifiedUser());
+        ctx.setCurrentUserIdentity(parent.getCurrentUserIdentity());
+        ctx.getState().reset();
+        ctx.setQueryId(UUIDUtil.genUUID());
+        SessionVariable sessionVariable = (SessionVariable) parent.getSessionVariable().clone();
+        // the view being refreshed must not answer its own refresh
+        sessionVariable.setEnableMaterializedViewRewrite(false);
+        ctx.setSessionVariable(sessionVariable);
+
+        StatementBase stmt = SqlParser.parse(sql, sessionVariable.getSqlMode()).get(0);
+        stmt.setOrigStmt(new OriginStatement(sql, 0));
+        StmtExecutor executor = new StmtExecutor(ctx, stmt);
+        ctx.setExecutor(executor);
+        ctx.setThreadLocalInfo();
+        executor.execute();
+        if (ctx.getState().getStateType() == QueryState.MysqlStateType.ERR) {
+            throw new DdlException("Failed to execute " + sql + ": " + ctx.getState().getErrorMessage());
+        }
+    }
+
+    private void addPartition(Database db, MaterializedView mv, String partitionName, Range<PartitionKey> range,
+                              boolean isTemp) throws Exception {
+        if (isTemp) {
+            // left by a failed refresh
+            dropPartition(db, mv, partitionName, true);
+        }
+        // the min and max keys are written as the min and max literals, MAXVALUE is not allowed in a fixed range
+        PartitionKeyDesc partitionKeyDesc = new PartitionKeyDesc(
+                Lists.newArrayList(new PartitionValue(range.lowerEndpoint().getKeys().get(0).getStringValue())),
+                Lists.newArrayList(new PartitionValue(range.upperEndpoint().getKeys().get(0).getStringValue())));
+        SingleRangePartitionDesc partitionDesc =
+                new SingleRangePartitionDesc(false, partitionName, partitionKeyDesc, null);
+        GlobalStateMgr.getCurrentState().addPartitions(db, mv.getName(),
+                new AddPartitionClause(partitionDesc, null, null, isTemp));
+    }
+
+    private void dropPartition(Database db, MaterializedView mv, String partitionName, boolean isTemp)
+            throws DdlException {
+        db.writeLock();
+        try {
+            // the data of the view can be rebuilt, no need to keep it in the recycle bin
+            GlobalStateMgr.getCurrentState().dropPartition(db, mv,
+                    new DropPartitionClause(true, partitionName, isTemp, true));
+        } finally {
+            db.writeUnlock();
+        }
+    }
+
+    private static class Snapshot {
+        private MaterializedView mv;
+        private Column partitionColumn;
+        private SlotRef partitionSlot;
+        // the table name in the partition expression, may be null
+        private String partitionTableName;
+        // the time unit of date_trunc, null if the partition expression is a column
+        private String timeUnit;
+        // base table id -> partition id -> visible version
+        private final Map<Long, Map<Long, Long>> versions = Maps.newHashMap();
+        // the versions recorded by the last refresh
+        private final Map<Long, Map<Long, Long>> refreshedVersions = Maps.newHashMap();
+        private long refTableId;
+        private final Map<Long, Range<PartitionKey>> refRanges = Maps.newHashMap();
+        private final Map<Long, String> refPartitionNames = Maps.newHashMap();
+        // partition name of the view -> range
+        private final Map<String, Range<PartitionKey>> mvRanges = Maps.newHashMap();
+    }
+
+    private static class TargetPartition {
+        private Range<PartitionKey> range;
+        private final Set<Long> refPartitionIds = Sets.newHashSet();
+
+        TargetPartition(Range<PartitionKey> range) {
+            this.range = range;
+        }
+
+        TargetPartition merge(TargetPartition other) {
+            PartitionKey upper = range.upperEndpoint().compareTo(other.range.upperEndpoint()) >= 0 ?
+                    range.upperEndpoint() : other.range.upperEndpoint();
+            range = Range.closedOpen(range.lowerEndpoint(), upper);
+            refPartitionIds.addAll(other.refPartitionIds);
+            return this;
+        }
+    }
+}
@@ -35,6 +35,13 @@ public class Task implements Writable {
     @SerializedName("expireTime")
     private long expireTime = -1;
 
+    @SerializedName("source")
+    private Constants.TaskSource source = Constants.TaskSource.CTAS;
+
+    // null if the task only runs when it's executed manually
+    @SerializedName("schedule")
+    private TaskSchedule schedule;
+
     public long getId() {
         return id;
     }
@@ -91,6 +98,22 @@ public class Task implements Writable {
         this.expireTime = expireTime;
     }
 
+    public Constants.TaskSource getSource() {
+        return source;
+    }
+
+    public void setSource(Constants.TaskSource source) {
+        this.source = source;
+    }
+
+    public TaskSchedule getSchedule() {
+        return schedule;
+    }
+
+    public void setSchedule(TaskSchedule schedule) {
+        this.schedule = schedule;
+    }
+
     public static Task read(DataInput in) throws IOException {
         String json = Text.readString(in);
         return GsonUtils.GSON.fromJson(json, Task.class);
@@ -1,12 +1,18 @@
 // This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
 package com.starrocks.scheduler;
 
+import com.google.common.collect.Maps;
+import com.starrocks.catalog.MaterializedView;
 import com.starrocks.common.Config;
+import com.starrocks.common.DdlException;
 import com.starrocks.common.util.DebugUtil;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.sql.ast.SubmitTaskStmt;
 
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
 // TaskBuilder is responsible for converting Stmt to Task Class
 // and also responsible for generating taskId and taskName
 public class TaskBuilder {
@@ -28,4 +34,68 @@ public class TaskBuilder {
         return task;
     }
 
+    // the task refreshing an asynchronous materialized view, never expires,
+    // the schedule is null if the view is only refreshed manually
+    public static Task buildMvTask(MaterializedView materializedView, String dbName, TaskSchedule schedule) {
+        Task task = new Task();
+        task.setId(GlobalStateMgr.getCurrentState().getNextId());
+        task.setName(getMvTaskName(materializedView.getId()));
+        task.setCreateTime(System.currentTimeMillis());
+        task.setDbName(dbName);
+        // each changed partition is rebuilt into a temporary partition, which then replaces it
+        task.setDefinition("INSERT INTO " + materializedView.getName() + " TEMPORARY PARTITION SELECT * FROM (" +
+                materializedView.getViewDefineSql() + ") WHERE <the range of the partition>; " +
+                "REPLACE PARTITION WITH TEMPORARY PARTITION");
+        Map<String, String> properties = Maps.newHashMap();
+        properties.put(PartitionBasedMaterializedViewRefreshProcessor.MV_ID,
+                String.valueOf(materializedView.getId()));
+        task.setProperties(properties);
+        task.setSource(Constants.TaskSource.MV);
+        task.setSchedule(schedule);
+        return task;
+    }
+
+    // the schedule of the refresh of the view, null if the refresh is not scheduled
+    public static TaskSchedule buildMvSchedule(MaterializedView.AsyncRefreshContext refreshContext)
+            throws DdlException {
+        if (refreshContext.step <= 0) {
+            return null;
+        }
+        long period = refreshContext.step;
+        ChronoUnit timeUnit;
+        switch (refreshContext.timeUnit) {
+            case "SECOND":
+                timeUnit = ChronoUnit.SECONDS;
+                break;
+            case "MINUTE":
+                timeUnit = ChronoUnit.MINUTES;
+                break;
+            case "HOUR":
+                timeUnit = ChronoUnit.HOURS;
+                break;
+            case "DAY":
+                timeUnit = ChronoUnit.DAYS;
+                break;
+            case "WEEK":
+                timeUnit = ChronoUnit.WEEKS;
+                break;
+            case "MONTH":
+                timeUnit = ChronoUnit.MONTHS;
+                break;
+            case "QUARTER":
+                timeUnit = ChronoUnit.MONTHS;
+                period *= 3;
+                break;
+            case "YEAR":
+                timeUnit = ChronoUnit.YEARS;
+                break;
+            default:
+                throw new DdlException("Unsupported refresh interval unit " + refreshContext.timeUnit);
+        }
+        return new TaskSchedule(refreshContext.startTime, period, timeUnit);
+    }
+
+    public static String getMvTaskName(long mvId) {
+        return "mv-" + mvId;
+    }
 }
@@ -8,6 +8,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
 import com.google.gson.annotations.SerializedName;
+import com.starrocks.analysis.UserIdentity;
 import com.starrocks.catalog.Column;
 import com.starrocks.catalog.ScalarType;
 import com.starrocks.common.DdlException;
@@ -22,6 +23,7 @@ import com.starrocks.scheduler.persist.TaskRunStatus;
 import com.starrocks.scheduler.persist.TaskRunStatusChange;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.sql.ast.SubmitTaskStmt;
+import com.starrocks.system.SystemInfoService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -55,6 +57,9 @@ public class TaskManager {
     // taskName -> Task, include Manual Task, Periodical Task
     private final Map<String, Task> nameToTaskMap;
 
+    // taskId -> the next run time of the Periodical Task, the runs are only submitted by the master
+    private final Map<Long, Long> nextRunTimeMap;
+
     // include PENDING/RUNNING taskRun;
     private final TaskRunManager taskRunManager;
 
@@ -73,6 +78,7 @@ public class TaskManager {
     public TaskManager() {
         manualTaskMap = Maps.newConcurrentMap();
         nameToTaskMap = Maps.newConcurrentMap();
+        nextRunTimeMap = Maps.newConcurrentMap();
         taskRunManager = new TaskRunManager();
         taskLock = new QueryableReentrantLock(true);
         taskRunLock = new QueryableReentrantLock(true);
@@ -87,6 +93,7 @@ public class TaskManager {
                 }
                 try {
                     taskRunManager.checkRunningTaskRun();
+                    schedulePeriodicalTasks(System.currentTimeMillis());
                     taskRunManager.scheduledPendingTaskRun();
                 } catch (Exception ex) {
                     LOG.warn("failed to dispatch job.", ex);
@@ -149,6 +156,9 @@ public class TaskManager {
                 return DUPLICATE_CREATE_TASK;
             }
             manualTaskMap.put(task.getId(), task);
+            if (task.getSchedule() != null) {
+                nextRunTimeMap.put(task.getId(), task.getSchedule().getNextRunTime(System.currentTimeMillis()));
+            }
             if (!isReplay) {
                 GlobalStateMgr.getCurrentState().getEditLog().logCreateTask(task);
             }
@@ -180,6 +190,7 @@ public class TaskManager {
                 }
                 nameToTaskMap.remove(task.getName());
                 manualTaskMap.remove(task.getId());
+                nextRunTimeMap.remove(task.getId());
             }
 
             if (!isReplay) {
@@ -191,6 +202,45 @@ public class TaskManager {
         LOG.info("drop tasks:{}", taskIdList);
     }
 
+    // submit a TaskRun of each Periodical Task whose run time is reached. The run is skipped if the last one
+    // is still pending, which will run against the latest data anyway.
+    void schedulePeriodicalTasks(long now) {
+        for (Map.Entry<Long, Long> entry : nextRunTimeMap.entrySet()) {
+            long nextRunTime = entry.getValue();
+            if (nextRunTime > now) {
+                continue;
+            }
+            Task task = manualTaskMap.get(entry.getKey());
+            if (task == null || task.getSchedule() == null) {
+                continue;
+            }
+            Queue<TaskRun> pendingTaskRuns = taskRunManager.getPendingTaskRunMap().get(task.getId());
+            if (pendingTaskRuns == null || pendingTaskRuns.isEmpty()) {
+                TaskRun taskRun = TaskRunBuilder.newBuilder(task).build();
+                taskRun.setCtx(buildPeriodicalTaskContext());
+                SubmitResult result = taskRunManager.submitTaskRun(taskRun);
+                LOG.info("submit periodical task {}, status: {}", task.getName(), result.getStatus());
+            }
+            // the task may have been dropped meanwhile
+            nextRunTimeMap.replace(task.getId(), nextRunTime, task.getSchedule().getNextRunTime(now + 1));
+        }
+    }
+
+    // the Periodical Task runs as root, not as the user who created it
+    private static ConnectContext buildPeriodicalTaskContext() {
+        ConnectContext ctx = new ConnectContext(null);
+        ctx.setCluster(SystemInfoService.DEFAULT_CLUSTER);
+        ctx.setGlobalStateMgr(GlobalStateMgr.getCurrentState());
+        ctx.setCurrentUserIdentity(UserIdentity.ROOT);
+        ctx.setQualifiedUser(UserIdentity.ROOT.getQualifiedUser());
+        return ctx;
+    }
+
+    // the Task named by the name, null if it doesn't exist
+    public Task getTask(String taskName) {
+        return nameToTaskMap.get(taskName);
+    }
+
     public List<Task> showTasks(String dbName) {
         List<Task> taskList = Lists.newArrayList();
         if (dbName == null) {
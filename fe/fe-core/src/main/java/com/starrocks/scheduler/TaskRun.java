@@ -82,7 +82,12 @@ public class TaskRun {
         ConnectContext newCtx = new ConnectContext();
         newCtx.setCluster(ctx.getClusterName());
         newCtx.setGlobalStateMgr(ctx.getGlobalStateMgr());
-        newCtx.setDatabase(ctx.getDatabase());
+        if (task.getSource() == Constants.TaskSource.MV) {
+            // the refresh of a materialized view runs in the db of the view
+            newCtx.setDatabase(task.getDbName());
+        } else {
+            newCtx.setDatabase(ctx.getDatabase());
+        }
         newCtx.setQualifiedUser(ctx.getQualifiedUser());
         newCtx.setCurrentUserIdentity(ctx.getCurrentUserIdentity());
         newCtx.getState().reset();
@@ -90,12 +95,16 @@ public class TaskRun {
         SessionVariable sessionVariable = (SessionVariable) ctx.getSessionVariable().clone();
         if (properties != null) {
             for (String key : properties.keySet()) {
+                if (key.equals(PartitionBasedMaterializedViewRefreshProcessor.MV_ID)) {
+                    continue;
+                }
                 VariableMgr.setVar(sessionVariable, new SetVar(key, new StringLiteral(properties.get(key))),
                         true);
             }
         }
         newCtx.setSessionVariable(sessionVariable);
         taskRunContext.setCtx(newCtx);
+        taskRunContext.setProperties(properties);
         taskRunContext.setRemoteIp(ctx.getMysqlChannel().getRemoteHostPortString());
         processor.processTaskRun(taskRunContext);
         QueryState queryState = newCtx.getState();
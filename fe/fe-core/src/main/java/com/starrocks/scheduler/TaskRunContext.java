@@ -3,10 +3,13 @@ package com.starrocks.scheduler;
 
 import com.starrocks.qe.ConnectContext;
 
+import java.util.Map;
+
 public class TaskRunContext {
     ConnectContext ctx;
     String definition;
     String remoteIp;
+    Map<String, String> properties;
 
 
     public ConnectContext getCtx() {
@@ -32,4 +35,12 @@ public class TaskRunContext {
     public void setRemoteIp(String remoteIp) {
         this.remoteIp = remoteIp;
     }
+
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    public void setProperties(Map<String, String> properties) {
+        this.properties = properties;
+    }
 }
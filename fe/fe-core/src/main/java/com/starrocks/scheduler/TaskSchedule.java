@@ -0,0 +1,72 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.scheduler;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+// The schedule of a periodical task, the task runs at the start time and then once every period.
+// The period is counted in the calendar, so a task run every month runs on the same day of each month.
+public class TaskSchedule {
+
+    // in milliseconds
+    @SerializedName("startTime")
+    private long startTime;
+
+    @SerializedName("period")
+    private long period;
+
+    @SerializedName("timeUnit")
+    private ChronoUnit timeUnit;
+
+    public TaskSchedule(long startTime, long period, ChronoUnit timeUnit) {
+        this.startTime = startTime;
+        this.period = period;
+        this.timeUnit = timeUnit;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getPeriod() {
+        return period;
+    }
+
+    public ChronoUnit getTimeUnit() {
+        return timeUnit;
+    }
+
+    // the first run time not before the given time, in milliseconds
+    public long getNextRunTime(long time) {
+        if (time <= startTime) {
+            return startTime;
+        }
+        // counted from the start time, the run on the 31st of each month runs on the 28th of February
+        // and then on the 31st of March again
+        LocalDateTime start = toDateTime(startTime);
+        long periods = timeUnit.between(start, toDateTime(time)) / period;
+        long nextTime = toMillis(start.plus(periods * period, timeUnit));
+        if (nextTime < time) {
+            nextTime = toMillis(start.plus((periods + 1) * period, timeUnit));
+        }
+        return nextTime;
+    }
+
+    private static LocalDateTime toDateTime(long time) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public String toString() {
+        return "START(" + toDateTime(startTime) + ") EVERY(" + period + " " + timeUnit + ")";
+    }
+}
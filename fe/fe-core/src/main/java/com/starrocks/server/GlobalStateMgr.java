@@ -181,6 +181,7 @@ import com.starrocks.mysql.privilege.Auth;
 import com.starrocks.mysql.privilege.PrivPredicate;
 import com.starrocks.persist.BackendIdsUpdateInfo;
 import com.starrocks.persist.BackendTabletsInfo;
+import com.starrocks.persist.ChangeMaterializedViewRefreshSchemeLog;
 import com.starrocks.persist.DatabaseInfo;
 import com.starrocks.persist.DropLinkDbAndUpdateDbInfo;
 import com.starrocks.persist.DropPartitionInfo;
@@ -189,6 +190,7 @@ import com.starrocks.persist.GlobalVarPersistInfo;
 import com.starrocks.persist.ModifyTableColumnOperationLog;
 import com.starrocks.persist.ModifyTablePropertyOperationLog;
 import com.starrocks.persist.MultiEraseTableInfo;
+import com.starrocks.persist.ParallelJournalReplayer;
 import com.starrocks.persist.PartitionPersistInfo;
 import com.starrocks.persist.RecoverInfo;
 import com.starrocks.persist.ReplacePartitionOperationLog;
@@ -295,6 +297,8 @@ public class GlobalStateMgr {
     private MasterDaemon labelCleaner; // To clean old LabelInfo, ExportJobInfos
     private MasterDaemon txnTimeoutChecker; // To abort timeout txns
     private Daemon replayer;
+    // created on first use by replayJournal(), which is synchronized
+    private ParallelJournalReplayer parallelJournalReplayer;
     private Daemon timePrinter;
     private Daemon listener;
     private EsRepository esRepository;  // it is a daemon, so add it here
@@ -1326,7 +1330,7 @@ public class GlobalStateMgr {
         return checksum;
     }
 
-    // Only called by checkpoint thread
+    // Only called by checkpoint thread, or by saveImageOnNonMaster() with replaying paused
     public void saveImage() throws IOException {
         // Write image.ckpt
         Storage storage = new Storage(this.imageDir);
@@ -1342,12 +1346,38 @@ public class GlobalStateMgr {
         }
     }
 
+    /*
+     * Called on a follower or observer which checkpoints on behalf of the leader, so that the leader
+     * does not need to load a second copy of the catalog. The image is saved from the serving catalog.
+     * replayJournal() synchronizes on this object too, so replaying is paused while saving and the image
+     * matches the replayed journal id exactly. Returns the journal id of the saved image.
+     */
+    public synchronized long saveImageOnNonMaster(long minJournalId) throws IOException {
+        Preconditions.checkState(!isMaster(), "the master should not save image from the serving catalog");
+        if (replayedJournalId.get() < minJournalId) {
+            replayJournal(minJournalId);
+        }
+        long journalId = replayedJournalId.get();
+        if (journalId < minJournalId) {
+            throw new IOException("replayed journal id " + journalId + " is behind " + minJournalId);
+        }
+
+        saveImage();
+        setImageJournalId(journalId);
+        if (MetricRepo.isInit) {
+            MetricRepo.COUNTER_IMAGE_WRITE.increase(1L);
+        }
+        return journalId;
+    }
+
     public void saveImage(File curFile, long replayedJournalId) throws IOException {
         if (!curFile.exists()) {
             curFile.createNewFile();
         }
 
-        // save image does not need any lock. because only checkpoint thread will call this method.
+        // no catalog lock is taken here. The checkpoint thread saves its own catalog, which nothing else changes.
+        // saveImageOnNonMaster() saves the serving catalog, and it holds the monitor of this object, which
+        // replayJournal() holds too, so the journal is not replayed while saving.
         LOG.info("start save image to {}. is ckpt: {}", curFile.getAbsolutePath(), GlobalStateMgr.isCheckpointThread());
 
         long checksum = 0;
@@ -1708,22 +1738,28 @@ public class GlobalStateMgr {
 
         long startTime = System.currentTimeMillis();
         boolean hasLog = false;
+        ParallelJournalReplayer parallelReplayer = getParallelJournalReplayer();
         while (true) {
             JournalEntity entity = cursor.next();
             if (entity == null) {
                 break;
             }
             hasLog = true;
-            EditLog.loadJournal(this, entity);
-            replayedJournalId.incrementAndGet();
-            LOG.debug("journal {} replayed.", replayedJournalId);
-            if (feType != FrontendNodeType.MASTER) {
-                journalObservable.notifyObservers(replayedJournalId.get());
-            }
-            if (MetricRepo.isInit) {
-                // Metric repo may not init after this replay thread start
-                MetricRepo.COUNTER_EDIT_LOG_READ.increase(1L);
+            if (parallelReplayer != null) {
+                if (parallelReplayer.trySubmit(entity)) {
+                    if (parallelReplayer.isFull()) {
+                        onJournalReplayed(parallelReplayer.waitForAll());
+                    }
+                    continue;
+                }
+                // a barrier, everything before it must be applied first
+                onJournalReplayed(parallelReplayer.waitForAll());
             }
+            EditLog.loadJournal(this, entity);
+            onJournalReplayed(1);
+        }
+        if (parallelReplayer != null) {
+            onJournalReplayed(parallelReplayer.waitForAll());
         }
         long cost = System.currentTimeMillis() - startTime;
         if (cost >= 1000) {
@@ -1733,6 +1769,34 @@ public class GlobalStateMgr {
         return hasLog;
     }
 
+    private void onJournalReplayed(int num) {
+        if (num == 0) {
+            return;
+        }
+        replayedJournalId.addAndGet(num);
+        LOG.debug("journal {} replayed.", replayedJournalId);
+        if (feType != FrontendNodeType.MASTER) {
+            journalObservable.notifyObservers(replayedJournalId.get());
+        }
+        if (MetricRepo.isInit) {
+            // Metric repo may not init after this replay thread start
+            MetricRepo.COUNTER_EDIT_LOG_READ.increase((long) num);
+        }
+    }
+
+    // Returns null if the journal should be replayed serially. The checkpoint thread always replays serially,
+    // because the replay threads would see the serving GlobalStateMgr instead of the checkpoint one.
+    private ParallelJournalReplayer getParallelJournalReplayer() {
+        if (!Config.enable_parallel_journal_replay || isCheckpointThread()) {
+            return null;
+        }
+        if (parallelJournalReplayer == null) {
+            parallelJournalReplayer = new ParallelJournalReplayer(this, metaContext,
+                    Math.max(1, Config.journal_replay_parallelism));
+        }
+        return parallelJournalReplayer;
+    }
+
     public void createTimePrinter() {
         // time printer will write timestamp edit log every 10 seconds
         timePrinter = new MasterDaemon("timePrinter", 10 * 1000L) {
@@ -2117,8 +2181,11 @@ public class GlobalStateMgr {
             sb.append("\"enable_docvalue_scan\" = \"").append(esTable.isDocValueScanEnable()).append("\",\n");
             sb.append("\"max_docvalue_fields\" = \"").append(esTable.maxDocValueFields()).append("\",\n");
             sb.append("\"enable_keyword_sniff\" = \"").append(esTable.isKeywordSniffEnable()).append("\",\n");
-            sb.append("\"es.nodes.wan.only\" = \"").append(esTable.wanOnly()).append("\"\n");
-            sb.append(")");
+            sb.append("\"es.nodes.wan.only\" = \"").append(esTable.wanOnly()).append("\"");
+            if (esTable.docsPerSlice() > 0) {
+                sb.append(",\n\"docs_per_slice\" = \"").append(esTable.docsPerSlice()).append("\"");
+            }
+            sb.append("\n)");
         } else if (table.getType() == TableType.HIVE) {
             HiveTable hiveTable = (HiveTable) table;
             if (!Strings.isNullOrEmpty(table.getComment())) {
@@ -2236,6 +2303,10 @@ public class GlobalStateMgr {
         localMetastore.replayCreateMaterializedView(dbName, materializedView);
     }
 
+    public void replayChangeMaterializedViewRefreshScheme(ChangeMaterializedViewRefreshSchemeLog log) {
+        localMetastore.replayChangeMaterializedViewRefreshScheme(log);
+    }
+
     // Drop table
     public void dropTable(DropTableStmt stmt) throws DdlException {
         localMetastore.dropTable(stmt);
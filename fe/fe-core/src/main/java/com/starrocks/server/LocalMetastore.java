@@ -52,6 +52,7 @@ import com.starrocks.analysis.DropDbStmt;
 import com.starrocks.analysis.DropMaterializedViewStmt;
 import com.starrocks.analysis.DropPartitionClause;
 import com.starrocks.analysis.DropTableStmt;
+import com.starrocks.analysis.IntLiteral;
 import com.starrocks.analysis.KeysDesc;
 import com.starrocks.analysis.ListPartitionDesc;
 import com.starrocks.analysis.MultiRangePartitionDesc;
@@ -80,6 +81,7 @@ import com.starrocks.catalog.Database;
 import com.starrocks.catalog.DistributionInfo;
 import com.starrocks.catalog.DynamicPartitionProperty;
 import com.starrocks.catalog.EsTable;
+import com.starrocks.catalog.ExpressionRangePartitionInfo;
 import com.starrocks.catalog.ExternalOlapTable;
 import com.starrocks.catalog.HashDistributionInfo;
 import com.starrocks.catalog.HiveTable;
@@ -136,6 +138,7 @@ import com.starrocks.meta.MetaContext;
 import com.starrocks.persist.AddPartitionsInfo;
 import com.starrocks.persist.BackendIdsUpdateInfo;
 import com.starrocks.persist.BackendTabletsInfo;
+import com.starrocks.persist.ChangeMaterializedViewRefreshSchemeLog;
 import com.starrocks.persist.ColocatePersistInfo;
 import com.starrocks.persist.DatabaseInfo;
 import com.starrocks.persist.DropDbInfo;
@@ -156,7 +159,13 @@ import com.starrocks.persist.SetReplicaStatusOperationLog;
 import com.starrocks.persist.TableInfo;
 import com.starrocks.persist.TruncateTableInfo;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.scheduler.Task;
+import com.starrocks.scheduler.TaskBuilder;
+import com.starrocks.scheduler.TaskManager;
+import com.starrocks.scheduler.TaskSchedule;
+import com.starrocks.sql.ast.AsyncRefreshSchemeDesc;
 import com.starrocks.sql.ast.CreateMaterializedViewStatement;
+import com.starrocks.sql.ast.IntervalLiteral;
 import com.starrocks.sql.ast.RefreshSchemeDesc;
 import com.starrocks.sql.optimizer.statistics.IDictManager;
 import com.starrocks.system.Backend;
@@ -182,6 +191,7 @@ import org.apache.logging.log4j.Logger;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -503,6 +513,15 @@ public class LocalMetastore implements ConnectorMetadata {
         }
 
         table.onDrop();
+        if (table instanceof MaterializedView) {
+            // the refresh task is dropped with the view. The replay finds no task if the drop of the task,
+            // logged before the drop of the view, has been replayed.
+            TaskManager taskManager = stateMgr.getTaskManager();
+            Task task = taskManager.getTask(TaskBuilder.getMvTaskName(tableId));
+            if (task != null) {
+                taskManager.dropTasks(Lists.newArrayList(task.getId()), isReplay);
+            }
+        }
 
         db.dropTable(table.getName());
         if (!isForceDrop) {
@@ -608,9 +627,10 @@ public class LocalMetastore implements ConnectorMetadata {
         }
 
         String tableName = recoverStmt.getTableName();
+        Table table;
         db.writeLock();
         try {
-            Table table = db.getTable(tableName);
+            table = db.getTable(tableName);
             if (table != null) {
                 ErrorReport.reportDdlException(ErrorCode.ERR_TABLE_EXISTS_ERROR, tableName);
             }
@@ -618,9 +638,16 @@ public class LocalMetastore implements ConnectorMetadata {
             if (!recycleBin.recoverTable(db, tableName)) {
                 ErrorReport.reportDdlException(ErrorCode.ERR_BAD_TABLE_ERROR, tableName);
             }
+            table = db.getTable(tableName);
         } finally {
             db.writeUnlock();
         }
+
+        // the refresh task is dropped with the view, and created again by the schedule kept by the view
+        if (table instanceof MaterializedView && ((MaterializedView) table).getRefreshScheme() != null &&
+                ((MaterializedView) table).getRefreshScheme().getType() == MaterializedView.RefreshType.ASYNC) {
+            createMvRefreshTask(db, (MaterializedView) table);
+        }
     }
 
     public void recoverPartition(RecoverPartitionStmt recoverStmt) throws DdlException {
@@ -1058,12 +1085,17 @@ public class LocalMetastore implements ConnectorMetadata {
 
             buildPartitions(db, copiedTable, partitionList);
 
-            // check again
-            db.writeLock();
+            // check again, only the table is locked, so adding partitions does not block the other tables
+            Table table = db.getTable(tableName);
+            if (table == null) {
+                ErrorReport.reportDdlException(ErrorCode.ERR_BAD_TABLE_ERROR, tableName);
+            }
+            db.writeLockTable(table);
             Set<String> existPartitionNameSet = Sets.newHashSet();
             try {
-                CatalogUtils.checkTableExist(db, tableName);
-                Table table = db.getTable(tableName);
+                if (db.getTable(tableName) != table) {
+                    throw new DdlException("Table[" + tableName + "]'s meta has been changed. try again.");
+                }
                 CatalogUtils.checkTableTypeOLAP(db, table);
                 olapTable = (OlapTable) table;
                 CatalogUtils.checkTableState(olapTable, tableName);
@@ -1186,7 +1218,7 @@ public class LocalMetastore implements ConnectorMetadata {
                         GlobalStateMgr.getCurrentInvertedIndex().deleteTablet(tabletId);
                     }
                 }
-                db.writeUnlock();
+                db.writeUnlockTable(table);
             }
         } catch (DdlException e) {
             for (Long tabletId : tabletIdSetForAll) {
@@ -1208,7 +1240,9 @@ public class LocalMetastore implements ConnectorMetadata {
         if (!sourceProperties.containsKey(PropertyAnalyzer.PROPERTIES_INMEMORY)) {
             sourceProperties.put(PropertyAnalyzer.PROPERTIES_INMEMORY, olapTable.isInMemory().toString());
         }
-        Map<String, String> tableProperty = olapTable.getTableProperty().getProperties();
+        // the table property of a materialized view may be null
+        Map<String, String> tableProperty =
+                olapTable.getTableProperty() == null ? null : olapTable.getTableProperty().getProperties();
         if (tableProperty != null && tableProperty.containsKey(PropertyAnalyzer.PROPERTIES_STORAGE_MEDIUM)) {
             sourceProperties.put(PropertyAnalyzer.PROPERTIES_STORAGE_MEDIUM,
                     tableProperty.get(PropertyAnalyzer.PROPERTIES_STORAGE_MEDIUM));
@@ -2279,6 +2313,22 @@ public class LocalMetastore implements ConnectorMetadata {
         }
     }
 
+    public void replayChangeMaterializedViewRefreshScheme(ChangeMaterializedViewRefreshSchemeLog log) {
+        Database db = getDb(log.getDbId());
+        if (db == null) {
+            return;
+        }
+        db.writeLock();
+        try {
+            Table table = db.getTable(log.getId());
+            if (table instanceof MaterializedView) {
+                ((MaterializedView) table).setRefreshScheme(log.getRefreshScheme());
+            }
+        } finally {
+            db.writeUnlock();
+        }
+    }
+
     public void replayCreateMaterializedView(String dbName, MaterializedView materializedView) {
         Database db = this.fullNameToDb.get(dbName);
         db.createMaterializedWithLock(materializedView, true);
@@ -2912,6 +2962,11 @@ public class LocalMetastore implements ConnectorMetadata {
         validateColumns(baseSchema);
         // create partition info
         PartitionDesc partitionDesc = stmt.getPartitionExpDesc();
+        if (partitionDesc == null) {
+            // the refresh rebuilds the partitions of the view derived from the partitions of the base table
+            throw new DdlException("Materialized view " + mvName +
+                    " must be partitioned by a partition column of the base table or date_trunc of it");
+        }
         Map<String, Long> partitionNameToId = Maps.newHashMap();
         PartitionInfo partitionInfo = partitionDesc.toPartitionInfo(baseSchema, partitionNameToId, false);
         // create distribution info
@@ -2924,6 +2979,17 @@ public class LocalMetastore implements ConnectorMetadata {
         RefreshSchemeDesc refreshSchemeDesc = stmt.getRefreshSchemeDesc();
         if (refreshSchemeDesc.getType() == RefreshType.ASYNC) {
             mvRefreshScheme = new MaterializedView.MvRefreshScheme();
+            AsyncRefreshSchemeDesc asyncRefreshSchemeDesc = (AsyncRefreshSchemeDesc) refreshSchemeDesc;
+            IntervalLiteral interval = asyncRefreshSchemeDesc.getIntervalLiteral();
+            long step = ((IntLiteral) interval.getValue()).getLongValue();
+            if (step <= 0) {
+                throw new DdlException("Refresh every " + step + " must be positive");
+            }
+            mvRefreshScheme.getAsyncRefreshContext().setSchedule(
+                    asyncRefreshSchemeDesc.getStartTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                    step, interval.getUnitIdentifier().getDescription());
+            // check the time unit
+            TaskBuilder.buildMvSchedule(mvRefreshScheme.getAsyncRefreshContext());
         } else if (refreshSchemeDesc.getType() == RefreshType.SYNC) {
             mvRefreshScheme = new MaterializedView.MvRefreshScheme();
             mvRefreshScheme.setType(MaterializedView.RefreshType.SYNC);
@@ -3012,11 +3078,48 @@ public class LocalMetastore implements ConnectorMetadata {
         LOG.info("Successfully create materialized view[{};{}]", mvName, mvId);
 
         // NOTE: The materialized view  has been added to the database, and the following procedure cannot throw exception.
-        // todo add async task after task framework is completed
+        if (mvRefreshScheme != null && mvRefreshScheme.getType() == MaterializedView.RefreshType.ASYNC) {
+            createMvRefreshTask(db, materializedView);
+        }
+    }
+
+    // build the asynchronous materialized view by its refresh task, which then runs by the schedule of the view
+    private void createMvRefreshTask(Database db, MaterializedView materializedView) {
+        if (!(materializedView.getPartitionInfo() instanceof ExpressionRangePartitionInfo)) {
+            LOG.warn("materialized view[{};{}] is not partitioned by expression and is not refreshed",
+                    materializedView.getName(), materializedView.getId());
+            return;
+        }
+        TaskSchedule schedule;
+        try {
+            schedule = TaskBuilder.buildMvSchedule(materializedView.getRefreshScheme().getAsyncRefreshContext());
+        } catch (DdlException e) {
+            LOG.warn("failed to create the refresh task of materialized view[{};{}]", materializedView.getName(),
+                    materializedView.getId(), e);
+            return;
+        }
+        Task task = TaskBuilder.buildMvTask(materializedView, db.getFullName(), schedule);
+        TaskManager taskManager = stateMgr.getTaskManager();
+        if (taskManager.createTask(task, false) < 0) {
+            LOG.warn("failed to create the refresh task of materialized view[{};{}]", materializedView.getName(),
+                    materializedView.getId());
+        } else {
+            taskManager.executeTask(task.getName());
+        }
     }
 
     @Override
     public void dropMaterializedView(DropMaterializedViewStmt stmt) throws DdlException, MetaNotFoundException {
+        Database db = getDb(stmt.getDbName());
+        if (db == null) {
+            ErrorReport.reportDdlException(ErrorCode.ERR_BAD_DB_ERROR, stmt.getDbName());
+        }
+        // the asynchronous materialized view is a table, which is dropped with its refresh task
+        if (stmt.getTblName() == null && db.getTable(stmt.getMvName()) instanceof MaterializedView) {
+            dropTable(new DropTableStmt(stmt.isSetIfExists(), new TableName(stmt.getDbName(), stmt.getMvName()),
+                    false));
+            return;
+        }
         stateMgr.getAlterInstance().processDropMaterializedView(stmt);
     }
 
@@ -4096,7 +4199,7 @@ public class LocalMetastore implements ConnectorMetadata {
                 ErrorReport.reportDdlException(ErrorCode.ERR_BAD_TABLE_ERROR, tableName);
             }
 
-            if (table.getType() != Table.TableType.OLAP) {
+            if (table.getType() != Table.TableType.OLAP && table.getType() != Table.TableType.MATERIALIZED_VIEW) {
                 throw new DdlException("Table[" + tableName + "] is not OLAP table");
             }
 
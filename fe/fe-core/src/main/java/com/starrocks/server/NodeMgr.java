@@ -622,8 +622,7 @@ public class NodeMgr {
                         + "/image?version=" + version;
                 String filename = Storage.IMAGE + "." + version;
                 File dir = new File(this.imageDir);
-                MetaHelper.getRemoteFile(url, HTTP_TIMEOUT_SECOND * 1000, MetaHelper.getOutputStream(filename, dir));
-                MetaHelper.complete(filename, dir);
+                MetaHelper.downloadImage(url, HTTP_TIMEOUT_SECOND * 1000, filename, dir);
             }
         } catch (Exception e) {
             return;
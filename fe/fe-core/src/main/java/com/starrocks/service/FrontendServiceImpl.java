@@ -63,7 +63,7 @@ import com.starrocks.mysql.privilege.PrivPredicate;
 import com.starrocks.mysql.privilege.Privilege;
 import com.starrocks.mysql.privilege.TablePrivEntry;
 import com.starrocks.mysql.privilege.UserPrivTable;
-import com.starrocks.planner.StreamLoadPlanner;
+import com.starrocks.planner.StreamLoadPlanCache;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.qe.ConnectProcessor;
 import com.starrocks.qe.QeProcessorImpl;
@@ -74,7 +74,6 @@ import com.starrocks.scheduler.persist.TaskRunStatus;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.system.Frontend;
 import com.starrocks.system.SystemInfoService;
-import com.starrocks.task.StreamLoadTask;
 import com.starrocks.thrift.FrontendService;
 import com.starrocks.thrift.FrontendServiceVersion;
 import com.starrocks.thrift.TAbortRemoteTxnRequest;
@@ -811,11 +810,23 @@ public class FrontendServiceImpl implements FrontendService.Iface {
             throw new UserException("unknown database, database=" + dbName);
         }
 
+        Table table = db.getTable(request.getTbl());
+        if (table == null) {
+            throw new UserException("unknown table, table=" + request.getTbl());
+        }
+
+        if (request.isSetGroup_commit_txn_id()) {
+            // the backend merges this load into a running transaction of the same table, only track its label
+            GlobalStateMgr.getCurrentGlobalTransactionMgr().addGroupCommitLabel(db.getId(), table.getId(),
+                    request.getGroup_commit_txn_id(), request.getLabel());
+            return request.getGroup_commit_txn_id();
+        }
+
         // begin
         long timeoutSecond = request.isSetTimeout() ? request.getTimeout() : Config.stream_load_default_timeout_second;
         MetricRepo.COUNTER_LOAD_ADD.increase(1L);
         return GlobalStateMgr.getCurrentGlobalTransactionMgr().beginTransaction(
-                db.getId(), Lists.newArrayList(), request.getLabel(), request.getRequest_id(),
+                db.getId(), Lists.newArrayList(table.getId()), request.getLabel(), request.getRequest_id(),
                 new TxnCoordinator(TxnSourceType.BE, clientIp),
                 TransactionState.LoadJobSourceType.BACKEND_STREAMING, -1, timeoutSecond);
     }
@@ -1017,21 +1028,23 @@ public class FrontendServiceImpl implements FrontendService.Iface {
             }
             throw new UserException("unknown database, database=" + dbName);
         }
+        Table table = db.getTable(request.getTbl());
+        if (table == null) {
+            throw new UserException("unknown table, table=" + request.getTbl());
+        }
+        if (!(table instanceof OlapTable)) {
+            throw new UserException("load table type is not OlapTable, type=" + table.getClass());
+        }
         long timeoutMs = request.isSetThrift_rpc_timeout_ms() ? request.getThrift_rpc_timeout_ms() : 5000;
-        if (!db.tryReadLock(timeoutMs, TimeUnit.MILLISECONDS)) {
-            throw new UserException("get database read lock timeout, database=" + fullDbName);
+        if (!db.tryReadLockTable(table, timeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new UserException("get table read lock timeout, database=" + fullDbName
+                    + ", table=" + request.getTbl());
         }
         try {
-            Table table = db.getTable(request.getTbl());
-            if (table == null) {
+            if (db.getTable(table.getId()) != table) {
                 throw new UserException("unknown table, table=" + request.getTbl());
             }
-            if (!(table instanceof OlapTable)) {
-                throw new UserException("load table type is not OlapTable, type=" + table.getClass());
-            }
-            StreamLoadTask streamLoadTask = StreamLoadTask.fromTStreamLoadPutRequest(request, db);
-            StreamLoadPlanner planner = new StreamLoadPlanner(db, (OlapTable) table, streamLoadTask);
-            TExecPlanFragmentParams plan = planner.plan(streamLoadTask.getId());
+            TExecPlanFragmentParams plan = StreamLoadPlanCache.getInstance().plan(db, (OlapTable) table, request);
             // add table indexes to transaction state
             TransactionState txnState =
                     GlobalStateMgr.getCurrentGlobalTransactionMgr().getTransactionState(db.getId(), request.getTxnId());
@@ -1042,7 +1055,7 @@ public class FrontendServiceImpl implements FrontendService.Iface {
 
             return plan;
         } finally {
-            db.readUnlock();
+            db.readUnlockTable(table);
         }
     }
 
@@ -1,6 +1,8 @@
 // This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
 package com.starrocks.sql;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.starrocks.analysis.AdminSetConfigStmt;
 import com.starrocks.analysis.AdminSetReplicaStatusStmt;
 import com.starrocks.analysis.AdminShowConfigStmt;
@@ -30,10 +32,14 @@ import com.starrocks.analysis.ShowWorkGroupStmt;
 import com.starrocks.analysis.StatementBase;
 import com.starrocks.analysis.UpdateStmt;
 import com.starrocks.catalog.Database;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Table;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.planner.PlanFragment;
 import com.starrocks.planner.ResultSink;
 import com.starrocks.qe.ConnectContext;
+import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.sql.analyzer.Analyzer;
 import com.starrocks.sql.analyzer.AnalyzerUtils;
 import com.starrocks.sql.analyzer.PrivilegeChecker;
@@ -66,8 +72,10 @@ import com.starrocks.sql.optimizer.transformer.RelationTransformer;
 import com.starrocks.sql.plan.ExecPlan;
 import com.starrocks.sql.plan.PlanFragmentBuilder;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 public class StatementPlanner {
@@ -75,8 +83,15 @@ public class StatementPlanner {
     public ExecPlan plan(StatementBase stmt, ConnectContext session) throws AnalysisException {
         if (stmt instanceof QueryStatement) {
             OptimizerTraceUtil.logQueryStatement(session, "after parse:\n%s", (QueryStatement) stmt);
+            session.setResolvedTables(Maps.newHashMap());
+        }
+        Map<Long, Map<Long, Table>> resolvedTables;
+        try {
+            Analyzer.analyze(stmt, session);
+        } finally {
+            resolvedTables = session.getResolvedTables();
+            session.setResolvedTables(null);
         }
-        Analyzer.analyze(stmt, session);
         PrivilegeChecker.check(stmt, session);
         if (stmt instanceof QueryStatement) {
             OptimizerTraceUtil.logQueryStatement(session, "after analyze:\n%s", (QueryStatement) stmt);
@@ -84,15 +99,17 @@ public class StatementPlanner {
 
         if (stmt instanceof QueryStatement) {
             Map<String, Database> dbs = AnalyzerUtils.collectAllDatabase(session, stmt);
+            Map<Database, List<Table>> tables = getTables(resolvedTables,
+                    session.getSessionVariable().isEnableMaterializedViewRewrite());
             try {
-                lock(dbs);
+                lockTables(tables);
                 session.setCurrentSqlDbIds(dbs.values().stream().map(Database::getId).collect(Collectors.toSet()));
                 ExecPlan plan = createQueryPlan(((QueryStatement) stmt).getQueryRelation(), session);
                 setOutfileSink((QueryStatement) stmt, plan);
 
                 return plan;
             } finally {
-                unLock(dbs);
+                unLockTables(tables);
             }
         } else if (stmt instanceof DmlStmt) {
             Map<String, Database> dbs = AnalyzerUtils.collectAllDatabase(session, stmt);
@@ -164,6 +181,50 @@ public class StatementPlanner {
         }
     }
 
+    private Map<Database, List<Table>> getTables(Map<Long, Map<Long, Table>> resolvedTables,
+                                                 boolean withMaterializedViews) {
+        // sorted by db id, so the dbs are always locked in the same order
+        Map<Database, List<Table>> tables = new TreeMap<>(Comparator.comparingLong(Database::getId));
+        for (Map.Entry<Long, Map<Long, Table>> entry : resolvedTables.entrySet()) {
+            Database db = GlobalStateMgr.getCurrentState().getDb(entry.getKey());
+            // db maybe dropped after analyze
+            if (db == null) {
+                continue;
+            }
+            Map<Long, Table> dbTables = Maps.newHashMap(entry.getValue());
+            if (withMaterializedViews) {
+                // the materialized views the query may be rewritten to, they are in the db of their base tables
+                for (Table table : entry.getValue().values()) {
+                    if (!(table instanceof OlapTable)) {
+                        continue;
+                    }
+                    for (long mvId : ((OlapTable) table).getRelatedMaterializedViews()) {
+                        Table mv = db.getTable(mvId);
+                        if (mv instanceof MaterializedView) {
+                            dbTables.putIfAbsent(mvId, mv);
+                        }
+                    }
+                }
+            }
+            tables.put(db, Lists.newArrayList(dbTables.values()));
+        }
+        return tables;
+    }
+
+    // Lock the tables resolved by analyze with the intention lock of their database,
+    // so the planning is not blocked by the loads and the schema changes to the other tables
+    private void lockTables(Map<Database, List<Table>> tables) {
+        for (Map.Entry<Database, List<Table>> entry : tables.entrySet()) {
+            entry.getKey().readLockTables(entry.getValue());
+        }
+    }
+
+    private void unLockTables(Map<Database, List<Table>> tables) {
+        for (Map.Entry<Database, List<Table>> entry : tables.entrySet()) {
+            entry.getKey().readUnlockTables(entry.getValue());
+        }
+    }
+
     // if query stmt has OUTFILE clause, set info into ResultSink.
     // this should be done after fragments are generated.
     private void setOutfileSink(QueryStatement queryStmt, ExecPlan plan) {
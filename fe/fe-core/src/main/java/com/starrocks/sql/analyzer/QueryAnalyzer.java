@@ -55,6 +55,7 @@ import com.starrocks.sql.optimizer.base.SetQualifier;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -659,6 +660,11 @@ public class QueryAnalyzer {
                             || ((OlapTable) table).getState() == OlapTable.OlapTableState.RESTORE_WITH_LOAD)) {
                 ErrorReport.reportAnalysisException(ErrorCode.ERR_BAD_TABLE_STATE, "RESTORING");
             }
+
+            if (session != null && session.getResolvedTables() != null && CatalogMgr.isInternalCatalog(catalogName)) {
+                session.getResolvedTables().computeIfAbsent(database.getId(), k -> new HashMap<>())
+                        .put(table.getId(), table);
+            }
             return table;
         } catch (AnalysisException e) {
             throw new SemanticException(e.getMessage());
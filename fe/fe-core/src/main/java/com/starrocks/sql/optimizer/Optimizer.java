@@ -15,12 +15,15 @@ import com.starrocks.sql.optimizer.rewrite.AddDecodeNodeForDictStringRule;
 import com.starrocks.sql.optimizer.rewrite.ExchangeSortToMergeRule;
 import com.starrocks.sql.optimizer.rewrite.PredicateReorderRule;
 import com.starrocks.sql.optimizer.rewrite.PruneAggregateNodeRule;
+import com.starrocks.sql.optimizer.rewrite.RuntimeFilterPlanningRule;
 import com.starrocks.sql.optimizer.rewrite.ScalarOperatorsReuseRule;
 import com.starrocks.sql.optimizer.rule.Rule;
 import com.starrocks.sql.optimizer.rule.RuleSetType;
 import com.starrocks.sql.optimizer.rule.implementation.PreAggregateTurnOnRule;
 import com.starrocks.sql.optimizer.rule.join.ReorderJoinRule;
+import com.starrocks.sql.optimizer.rule.mv.AsyncMaterializedViewRewriter;
 import com.starrocks.sql.optimizer.rule.mv.MaterializedViewRule;
+import com.starrocks.sql.optimizer.rule.transformation.DynamicPartitionPruneRule;
 import com.starrocks.sql.optimizer.rule.transformation.LimitPruneTabletsRule;
 import com.starrocks.sql.optimizer.rule.transformation.MergeProjectWithChildRule;
 import com.starrocks.sql.optimizer.rule.transformation.MergeTwoAggRule;
@@ -99,6 +102,11 @@ public class Optimizer {
         // So we need to explicitly derive all group logic property again
         memo.deriveAllGroupLogicalProperty();
 
+        // add the scans of the fresh asynchronous materialized views as the alternatives of the groups
+        if (connectContext.getSessionVariable().isEnableMaterializedViewRewrite()) {
+            new AsyncMaterializedViewRewriter(connectContext, context).rewrite(memo);
+        }
+
         // Phase 3: optimize based on memo and group
         memoOptimize(connectContext, memo, rootTaskContext);
 
@@ -174,6 +182,8 @@ public class Optimizer {
         result = new ExchangeSortToMergeRule().rewrite(result);
         result = new PruneAggregateNodeRule().rewrite(result, rootTaskContext);
         result = new AddDecodeNodeForDictStringRule().rewrite(result, rootTaskContext);
+        result = new RuntimeFilterPlanningRule(rootTaskContext.getOptimizerContext().getSessionVariable())
+                .rewrite(result, rootTaskContext);
         // This rule should be last
         result = new ScalarOperatorsReuseRule().rewrite(result, rootTaskContext);
         // Reorder predicates
@@ -256,6 +266,8 @@ public class Optimizer {
         memo.replaceRewriteExpression(memo.getRootGroup(), tree);
 
         ruleRewriteOnlyOnce(memo, rootTaskContext, RuleSetType.PARTITION_PRUNE);
+        // depends on the partitions selected by the partition prune
+        ruleRewriteOnlyOnce(memo, rootTaskContext, new DynamicPartitionPruneRule());
         ruleRewriteOnlyOnce(memo, rootTaskContext, LimitPruneTabletsRule.getInstance());
         ruleRewriteIterative(memo, rootTaskContext, RuleSetType.PRUNE_PROJECT);
 
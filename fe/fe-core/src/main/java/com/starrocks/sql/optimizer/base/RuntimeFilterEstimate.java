@@ -0,0 +1,60 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.sql.optimizer.base;
+
+/**
+ * The runtime filter planned by the optimizer for an equal join conjunct of a hash join.
+ * <p>
+ * The selectivity is the estimated ratio of the probe rows filtered out, and the probe rows are the estimated rows
+ * of the deepest operator the filter can be pushed down to. Whether the filter is pushed across an exchange or an
+ * aggregation is null if the optimizer reaches none of them on the probe side, the planner decides it then.
+ */
+public class RuntimeFilterEstimate {
+    private final double selectivity;
+    private final double probeRows;
+    private final Boolean pushAcrossExchange;
+    private final Boolean pushAcrossAggregation;
+
+    public RuntimeFilterEstimate(double selectivity, double probeRows, Boolean pushAcrossExchange,
+                                 Boolean pushAcrossAggregation) {
+        this.selectivity = selectivity;
+        this.probeRows = probeRows;
+        this.pushAcrossExchange = pushAcrossExchange;
+        this.pushAcrossAggregation = pushAcrossAggregation;
+    }
+
+    public double getSelectivity() {
+        return selectivity;
+    }
+
+    public double getProbeRows() {
+        return probeRows;
+    }
+
+    // the estimated probe rows filtered out
+    public double getBenefit() {
+        return selectivity * probeRows;
+    }
+
+    public boolean isExchangeEvaluated() {
+        return pushAcrossExchange != null;
+    }
+
+    public boolean canPushAcrossExchange() {
+        return Boolean.TRUE.equals(pushAcrossExchange);
+    }
+
+    public boolean isAggregationEvaluated() {
+        return pushAcrossAggregation != null;
+    }
+
+    public boolean canPushAcrossAggregation() {
+        return Boolean.TRUE.equals(pushAcrossAggregation);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("selectivity = %.2f, probe_rows = %.0f, benefit = %.0f",
+                selectivity, probeRows, getBenefit());
+    }
+}
@@ -5,14 +5,19 @@ package com.starrocks.sql.optimizer.operator.physical;
 import com.starrocks.analysis.JoinOperator;
 import com.starrocks.sql.optimizer.OptExpression;
 import com.starrocks.sql.optimizer.OptExpressionVisitor;
+import com.starrocks.sql.optimizer.base.RuntimeFilterEstimate;
 import com.starrocks.sql.optimizer.operator.OperatorType;
 import com.starrocks.sql.optimizer.operator.OperatorVisitor;
 import com.starrocks.sql.optimizer.operator.Projection;
 import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
 
+import java.util.Map;
 import java.util.Objects;
 
 public class PhysicalHashJoinOperator extends PhysicalJoinOperator {
+    // the runtime filters planned by the optimizer, keyed by the order of the equal join conjunct,
+    // null if they are not planned by the optimizer
+    private Map<Integer, RuntimeFilterEstimate> runtimeFilterEstimates;
 
     public PhysicalHashJoinOperator(JoinOperator joinType,
                                     ScalarOperator onPredicate,
@@ -23,6 +28,14 @@ public class PhysicalHashJoinOperator extends PhysicalJoinOperator {
         super(OperatorType.PHYSICAL_HASH_JOIN, joinType, onPredicate, joinHint, limit, predicate, projection);
     }
 
+    public Map<Integer, RuntimeFilterEstimate> getRuntimeFilterEstimates() {
+        return runtimeFilterEstimates;
+    }
+
+    public void setRuntimeFilterEstimates(Map<Integer, RuntimeFilterEstimate> runtimeFilterEstimates) {
+        this.runtimeFilterEstimates = runtimeFilterEstimates;
+    }
+
     @Override
     public <R, C> R accept(OperatorVisitor<R, C> visitor, C context) {
         return visitor.visitPhysicalHashJoin(this, context);
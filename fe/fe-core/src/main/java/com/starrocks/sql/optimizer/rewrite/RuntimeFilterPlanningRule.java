@@ -0,0 +1,153 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rewrite;
+
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.JoinOperator;
+import com.starrocks.qe.SessionVariable;
+import com.starrocks.sql.optimizer.JoinHelper;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptExpressionVisitor;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.base.ColumnRefSet;
+import com.starrocks.sql.optimizer.base.RuntimeFilterEstimate;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalDistributionOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalHashAggregateOperator;
+import com.starrocks.sql.optimizer.operator.physical.PhysicalHashJoinOperator;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
+import com.starrocks.sql.optimizer.statistics.Statistics;
+import com.starrocks.sql.optimizer.task.TaskContext;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plan the runtime filters of hash joins by the estimated statistics.
+ * <p>
+ * A runtime filter built from an equal join conjunct is kept only if it is estimated to filter out at least
+ * runtime_filter_min_selectivity of the probe rows, which is 1 - build ndv / probe ndv of the join keys. The filter
+ * is pushed down across an aggregation if the probe key is a grouping key, and across an exchange if the probe
+ * rows it filters out below the exchange are more than the size of the filter, which grows with the build ndv.
+ * The exchanges and aggregations the probe key is not followed down to are left to the planner's defaults.
+ */
+public class RuntimeFilterPlanningRule implements PhysicalOperatorTreeRewriteRule {
+    private final SessionVariable sessionVariable;
+
+    public RuntimeFilterPlanningRule(SessionVariable sessionVariable) {
+        this.sessionVariable = sessionVariable;
+    }
+
+    @Override
+    public OptExpression rewrite(OptExpression root, TaskContext taskContext) {
+        if (sessionVariable.isEnableCostBasedRuntimeFilter()) {
+            root.getOp().accept(new RuntimeFilterPlanningVisitor(), root, null);
+        }
+        return root;
+    }
+
+    private class RuntimeFilterPlanningVisitor extends OptExpressionVisitor<Void, Void> {
+        @Override
+        public Void visit(OptExpression optExpression, Void context) {
+            for (OptExpression input : optExpression.getInputs()) {
+                input.getOp().accept(this, input, null);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitPhysicalHashJoin(OptExpression optExpression, Void context) {
+            visit(optExpression, context);
+
+            PhysicalHashJoinOperator join = (PhysicalHashJoinOperator) optExpression.getOp();
+            JoinOperator joinType = join.getJoinType();
+            // the same join types as the ones building runtime filters in JoinNode
+            if (!joinType.isInnerJoin() && !joinType.isLeftSemiJoin() && !joinType.isRightJoin()) {
+                return null;
+            }
+            OptExpression probe = optExpression.inputAt(0);
+            OptExpression build = optExpression.inputAt(1);
+            ColumnRefSet buildColumns = build.getLogicalProperty().getOutputColumns();
+            List<BinaryPredicateOperator> eqPredicates = JoinHelper.getEqualsPredicate(
+                    probe.getLogicalProperty().getOutputColumns(), buildColumns,
+                    Utils.extractConjuncts(join.getOnPredicate()));
+
+            // keyed by the order of the conjunct in the equal join conjuncts of JoinNode
+            Map<Integer, RuntimeFilterEstimate> estimates = Maps.newHashMap();
+            for (int i = 0; i < eqPredicates.size(); i++) {
+                ScalarOperator buildKey = eqPredicates.get(i).getChild(1);
+                ScalarOperator probeKey = eqPredicates.get(i).getChild(0);
+                if (!buildColumns.containsAll(buildKey.getUsedColumns())) {
+                    buildKey = eqPredicates.get(i).getChild(0);
+                    probeKey = eqPredicates.get(i).getChild(1);
+                }
+                RuntimeFilterEstimate estimate = estimate(probe, build, probeKey, buildKey);
+                if (estimate.getSelectivity() >= sessionVariable.getRuntimeFilterMinSelectivity()) {
+                    estimates.put(i, estimate);
+                }
+            }
+            join.setRuntimeFilterEstimates(estimates);
+            return null;
+        }
+    }
+
+    private RuntimeFilterEstimate estimate(OptExpression probe, OptExpression build, ScalarOperator probeKey,
+                                           ScalarOperator buildKey) {
+        double buildRows = build.getStatistics().getOutputRowCount();
+        double buildNdv = getDistinctValues(build.getStatistics(), buildKey, buildRows);
+        buildNdv = buildNdv < 0 ? buildRows : buildNdv;
+        double probeRows = probe.getStatistics().getOutputRowCount();
+        double probeNdv = getDistinctValues(probe.getStatistics(), probeKey, probeRows);
+        // without the ndv of the probe key, assume every build row filters out a probe row at most
+        double selectivity = 1 - (probeNdv > 0 ? buildNdv / probeNdv : buildRows / probeRows);
+        selectivity = Double.isNaN(selectivity) ? 0 : Math.max(0, Math.min(1, selectivity));
+
+        // follow the probe key down the probe side, the operators not reached are left to the planner
+        Boolean pushAcrossExchange = null;
+        Boolean pushAcrossAggregation = null;
+        OptExpression current = probe;
+        while (probeKey instanceof ColumnRefOperator && current.arity() == 1) {
+            Operator op = current.getOp();
+            OptExpression child = current.inputAt(0);
+            if (!child.getLogicalProperty().getOutputColumns().contains((ColumnRefOperator) probeKey)) {
+                break;
+            }
+            double childRows = child.getStatistics().getOutputRowCount();
+            if (op instanceof PhysicalDistributionOperator) {
+                if (buildRows > sessionVariable.getGlobalRuntimeFilterBuildMaxSize() ||
+                        childRows * selectivity <= buildNdv) {
+                    // a filter pushed across an upper exchange is not stopped at this one
+                    pushAcrossExchange = pushAcrossExchange != null;
+                    break;
+                }
+                pushAcrossExchange = true;
+            } else if (op instanceof PhysicalHashAggregateOperator) {
+                if (!((PhysicalHashAggregateOperator) op).getGroupBys().contains(probeKey)) {
+                    pushAcrossAggregation = pushAcrossAggregation != null;
+                    break;
+                }
+                pushAcrossAggregation = true;
+            } else {
+                break;
+            }
+            probeRows = childRows;
+            current = child;
+        }
+        return new RuntimeFilterEstimate(selectivity, probeRows, pushAcrossExchange, pushAcrossAggregation);
+    }
+
+    // returns -1 if unknown
+    private static double getDistinctValues(Statistics statistics, ScalarOperator key, double rows) {
+        if (!(key instanceof ColumnRefOperator)) {
+            return -1;
+        }
+        ColumnStatistic columnStatistic = statistics.getColumnStatistics().get(key);
+        if (columnStatistic == null || columnStatistic.isUnknown() || columnStatistic.isUnknownValue()) {
+            return -1;
+        }
+        return Math.min(columnStatistic.getDistinctValuesCount(), rows);
+    }
+}
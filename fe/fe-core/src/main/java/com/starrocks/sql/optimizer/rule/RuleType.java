@@ -12,6 +12,7 @@ public enum RuleType {
     TF_MULTI_JOIN_ORDER,
     TF_PARTITION_PRUNE,
     TF_DISTRIBUTION_PRUNE,
+    TF_DYNAMIC_PARTITION_PRUNE,
     TF_LIMIT_TABLETS_PRUNE,
     TF_SPLIT_AGGREGATE,
     TF_SPLIT_TOPN,
@@ -2,127 +2,188 @@
 package com.starrocks.sql.optimizer.rule.join;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Ordering;
 import com.starrocks.sql.optimizer.OptExpression;
 import com.starrocks.sql.optimizer.OptimizerContext;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.IntStream;
-
-import static com.google.common.collect.ImmutableSet.toImmutableSet;
-import static com.google.common.collect.Sets.powerSet;
 
+/**
+ * Join reorder by dynamic programming over the connected subgraph and complement pairs (DPccp).
+ * <p>
+ * The atoms are the vertexes of the join graph and a set of atoms is a bitmap of long. Only the pairs of two
+ * disjoint connected sets, which are connected by an edge, are enumerated, so no cross join is considered
+ * unless the join graph itself is not connected, in which case any two sets are taken as connected.
+ * <p>
+ * See Moerkotte, Neumann: Analysis of Two Existing and One New Dynamic Programming Algorithm for the
+ * Generation of Optimal Bushy Join Trees without Cross Products.
+ */
 public class JoinReorderDP extends JoinOrder {
+    // the bitmap of the atoms is a long
+    public static final int MAX_ATOM_SIZE = 63;
+
     public JoinReorderDP(OptimizerContext context) {
         super(context);
     }
 
-    private final Map<BitSet, GroupInfo> bestPlanMemo = new HashMap<>();
+    private final Map<Long, GroupInfo> bestPlanMemo = new HashMap<>();
     List<GroupInfo> groups = new ArrayList<>();
+    // the neighbors of each atom in the join graph
+    private long[] neighbors;
+    // the csg-cmp pairs grouped by the size of their union, so the best plans of both sides of a pair
+    // are always found before the pair is joined
+    private final List<PairList> pairsBySize = new ArrayList<>();
 
     @Override
     protected void enumerate() {
         groups = joinLevels.get(1).groups;
-        BitSet joinKeys = new BitSet();
-        joinKeys.set(0, groups.size(), true);
-        getBestExpr(joinKeys);
+        buildJoinGraph();
+        for (int i = 0; i <= atomSize; i++) {
+            pairsBySize.add(new PairList());
+        }
+
+        for (int i = atomSize - 1; i >= 0; i--) {
+            long start = 1L << i;
+            emitCsg(start);
+            enumerateCsgRec(start, lowerOrEqual(i));
+        }
+
+        for (PairList pairs : pairsBySize) {
+            for (int i = 0; i < pairs.size; i++) {
+                join(pairs.lefts[i], pairs.rights[i]);
+            }
+        }
     }
 
     @Override
     public List<OptExpression> getResult() {
-        groups = joinLevels.get(1).groups;
-        BitSet joinKeys = new BitSet();
-        joinKeys.set(0, groups.size(), true);
-
-        GroupInfo g = getBestExpr(joinKeys);
+        GroupInfo g = getGroup(lowerOrEqual(atomSize - 1));
         return Lists.newArrayList(g.bestExprInfo.expr);
     }
 
-    private GroupInfo getBestExpr(BitSet joinKeys) {
-        if (joinKeys.cardinality() == 1) {
-            int index = 0;
-            while (!joinKeys.get(index)) {
-                index++;
+    private void buildJoinGraph() {
+        neighbors = new long[atomSize];
+        for (Edge edge : edges) {
+            long vertexes = toLong(edge.vertexes);
+            for (int i = edge.vertexes.nextSetBit(0); i >= 0; i = edge.vertexes.nextSetBit(i + 1)) {
+                neighbors[i] |= vertexes & ~(1L << i);
             }
-
-            return groups.get(index);
         }
 
-        GroupInfo bestPlan = bestPlanMemo.get(joinKeys);
-        if (bestPlan == null) {
-            Ordering<ExpressionInfo> resultComparator = Ordering.from(Comparator.comparing(ExpressionInfo::getCost));
-
-            List<ExpressionInfo> results = new ArrayList<>();
-            List<BitSet> partitions = generatePartitions(joinKeys);
-            for (BitSet partition : partitions) {
-                GroupInfo leftGroup = getBestExpr(partition);
-                if (!results.isEmpty() && leftGroup.bestExprInfo.cost > resultComparator.min(results).cost) {
-                    continue;
-                }
-
-                BitSet otherPartition = (BitSet) joinKeys.clone();
-                otherPartition.andNot(partition);
-
-                GroupInfo rightGroup = getBestExpr(otherPartition);
-                if (!results.isEmpty() && rightGroup.bestExprInfo.cost > resultComparator.min(results).cost) {
-                    continue;
-                }
-
-                ExpressionInfo joinExpr = buildJoinExpr(leftGroup, rightGroup);
-
-                joinExpr.expr.deriveLogicalPropertyItself();
-                calculateStatistics(joinExpr.expr);
-                computeCost(joinExpr, false);
-                results.add(joinExpr);
+        long all = lowerOrEqual(atomSize - 1);
+        long reached = 1L;
+        long next = reached | getNeighbors(reached);
+        while (next != reached) {
+            reached = next;
+            next = reached | getNeighbors(reached);
+        }
+        if (reached != all) {
+            // cross joins are required, so any two sets are joinable
+            for (int i = 0; i < atomSize; i++) {
+                neighbors[i] = all & ~(1L << i);
             }
-            ExpressionInfo minCostPlan = resultComparator.min(results);
+        }
+    }
 
-            BitSet atoms = new BitSet();
-            atoms.or(minCostPlan.leftChildExpr.atoms);
-            atoms.or(minCostPlan.rightChildExpr.atoms);
-            GroupInfo g = new GroupInfo(atoms);
-            g.bestExprInfo = minCostPlan;
-            g.lowestExprCost = minCostPlan.cost;
+    private void emitCsg(long s1) {
+        long excluded = s1 | lowerOrEqual(Long.numberOfTrailingZeros(s1));
+        long n = getNeighbors(s1) & ~excluded;
+        for (long rest = n; rest != 0; rest &= ~Long.highestOneBit(rest)) {
+            long s2 = Long.highestOneBit(rest);
+            pairsBySize.get(Long.bitCount(s1 | s2)).add(s1, s2);
+            enumerateCmpRec(s1, s2, excluded | (lowerOrEqual(Long.numberOfTrailingZeros(s2)) & n));
+        }
+    }
+
+    private void enumerateCsgRec(long s1, long excluded) {
+        long n = getNeighbors(s1) & ~excluded;
+        for (long s = n; s != 0; s = (s - 1) & n) {
+            emitCsg(s1 | s);
+        }
+        for (long s = n; s != 0; s = (s - 1) & n) {
+            enumerateCsgRec(s1 | s, excluded | n);
+        }
+    }
+
+    private void enumerateCmpRec(long s1, long s2, long excluded) {
+        long n = getNeighbors(s2) & ~excluded;
+        for (long s = n; s != 0; s = (s - 1) & n) {
+            pairsBySize.get(Long.bitCount(s1 | s2 | s)).add(s1, s2 | s);
+        }
+        for (long s = n; s != 0; s = (s - 1) & n) {
+            enumerateCmpRec(s1, s2 | s, excluded | n);
+        }
+    }
+
+    private void join(long left, long right) {
+        GroupInfo leftGroup = getGroup(left);
+        GroupInfo rightGroup = getGroup(right);
+        GroupInfo bestPlan = bestPlanMemo.get(left | right);
+        if (bestPlan != null && (leftGroup.lowestExprCost > bestPlan.lowestExprCost ||
+                rightGroup.lowestExprCost > bestPlan.lowestExprCost)) {
+            return;
+        }
 
-            bestPlanMemo.put(joinKeys, g);
-            return g;
+        ExpressionInfo joinExpr = buildJoinExpr(leftGroup, rightGroup);
+        joinExpr.expr.deriveLogicalPropertyItself();
+        calculateStatistics(joinExpr.expr);
+        computeCost(joinExpr, false);
+
+        if (bestPlan == null) {
+            BitSet atoms = new BitSet();
+            atoms.or(leftGroup.atoms);
+            atoms.or(rightGroup.atoms);
+            bestPlan = new GroupInfo(atoms);
+            bestPlanMemo.put(left | right, bestPlan);
+        }
+        if (bestPlan.bestExprInfo == null || joinExpr.cost < bestPlan.lowestExprCost) {
+            bestPlan.bestExprInfo = joinExpr;
+            bestPlan.lowestExprCost = joinExpr.cost;
         }
+    }
 
-        return bestPlan;
+    private GroupInfo getGroup(long atoms) {
+        if (Long.bitCount(atoms) == 1) {
+            return groups.get(Long.numberOfTrailingZeros(atoms));
+        }
+        return bestPlanMemo.get(atoms);
     }
 
-    private List<BitSet> generatePartitions(BitSet totalNodes) {
-        Set<Integer> numbers = IntStream.range(0, totalNodes.cardinality()).boxed().collect(toImmutableSet());
-        Set<Set<Integer>> sets = powerSet(numbers).stream()
-                .filter(subSet -> subSet.size() > 0)
-                .filter(subSet -> subSet.size() < numbers.size())
-                .collect(toImmutableSet());
-
-        List<Integer> l = bitSet2Array(totalNodes);
-        List<BitSet> partitions = new ArrayList<>();
-        for (Set<Integer> s : sets) {
-            BitSet b = new BitSet();
-            for (Integer i : s) {
-                b.set(l.get(i));
-            }
-            partitions.add(b);
+    private long getNeighbors(long atoms) {
+        long result = 0;
+        for (long rest = atoms; rest != 0; rest &= rest - 1) {
+            result |= neighbors[Long.numberOfTrailingZeros(rest)];
         }
-        return partitions;
+        return result;
     }
 
-    List<Integer> bitSet2Array(BitSet bitSet) {
-        List<Integer> l = Lists.newArrayList();
-        for (int i = 0; i < bitSet.size(); ++i) {
-            if (bitSet.get(i)) {
-                l.add(i);
+    // the atoms whose index is at most the given one
+    private static long lowerOrEqual(int index) {
+        return (1L << (index + 1)) - 1;
+    }
+
+    private static long toLong(BitSet bitSet) {
+        long[] words = bitSet.toLongArray();
+        return words.length == 0 ? 0 : words[0];
+    }
+
+    private static class PairList {
+        private long[] lefts = new long[16];
+        private long[] rights = new long[16];
+        private int size = 0;
+
+        void add(long left, long right) {
+            if (size == lefts.length) {
+                lefts = Arrays.copyOf(lefts, size * 2);
+                rights = Arrays.copyOf(rights, size * 2);
             }
+            lefts[size] = left;
+            rights[size] = right;
+            size++;
         }
-        return l;
     }
-}
\ No newline at end of file
+}
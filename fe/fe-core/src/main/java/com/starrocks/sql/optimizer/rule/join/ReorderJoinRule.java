@@ -151,9 +151,11 @@ public class ReorderJoinRule extends Rule {
                 }
 
                 if (multiJoinNode.getAtoms().size() <= context.getSessionVariable().getCboMaxReorderNodeUseDP()
+                        && multiJoinNode.getAtoms().size() <= JoinReorderDP.MAX_ATOM_SIZE
                         && context.getSessionVariable().isCboEnableDPJoinReorder()) {
-                    // 10 table join reorder takes more than 100ms,
-                    // so the join reorder using dp is currently controlled below 10.
+                    // The dp join reorder only enumerates the joins without cross products, whose number
+                    // depends on the shape of the join graph, but for a clique or the join graph with cross joins,
+                    // 10 table join reorder takes more than 100ms, so it is controlled below 10 by default.
                     enumerate(new JoinReorderDP(context), context, innerJoinRoot, multiJoinNode);
                 }
 
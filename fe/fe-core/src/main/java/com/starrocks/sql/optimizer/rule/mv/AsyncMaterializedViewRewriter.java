@@ -0,0 +1,236 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Table;
+import com.starrocks.common.Config;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.analyzer.Analyzer;
+import com.starrocks.sql.ast.QueryRelation;
+import com.starrocks.sql.ast.QueryStatement;
+import com.starrocks.sql.optimizer.Group;
+import com.starrocks.sql.optimizer.GroupExpression;
+import com.starrocks.sql.optimizer.Memo;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.OptimizerTraceUtil;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.transformer.LogicalPlan;
+import com.starrocks.sql.optimizer.transformer.RelationTransformer;
+import com.starrocks.sql.parser.SqlParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrite the groups of the memo to scan the fresh asynchronous materialized views.
+ * <p>
+ * The rewritten expression is added to the group as an alternative of the original expression,
+ * and the cost based optimizer chooses the cheaper one.
+ */
+public class AsyncMaterializedViewRewriter {
+    private static final Logger LOG = LogManager.getLogger(AsyncMaterializedViewRewriter.class);
+
+    // the analyzed definitions of the materialized views, the analyzed relation is only read by the transformer,
+    // so it's shared by the queries and planned with the column ref factory of each query
+    private static final Cache<DefinitionKey, QueryRelation> DEFINITIONS = CacheBuilder.newBuilder()
+            .maximumSize(Config.materialized_view_definition_cache_size)
+            .build();
+
+    private final ConnectContext connectContext;
+    private final OptimizerContext context;
+    private final ColumnRefFactory columnRefFactory;
+
+    public AsyncMaterializedViewRewriter(ConnectContext connectContext, OptimizerContext context) {
+        this.connectContext = connectContext;
+        this.context = context;
+        this.columnRefFactory = context.getColumnRefFactory();
+    }
+
+    public void rewrite(Memo memo) {
+        List<LogicalOlapScanOperator> scans = Lists.newArrayList();
+        Utils.extractOlapScanOperator(memo.getRootGroup().getFirstLogicalExpression(), scans);
+        List<Candidate> candidates = getCandidates(scans);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // collect the groups before adding the alternatives
+        List<Group> groups = Lists.newArrayList();
+        collectGroups(memo.getRootGroup(), Sets.newHashSet(), groups);
+        for (Group group : groups) {
+            SPJGExpression query = SPJGExpression.extract(group.extractLogicalTree());
+            if (query == null) {
+                continue;
+            }
+            Set<Long> tableIds = Sets.newHashSet();
+            query.getScans().forEach(scan -> tableIds.add(scan.getTable().getId()));
+            List<ColumnRefOperator> outputColumns = Lists.newArrayList();
+            group.getLogicalProperty().getOutputColumns().getStream()
+                    .forEach(id -> outputColumns.add(columnRefFactory.getColumnRef(id)));
+
+            for (Candidate candidate : candidates) {
+                if (!candidate.mv.getBaseTableIds().equals(tableIds)) {
+                    continue;
+                }
+                OptExpression alternative = new SPJGMatcher(context, candidate.mv, candidate.view,
+                        candidate.outputColumns, query).rewrite(outputColumns);
+                if (alternative != null) {
+                    memo.copyIn(group, alternative);
+                    OptimizerTraceUtil.log(connectContext, "rewrite group %d with materialized view %s",
+                            group.getId(), candidate.mv.getName());
+                }
+            }
+        }
+    }
+
+    private List<Candidate> getCandidates(List<LogicalOlapScanOperator> scans) {
+        List<Candidate> candidates = Lists.newArrayList();
+        Set<Long> dbIds = connectContext.getCurrentSqlDbIds();
+        if (dbIds == null) {
+            return candidates;
+        }
+        Set<Long> mvIds = Sets.newHashSet();
+        for (LogicalOlapScanOperator scan : scans) {
+            if (scan.getTable() instanceof OlapTable) {
+                mvIds.addAll(((OlapTable) scan.getTable()).getRelatedMaterializedViews());
+            }
+        }
+        for (long mvId : mvIds) {
+            for (long dbId : dbIds) {
+                Database db = GlobalStateMgr.getCurrentState().getDb(dbId);
+                Table table = db == null ? null : db.getTable(mvId);
+                if (!(table instanceof MaterializedView)) {
+                    continue;
+                }
+                MaterializedView mv = (MaterializedView) table;
+                if (mv.isFresh()) {
+                    Candidate candidate = createCandidate(mv);
+                    if (candidate != null) {
+                        candidates.add(candidate);
+                    }
+                }
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    // plan the definition of the materialized view with the column ref factory of the query
+    private Candidate createCandidate(MaterializedView mv) {
+        try {
+            QueryRelation queryRelation = analyzeDefinition(mv);
+            LogicalPlan plan = new RelationTransformer(columnRefFactory, connectContext)
+                    .transformWithSelectLimit(queryRelation);
+            SPJGExpression view = SPJGExpression.extract(plan.getRoot());
+            if (view == null) {
+                return null;
+            }
+            List<String> names = queryRelation.getColumnOutputNames();
+            Map<ColumnRefOperator, Column> outputColumns = Maps.newHashMap();
+            for (int i = 0; i < names.size(); i++) {
+                Column column = mv.getColumn(names.get(i));
+                if (column == null) {
+                    return null;
+                }
+                outputColumns.put(plan.getOutputColumn().get(i), column);
+            }
+            return new Candidate(mv, view, outputColumns);
+        } catch (Exception e) {
+            LOG.debug("failed to plan the definition of materialized view {}", mv.getName(), e);
+            return null;
+        }
+    }
+
+    // the definition is analyzed again once the view is refreshed, when the base tables may have been changed
+    private QueryRelation analyzeDefinition(MaterializedView mv) {
+        long sqlMode = connectContext.getSessionVariable().getSqlMode();
+        DefinitionKey key = new DefinitionKey(mv.getId(), mv.getRefreshScheme().getLastRefreshTime(),
+                mv.getViewDefineSql(), sqlMode);
+        QueryRelation queryRelation = Config.enable_materialized_view_definition_cache ?
+                DEFINITIONS.getIfPresent(key) : null;
+        if (queryRelation == null) {
+            StatementBase stmt = SqlParser.parse(mv.getViewDefineSql(), sqlMode).get(0);
+            Analyzer.analyze(stmt, connectContext);
+            queryRelation = ((QueryStatement) stmt).getQueryRelation();
+            if (Config.enable_materialized_view_definition_cache) {
+                // the definitions of the older versions of the view are evicted by lru
+                DEFINITIONS.put(key, queryRelation);
+            }
+        }
+        return queryRelation;
+    }
+
+    private static void collectGroups(Group group, Set<Integer> visited, List<Group> groups) {
+        if (!visited.add(group.getId())) {
+            return;
+        }
+        groups.add(group);
+        GroupExpression expression = group.getFirstLogicalExpression();
+        for (Group input : expression.getInputs()) {
+            collectGroups(input, visited, groups);
+        }
+    }
+
+    private static class Candidate {
+        private final MaterializedView mv;
+        private final SPJGExpression view;
+        private final Map<ColumnRefOperator, Column> outputColumns;
+
+        Candidate(MaterializedView mv, SPJGExpression view, Map<ColumnRefOperator, Column> outputColumns) {
+            this.mv = mv;
+            this.view = view;
+            this.outputColumns = outputColumns;
+        }
+    }
+
+    private static class DefinitionKey {
+        private final long mvId;
+        private final long lastRefreshTime;
+        private final String definition;
+        private final long sqlMode;
+
+        DefinitionKey(long mvId, long lastRefreshTime, String definition, long sqlMode) {
+            this.mvId = mvId;
+            this.lastRefreshTime = lastRefreshTime;
+            this.definition = definition;
+            this.sqlMode = sqlMode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DefinitionKey)) {
+                return false;
+            }
+            DefinitionKey other = (DefinitionKey) o;
+            return mvId == other.mvId && lastRefreshTime == other.lastRefreshTime && sqlMode == other.sqlMode
+                    && definition.equals(other.definition);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(mvId, lastRefreshTime, definition, sqlMode);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.collect.Maps;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rewrite.ReplaceColumnRefRewriter;
+
+import java.util.Map;
+
+/**
+ * The classes of the columns which are equal to each other by the column equality predicates,
+ * e.g. {t1.a, t2.a, t3.b} for t1.a = t2.a AND t2.a = t3.b.
+ * The column with the smallest id is the representative of its class.
+ */
+public class EquivalenceClasses {
+    private final Map<ColumnRefOperator, ColumnRefOperator> parents = Maps.newHashMap();
+
+    public void addEquivalence(ColumnRefOperator left, ColumnRefOperator right) {
+        ColumnRefOperator leftRoot = find(left);
+        ColumnRefOperator rightRoot = find(right);
+        if (leftRoot.equals(rightRoot)) {
+            return;
+        }
+        if (leftRoot.getId() < rightRoot.getId()) {
+            parents.put(rightRoot, leftRoot);
+        } else {
+            parents.put(leftRoot, rightRoot);
+        }
+    }
+
+    public ColumnRefOperator find(ColumnRefOperator column) {
+        ColumnRefOperator root = column;
+        while (parents.containsKey(root)) {
+            root = parents.get(root);
+        }
+        // path compression
+        while (!column.equals(root)) {
+            ColumnRefOperator parent = parents.get(column);
+            parents.put(column, root);
+            column = parent;
+        }
+        return root;
+    }
+
+    public boolean isEquivalent(ColumnRefOperator left, ColumnRefOperator right) {
+        return find(left).equals(find(right));
+    }
+
+    // replace every column by the representative of its class
+    public ScalarOperator normalize(ScalarOperator operator) {
+        if (operator == null || parents.isEmpty()) {
+            return operator;
+        }
+        Map<ColumnRefOperator, ScalarOperator> representatives = Maps.newHashMap();
+        for (ColumnRefOperator column : Maps.newHashMap(parents).keySet()) {
+            representatives.put(column, find(column));
+        }
+        return new ReplaceColumnRefRewriter(representatives).rewrite(operator);
+    }
+}
@@ -0,0 +1,345 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.PartitionType;
+import com.starrocks.catalog.RangePartitionInfo;
+import com.starrocks.catalog.Table;
+import com.starrocks.sql.analyzer.RelationFields;
+import com.starrocks.sql.analyzer.RelationId;
+import com.starrocks.sql.analyzer.Scope;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.Projection;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalFilterOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rewrite.ReplaceColumnRefRewriter;
+import com.starrocks.sql.optimizer.rewrite.ScalarOperatorRewriter;
+import com.starrocks.sql.optimizer.transformer.ExpressionMapping;
+import com.starrocks.sql.optimizer.transformer.SqlToScalarOperatorTranslator;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The select-project-join-group by normal form of a logical plan:
+ * <p>
+ * SELECT outputs FROM scans WHERE predicates [GROUP BY groupingKeys HAVING havingPredicates]
+ * <p>
+ * The predicates, grouping keys and aggregations are over the columns of the scans, the outputs and the having
+ * predicates are over the scan columns without aggregation, or over the grouping keys and aggregations.
+ * Only inner and cross joins of olap scans with at most one aggregation on top are supported.
+ * <p>
+ * The partition predicates removed by the partition pruning are added back from the ranges of the selected
+ * partitions, so the predicates describe all the rows of the plan.
+ */
+public class SPJGExpression {
+    private final List<LogicalOlapScanOperator> scans;
+    private final List<ScalarOperator> predicates;
+    private final boolean hasAggregation;
+    private final Map<ColumnRefOperator, ScalarOperator> groupingKeys;
+    private final Map<ColumnRefOperator, CallOperator> aggregations;
+    private final List<ScalarOperator> havingPredicates;
+    private final Map<ColumnRefOperator, ScalarOperator> outputs;
+
+    private SPJGExpression(Extractor extractor) {
+        this.scans = extractor.scans;
+        this.predicates = normalize(extractor.predicates);
+        this.hasAggregation = extractor.hasAggregation;
+        this.groupingKeys = extractor.groupingKeys;
+        this.aggregations = extractor.aggregations;
+        this.havingPredicates = extractor.havingPredicates;
+        this.outputs = extractor.columns;
+    }
+
+    // return null if the plan is not in the form
+    public static SPJGExpression extract(OptExpression root) {
+        Extractor extractor = new Extractor();
+        if (!extractor.visit(root)) {
+            return null;
+        }
+        SPJGExpression expression = new SPJGExpression(extractor);
+        for (ScalarOperator predicate : expression.predicates) {
+            // always false, no need to rewrite
+            if (predicate.isConstantRef()) {
+                return null;
+            }
+        }
+        return expression;
+    }
+
+    public List<LogicalOlapScanOperator> getScans() {
+        return scans;
+    }
+
+    public List<ScalarOperator> getPredicates() {
+        return predicates;
+    }
+
+    public boolean hasAggregation() {
+        return hasAggregation;
+    }
+
+    public Map<ColumnRefOperator, ScalarOperator> getGroupingKeys() {
+        return groupingKeys;
+    }
+
+    public Map<ColumnRefOperator, CallOperator> getAggregations() {
+        return aggregations;
+    }
+
+    public List<ScalarOperator> getHavingPredicates() {
+        return havingPredicates;
+    }
+
+    public Map<ColumnRefOperator, ScalarOperator> getOutputs() {
+        return outputs;
+    }
+
+    // the same form of the predicates of the query and the view, so they can be compared
+    private static List<ScalarOperator> normalize(List<ScalarOperator> predicates) {
+        if (predicates.isEmpty()) {
+            return predicates;
+        }
+        ScalarOperator predicate = new ScalarOperatorRewriter().rewrite(Utils.compoundAnd(predicates),
+                ScalarOperatorRewriter.DEFAULT_REWRITE_SCAN_PREDICATE_RULES);
+        return Utils.extractConjuncts(predicate).stream()
+                .filter(conjunct -> !ConstantOperator.TRUE.equals(conjunct))
+                .collect(Collectors.toList());
+    }
+
+    private static class Extractor {
+        private final List<LogicalOlapScanOperator> scans = Lists.newArrayList();
+        private final List<ScalarOperator> predicates = Lists.newArrayList();
+        private boolean hasAggregation = false;
+        private final Map<ColumnRefOperator, ScalarOperator> groupingKeys = Maps.newLinkedHashMap();
+        private final Map<ColumnRefOperator, CallOperator> aggregations = Maps.newHashMap();
+        private final List<ScalarOperator> havingPredicates = Lists.newArrayList();
+        // the output columns of the visited operator -> the expressions over the scan columns,
+        // or over the grouping keys and aggregations
+        private Map<ColumnRefOperator, ScalarOperator> columns = Maps.newHashMap();
+
+        private boolean visit(OptExpression expression) {
+            Operator operator = expression.getOp();
+            if (operator.hasLimit()) {
+                return false;
+            }
+            if (operator instanceof LogicalOlapScanOperator) {
+                if (!visitScan((LogicalOlapScanOperator) operator)) {
+                    return false;
+                }
+            } else if (operator instanceof LogicalFilterOperator) {
+                if (!visit(expression.inputAt(0))) {
+                    return false;
+                }
+            } else if (operator instanceof LogicalProjectOperator) {
+                if (!visit(expression.inputAt(0))) {
+                    return false;
+                }
+                columns = rewrite(((LogicalProjectOperator) operator).getColumnRefMap());
+            } else if (operator instanceof LogicalJoinOperator) {
+                if (!visitJoin((LogicalJoinOperator) operator, expression)) {
+                    return false;
+                }
+            } else if (operator instanceof LogicalAggregationOperator) {
+                if (!visit(expression.inputAt(0))
+                        || !visitAggregation((LogicalAggregationOperator) operator)) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+
+            if (operator.getPredicate() != null) {
+                List<ScalarOperator> conjuncts = Utils.extractConjuncts(rewrite(operator.getPredicate()));
+                if (hasAggregation) {
+                    havingPredicates.addAll(conjuncts);
+                } else {
+                    predicates.addAll(conjuncts);
+                }
+            }
+            Projection projection = operator.getProjection();
+            if (projection != null) {
+                if (!projection.getCommonSubOperatorMap().isEmpty()) {
+                    return false;
+                }
+                columns = rewrite(projection.getColumnRefMap());
+            }
+            return true;
+        }
+
+        private boolean visitScan(LogicalOlapScanOperator scan) {
+            if (scan.getTable().getType() != Table.TableType.OLAP) {
+                return false;
+            }
+            OlapTable table = (OlapTable) scan.getTable();
+            if (scan.getSelectedIndexId() != table.getBaseIndexId() || !scan.getHintsTabletIds().isEmpty()
+                    || (scan.getPartitionNames() != null && scan.getPartitionNames().isTemp())) {
+                return false;
+            }
+            scans.add(scan);
+            for (ColumnRefOperator column : scan.getColRefToColumnMetaMap().keySet()) {
+                columns.put(column, column);
+            }
+            if (scan.getSelectedPartitionId() != null) {
+                List<ScalarOperator> partitionPredicates = getPartitionPredicates(scan);
+                if (partitionPredicates == null) {
+                    return false;
+                }
+                predicates.addAll(partitionPredicates);
+            }
+            return true;
+        }
+
+        private boolean visitJoin(LogicalJoinOperator join, OptExpression expression) {
+            if (!join.isInnerOrCrossJoin()) {
+                return false;
+            }
+            for (OptExpression input : expression.getInputs()) {
+                Extractor child = new Extractor();
+                if (!child.visit(input) || child.hasAggregation) {
+                    return false;
+                }
+                scans.addAll(child.scans);
+                predicates.addAll(child.predicates);
+                columns.putAll(child.columns);
+            }
+            if (join.getOnPredicate() != null) {
+                predicates.addAll(Utils.extractConjuncts(rewrite(join.getOnPredicate())));
+            }
+            return true;
+        }
+
+        private boolean visitAggregation(LogicalAggregationOperator aggregation) {
+            if (hasAggregation || !aggregation.getType().isGlobal() || aggregation.isSplit()) {
+                return false;
+            }
+            for (ColumnRefOperator key : aggregation.getGroupingKeys()) {
+                groupingKeys.put(key, rewrite(key));
+            }
+            for (Map.Entry<ColumnRefOperator, CallOperator> entry : aggregation.getAggregations().entrySet()) {
+                aggregations.put(entry.getKey(), (CallOperator) rewrite(entry.getValue()));
+            }
+            hasAggregation = true;
+            columns = Maps.newHashMap();
+            for (ColumnRefOperator key : aggregation.getGroupingKeys()) {
+                columns.put(key, key);
+            }
+            for (ColumnRefOperator key : aggregation.getAggregations().keySet()) {
+                columns.put(key, key);
+            }
+            return true;
+        }
+
+        private ScalarOperator rewrite(ScalarOperator operator) {
+            return new ReplaceColumnRefRewriter(columns).rewrite(operator);
+        }
+
+        private Map<ColumnRefOperator, ScalarOperator> rewrite(Map<ColumnRefOperator, ScalarOperator> projection) {
+            Map<ColumnRefOperator, ScalarOperator> rewritten = Maps.newHashMap();
+            for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : projection.entrySet()) {
+                rewritten.put(entry.getKey(), rewrite(entry.getValue()));
+            }
+            return rewritten;
+        }
+    }
+
+    /*
+     * The predicates on the partition column implied by the selected partitions, which are
+     * [lower bound of the first partition, upper bound of the last partition) for range partitions.
+     * The pruning of a range predicate only selects the partitions in that range with data, the other
+     * predicates are kept in the scan, so the range is exact unless the partitions are specified.
+     * Return null if the selected partitions can not be described by the predicates.
+     */
+    private static List<ScalarOperator> getPartitionPredicates(LogicalOlapScanOperator scan) {
+        OlapTable table = (OlapTable) scan.getTable();
+        List<Long> selectedPartitionIds = scan.getSelectedPartitionId();
+        if (selectedPartitionIds.isEmpty()) {
+            return null;
+        }
+        Set<Long> selected = Sets.newHashSet(selectedPartitionIds);
+        List<Long> unselected = table.getPartitions().stream().filter(Partition::hasData).map(Partition::getId)
+                .filter(id -> !selected.contains(id)).collect(Collectors.toList());
+        if (unselected.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (table.getPartitionInfo().getType() != PartitionType.RANGE) {
+            return null;
+        }
+        RangePartitionInfo partitionInfo = (RangePartitionInfo) table.getPartitionInfo();
+        if (partitionInfo.getPartitionColumns().size() != 1) {
+            return null;
+        }
+        Column partitionColumn = partitionInfo.getPartitionColumns().get(0);
+        ColumnRefOperator columnRef = scan.getColumnReference(partitionColumn);
+        if (columnRef == null) {
+            return null;
+        }
+
+        PartitionKey lower = null;
+        PartitionKey upper = null;
+        for (long id : selectedPartitionIds) {
+            Range<PartitionKey> range = partitionInfo.getRange(id);
+            if (lower == null || range.lowerEndpoint().compareTo(lower) < 0) {
+                lower = range.lowerEndpoint();
+            }
+            if (upper == null || range.upperEndpoint().compareTo(upper) > 0) {
+                upper = range.upperEndpoint();
+            }
+        }
+        if (scan.getPartitionNames() != null) {
+            for (long id : unselected) {
+                Range<PartitionKey> range = partitionInfo.getRange(id);
+                if (range.lowerEndpoint().compareTo(lower) >= 0 && range.upperEndpoint().compareTo(upper) <= 0) {
+                    return null;
+                }
+            }
+        }
+
+        List<ScalarOperator> partitionPredicates = Lists.newArrayList();
+        if (!lower.isMinValue()) {
+            ConstantOperator lowerValue = toConstant(lower, columnRef);
+            if (lowerValue == null) {
+                return null;
+            }
+            partitionPredicates.add(BinaryPredicateOperator.ge(columnRef, lowerValue));
+        }
+        if (!upper.isMaxValue()) {
+            ConstantOperator upperValue = toConstant(upper, columnRef);
+            if (upperValue == null) {
+                return null;
+            }
+            partitionPredicates.add(BinaryPredicateOperator.lt(columnRef, upperValue));
+        }
+        return partitionPredicates;
+    }
+
+    private static ConstantOperator toConstant(PartitionKey key, ColumnRefOperator columnRef) {
+        ScalarOperator value = SqlToScalarOperatorTranslator.translate(key.getKeys().get(0),
+                new ExpressionMapping(new Scope(RelationId.anonymous(), new RelationFields())));
+        if (!(value instanceof ConstantOperator) || !value.getType().equals(columnRef.getType())) {
+            return null;
+        }
+        return (ConstantOperator) value;
+    }
+}
@@ -0,0 +1,642 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.Expr;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.DistributionInfo;
+import com.starrocks.catalog.Function;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.HashDistributionInfo;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.base.ColumnRefFactory;
+import com.starrocks.sql.optimizer.base.DistributionSpec;
+import com.starrocks.sql.optimizer.base.HashDistributionDesc;
+import com.starrocks.sql.optimizer.operator.AggType;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.Projection;
+import com.starrocks.sql.optimizer.operator.logical.LogicalAggregationOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rewrite.ReplaceColumnRefRewriter;
+import com.starrocks.sql.optimizer.rule.Rule;
+import com.starrocks.sql.optimizer.rule.transformation.DistributionPruneRule;
+import com.starrocks.sql.optimizer.rule.transformation.PartitionPruneRule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Match the normal form of a query with the normal form of the definition of a materialized view, and rewrite
+ * the query to scan the view if the view contains all the rows and columns the query needs.
+ * <p>
+ * The query and the view must join the same tables. The predicates of both sides are split into the column
+ * equalities, which build the equivalence classes, the ranges of the column classes and the residual predicates.
+ * The view must be implied by the query:
+ * 1. every column equality of the view holds in the query
+ * 2. the range of every column class of the view contains the range of the query
+ * 3. every residual predicate of the view is a residual predicate of the query
+ * The predicates of the query which do not hold in the view are compensated on the scan of the view.
+ * <p>
+ * If the query groups by a subset of the grouping keys of the view, the aggregations are rolled up:
+ * sum and count to sum, min, max, bitmap_union and hll_union to themselves. The aggregations which are
+ * not sensitive to the duplicates, such as the distinct ones, are computed on the grouping keys of the view.
+ * <p>
+ * Limitations: self joins and the views joining more tables than the query are not supported.
+ */
+public class SPJGMatcher {
+    private static final Map<String, String> ROLLUP_FUNCTIONS = ImmutableMap.<String, String>builder()
+            .put(FunctionSet.SUM, FunctionSet.SUM)
+            .put(FunctionSet.COUNT, FunctionSet.SUM)
+            .put(FunctionSet.MIN, FunctionSet.MIN)
+            .put(FunctionSet.MAX, FunctionSet.MAX)
+            .put(FunctionSet.BITMAP_UNION, FunctionSet.BITMAP_UNION)
+            .put(FunctionSet.HLL_UNION, FunctionSet.HLL_UNION)
+            .build();
+
+    private final OptimizerContext context;
+    private final ColumnRefFactory columnRefFactory;
+    private final MaterializedView mv;
+    private final SPJGExpression view;
+    // output column of the view definition -> column of the materialized view
+    private final Map<ColumnRefOperator, Column> viewOutputColumns;
+    private final SPJGExpression query;
+
+    // columns of the scan of the materialized view
+    private final Map<ColumnRefOperator, Column> scanColumns = Maps.newHashMap();
+    private final Map<Column, ColumnRefOperator> columnToScanColumns = Maps.newHashMap();
+    // expressions over the query columns -> scan columns of the materialized view
+    private final List<ScalarOperator> viewExpressions = Lists.newArrayList();
+    private final List<ColumnRefOperator> viewExpressionColumns = Lists.newArrayList();
+
+    public SPJGMatcher(OptimizerContext context, MaterializedView mv, SPJGExpression view,
+                       Map<ColumnRefOperator, Column> viewOutputColumns, SPJGExpression query) {
+        this.context = context;
+        this.columnRefFactory = context.getColumnRefFactory();
+        this.mv = mv;
+        this.view = view;
+        this.viewOutputColumns = viewOutputColumns;
+        this.query = query;
+    }
+
+    // return the expression of the output columns over the materialized view, or null if the view can not be used
+    public OptExpression rewrite(List<ColumnRefOperator> outputColumns) {
+        Map<ColumnRefOperator, ScalarOperator> viewToQuery = mapViewColumns();
+        if (viewToQuery == null || !view.getHavingPredicates().isEmpty()) {
+            return null;
+        }
+        ReplaceColumnRefRewriter toQuery = new ReplaceColumnRefRewriter(viewToQuery);
+        List<ScalarOperator> viewPredicates = Lists.newArrayList();
+        for (ScalarOperator predicate : view.getPredicates()) {
+            viewPredicates.add(toQuery.rewrite(predicate));
+        }
+        Map<ColumnRefOperator, ScalarOperator> viewGroupingKeys = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : view.getGroupingKeys().entrySet()) {
+            viewGroupingKeys.put(entry.getKey(), toQuery.rewrite(entry.getValue()));
+        }
+        createScanColumns();
+        Map<ColumnRefOperator, ScalarOperator> viewAggregationOutputs = Maps.newHashMap(viewGroupingKeys);
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : view.getAggregations().entrySet()) {
+            viewAggregationOutputs.put(entry.getKey(), toQuery.rewrite(entry.getValue()));
+        }
+        for (Map.Entry<ColumnRefOperator, Column> entry : viewOutputColumns.entrySet()) {
+            ScalarOperator expression = toQuery.rewrite(view.getOutputs().get(entry.getKey()));
+            if (view.hasAggregation()) {
+                expression = new ReplaceColumnRefRewriter(viewAggregationOutputs).rewrite(expression);
+            }
+            viewExpressions.add(expression);
+            viewExpressionColumns.add(columnToScanColumns.get(entry.getValue()));
+        }
+
+        PredicateSplit queryPredicates = new PredicateSplit(query.getPredicates());
+        PredicateSplit viewPredicateSplit = new PredicateSplit(viewPredicates);
+        EquivalenceClasses queryClasses = queryPredicates.getEquivalenceClasses();
+        EquivalenceClasses viewClasses = viewPredicateSplit.getEquivalenceClasses();
+        List<ScalarOperator> compensations = getCompensations(queryPredicates, queryClasses,
+                viewPredicateSplit, viewClasses);
+        if (compensations == null) {
+            return null;
+        }
+
+        // the compensations are evaluated on the rows of the view, where the equalities of the view hold
+        Map<ScalarOperator, ColumnRefOperator> viewIndex = buildIndex(viewClasses);
+        List<ScalarOperator> scanPredicates = Lists.newArrayList();
+        for (ScalarOperator compensation : compensations) {
+            ScalarOperator rewritten = rewriteToView(viewClasses.normalize(compensation), viewIndex);
+            if (rewritten == null) {
+                return null;
+            }
+            scanPredicates.add(rewritten);
+        }
+
+        // the outputs are evaluated after the compensations, where the equalities of the query hold
+        Map<ScalarOperator, ColumnRefOperator> queryIndex = buildIndex(queryClasses);
+        if (!query.hasAggregation()) {
+            if (view.hasAggregation()) {
+                return null;
+            }
+            Map<ColumnRefOperator, ScalarOperator> projection = Maps.newHashMap();
+            for (ColumnRefOperator column : outputColumns) {
+                ScalarOperator output = query.getOutputs().get(column);
+                ScalarOperator rewritten = output == null ? null :
+                        rewriteToView(queryClasses.normalize(output), queryIndex);
+                if (rewritten == null) {
+                    return null;
+                }
+                projection.put(column, rewritten);
+            }
+            LogicalOlapScanOperator scan = createScan(scanPredicates, projection);
+            return scan == null ? null : OptExpression.create(scan);
+        }
+
+        if (view.hasAggregation() && isSameGrouping(queryClasses, viewGroupingKeys)) {
+            return rewriteWithoutRollup(outputColumns, queryClasses, queryIndex, scanPredicates);
+        }
+        return rewriteWithRollup(outputColumns, queryClasses, queryIndex, scanPredicates);
+    }
+
+    private OptExpression rewriteWithoutRollup(List<ColumnRefOperator> outputColumns,
+                                               EquivalenceClasses queryClasses,
+                                               Map<ScalarOperator, ColumnRefOperator> queryIndex,
+                                               List<ScalarOperator> scanPredicates) {
+        Map<ColumnRefOperator, ScalarOperator> aggregationOutputs = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : query.getGroupingKeys().entrySet()) {
+            ScalarOperator rewritten = rewriteToView(queryClasses.normalize(entry.getValue()), queryIndex);
+            if (rewritten == null) {
+                return null;
+            }
+            aggregationOutputs.put(entry.getKey(), rewritten);
+        }
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : query.getAggregations().entrySet()) {
+            ColumnRefOperator column = queryIndex.get(queryClasses.normalize(entry.getValue()));
+            if (column == null) {
+                return null;
+            }
+            aggregationOutputs.put(entry.getKey(), column);
+        }
+
+        ReplaceColumnRefRewriter rewriter = new ReplaceColumnRefRewriter(aggregationOutputs);
+        List<ScalarOperator> predicates = Lists.newArrayList(scanPredicates);
+        for (ScalarOperator having : query.getHavingPredicates()) {
+            predicates.add(rewriter.rewrite(having));
+        }
+        Map<ColumnRefOperator, ScalarOperator> projection = Maps.newHashMap();
+        for (ColumnRefOperator column : outputColumns) {
+            ScalarOperator output = query.getOutputs().get(column);
+            if (output == null) {
+                return null;
+            }
+            projection.put(column, rewriter.rewrite(output));
+        }
+        LogicalOlapScanOperator scan = createScan(predicates, projection);
+        return scan == null ? null : OptExpression.create(scan);
+    }
+
+    private OptExpression rewriteWithRollup(List<ColumnRefOperator> outputColumns,
+                                            EquivalenceClasses queryClasses,
+                                            Map<ScalarOperator, ColumnRefOperator> queryIndex,
+                                            List<ScalarOperator> scanPredicates) {
+        Map<ColumnRefOperator, ScalarOperator> scanProjection = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, ScalarOperator> entry : query.getGroupingKeys().entrySet()) {
+            ScalarOperator rewritten = rewriteToView(queryClasses.normalize(entry.getValue()), queryIndex);
+            if (rewritten == null) {
+                return null;
+            }
+            scanProjection.put(entry.getKey(), rewritten);
+        }
+
+        Map<ColumnRefOperator, CallOperator> aggregations = Maps.newHashMap();
+        // the aggregations of the query which are computed by an expression on the new aggregations
+        Map<ColumnRefOperator, ScalarOperator> aggregationOutputs = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, CallOperator> entry : query.getAggregations().entrySet()) {
+            CallOperator call = (CallOperator) queryClasses.normalize(entry.getValue());
+            String fnName = call.getFnName();
+
+            ColumnRefOperator viewAggregation = view.hasAggregation() ? queryIndex.get(call) : null;
+            String rollupFnName = ROLLUP_FUNCTIONS.get(fnName);
+            if (viewAggregation != null && rollupFnName != null && !call.isDistinct()) {
+                CallOperator rollup = createCall(rollupFnName, call.getType(), viewAggregation);
+                if (rollup == null) {
+                    return null;
+                }
+                scanProjection.put(viewAggregation, viewAggregation);
+                if (fnName.equals(FunctionSet.COUNT) && query.getGroupingKeys().isEmpty()) {
+                    // the sum of no rows is null, but the count is 0
+                    ColumnRefOperator sum = columnRefFactory.create(rollup, rollup.getType(), true);
+                    aggregations.put(sum, rollup);
+                    CallOperator ifNull = createCall(FunctionSet.IF_NULL, call.getType(), sum,
+                            ConstantOperator.createBigint(0));
+                    if (ifNull == null) {
+                        return null;
+                    }
+                    aggregationOutputs.put(entry.getKey(), ifNull);
+                } else {
+                    aggregations.put(entry.getKey(), rollup);
+                }
+                continue;
+            }
+
+            // compute on the rows of the view if the rows are not aggregated, or the duplicated rows do not matter
+            if (view.hasAggregation() && !call.isDistinct()
+                    && !fnName.equals(FunctionSet.MIN) && !fnName.equals(FunctionSet.MAX)) {
+                return null;
+            }
+            List<ScalarOperator> arguments = Lists.newArrayList();
+            for (ScalarOperator argument : call.getChildren()) {
+                ScalarOperator rewritten = rewriteToView(argument, queryIndex);
+                if (rewritten == null) {
+                    return null;
+                }
+                if (rewritten.isColumnRef()) {
+                    scanProjection.put((ColumnRefOperator) rewritten, rewritten);
+                } else if (!rewritten.isConstant()) {
+                    ColumnRefOperator column =
+                            columnRefFactory.create(rewritten, rewritten.getType(), rewritten.isNullable());
+                    scanProjection.put(column, rewritten);
+                    rewritten = column;
+                }
+                arguments.add(rewritten);
+            }
+            aggregations.put(entry.getKey(), new CallOperator(fnName, call.getType(), arguments,
+                    call.getFunction(), call.isDistinct()));
+        }
+
+        if (scanProjection.isEmpty()) {
+            // e.g. count(*), scan any column
+            ColumnRefOperator column = Utils.findSmallestColumnRef(new ArrayList<>(scanColumns.keySet()));
+            scanProjection.put(column, column);
+        }
+        LogicalOlapScanOperator scan = createScan(scanPredicates, scanProjection);
+        if (scan == null) {
+            return null;
+        }
+
+        ReplaceColumnRefRewriter rewriter = new ReplaceColumnRefRewriter(aggregationOutputs);
+        List<ScalarOperator> havingPredicates = Lists.newArrayList();
+        for (ScalarOperator having : query.getHavingPredicates()) {
+            havingPredicates.add(rewriter.rewrite(having));
+        }
+        Map<ColumnRefOperator, ScalarOperator> projection = Maps.newHashMap();
+        for (ColumnRefOperator column : outputColumns) {
+            ScalarOperator output = query.getOutputs().get(column);
+            if (output == null) {
+                return null;
+            }
+            projection.put(column, rewriter.rewrite(output));
+        }
+        List<ColumnRefOperator> groupingKeys = Lists.newArrayList(query.getGroupingKeys().keySet());
+        LogicalAggregationOperator aggregation = new LogicalAggregationOperator.Builder()
+                .setType(AggType.GLOBAL)
+                .setGroupingKeys(groupingKeys)
+                .setPartitionByColumns(groupingKeys)
+                .setAggregations(aggregations)
+                .setPredicate(Utils.compoundAnd(havingPredicates))
+                .setProjection(new Projection(projection))
+                .build();
+        return OptExpression.create(aggregation, OptExpression.create(scan));
+    }
+
+    // map the scan columns of the view definition to the columns of the same tables in the query
+    private Map<ColumnRefOperator, ScalarOperator> mapViewColumns() {
+        Map<Long, LogicalOlapScanOperator> queryScans = getScansByTable(query);
+        Map<Long, LogicalOlapScanOperator> viewScans = getScansByTable(view);
+        if (queryScans == null || viewScans == null || !queryScans.keySet().equals(viewScans.keySet())) {
+            return null;
+        }
+        Map<ColumnRefOperator, ScalarOperator> viewToQuery = Maps.newHashMap();
+        for (Map.Entry<Long, LogicalOlapScanOperator> entry : viewScans.entrySet()) {
+            LogicalOlapScanOperator queryScan = queryScans.get(entry.getKey());
+            for (Map.Entry<ColumnRefOperator, Column> column : entry.getValue().getColRefToColumnMetaMap()
+                    .entrySet()) {
+                ColumnRefOperator queryColumn = queryScan.getColumnReference(column.getValue());
+                if (queryColumn == null) {
+                    // not used by the query, the predicates of the view on it can not be implied by the query
+                    queryColumn = columnRefFactory.create(column.getValue().getName(), column.getValue().getType(),
+                            column.getValue().isAllowNull());
+                }
+                viewToQuery.put(column.getKey(), queryColumn);
+            }
+        }
+        return viewToQuery;
+    }
+
+    private static Map<Long, LogicalOlapScanOperator> getScansByTable(SPJGExpression expression) {
+        Map<Long, LogicalOlapScanOperator> scans = Maps.newHashMap();
+        for (LogicalOlapScanOperator scan : expression.getScans()) {
+            if (scans.put(scan.getTable().getId(), scan) != null) {
+                // self join
+                return null;
+            }
+        }
+        return scans;
+    }
+
+    private void createScanColumns() {
+        int relationId = columnRefFactory.getNextRelationId();
+        for (Column column : mv.getBaseSchema()) {
+            ColumnRefOperator columnRef =
+                    columnRefFactory.create(column.getName(), column.getType(), column.isAllowNull());
+            columnRefFactory.updateColumnToRelationIds(columnRef.getId(), relationId);
+            columnRefFactory.updateColumnRefToColumns(columnRef, column, mv);
+            scanColumns.put(columnRef, column);
+            columnToScanColumns.put(column, columnRef);
+        }
+    }
+
+    private List<ScalarOperator> getCompensations(PredicateSplit queryPredicates, EquivalenceClasses queryClasses,
+                                                  PredicateSplit viewPredicates, EquivalenceClasses viewClasses) {
+        List<ScalarOperator> compensations = Lists.newArrayList();
+        for (BinaryPredicateOperator equality : viewPredicates.equalities) {
+            if (!queryClasses.isEquivalent((ColumnRefOperator) equality.getChild(0),
+                    (ColumnRefOperator) equality.getChild(1))) {
+                return null;
+            }
+        }
+        for (BinaryPredicateOperator equality : queryPredicates.equalities) {
+            if (!viewClasses.isEquivalent((ColumnRefOperator) equality.getChild(0),
+                    (ColumnRefOperator) equality.getChild(1))) {
+                compensations.add(equality);
+            }
+        }
+
+        Map<ColumnRefOperator, ColumnRange> queryRanges = queryPredicates.getRanges(queryClasses);
+        Map<ColumnRefOperator, ColumnRange> viewRanges = viewPredicates.getRanges(queryClasses);
+        for (Map.Entry<ColumnRefOperator, ColumnRange> entry : viewRanges.entrySet()) {
+            ColumnRange queryRange = queryRanges.get(entry.getKey());
+            if (queryRange == null || !entry.getValue().encloses(queryRange)) {
+                return null;
+            }
+        }
+        for (Map.Entry<ColumnRefOperator, ColumnRange> entry : queryRanges.entrySet()) {
+            ColumnRange viewRange = viewRanges.get(entry.getKey());
+            if (viewRange == null || !viewRange.isSame(entry.getValue())) {
+                compensations.addAll(entry.getValue().predicates);
+            }
+        }
+
+        Set<ScalarOperator> viewResiduals = Sets.newHashSet();
+        for (ScalarOperator residual : viewPredicates.residuals) {
+            viewResiduals.add(queryClasses.normalize(residual));
+        }
+        Set<ScalarOperator> queryResiduals = Sets.newHashSet();
+        for (ScalarOperator residual : queryPredicates.residuals) {
+            ScalarOperator normalized = queryClasses.normalize(residual);
+            queryResiduals.add(normalized);
+            if (!viewResiduals.contains(normalized)) {
+                compensations.add(residual);
+            }
+        }
+        if (!queryResiduals.containsAll(viewResiduals)) {
+            return null;
+        }
+        return compensations;
+    }
+
+    private boolean isSameGrouping(EquivalenceClasses queryClasses,
+                                   Map<ColumnRefOperator, ScalarOperator> viewGroupingKeys) {
+        Set<ScalarOperator> queryGrouping = Sets.newHashSet();
+        for (ScalarOperator key : query.getGroupingKeys().values()) {
+            queryGrouping.add(queryClasses.normalize(key));
+        }
+        Set<ScalarOperator> viewGrouping = Sets.newHashSet();
+        for (ScalarOperator key : viewGroupingKeys.values()) {
+            viewGrouping.add(queryClasses.normalize(key));
+        }
+        return queryGrouping.equals(viewGrouping);
+    }
+
+    private Map<ScalarOperator, ColumnRefOperator> buildIndex(EquivalenceClasses classes) {
+        Map<ScalarOperator, ColumnRefOperator> index = Maps.newHashMap();
+        for (int i = 0; i < viewExpressions.size(); i++) {
+            index.putIfAbsent(classes.normalize(viewExpressions.get(i)), viewExpressionColumns.get(i));
+        }
+        return index;
+    }
+
+    // rewrite the expression over the query columns to the scan columns of the view, or null if not possible
+    private static ScalarOperator rewriteToView(ScalarOperator expression,
+                                                Map<ScalarOperator, ColumnRefOperator> index) {
+        ColumnRefOperator column = index.get(expression);
+        if (column != null) {
+            return column;
+        }
+        if (expression.isColumnRef()) {
+            return null;
+        }
+        if (expression.getChildren().isEmpty()) {
+            return expression;
+        }
+        ScalarOperator rewritten = expression.clone();
+        for (int i = 0; i < expression.getChildren().size(); i++) {
+            ScalarOperator child = rewriteToView(expression.getChild(i), index);
+            if (child == null) {
+                return null;
+            }
+            rewritten.setChild(i, child);
+        }
+        return rewritten;
+    }
+
+    private LogicalOlapScanOperator createScan(List<ScalarOperator> predicates,
+                                               Map<ColumnRefOperator, ScalarOperator> projection) {
+        DistributionInfo distributionInfo = mv.getDefaultDistributionInfo();
+        if (!(distributionInfo instanceof HashDistributionInfo)) {
+            return null;
+        }
+        List<Integer> distributionColumns = Lists.newArrayList();
+        for (Column column : ((HashDistributionInfo) distributionInfo).getDistributionColumns()) {
+            distributionColumns.add(columnToScanColumns.get(column).getId());
+        }
+
+        ScalarOperator predicate = Utils.compoundAnd(predicates);
+        Set<ColumnRefOperator> usedColumns = Sets.newHashSet(Utils.extractColumnRef(predicate));
+        for (ScalarOperator expression : projection.values()) {
+            usedColumns.addAll(Utils.extractColumnRef(expression));
+        }
+        Map<ColumnRefOperator, Column> columns = Maps.newHashMap();
+        for (ColumnRefOperator column : usedColumns) {
+            columns.put(column, scanColumns.get(column));
+        }
+
+        LogicalOlapScanOperator scan = new LogicalOlapScanOperator(mv, columns, columnToScanColumns,
+                DistributionSpec.createHashDistributionSpec(
+                        new HashDistributionDesc(distributionColumns, HashDistributionDesc.SourceType.LOCAL)),
+                Operator.DEFAULT_LIMIT, predicate, mv.getBaseIndexId(), null, null,
+                Lists.newArrayList(), Lists.newArrayList());
+        OptExpression expression = OptExpression.create(scan);
+        expression = prune(new PartitionPruneRule(), expression);
+        expression = prune(new DistributionPruneRule(), expression);
+        return new LogicalOlapScanOperator.Builder()
+                .withOperator((LogicalOlapScanOperator) expression.getOp())
+                .setProjection(new Projection(projection))
+                .build();
+    }
+
+    private OptExpression prune(Rule rule, OptExpression expression) {
+        List<OptExpression> result = rule.transform(expression, context);
+        return result.isEmpty() ? expression : result.get(0);
+    }
+
+    private static CallOperator createCall(String fnName, Type returnType, ScalarOperator... arguments) {
+        Type[] argumentTypes = new Type[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            argumentTypes[i] = arguments[i].getType();
+        }
+        Function fn = Expr.getBuiltinFunction(fnName, argumentTypes, Function.CompareMode.IS_NONSTRICT_SUPERTYPE_OF);
+        if (fn == null) {
+            return null;
+        }
+        return new CallOperator(fnName, returnType, Lists.newArrayList(arguments), fn);
+    }
+
+    /*
+     * The conjuncts split into the column equalities, the ranges of columns and the other residual predicates.
+     */
+    private static class PredicateSplit {
+        private final List<BinaryPredicateOperator> equalities = Lists.newArrayList();
+        // column on the left, constant on the right
+        private final List<BinaryPredicateOperator> ranges = Lists.newArrayList();
+        private final List<ScalarOperator> residuals = Lists.newArrayList();
+
+        PredicateSplit(List<ScalarOperator> predicates) {
+            for (ScalarOperator predicate : predicates) {
+                if (!(predicate instanceof BinaryPredicateOperator)) {
+                    residuals.add(predicate);
+                    continue;
+                }
+                BinaryPredicateOperator binary = (BinaryPredicateOperator) predicate;
+                BinaryPredicateOperator.BinaryType type = binary.getBinaryType();
+                ScalarOperator left = binary.getChild(0);
+                ScalarOperator right = binary.getChild(1);
+                if (type == BinaryPredicateOperator.BinaryType.EQ && left.isColumnRef() && right.isColumnRef()) {
+                    equalities.add(binary);
+                } else if ((type == BinaryPredicateOperator.BinaryType.EQ || type.isRange())
+                        && left.isColumnRef() && isComparable(right, left.getType())) {
+                    ranges.add(binary);
+                } else if ((type == BinaryPredicateOperator.BinaryType.EQ || type.isRange())
+                        && right.isColumnRef() && isComparable(left, right.getType())) {
+                    ranges.add(binary.commutative());
+                } else {
+                    residuals.add(predicate);
+                }
+            }
+        }
+
+        private static boolean isComparable(ScalarOperator operator, Type columnType) {
+            if (!(operator instanceof ConstantOperator) || ((ConstantOperator) operator).isNull()
+                    || !operator.getType().equals(columnType)) {
+                return false;
+            }
+            return columnType.isNumericType() || columnType.isDateType() || columnType.isStringType();
+        }
+
+        EquivalenceClasses getEquivalenceClasses() {
+            EquivalenceClasses classes = new EquivalenceClasses();
+            for (BinaryPredicateOperator equality : equalities) {
+                classes.addEquivalence((ColumnRefOperator) equality.getChild(0),
+                        (ColumnRefOperator) equality.getChild(1));
+            }
+            return classes;
+        }
+
+        // the range of each column class
+        Map<ColumnRefOperator, ColumnRange> getRanges(EquivalenceClasses classes) {
+            Map<ColumnRefOperator, ColumnRange> result = Maps.newHashMap();
+            for (BinaryPredicateOperator range : ranges) {
+                ColumnRefOperator column = classes.find((ColumnRefOperator) range.getChild(0));
+                result.computeIfAbsent(column, k -> new ColumnRange()).add(range);
+            }
+            return result;
+        }
+    }
+
+    /*
+     * The intersection of the ranges of a column, null bound is unbounded.
+     */
+    private static class ColumnRange {
+        private ConstantOperator lower;
+        private boolean lowerInclusive;
+        private ConstantOperator upper;
+        private boolean upperInclusive;
+        private final List<ScalarOperator> predicates = Lists.newArrayList();
+
+        void add(BinaryPredicateOperator predicate) {
+            predicates.add(predicate);
+            ConstantOperator value = (ConstantOperator) predicate.getChild(1);
+            switch (predicate.getBinaryType()) {
+                case EQ:
+                    intersectLower(value, true);
+                    intersectUpper(value, true);
+                    break;
+                case GE:
+                    intersectLower(value, true);
+                    break;
+                case GT:
+                    intersectLower(value, false);
+                    break;
+                case LE:
+                    intersectUpper(value, true);
+                    break;
+                case LT:
+                    intersectUpper(value, false);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void intersectLower(ConstantOperator value, boolean inclusive) {
+            int cmp = lower == null ? 1 : value.compareTo(lower);
+            if (cmp > 0 || (cmp == 0 && !inclusive)) {
+                lower = value;
+                lowerInclusive = inclusive;
+            }
+        }
+
+        private void intersectUpper(ConstantOperator value, boolean inclusive) {
+            int cmp = upper == null ? -1 : value.compareTo(upper);
+            if (cmp < 0 || (cmp == 0 && !inclusive)) {
+                upper = value;
+                upperInclusive = inclusive;
+            }
+        }
+
+        boolean encloses(ColumnRange other) {
+            if (lower != null) {
+                if (other.lower == null) {
+                    return false;
+                }
+                int cmp = lower.compareTo(other.lower);
+                if (cmp > 0 || (cmp == 0 && !lowerInclusive && other.lowerInclusive)) {
+                    return false;
+                }
+            }
+            if (upper != null) {
+                if (other.upper == null) {
+                    return false;
+                }
+                int cmp = upper.compareTo(other.upper);
+                return cmp >= 0 && (cmp != 0 || upperInclusive || !other.upperInclusive);
+            }
+            return true;
+        }
+
+        boolean isSame(ColumnRange other) {
+            return encloses(other) && other.encloses(this);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.transformation;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+import com.starrocks.analysis.Expr;
+import com.starrocks.analysis.JoinOperator;
+import com.starrocks.analysis.PartitionValue;
+import com.starrocks.analysis.SlotRef;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.FunctionSet;
+import com.starrocks.catalog.MaterializedIndex;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.RangePartitionInfo;
+import com.starrocks.cluster.ClusterNamespace;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.sql.optimizer.OptExpression;
+import com.starrocks.sql.optimizer.OptimizerContext;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.operator.Operator;
+import com.starrocks.sql.optimizer.operator.OperatorType;
+import com.starrocks.sql.optimizer.operator.logical.LogicalJoinOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalOlapScanOperator;
+import com.starrocks.sql.optimizer.operator.logical.LogicalProjectOperator;
+import com.starrocks.sql.optimizer.operator.pattern.Pattern;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import com.starrocks.sql.optimizer.rule.RuleType;
+import com.starrocks.sql.plan.ScalarOperatorToExpr;
+import com.starrocks.statistic.StatisticExecutor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Prune the partitions of a fact table joined with a filtered dimension table on the partition column.
+ * <p>
+ * e.g. select * from fact join dim on fact.dt = dim.dt where dim.year = 2021
+ * The distinct join keys of the dimension table under its predicates are read while planning by
+ * select distinct dt from dim where year = 2021, and the partitions of the fact table containing none of them
+ * are pruned, as they can not join with any row.
+ * <p>
+ * Only a dimension table with at most dynamic_partition_prune_max_dim_rows rows is read, and only under
+ * deterministic predicates, since the keys read by a predicate like rand() > 0.5 differ from the rows joined.
+ * <p>
+ * The keys are read by a real query on the backends, run during the planning of both the statement and its EXPLAIN,
+ * while the statement still holds the locks of its tables. So the rule may block the writers of these tables
+ * for up to dynamic_partition_prune_timeout seconds.
+ */
+public class DynamicPartitionPruneRule extends TransformationRule {
+    private static final Logger LOG = LogManager.getLogger(DynamicPartitionPruneRule.class);
+
+    public DynamicPartitionPruneRule() {
+        super(RuleType.TF_DYNAMIC_PARTITION_PRUNE, Pattern.create(OperatorType.LOGICAL_JOIN)
+                .addChildren(Pattern.create(OperatorType.PATTERN_LEAF), Pattern.create(OperatorType.PATTERN_LEAF)));
+    }
+
+    @Override
+    public boolean check(OptExpression input, OptimizerContext context) {
+        return context.getSessionVariable().isEnableDynamicPartitionPrune();
+    }
+
+    @Override
+    public List<OptExpression> transform(OptExpression input, OptimizerContext context) {
+        LogicalJoinOperator join = (LogicalJoinOperator) input.getOp();
+        JoinOperator joinType = join.getJoinType();
+        // the side whose rows not joined are not output
+        boolean leftPrunable = joinType.isInnerJoin() || joinType.isLeftSemiJoin() || joinType.isRightOuterJoin();
+        boolean rightPrunable = joinType.isInnerJoin() || joinType.isRightSemiJoin() || joinType.isLeftOuterJoin();
+        if (!leftPrunable && !rightPrunable) {
+            return Collections.emptyList();
+        }
+
+        List<OptExpression> children = Lists.newArrayList(
+                input.inputAt(0).getGroupExpression().getGroup().extractLogicalTree(),
+                input.inputAt(1).getGroupExpression().getGroup().extractLogicalTree());
+        for (ScalarOperator conjunct : Utils.extractConjuncts(join.getOnPredicate())) {
+            if (!(conjunct instanceof BinaryPredicateOperator) ||
+                    ((BinaryPredicateOperator) conjunct).getBinaryType() != BinaryPredicateOperator.BinaryType.EQ ||
+                    !(conjunct.getChild(0) instanceof ColumnRefOperator) ||
+                    !(conjunct.getChild(1) instanceof ColumnRefOperator)) {
+                continue;
+            }
+            ColumnRefOperator left = (ColumnRefOperator) conjunct.getChild(0);
+            ColumnRefOperator right = (ColumnRefOperator) conjunct.getChild(1);
+            if (!children.get(0).getOutputColumns().contains(left)) {
+                ColumnRefOperator temp = left;
+                left = right;
+                right = temp;
+            }
+            for (int factIndex = 0; factIndex < 2; factIndex++) {
+                if (factIndex == 0 ? !leftPrunable : !rightPrunable) {
+                    continue;
+                }
+                OptExpression fact = children.get(factIndex);
+                OptExpression dim = children.get(1 - factIndex);
+                OptExpression pruned = prune(fact, factIndex == 0 ? left : right,
+                        dim, factIndex == 0 ? right : left, context);
+                if (pruned != null) {
+                    List<OptExpression> newInputs = Lists.newArrayList(input.getInputs());
+                    newInputs.set(factIndex, pruned);
+                    return Lists.newArrayList(OptExpression.create(join, newInputs));
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    // returns the fact subtree scanning fewer partitions, or null
+    private OptExpression prune(OptExpression fact, ColumnRefOperator factKey, OptExpression dim,
+                                ColumnRefOperator dimKey, OptimizerContext context) {
+        ScanColumn factColumn = resolve(fact, factKey);
+        ScanColumn dimColumn = resolve(dim, dimKey);
+        if (factColumn == null || dimColumn == null) {
+            return null;
+        }
+        LogicalOlapScanOperator factScan = (LogicalOlapScanOperator) factColumn.scan.getOp();
+        LogicalOlapScanOperator dimScan = (LogicalOlapScanOperator) dimColumn.scan.getOp();
+        OlapTable factTable = (OlapTable) factScan.getTable();
+        if (!(factTable.getPartitionInfo() instanceof RangePartitionInfo) ||
+                factScan.getSelectedPartitionId() == null || factScan.getSelectedPartitionId().size() <= 1) {
+            return null;
+        }
+        RangePartitionInfo partitionInfo = (RangePartitionInfo) factTable.getPartitionInfo();
+        List<Column> partitionColumns = partitionInfo.getPartitionColumns();
+        if (partitionColumns.size() != 1 || !partitionColumns.get(0).equals(factColumn.column)) {
+            return null;
+        }
+        // a selective dimension subtree is a small table filtered by predicates
+        if (dimScan.getPredicate() == null || dimScan.getPartitionNames() != null ||
+                dimScan.getSelectedPartitionId() == null || isNonDeterministic(dimScan.getPredicate())) {
+            return null;
+        }
+        OlapTable dimTable = (OlapTable) dimScan.getTable();
+        long dimRows = 0;
+        for (long partitionId : dimScan.getSelectedPartitionId()) {
+            Partition partition = dimTable.getPartition(partitionId);
+            dimRows += partition == null ? 0 : partition.getBaseIndex().getRowCount();
+        }
+        if (dimRows > context.getSessionVariable().getDynamicPartitionPruneMaxDimRows()) {
+            return null;
+        }
+
+        TreeSet<PartitionKey> keys = readKeys(dimScan, dimColumn.column, partitionColumns,
+                context.getSessionVariable().getDynamicPartitionPruneTimeout());
+        if (keys == null) {
+            return null;
+        }
+        List<Long> selectedPartitionIds = Lists.newArrayList();
+        Set<Long> prunedTabletIds = Sets.newHashSet();
+        for (long partitionId : factScan.getSelectedPartitionId()) {
+            Range<PartitionKey> range = partitionInfo.getIdToRange(false).get(partitionId);
+            PartitionKey key = range == null ? null : keys.ceiling(range.lowerEndpoint());
+            if (range == null || (key != null && range.contains(key))) {
+                selectedPartitionIds.add(partitionId);
+            } else {
+                Partition partition = factTable.getPartition(partitionId);
+                for (MaterializedIndex index : partition.getMaterializedIndices(
+                        MaterializedIndex.IndexExtState.ALL)) {
+                    prunedTabletIds.addAll(index.getTabletIdsInOrder());
+                }
+            }
+        }
+        if (selectedPartitionIds.size() == factScan.getSelectedPartitionId().size()) {
+            return null;
+        }
+        LOG.debug("dynamic partition prune of table {} selects partitions {} from {}", factTable.getName(),
+                selectedPartitionIds, factScan.getSelectedPartitionId());
+
+        List<Long> selectedTabletIds = factScan.getSelectedTabletId();
+        if (selectedTabletIds != null) {
+            selectedTabletIds = Lists.newArrayList(selectedTabletIds);
+            selectedTabletIds.removeAll(prunedTabletIds);
+        }
+        LogicalOlapScanOperator newScan = new LogicalOlapScanOperator.Builder().withOperator(factScan)
+                .setSelectedPartitionId(selectedPartitionIds)
+                .setSelectedTabletId(selectedTabletIds)
+                .build();
+        return replaceScan(fact, OptExpression.create(newScan, factColumn.scan.getInputs()));
+    }
+
+    // returns the sorted distinct join keys of the dimension table, or null if failed
+    private TreeSet<PartitionKey> readKeys(LogicalOlapScanOperator dimScan, Column dimColumn,
+                                           List<Column> partitionColumns, int timeoutS) {
+        Database db = getDb(dimScan.getTable().getId());
+        if (db == null) {
+            return null;
+        }
+        Map<ColumnRefOperator, Expr> columnRefToSlot = Maps.newHashMap();
+        for (Map.Entry<ColumnRefOperator, Column> entry : dimScan.getColRefToColumnMetaMap().entrySet()) {
+            columnRefToSlot.put(entry.getKey(), new SlotRef(null, entry.getValue().getName()));
+        }
+        try {
+            Expr predicate = ScalarOperatorToExpr.buildExecExpression(dimScan.getPredicate(),
+                    new ScalarOperatorToExpr.FormatterContext(columnRefToSlot));
+            String sql = "SELECT DISTINCT `" + dimColumn.getName() + "` FROM `" +
+                    ClusterNamespace.getNameFromFullName(db.getFullName()) + "`.`" + dimScan.getTable().getName() +
+                    "` WHERE " + predicate.toSql();
+            TreeSet<PartitionKey> keys = new TreeSet<>();
+            for (String value : StatisticExecutor.queryColumnSync(sql, timeoutS)) {
+                // null never equals to a partition key
+                if (value != null) {
+                    keys.add(PartitionKey.createPartitionKey(
+                            Collections.singletonList(new PartitionValue(value)), partitionColumns));
+                }
+            }
+            return keys;
+        } catch (Exception e) {
+            LOG.warn("failed to read the join keys of table {} for dynamic partition prune",
+                    dimScan.getTable().getName(), e);
+            return null;
+        }
+    }
+
+    private static boolean isNonDeterministic(ScalarOperator operator) {
+        if (operator instanceof CallOperator &&
+                FunctionSet.nonDeterministicFunctions.contains(((CallOperator) operator).getFnName())) {
+            return true;
+        }
+        for (ScalarOperator child : operator.getChildren()) {
+            if (isNonDeterministic(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Database getDb(long tableId) {
+        Set<Long> dbIds = ConnectContext.get() == null ? null : ConnectContext.get().getCurrentSqlDbIds();
+        if (dbIds == null) {
+            return null;
+        }
+        for (long dbId : dbIds) {
+            Database db = GlobalStateMgr.getCurrentState().getDb(dbId);
+            if (db != null && db.getTable(tableId) != null) {
+                return db;
+            }
+        }
+        return null;
+    }
+
+    // follow the column through the projections down to an olap scan
+    private static ScanColumn resolve(OptExpression root, ColumnRefOperator column) {
+        OptExpression current = root;
+        while (true) {
+            Operator op = current.getOp();
+            Map<ColumnRefOperator, ScalarOperator> projection = null;
+            if (op instanceof LogicalProjectOperator) {
+                projection = ((LogicalProjectOperator) op).getColumnRefMap();
+            } else if (op.getProjection() != null) {
+                projection = op.getProjection().getColumnRefMap();
+            }
+            if (projection != null) {
+                ScalarOperator mapped = projection.get(column);
+                if (!(mapped instanceof ColumnRefOperator)) {
+                    return null;
+                }
+                column = (ColumnRefOperator) mapped;
+            }
+            if (op instanceof LogicalOlapScanOperator) {
+                Column scanColumn = ((LogicalOlapScanOperator) op).getColRefToColumnMetaMap().get(column);
+                return scanColumn == null ? null : new ScanColumn(current, scanColumn);
+            }
+            if (!(op instanceof LogicalProjectOperator)) {
+                return null;
+            }
+            current = current.inputAt(0);
+        }
+    }
+
+    private static OptExpression replaceScan(OptExpression root, OptExpression newScan) {
+        if (root.getOp() instanceof LogicalOlapScanOperator) {
+            return newScan;
+        }
+        return OptExpression.create(root.getOp(), replaceScan(root.inputAt(0), newScan));
+    }
+
+    private static class ScanColumn {
+        private final OptExpression scan;
+        private final Column column;
+
+        ScanColumn(OptExpression scan, Column column) {
+            this.scan = scan;
+            this.column = column;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.collect.Maps;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.Table;
+import com.starrocks.common.Config;
+import com.starrocks.common.Pair;
+import com.starrocks.common.util.Counter;
+import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.ScanNode;
+import com.starrocks.sql.optimizer.Utils;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CallOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CastOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CompoundPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.InPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.IsNullPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.LikePredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The actual row counts of the olap scans with predicates, collected from the profiles of the finished queries,
+ * to correct the estimated row counts of the later scans of the same table with the same predicate shape.
+ * <p>
+ * A scan is identified by the table and its predicates with the constants removed, e.g. k1 = ? AND k2 > ?.
+ * For each one, the ratio of the actual row count to the estimated one is kept as a moving average in log scale,
+ * so the latest queries weigh more, and it is dropped if not reported in cardinality_feedback_expire_sec.
+ * At most cardinality_feedback_max_entries scans are kept, the least recently used ones are evicted.
+ */
+public class CardinalityFeedback {
+    private static final Logger LOG = LogManager.getLogger(CardinalityFeedback.class);
+
+    private static final CardinalityFeedback INSTANCE = new CardinalityFeedback();
+
+    // the weight of the latest ratio in the moving average
+    private static final double DECAY_WEIGHT = 0.5;
+    // the correction is bounded, in case of a wrong report
+    private static final double MAX_LOG_RATIO = Math.log(1000);
+
+    // e.g. OLAP_SCAN (plan_node_id=0) of the pipeline engine and OLAP_SCAN_NODE (id=0) of the non-pipeline engine
+    private static final Pattern OLAP_SCAN_PROFILE_NAME =
+            Pattern.compile("^OLAP_SCAN(?:_NODE)? \\((?:plan_node_id|id)=(\\d+)\\)$");
+
+    private final LinkedHashMap<String, Feedback> feedbacks = new LinkedHashMap<String, Feedback>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Feedback> eldest) {
+            return size() > Config.cardinality_feedback_max_entries;
+        }
+    };
+
+    private static class Feedback {
+        private double logRatio;
+        private long updateTime;
+
+        Feedback(double logRatio, long updateTime) {
+            this.logRatio = logRatio;
+            this.updateTime = updateTime;
+        }
+    }
+
+    public static CardinalityFeedback getInstance() {
+        return INSTANCE;
+    }
+
+    // returns the factor to multiply the estimated row count of the scan by, 1 if no feedback
+    public synchronized double getFactor(String key) {
+        Feedback feedback = feedbacks.get(key);
+        if (feedback == null) {
+            return 1;
+        }
+        if (System.currentTimeMillis() - feedback.updateTime > Config.cardinality_feedback_expire_sec * 1000) {
+            feedbacks.remove(key);
+            return 1;
+        }
+        return Math.exp(feedback.logRatio);
+    }
+
+    public synchronized void record(String key, double estimatedRows, long actualRows) {
+        double logRatio = Math.log((actualRows + 1) / (Math.max(estimatedRows, 0) + 1));
+        logRatio = Math.max(-MAX_LOG_RATIO, Math.min(MAX_LOG_RATIO, logRatio));
+        Feedback feedback = feedbacks.get(key);
+        if (feedback == null) {
+            feedbacks.put(key, new Feedback(logRatio, System.currentTimeMillis()));
+        } else {
+            feedback.logRatio = DECAY_WEIGHT * logRatio + (1 - DECAY_WEIGHT) * feedback.logRatio;
+            feedback.updateTime = System.currentTimeMillis();
+        }
+    }
+
+    public synchronized int size() {
+        return feedbacks.size();
+    }
+
+    public synchronized void clear() {
+        feedbacks.clear();
+    }
+
+    /**
+     * Record the actual row counts of the olap scans planned with a feedback key, summed over all the instances
+     * in the profile of a finished query.
+     * <p>
+     * The scans probing runtime filters are skipped: their rows are also filtered by the joins above, which the
+     * estimate of the scan does not cover, and no counter of the scan is taken before all the runtime filters,
+     * as some of them are pushed down to the storage.
+     */
+    public void collect(List<ScanNode> scanNodes, RuntimeProfile queryProfile) {
+        Map<Integer, OlapScanNode> idToScanNode = Maps.newHashMap();
+        for (ScanNode scanNode : scanNodes) {
+            if (scanNode instanceof OlapScanNode && ((OlapScanNode) scanNode).getCardinalityFeedbackKey() != null
+                    && scanNode.getProbeRuntimeFilters().isEmpty()) {
+                idToScanNode.put(scanNode.getId().asInt(), (OlapScanNode) scanNode);
+            }
+        }
+        if (idToScanNode.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Long> idToActualRows = Maps.newHashMap();
+        collectActualRows(queryProfile, idToActualRows);
+        for (Map.Entry<Integer, Long> entry : idToActualRows.entrySet()) {
+            OlapScanNode scanNode = idToScanNode.get(entry.getKey());
+            if (scanNode != null) {
+                double estimatedRows = scanNode.getUncorrectedCardinality();
+                record(scanNode.getCardinalityFeedbackKey(), estimatedRows, entry.getValue());
+                LOG.debug("cardinality feedback of {}: estimated rows {}, actual rows {}",
+                        scanNode.getCardinalityFeedbackKey(), estimatedRows, entry.getValue());
+            }
+        }
+    }
+
+    private static void collectActualRows(RuntimeProfile profile, Map<Integer, Long> idToActualRows) {
+        Matcher matcher = OLAP_SCAN_PROFILE_NAME.matcher(profile.getName());
+        if (matcher.matches()) {
+            RuntimeProfile metrics = profile.getChildMap().get("CommonMetrics");
+            Counter counter = metrics != null ? metrics.getCounter("PullRowNum") : profile.getCounter("RowsReturned");
+            if (counter != null) {
+                idToActualRows.merge(Integer.parseInt(matcher.group(1)), counter.getValue(), Long::sum);
+            }
+            return;
+        }
+        for (Pair<RuntimeProfile, Boolean> child : profile.getChildList()) {
+            collectActualRows(child.first, idToActualRows);
+        }
+    }
+
+    // returns null if the scan has no predicate
+    public static String getScanKey(Table table, ScalarOperator predicate,
+                                    Map<ColumnRefOperator, Column> colRefToColumnMetaMap) {
+        if (predicate == null) {
+            return null;
+        }
+        String shape = Utils.extractConjuncts(predicate).stream()
+                .map(conjunct -> normalize(conjunct, colRefToColumnMetaMap))
+                .sorted()
+                .collect(Collectors.joining(" AND "));
+        return table.getId() + ":" + shape;
+    }
+
+    private static String normalize(ScalarOperator operator, Map<ColumnRefOperator, Column> colRefToColumnMetaMap) {
+        if (operator instanceof ConstantOperator) {
+            return "?";
+        }
+        if (operator instanceof ColumnRefOperator) {
+            Column column = colRefToColumnMetaMap.get(operator);
+            return column == null ? "?" : column.getName();
+        }
+        String name;
+        if (operator instanceof BinaryPredicateOperator) {
+            name = ((BinaryPredicateOperator) operator).getBinaryType().name();
+        } else if (operator instanceof CompoundPredicateOperator) {
+            name = ((CompoundPredicateOperator) operator).getCompoundType().name();
+        } else if (operator instanceof InPredicateOperator) {
+            // the number of the values in the list does not change the shape
+            return (((InPredicateOperator) operator).isNotIn() ? "NOT_IN(" : "IN(") +
+                    normalize(operator.getChild(0), colRefToColumnMetaMap) + ")";
+        } else if (operator instanceof IsNullPredicateOperator) {
+            name = ((IsNullPredicateOperator) operator).isNotNull() ? "IS_NOT_NULL" : "IS_NULL";
+        } else if (operator instanceof LikePredicateOperator) {
+            name = ((LikePredicateOperator) operator).getLikeType().name();
+        } else if (operator instanceof CastOperator) {
+            name = "CAST_" + operator.getType();
+        } else if (operator instanceof CallOperator) {
+            name = ((CallOperator) operator).getFnName();
+        } else {
+            name = operator.getOpType().name();
+        }
+        return name + operator.getChildren().stream()
+                .map(child -> normalize(child, colRefToColumnMetaMap))
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+}
@@ -19,11 +19,19 @@ public class Statistics {
     // Table row count in FE depends on BE reporting，but FE may not get report from BE which just started，
     // this causes the table row count stored in FE to be inaccurate.
     private boolean tableRowCountMayInaccurate;
+    // Set on the statistics of an olap scan with a cardinality feedback key: the factor the row count is corrected
+    // by and the row count before the correction. They describe the scan only and are not copied by buildFrom.
+    private final String cardinalityFeedbackKey;
+    private final double cardinalityFeedbackFactor;
+    private final double uncorrectedRowCount;
 
     private Statistics(Builder builder) {
         this.outputRowCount = builder.outputRowCount;
         this.columnStatistics = builder.columnStatistics;
         this.tableRowCountMayInaccurate = builder.tableRowCountMayInaccurate;
+        this.cardinalityFeedbackKey = builder.cardinalityFeedbackKey;
+        this.cardinalityFeedbackFactor = builder.cardinalityFeedbackFactor;
+        this.uncorrectedRowCount = builder.uncorrectedRowCount;
     }
 
     public double getOutputRowCount() {
@@ -75,6 +83,18 @@ public class Statistics {
         return this.tableRowCountMayInaccurate;
     }
 
+    public String getCardinalityFeedbackKey() {
+        return cardinalityFeedbackKey;
+    }
+
+    public double getCardinalityFeedbackFactor() {
+        return cardinalityFeedbackFactor;
+    }
+
+    public double getUncorrectedRowCount() {
+        return uncorrectedRowCount;
+    }
+
     public ColumnRefSet getUsedColumns() {
         ColumnRefSet usedColumns = new ColumnRefSet();
         for (Map.Entry<ColumnRefOperator, ColumnStatistic> entry : columnStatistics.entrySet()) {
@@ -95,6 +115,9 @@ public class Statistics {
         private double outputRowCount;
         private final Map<ColumnRefOperator, ColumnStatistic> columnStatistics;
         private boolean tableRowCountMayInaccurate;
+        private String cardinalityFeedbackKey = null;
+        private double cardinalityFeedbackFactor = 1;
+        private double uncorrectedRowCount = NaN;
 
         public Builder() {
             this(NaN, new HashMap<>(), false);
@@ -117,6 +140,13 @@ public class Statistics {
             return this;
         }
 
+        public Builder setCardinalityFeedback(String key, double factor, double uncorrectedRowCount) {
+            this.cardinalityFeedbackKey = key;
+            this.cardinalityFeedbackFactor = factor;
+            this.uncorrectedRowCount = uncorrectedRowCount;
+            return this;
+        }
+
         public Builder addColumnStatistic(ColumnRefOperator column, ColumnStatistic statistic) {
             this.columnStatistics.put(column, statistic);
             return this;
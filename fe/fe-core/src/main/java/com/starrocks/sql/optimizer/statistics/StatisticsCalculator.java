@@ -235,7 +235,23 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
         builder.setOutputRowCount(tableRowCount);
         // 4. estimate cardinality
         context.setStatistics(builder.build());
-        return visitOperator(node, context);
+        visitOperator(node, context);
+        // 5. correct cardinality by the actual row count of the former scans with the same predicate shape
+        if (optimizerContext.getSessionVariable().isEnableCardinalityFeedback() && !node.hasLimit()) {
+            String key = CardinalityFeedback.getScanKey(table, node.getPredicate(), colRefToColumnMetaMap);
+            if (key != null) {
+                // the scan node reports the actual row count against the estimate before the correction
+                double factor = CardinalityFeedback.getInstance().getFactor(key);
+                Statistics statistics = context.getStatistics();
+                double rowCount = statistics.getOutputRowCount();
+                if (factor != 1) {
+                    rowCount = Math.max(1, Math.min(tableRowCount, rowCount * factor));
+                }
+                context.setStatistics(Statistics.buildFrom(statistics).setOutputRowCount(rowCount)
+                        .setCardinalityFeedback(key, factor, statistics.getOutputRowCount()).build());
+            }
+        }
+        return null;
     }
 
     @Override
@@ -509,7 +525,7 @@ public class StatisticsCalculator extends OperatorVisitor<Void, ExpressionContex
     }
 
     private long getTableRowCount(Table table, Operator node) {
-        if (Table.TableType.OLAP == table.getType()) {
+        if (Table.TableType.OLAP == table.getType() || Table.TableType.MATERIALIZED_VIEW == table.getType()) {
             OlapTable olapTable = (OlapTable) table;
             List<Partition> selectedPartitions;
             if (node.isLogical()) {
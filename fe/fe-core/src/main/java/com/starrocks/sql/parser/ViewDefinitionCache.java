@@ -0,0 +1,104 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.sql.parser;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.common.Config;
+import com.starrocks.qe.OriginStatement;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+
+/**
+ * Parse trees of the view definitions, so a view referenced by the queries is parsed only once.
+ * <p>
+ * The parse tree is never modified after parsing, so it's shared by the queries, and a new statement is built
+ * from it for each query, which is analyzed against the current schemas of the tables as before. So only the
+ * change of the definition, which is in the key with the sql mode it's parsed in, invalidates a parse tree.
+ */
+public class ViewDefinitionCache {
+    private static final ViewDefinitionCache INSTANCE = new ViewDefinitionCache();
+
+    private final Cache<Key, StarRocksParser.SingleStatementContext> cache = CacheBuilder.newBuilder()
+            .maximumSize(Config.view_definition_cache_size)
+            .build();
+
+    public static ViewDefinitionCache getInstance() {
+        return INSTANCE;
+    }
+
+    public StatementBase parse(long viewId, String definition, long sqlMode) {
+        if (!Config.enable_view_definition_cache) {
+            return SqlParser.parse(definition, sqlMode).get(0);
+        }
+
+        Key key = new Key(viewId, definition, sqlMode);
+        StarRocksParser.SingleStatementContext tree = cache.getIfPresent(key);
+        if (tree == null) {
+            try {
+                tree = parseTree(definition, sqlMode);
+            } catch (ParsingException e) {
+                // let the parser report the error, or parse it with the old parser
+                return SqlParser.parse(definition, sqlMode).get(0);
+            }
+            cache.put(key, tree);
+        }
+        StatementBase statement = (StatementBase) new AstBuilder(sqlMode).visitSingleStatement(tree);
+        statement.setOrigStmt(new OriginStatement(definition, 0));
+        return statement;
+    }
+
+    // called when the definition of the view is changed, the parse trees of the dropped views are evicted by lru
+    public void invalidate(long viewId) {
+        cache.asMap().keySet().removeIf(key -> key.viewId == viewId);
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    private static StarRocksParser.SingleStatementContext parseTree(String definition, long sqlMode) {
+        StarRocksLexer lexer = new StarRocksLexer(new CaseInsensitiveStream(CharStreams.fromString(definition)));
+        CommonTokenStream tokenStream = new CommonTokenStream(lexer);
+        StarRocksParser parser = new StarRocksParser(tokenStream);
+        StarRocksParser.sqlMode = sqlMode;
+        parser.removeErrorListeners();
+        parser.addErrorListener(new ErrorHandler());
+        StarRocksParser.SqlStatementsContext sqlStatements = parser.sqlStatements();
+        if (sqlStatements.singleStatement().size() != 1) {
+            throw new ParsingException("View definition is not a single statement");
+        }
+        return sqlStatements.singleStatement(0);
+    }
+
+    private static class Key {
+        private final long viewId;
+        private final String definition;
+        private final long sqlMode;
+
+        Key(long viewId, String definition, long sqlMode) {
+            this.viewId = viewId;
+            this.definition = definition;
+            this.sqlMode = sqlMode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return viewId == other.viewId && sqlMode == other.sqlMode && definition.equals(other.definition);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(viewId, definition, sqlMode);
+        }
+    }
+}
@@ -527,7 +527,12 @@ public class PlanFragmentBuilder {
 
             OlapScanNode scanNode = new OlapScanNode(context.getNextNodeId(), tupleDescriptor, "OlapScanNode");
             scanNode.setLimit(node.getLimit());
-            scanNode.computeStatistics(optExpr.getStatistics());
+            Statistics statistics = optExpr.getStatistics();
+            scanNode.computeStatistics(statistics);
+            if (statistics.getCardinalityFeedbackKey() != null) {
+                scanNode.setCardinalityFeedback(statistics.getCardinalityFeedbackKey(),
+                        statistics.getCardinalityFeedbackFactor(), statistics.getUncorrectedRowCount());
+            }
 
             // set tablet
             try {
@@ -1791,6 +1796,8 @@ public class PlanFragmentBuilder {
                             context.getNextNodeId(),
                             leftFragment.getPlanRoot(), rightFragment.getPlanRoot(),
                             joinOperator, eqJoinConjuncts, otherJoinConjuncts);
+                    joinNode.setRuntimeFilterEstimates(
+                            ((PhysicalHashJoinOperator) node).getRuntimeFilterEstimates());
                 } else {
                     joinNode = new MergeJoinNode(
                             context.getNextNodeId(),
@@ -16,6 +16,7 @@ import com.starrocks.cluster.ClusterNamespace;
 import com.starrocks.common.DdlException;
 import com.starrocks.common.Pair;
 import com.starrocks.common.Status;
+import com.starrocks.mysql.MysqlProto;
 import com.starrocks.qe.ConnectContext;
 import com.starrocks.qe.Coordinator;
 import com.starrocks.qe.OriginStatement;
@@ -185,6 +186,61 @@ public class StatisticExecutor {
         }
     }
 
+    // Execute a query of one column while planning another query, the caller must hold the db locks.
+    // The query fails after timeoutS seconds, rather than the timeout of the statistics queries.
+    // Returns the values in text, and null for NULL.
+    public static List<String> queryColumnSync(String sql, int timeoutS) throws Exception {
+        ConnectContext current = ConnectContext.get();
+        ConnectContext context = StatisticUtils.buildConnectContext();
+        context.getSessionVariable().setQueryTimeoutS(timeoutS);
+        try {
+            StatementBase parsedStmt = parseSQL(sql, context);
+            ExecPlan execPlan = getExecutePlan(Maps.newHashMap(), context, parsedStmt, false, false);
+            // unlike executeStmt, a failure must not be taken as an empty result
+            Coordinator coord = new Coordinator(context, execPlan.getFragments(), execPlan.getScanNodes(),
+                    execPlan.getDescTbl().toThrift());
+            QeProcessorImpl.INSTANCE.registerQuery(context.getExecutionId(), coord);
+            List<TResultBatch> sqlResult = Lists.newArrayList();
+            try {
+                coord.exec();
+                RowBatch batch;
+                do {
+                    batch = coord.getNext();
+                    if (batch.getBatch() != null) {
+                        sqlResult.add(batch.getBatch());
+                    }
+                } while (!batch.isEos());
+            } finally {
+                QeProcessorImpl.INSTANCE.unregisterQuery(context.getExecutionId());
+            }
+            if (!coord.getExecStatus().ok()) {
+                throw new DdlException("Execute " + sql + " failed: " + coord.getExecStatus().getErrorMsg());
+            }
+            return deserializerColumnData(sqlResult);
+        } finally {
+            if (current != null) {
+                current.setThreadLocalInfo();
+            } else {
+                ConnectContext.remove();
+            }
+        }
+    }
+
+    // the rows are in the text protocol of MySQL
+    private static List<String> deserializerColumnData(List<TResultBatch> sqlResult) {
+        List<String> values = Lists.newArrayList();
+        for (TResultBatch resultBatch : sqlResult) {
+            for (ByteBuffer bb : resultBatch.rows) {
+                if ((bb.get(bb.position()) & 0xFF) == 251) {
+                    values.add(null);
+                } else {
+                    values.add(new String(MysqlProto.readLenEncodedString(bb), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return values;
+    }
+
     private static List<TStatisticData> deserializerStatisticData(List<TResultBatch> sqlResult) throws TException {
         List<TStatisticData> statistics = Lists.newArrayList();
 
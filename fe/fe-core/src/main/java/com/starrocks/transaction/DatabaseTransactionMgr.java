@@ -78,9 +78,13 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
@@ -97,12 +101,22 @@ public class DatabaseTransactionMgr {
 
     private static final Logger LOG = LogManager.getLogger(DatabaseTransactionMgr.class);
 
+    private static final int SHARD_NUM = 32;
+    // the shard of the transactions whose tables are unknown before commit
+    private static final long UNKNOWN_TABLE_ID = -1L;
+
     private long dbId;
 
     // the lock is used to control the access to transaction states
     // no other locks should be inside this lock
     private ReentrantReadWriteLock transactionLock = new ReentrantReadWriteLock(true);
 
+    // the transactions are sharded by their table ids. the commit, publish and abort of a transaction are done with
+    // the locks of the shards of its tables held, in the order of the shard index, and the transaction state is
+    // persisted under them, so the transactions of different tables are not serialized by the transactionLock,
+    // which is only held to update the maps below. the shard locks must be taken before the transactionLock.
+    private final TransactionShard[] shards = new TransactionShard[SHARD_NUM];
+
     // transactionId -> running TransactionState
     private Map<Long, TransactionState> idToRunningTransactionState = Maps.newHashMap();
 
@@ -137,9 +151,7 @@ public class DatabaseTransactionMgr {
     // not realtime usedQuota value to make a fast check for database data quota
     private volatile long usedQuotaDataBytes = -1;
 
-    private long lastCommitTs = 0;
-
-    private long commitTsInc = 0;
+    private final AtomicLong lastCommitTs = new AtomicLong(0);
 
     protected void readLock() {
         this.transactionLock.readLock().lock();
@@ -162,6 +174,9 @@ public class DatabaseTransactionMgr {
         this.globalStateMgr = globalStateMgr;
         this.idGenerator = idGenerator;
         this.editLog = globalStateMgr.getEditLog();
+        for (int i = 0; i < SHARD_NUM; i++) {
+            shards[i] = new TransactionShard();
+        }
     }
 
     public long getDbId() {
@@ -552,14 +567,15 @@ public class DatabaseTransactionMgr {
         TxnStateChangeCallback callback = transactionState.beforeStateTransform(TransactionStatus.COMMITTED);
         // transaction state transform
         boolean txnOperated = false;
-        writeLock();
+        List<TransactionShard> txnShards = getShards(transactionState, tableToPartition.keySet());
+        lockShards(txnShards);
         try {
             unprotectedCommitTransaction(transactionState, errorReplicaIds, tableToPartition,
                     tableToInvalidDictCacheColumns, tableToValidDictCacheColumns,
                     totalInvolvedBackends, db);
             txnOperated = true;
         } finally {
-            writeUnlock();
+            unlockShards(txnShards);
             // after state transform
             transactionState.afterStateTransform(TransactionStatus.COMMITTED, txnOperated, callback, null);
         }
@@ -634,17 +650,28 @@ public class DatabaseTransactionMgr {
     }
 
     public List<TransactionState> getCommittedTxnList() {
-        readLock();
-        try {
-            // only send task to committed transaction
-            return idToRunningTransactionState.values().stream()
-                    .filter(transactionState -> (transactionState.getTransactionStatus() ==
-                            TransactionStatus.COMMITTED))
-                    .sorted(Comparator.comparing(TransactionState::getCommitTime))
-                    .collect(Collectors.toList());
-        } finally {
-            readUnlock();
+        Map<Long, TransactionState> committedTxns = Maps.newHashMap();
+        for (TransactionShard shard : shards) {
+            shard.lock.lock();
+            try {
+                Iterator<TransactionState> iter = shard.committedTxns.values().iterator();
+                while (iter.hasNext()) {
+                    TransactionState transactionState = iter.next();
+                    // only send task to committed transaction
+                    if (transactionState.getTransactionStatus() == TransactionStatus.COMMITTED) {
+                        committedTxns.put(transactionState.getTransactionId(), transactionState);
+                    } else {
+                        // left in the shard of a table removed from the transaction before it is visible
+                        iter.remove();
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
         }
+        return committedTxns.values().stream()
+                .sorted(Comparator.comparing(TransactionState::getCommitTime))
+                .collect(Collectors.toList());
     }
 
     // check whether transaction can be finished or not
@@ -655,7 +682,8 @@ public class DatabaseTransactionMgr {
         if (db == null) {
             return true;
         }
-        db.readLock();
+        List<Table> tables = db.getTables(txn.getIdToTableCommitInfos().keySet());
+        db.readLockTables(tables);
         long currentTs = System.currentTimeMillis();
         try {
             // check each table involved in transaction
@@ -736,7 +764,7 @@ public class DatabaseTransactionMgr {
                 }
             }
         } finally {
-            db.readUnlock();
+            db.readUnlockTables(tables);
         }
         return true;
     }
@@ -760,18 +788,20 @@ public class DatabaseTransactionMgr {
 
         Database db = globalStateMgr.getDb(transactionState.getDbId());
         if (db == null) {
-            writeLock();
+            List<TransactionShard> txnShards = getShards(transactionState, null);
+            lockShards(txnShards);
             try {
                 transactionState.setTransactionStatus(TransactionStatus.ABORTED);
                 transactionState.setReason("db is dropped");
                 LOG.warn("db is dropped during transaction, abort transaction {}", transactionState);
-                unprotectUpsertTransactionState(transactionState, false);
+                upsertTransactionState(transactionState);
                 return;
             } finally {
-                writeUnlock();
+                unlockShards(txnShards);
             }
         }
-        db.writeLock();
+        List<Table> tables = db.getTables(transactionState.getIdToTableCommitInfos().keySet());
+        db.writeLockTables(tables);
         try {
             boolean hasError = false;
             for (TableCommitInfo tableCommitInfo : transactionState.getIdToTableCommitInfos().values()) {
@@ -891,13 +921,14 @@ public class DatabaseTransactionMgr {
                 return;
             }
             boolean txnOperated = false;
-            writeLock();
+            List<TransactionShard> txnShards = getShards(transactionState, null);
+            lockShards(txnShards);
             try {
                 transactionState.setErrorReplicas(errorReplicaIds);
                 transactionState.setFinishTime(System.currentTimeMillis());
                 transactionState.clearErrorMsg();
                 transactionState.setTransactionStatus(TransactionStatus.VISIBLE);
-                unprotectUpsertTransactionState(transactionState, false);
+                upsertTransactionState(transactionState);
                 txnOperated = true;
                 // TODO(cmy): We found a very strange problem. When delete-related transactions are processed here,
                 // subsequent `updateCatalogAfterVisible()` is called, but it does not seem to be executed here
@@ -905,16 +936,17 @@ public class DatabaseTransactionMgr {
                 // So I add a log here for observation.
                 LOG.debug("after set transaction {} to visible", transactionState);
             } finally {
-                writeUnlock();
+                unlockShards(txnShards);
                 transactionState.afterStateTransform(TransactionStatus.VISIBLE, txnOperated);
             }
             updateCatalogAfterVisible(transactionState, db);
         } finally {
-            db.writeUnlock();
+            db.writeUnlockTables(tables);
         }
         LOG.info("finish transaction {} successfully", transactionState);
     }
 
+    // must be called with the locks of the shards of the transaction held
     protected void unprotectedCommitTransaction(TransactionState transactionState, Set<Long> errorReplicaIds,
                                                 Map<Long, Set<Long>> tableToPartition,
                                                 Map<Long, Set<String>> tableToInvalidDictColumns,
@@ -930,13 +962,7 @@ public class DatabaseTransactionMgr {
         // & same timestamp cause by granularity
         // The probability of timestamp fallback after FE failover is small
         // and it is not considered at present
-        long commitTs = System.currentTimeMillis();
-        if (commitTs <= lastCommitTs) {
-            commitTs = lastCommitTs + ++commitTsInc;
-        } else {
-            commitTsInc = 0;
-        }
-        lastCommitTs = commitTs;
+        long commitTs = lastCommitTs.updateAndGet(last -> Math.max(System.currentTimeMillis(), last + 1));
         transactionState.setCommitTime(commitTs);
         // update transaction state version
         transactionState.setTransactionStatus(TransactionStatus.COMMITTED);
@@ -965,7 +991,7 @@ public class DatabaseTransactionMgr {
             transactionState.putIdToTableCommitInfo(tableId, tableCommitInfo);
         }
         // persist transactionState
-        unprotectUpsertTransactionState(transactionState, false);
+        upsertTransactionState(transactionState);
 
         // add publish version tasks. set task to null as a placeholder.
         // tasks will be created when publishing version.
@@ -978,13 +1004,43 @@ public class DatabaseTransactionMgr {
     protected void unprotectUpsertTransactionState(TransactionState transactionState, boolean isReplay) {
         // if this is a replay operation, we should not log it
         if (!isReplay) {
-            if (transactionState.getTransactionStatus() != TransactionStatus.PREPARE
-                    || transactionState.getSourceType() == TransactionState.LoadJobSourceType.FRONTEND) {
-                // if this is a prepare txn, and load source type is not FRONTEND
-                // no need to persist it. if prepare txn lost, the following commit will just be failed.
-                // user only need to retry this txn.
-                // The FRONTEND type txn is committed and running asynchronously, so we have to persist it.
-                editLog.logInsertTransactionState(transactionState);
+            persistTransactionState(transactionState);
+        }
+        unprotectUpdateTransactionState(transactionState);
+    }
+
+    // persist the transaction state out of the transactionLock, the locks of the shards of the transaction
+    // must be held, so the state is persisted and updated in the same order as it is transformed
+    private void upsertTransactionState(TransactionState transactionState) {
+        persistTransactionState(transactionState);
+        writeLock();
+        try {
+            unprotectUpdateTransactionState(transactionState);
+        } finally {
+            writeUnlock();
+        }
+    }
+
+    private void persistTransactionState(TransactionState transactionState) {
+        if (transactionState.getTransactionStatus() != TransactionStatus.PREPARE
+                || transactionState.getSourceType() == TransactionState.LoadJobSourceType.FRONTEND) {
+            // if this is a prepare txn, and load source type is not FRONTEND
+            // no need to persist it. if prepare txn lost, the following commit will just be failed.
+            // user only need to retry this txn.
+            // The FRONTEND type txn is committed and running asynchronously, so we have to persist it.
+            editLog.logInsertTransactionState(transactionState);
+        }
+    }
+
+    private void unprotectUpdateTransactionState(TransactionState transactionState) {
+        long transactionId = transactionState.getTransactionId();
+        if (transactionState.getTransactionStatus() == TransactionStatus.COMMITTED) {
+            for (TransactionShard shard : getShards(transactionState, null)) {
+                shard.committedTxns.put(transactionId, transactionState);
+            }
+        } else if (transactionState.getTransactionStatus().isFinalStatus()) {
+            for (TransactionShard shard : getShards(transactionState, null)) {
+                shard.committedTxns.remove(transactionId);
             }
         }
         if (!transactionState.getTransactionStatus().isFinalStatus()) {
@@ -1010,12 +1066,67 @@ public class DatabaseTransactionMgr {
     }
 
     private void updateTxnLabels(TransactionState transactionState) {
-        Set<Long> txnIds = labelToTxnIds.get(transactionState.getLabel());
+        addTxnLabel(transactionState.getLabel(), transactionState.getTransactionId());
+        for (String label : transactionState.getGroupCommitLabels()) {
+            addTxnLabel(label, transactionState.getTransactionId());
+        }
+    }
+
+    private void addTxnLabel(String label, long transactionId) {
+        Set<Long> txnIds = labelToTxnIds.get(label);
         if (txnIds == null) {
             txnIds = Sets.newHashSet();
-            labelToTxnIds.put(transactionState.getLabel(), txnIds);
+            labelToTxnIds.put(label, txnIds);
+        }
+        txnIds.add(transactionId);
+    }
+
+    /**
+     * Attaches the label of a load merged into the running transaction by group commit. The label is checked
+     * and tracked like the label of a transaction of its own, and is persisted with the transaction on commit.
+     *
+     * The label is not logged on its own: the transaction is a stream load one still in PREPARE, which is not
+     * persisted either (see persistTransactionState). A new master never knows such a transaction, so the retry
+     * of the load after a failover is rejected here, and the transaction and all its labels are lost together.
+     */
+    public void addGroupCommitLabel(long tableId, long transactionId, String label)
+            throws LabelAlreadyUsedException, TransactionNotFoundException, AnalysisException {
+        TransactionState transactionState = getTransactionState(transactionId);
+        if (transactionState == null
+                || transactionState.getSourceType() != TransactionState.LoadJobSourceType.BACKEND_STREAMING
+                || !transactionState.getTableIdList().contains(tableId)) {
+            // only the stream loads to the same table are merged
+            throw new TransactionNotFoundException("running transaction not found, txn_id: " + transactionId
+                    + ", table_id: " + tableId);
+        }
+        // the label must be added before the transaction is committed and persisted with it
+        List<TransactionShard> txnShards = getShards(transactionState, null);
+        lockShards(txnShards);
+        writeLock();
+        try {
+            FeNameFormat.checkLabel(label);
+            if (transactionState.getTransactionStatus() != TransactionStatus.PREPARE) {
+                throw new TransactionNotFoundException("running transaction not found, txn_id: " + transactionId);
+            }
+            Set<Long> existingTxnIds = unprotectedGetTxnIdsByLabel(label);
+            if (existingTxnIds != null) {
+                for (long txnId : existingTxnIds) {
+                    if (txnId == transactionId) {
+                        // a retry of the same request
+                        return;
+                    }
+                    TransactionState txn = unprotectedGetTransactionState(txnId);
+                    if (txn.getTransactionStatus() != TransactionStatus.ABORTED) {
+                        throw new LabelAlreadyUsedException(label, txn.getTransactionStatus());
+                    }
+                }
+            }
+            transactionState.addGroupCommitLabel(label);
+            addTxnLabel(label, transactionId);
+        } finally {
+            writeUnlock();
+            unlockShards(txnShards);
         }
-        txnIds.add(transactionState.getTransactionId());
     }
 
     public void abortTransaction(String label, String reason) throws UserException {
@@ -1074,11 +1185,12 @@ public class DatabaseTransactionMgr {
         // before state transform
         TxnStateChangeCallback callback = transactionState.beforeStateTransform(TransactionStatus.ABORTED);
         boolean txnOperated = false;
-        writeLock();
+        List<TransactionShard> txnShards = getShards(transactionState, null);
+        lockShards(txnShards);
         try {
             txnOperated = unprotectAbortTransaction(transactionId, reason);
         } finally {
-            writeUnlock();
+            unlockShards(txnShards);
             transactionState.afterStateTransform(TransactionStatus.ABORTED, txnOperated, callback, reason);
         }
 
@@ -1092,9 +1204,10 @@ public class DatabaseTransactionMgr {
         }
     }
 
+    // must be called with the locks of the shards of the transaction held
     private boolean unprotectAbortTransaction(long transactionId, String reason)
             throws UserException {
-        TransactionState transactionState = unprotectedGetTransactionState(transactionId);
+        TransactionState transactionState = getTransactionState(transactionId);
         if (transactionState == null) {
             throw new TransactionNotFoundException("transaction not found", transactionId);
         }
@@ -1109,7 +1222,7 @@ public class DatabaseTransactionMgr {
         transactionState.setFinishTime(System.currentTimeMillis());
         transactionState.setReason(reason);
         transactionState.setTransactionStatus(TransactionStatus.ABORTED);
-        unprotectUpsertTransactionState(transactionState, false);
+        upsertTransactionState(transactionState);
         for (PublishVersionTask task : transactionState.getPublishVersionTasks().values()) {
             AgentTaskQueue.removeTask(task.getBackendId(), TTaskType.PUBLISH_VERSION, task.getSignature());
         }
@@ -1212,10 +1325,17 @@ public class DatabaseTransactionMgr {
 
     private void clearTransactionState(TransactionState transactionState) {
         idToFinalStatusTransactionState.remove(transactionState.getTransactionId());
-        Set<Long> txnIds = unprotectedGetTxnIdsByLabel(transactionState.getLabel());
-        txnIds.remove(transactionState.getTransactionId());
+        removeTxnLabel(transactionState.getLabel(), transactionState.getTransactionId());
+        for (String label : transactionState.getGroupCommitLabels()) {
+            removeTxnLabel(label, transactionState.getTransactionId());
+        }
+    }
+
+    private void removeTxnLabel(String label, long transactionId) {
+        Set<Long> txnIds = unprotectedGetTxnIdsByLabel(label);
+        txnIds.remove(transactionId);
         if (txnIds.isEmpty()) {
-            labelToTxnIds.remove(transactionState.getLabel());
+            labelToTxnIds.remove(label);
         }
     }
 
@@ -1510,6 +1630,8 @@ public class DatabaseTransactionMgr {
     }
 
     public void replayUpsertTransactionState(TransactionState transactionState) {
+        List<TransactionShard> txnShards = getShards(transactionState, null);
+        lockShards(txnShards);
         writeLock();
         try {
             // set transaction status will call txn state change listener
@@ -1529,6 +1651,7 @@ public class DatabaseTransactionMgr {
             }
         } finally {
             writeUnlock();
+            unlockShards(txnShards);
         }
     }
 
@@ -1556,4 +1679,53 @@ public class DatabaseTransactionMgr {
         }
     }
 
+    // the shards of the tables of the transaction, and of the tables to commit if not null, in the order of index
+    private List<TransactionShard> getShards(TransactionState transactionState, Collection<Long> commitTableIds) {
+        Set<Integer> indexes = new TreeSet<>();
+        List<Long> tableIdList = transactionState.getTableIdList();
+        if (CollectionUtils.isEmpty(tableIdList)) {
+            // all the transactions with unknown tables share a shard, so the commit and the abort of such a
+            // transaction still exclude each other
+            indexes.add(getShardIndex(UNKNOWN_TABLE_ID));
+        } else {
+            for (long tableId : tableIdList) {
+                indexes.add(getShardIndex(tableId));
+            }
+        }
+        for (long tableId : transactionState.getIdToTableCommitInfos().keySet()) {
+            indexes.add(getShardIndex(tableId));
+        }
+        if (commitTableIds != null) {
+            for (long tableId : commitTableIds) {
+                indexes.add(getShardIndex(tableId));
+            }
+        }
+        List<TransactionShard> txnShards = Lists.newArrayListWithCapacity(indexes.size());
+        for (int index : indexes) {
+            txnShards.add(shards[index]);
+        }
+        return txnShards;
+    }
+
+    private static int getShardIndex(long tableId) {
+        return (int) Math.floorMod(tableId, (long) SHARD_NUM);
+    }
+
+    private static void lockShards(List<TransactionShard> txnShards) {
+        for (TransactionShard shard : txnShards) {
+            shard.lock.lock();
+        }
+    }
+
+    private static void unlockShards(List<TransactionShard> txnShards) {
+        for (int i = txnShards.size() - 1; i >= 0; i--) {
+            txnShards.get(i).lock.unlock();
+        }
+    }
+
+    private static class TransactionShard {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        // transactionId -> committed TransactionState of the tables in this shard
+        private final Map<Long, TransactionState> committedTxns = Maps.newHashMap();
+    }
 }
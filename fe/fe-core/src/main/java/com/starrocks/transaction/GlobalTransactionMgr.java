@@ -24,6 +24,7 @@ package com.starrocks.transaction;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.starrocks.catalog.Database;
+import com.starrocks.catalog.Table;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.DuplicatedRequestException;
@@ -281,6 +282,14 @@ public class GlobalTransactionMgr implements Writable {
                 .beginTransaction(tableIdList, label, requestId, coordinator, sourceType, listenerId, timeoutSecond);
     }
 
+    public void addGroupCommitLabel(long dbId, long tableId, long transactionId, String label)
+            throws AnalysisException, LabelAlreadyUsedException, TransactionNotFoundException {
+        if (Config.disable_load_job) {
+            throw new AnalysisException("disable_load_job is set to true, all load jobs are prevented");
+        }
+        getDatabaseTransactionMgr(dbId).addGroupCommitLabel(tableId, transactionId, label);
+    }
+
     private void checkValidTimeoutSecond(long timeoutSecond, int maxLoadTimeoutSecond, int minLoadTimeOutSecond)
             throws AnalysisException {
         if (timeoutSecond > maxLoadTimeoutSecond ||
@@ -340,14 +349,20 @@ public class GlobalTransactionMgr implements Writable {
             throws UserException {
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
-        if (!db.tryWriteLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
-            throw new UserException("get database write lock timeout, database="
+        TransactionState transactionState = getTransactionState(db.getId(), transactionId);
+        if (transactionState == null) {
+            throw new TransactionCommitFailedException("transaction not found");
+        }
+        // only the tables of the transaction are locked, the loads to different tables are committed concurrently
+        List<Table> tables = db.getTables(transactionState.getTableIdList());
+        if (!db.tryWriteLockTables(tables, timeoutMillis, TimeUnit.MILLISECONDS)) {
+            throw new UserException("get table write lock timeout, database="
                     + db.getFullName() + ", timeoutMillis=" + timeoutMillis);
         }
         try {
             commitTransaction(db.getId(), transactionId, tabletCommitInfos, txnCommitAttachment);
         } finally {
-            db.writeUnlock();
+            db.writeUnlockTables(tables);
         }
         stopWatch.stop();
         long publishTimeoutMillis = timeoutMillis - stopWatch.getTime();
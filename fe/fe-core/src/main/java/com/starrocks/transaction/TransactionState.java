@@ -31,6 +31,7 @@ import com.starrocks.catalog.OlapTable;
 import com.starrocks.catalog.Partition;
 import com.starrocks.common.Config;
 import com.starrocks.common.FeMetaVersion;
+import com.starrocks.common.StarRocksFEMetaVersion;
 import com.starrocks.common.UserException;
 import com.starrocks.common.io.Text;
 import com.starrocks.common.io.Writable;
@@ -186,6 +187,9 @@ public class TransactionState implements Writable {
     private List<Long> tableIdList;
     private long transactionId;
     private String label;
+    // labels of the loads merged into this transaction by group commit, each of them is tracked like the label
+    // of its own transaction
+    private List<String> groupCommitLabels = Lists.newArrayList();
     // requestId is used to judge whether a begin request is a internal retry request.
     // no need to persist it.
     private TUniqueId requestId;
@@ -313,6 +317,14 @@ public class TransactionState implements Writable {
         return this.label;
     }
 
+    public List<String> getGroupCommitLabels() {
+        return groupCommitLabels;
+    }
+
+    public void addGroupCommitLabel(String label) {
+        groupCommitLabels.add(label);
+    }
+
     public TxnCoordinator getCoordinator() {
         return txnCoordinator;
     }
@@ -619,6 +631,10 @@ public class TransactionState implements Writable {
         for (Long tableId : tableIdList) {
             out.writeLong(tableId);
         }
+        out.writeInt(groupCommitLabels.size());
+        for (String groupCommitLabel : groupCommitLabels) {
+            Text.writeString(out, groupCommitLabel);
+        }
     }
 
     public void readFields(DataInput in) throws IOException {
@@ -679,6 +695,13 @@ public class TransactionState implements Writable {
                 tableIdList.add(in.readLong());
             }
         }
+
+        if (GlobalStateMgr.getCurrentStateStarRocksJournalVersion() >= StarRocksFEMetaVersion.VERSION_4) {
+            int labelNum = in.readInt();
+            for (int i = 0; i < labelNum; i++) {
+                groupCommitLabels.add(Text.readString(in));
+            }
+        }
     }
 
     public void setErrorMsg(String errMsg) {
@@ -43,6 +43,8 @@ import java.io.FileOutputStream;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 public class DatabaseTest {
@@ -103,6 +105,54 @@ public class DatabaseTest {
         }
     }
 
+    @Test
+    public void tableLockTest() throws Exception {
+        OlapTable table1 = new OlapTable(2001, "table1", new LinkedList<>(), KeysType.AGG_KEYS,
+                new SinglePartitionInfo(), new RandomDistributionInfo(10));
+        OlapTable table2 = new OlapTable(2002, "table2", new LinkedList<>(), KeysType.AGG_KEYS,
+                new SinglePartitionInfo(), new RandomDistributionInfo(10));
+        Assert.assertTrue(db.createTable(table1));
+        Assert.assertTrue(db.createTable(table2));
+        Assert.assertNull(db.writeLockTable(3000L));
+
+        ExecutorService otherThread = Executors.newSingleThreadExecutor();
+        try {
+            Assert.assertEquals(table1, db.writeLockTable(table1.getId()));
+            try {
+                // the other tables are not blocked
+                Assert.assertTrue(otherThread.submit(() -> {
+                    if (!db.tryWriteLockTable(table2, 0, TimeUnit.SECONDS)) {
+                        return false;
+                    }
+                    db.writeUnlockTable(table2);
+                    return true;
+                }).get());
+                Assert.assertFalse(otherThread.submit(() -> db.tryReadLockTable(table1, 0, TimeUnit.SECONDS)).get());
+                // the whole db is blocked
+                Assert.assertFalse(otherThread.submit(() -> db.tryReadLock(0, TimeUnit.SECONDS)).get());
+            } finally {
+                db.writeUnlockTable(table1);
+            }
+
+            db.readLock();
+            try {
+                Assert.assertFalse(otherThread.submit(() -> db.tryWriteLockTables(
+                        Lists.newArrayList(table1, table2), 0, TimeUnit.SECONDS)).get());
+            } finally {
+                db.readUnlock();
+            }
+            Assert.assertTrue(otherThread.submit(() -> {
+                if (!db.tryWriteLock(0, TimeUnit.SECONDS)) {
+                    return false;
+                }
+                db.writeUnlock();
+                return true;
+            }).get());
+        } finally {
+            otherThread.shutdownNow();
+        }
+    }
+
     @Test
     public void createAndDropPartitionTest() {
         Assert.assertEquals("dbTest", db.getFullName());
@@ -0,0 +1,56 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.catalog;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+import com.google.common.collect.TreeRangeMap;
+import com.starrocks.analysis.PartitionValue;
+import com.starrocks.common.AnalysisException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class PartitionRangeIndexTest {
+    private static final List<Column> COLUMNS = Collections.singletonList(new Column("k1", Type.INT));
+
+    private static PartitionKey key(int value) throws AnalysisException {
+        return PartitionKey.createPartitionKey(
+                Collections.singletonList(new PartitionValue(String.valueOf(value))), COLUMNS);
+    }
+
+    @Test
+    public void testGetIntersectedPartitionIds() throws AnalysisException {
+        // [min, 10), [10, 20), [20, 30), [40, 50)
+        Map<Long, Range<PartitionKey>> idToRange = Maps.newHashMap();
+        idToRange.put(4L, Range.closedOpen(key(40), key(50)));
+        idToRange.put(1L, Range.closedOpen(PartitionKey.createInfinityPartitionKey(COLUMNS, false), key(10)));
+        idToRange.put(3L, Range.closedOpen(key(20), key(30)));
+        idToRange.put(2L, Range.closedOpen(key(10), key(20)));
+        PartitionRangeIndex index = new PartitionRangeIndex(idToRange);
+        Assert.assertEquals(4, index.size());
+
+        RangeMap<PartitionKey, Long> rangeMap = TreeRangeMap.create();
+        idToRange.forEach((id, range) -> rangeMap.put(range, id));
+        List<Range<PartitionKey>> queries = Lists.newArrayList(
+                Range.closed(key(5), key(5)),
+                Range.closed(key(10), key(10)),
+                Range.closed(key(20), key(25)),
+                Range.closed(key(30), key(35)),
+                Range.closed(key(15), key(45)),
+                Range.openClosed(key(19), key(20)),
+                Range.closedOpen(key(0), key(10)),
+                Range.closed(key(50), key(60)),
+                Range.atMost(key(20)),
+                Range.greaterThan(key(29)));
+        for (Range<PartitionKey> query : queries) {
+            List<Long> expected = Lists.newArrayList(rangeMap.subRangeMap(query).asMapOfRanges().values());
+            Assert.assertEquals(query.toString(), expected, index.getIntersectedPartitionIds(query));
+        }
+    }
+}
@@ -214,5 +214,33 @@ public class ReplicaTest {
         assertEquals(18, originalReplica.getVersion());
         assertEquals(-1, originalReplica.getLastFailedVersion());
     }
-}
 
+    @Test
+    public void testRareFields() {
+        Replica replica = new Replica(10000, 20000, ReplicaState.NORMAL, 3, 0);
+        Assert.assertEquals(0, replica.getLastFailedTimestamp());
+        Assert.assertEquals(-1, replica.getWatermarkTxnId());
+        Assert.assertFalse(replica.isSetBadForce());
+        Assert.assertFalse(replica.needFurtherRepair());
+
+        replica.setNeedFurtherRepair(true);
+        Assert.assertTrue(replica.needFurtherRepair());
+        replica.setNeedFurtherRepair(false);
+        Assert.assertFalse(replica.needFurtherRepair());
+
+        replica.setWatermarkTxnId(100);
+        Assert.assertEquals(100, replica.getWatermarkTxnId());
+
+        Assert.assertTrue(replica.setBadForce(true));
+        Assert.assertTrue(replica.isBad());
+        Assert.assertTrue(replica.isSetBadForce());
+        Assert.assertTrue(replica.setBadForce(false));
+        Assert.assertFalse(replica.isSetBadForce());
+
+        // a failed load records the time, a later successful one clears it
+        replica.updateLastFailedVersion(5);
+        Assert.assertTrue(replica.getLastFailedTimestamp() > 0);
+        replica.updateRowCount(5, 100, 10);
+        Assert.assertEquals(-1, replica.getLastFailedTimestamp());
+    }
+}
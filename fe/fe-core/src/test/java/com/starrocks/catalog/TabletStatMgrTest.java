@@ -4,6 +4,8 @@ package com.starrocks.catalog;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.starrocks.common.Pair;
 import com.starrocks.common.jmockit.Deencapsulation;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.thrift.TStorageMedium;
@@ -19,6 +21,7 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class TabletStatMgrTest {
     @Test
@@ -81,9 +84,19 @@ public class TabletStatMgrTest {
 
         // Check
         TabletStatMgr tabletStatMgr = new TabletStatMgr();
-        Deencapsulation.invoke(tabletStatMgr, "updateTabletStat", backendId, result);
+        Set<Pair<Long, Long>> changedTables =
+                Deencapsulation.invoke(tabletStatMgr, "updateTabletStat", backendId, result);
 
         Assert.assertEquals(200L, replica.getDataSize());
         Assert.assertEquals(201L, replica.getRowCount());
+        Assert.assertEquals(Sets.newHashSet(new Pair<>(dbId, tableId)), changedTables);
+
+        // an incremental result without the tablet leaves its stat as it is
+        result.setTablets_stats(Maps.newHashMap());
+        result.setIncremental(true);
+        changedTables = Deencapsulation.invoke(tabletStatMgr, "updateTabletStat", backendId, result);
+        Assert.assertTrue(changedTables.isEmpty());
+        Assert.assertEquals(200L, replica.getDataSize());
+        Assert.assertEquals(201L, replica.getRowCount());
     }
 }
\ No newline at end of file
@@ -45,6 +45,7 @@ import com.starrocks.thrift.TScanOpenParams;
 import com.starrocks.thrift.TScanOpenResult;
 import com.starrocks.thrift.TSnapshotRequest;
 import com.starrocks.thrift.TStatus;
+import com.starrocks.thrift.TTabletStatRequest;
 import com.starrocks.thrift.TTabletStatResult;
 import com.starrocks.thrift.TTransmitDataParams;
 import com.starrocks.thrift.TTransmitDataResult;
@@ -192,7 +193,7 @@ public class GenericPoolTest {
         }
 
         @Override
-        public TTabletStatResult get_tablet_stat() throws TException {
+        public TTabletStatResult get_tablet_stat(TTabletStatRequest request) throws TException {
             // TODO Auto-generated method stub
             return null;
         }
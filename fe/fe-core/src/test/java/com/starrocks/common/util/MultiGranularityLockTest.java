@@ -0,0 +1,116 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.common.util;
+
+import com.starrocks.common.util.MultiGranularityLock.Mode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class MultiGranularityLockTest {
+    private MultiGranularityLock lock;
+    private ExecutorService otherThread;
+
+    @Before
+    public void setUp() {
+        lock = new MultiGranularityLock();
+        otherThread = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        otherThread.shutdownNow();
+    }
+
+    // try to lock in another thread, and unlock at once if locked
+    private boolean tryLockInOtherThread(Mode mode) throws Exception {
+        return otherThread.submit(() -> {
+            if (!lock.tryLock(mode, 0, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            lock.unlock(mode);
+            return true;
+        }).get();
+    }
+
+    @Test
+    public void testCompatibility() throws Exception {
+        lock.lock(Mode.INTENTION_EXCLUSIVE);
+        Assert.assertTrue(tryLockInOtherThread(Mode.INTENTION_SHARED));
+        Assert.assertTrue(tryLockInOtherThread(Mode.INTENTION_EXCLUSIVE));
+        Assert.assertFalse(tryLockInOtherThread(Mode.SHARED));
+        Assert.assertFalse(tryLockInOtherThread(Mode.EXCLUSIVE));
+        lock.unlock(Mode.INTENTION_EXCLUSIVE);
+
+        lock.lock(Mode.SHARED);
+        Assert.assertTrue(tryLockInOtherThread(Mode.INTENTION_SHARED));
+        Assert.assertFalse(tryLockInOtherThread(Mode.INTENTION_EXCLUSIVE));
+        Assert.assertTrue(tryLockInOtherThread(Mode.SHARED));
+        Assert.assertFalse(tryLockInOtherThread(Mode.EXCLUSIVE));
+        lock.unlock(Mode.SHARED);
+
+        lock.lock(Mode.EXCLUSIVE);
+        Assert.assertFalse(tryLockInOtherThread(Mode.INTENTION_SHARED));
+        Assert.assertEquals(Thread.currentThread(), lock.getOwner());
+        lock.unlock(Mode.EXCLUSIVE);
+
+        Assert.assertTrue(tryLockInOtherThread(Mode.EXCLUSIVE));
+        Assert.assertNull(lock.getOwner());
+    }
+
+    @Test
+    public void testReentrant() throws Exception {
+        lock.lock(Mode.EXCLUSIVE);
+        Assert.assertTrue(lock.tryLock(Mode.EXCLUSIVE, 0, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(lock.tryLock(Mode.SHARED, 0, TimeUnit.MILLISECONDS));
+        lock.unlock(Mode.SHARED);
+        lock.unlock(Mode.EXCLUSIVE);
+        lock.unlock(Mode.EXCLUSIVE);
+        Assert.assertFalse(lock.isHeldByCurrentThread(Mode.EXCLUSIVE));
+
+        // can not be upgraded
+        lock.lock(Mode.SHARED);
+        Assert.assertFalse(lock.tryLock(Mode.EXCLUSIVE, 0, TimeUnit.MILLISECONDS));
+        lock.unlock(Mode.SHARED);
+    }
+
+    @Test
+    public void testSharedWithIntention() throws Exception {
+        otherThread.submit(() -> lock.lock(Mode.INTENTION_EXCLUSIVE)).get();
+        // the read lock of the whole object is never granted as an intention mode
+        lock.lock(Mode.INTENTION_EXCLUSIVE);
+        Assert.assertThrows(IllegalStateException.class, () -> lock.tryLock(Mode.SHARED, 0, TimeUnit.MILLISECONDS));
+        Assert.assertThrows(IllegalStateException.class, () -> lock.lock(Mode.SHARED));
+        lock.unlock(Mode.INTENTION_EXCLUSIVE);
+
+        Assert.assertFalse(lock.tryLock(Mode.SHARED, 0, TimeUnit.MILLISECONDS));
+        otherThread.submit(() -> lock.unlock(Mode.INTENTION_EXCLUSIVE)).get();
+        Assert.assertTrue(lock.tryLock(Mode.SHARED, 0, TimeUnit.MILLISECONDS));
+        // intention shared under shared is still allowed
+        Assert.assertTrue(lock.tryLock(Mode.INTENTION_SHARED, 0, TimeUnit.MILLISECONDS));
+        lock.unlock(Mode.INTENTION_SHARED);
+        lock.unlock(Mode.SHARED);
+        Assert.assertFalse(lock.isHeldByCurrentThread(Mode.SHARED));
+    }
+
+    @Test
+    public void testIntentionExclusiveWithShared() throws Exception {
+        lock.lock(Mode.SHARED);
+        Assert.assertThrows(IllegalStateException.class, () -> lock.lock(Mode.INTENTION_EXCLUSIVE));
+        lock.unlock(Mode.SHARED);
+
+        // the write lock of the whole object covers everything
+        lock.lock(Mode.EXCLUSIVE);
+        lock.lock(Mode.SHARED);
+        lock.lock(Mode.INTENTION_EXCLUSIVE);
+        lock.unlock(Mode.INTENTION_EXCLUSIVE);
+        lock.unlock(Mode.SHARED);
+        lock.unlock(Mode.EXCLUSIVE);
+        Assert.assertTrue(tryLockInOtherThread(Mode.EXCLUSIVE));
+    }
+}
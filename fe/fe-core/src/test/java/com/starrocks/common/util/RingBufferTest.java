@@ -0,0 +1,66 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.common.util;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RingBufferTest {
+
+    @Test
+    public void testOfferAndPoll() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        Assert.assertEquals(4, buffer.capacity());
+        Assert.assertNull(buffer.poll());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.offer(i));
+        }
+        // full
+        Assert.assertFalse(buffer.offer(4));
+        Assert.assertEquals(4, buffer.size());
+
+        Assert.assertEquals(Integer.valueOf(0), buffer.poll());
+        Assert.assertTrue(buffer.offer(4));
+        List<Integer> drained = Lists.newArrayList();
+        Assert.assertEquals(3, buffer.drainTo(drained, 3));
+        Assert.assertEquals(Lists.newArrayList(1, 2, 3), drained);
+        Assert.assertEquals(Integer.valueOf(4), buffer.poll());
+        Assert.assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testMultiProducer() throws InterruptedException {
+        RingBuffer<Integer> buffer = new RingBuffer<>(1024);
+        int numProducers = 4;
+        int numPerProducer = 10000;
+        AtomicInteger dropped = new AtomicInteger(0);
+        List<Thread> producers = Lists.newArrayList();
+        for (int i = 0; i < numProducers; i++) {
+            Thread producer = new Thread(() -> {
+                for (int j = 0; j < numPerProducer; j++) {
+                    if (!buffer.offer(j)) {
+                        dropped.incrementAndGet();
+                    }
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+
+        long consumed = 0;
+        List<Integer> batch = Lists.newArrayList();
+        while (producers.stream().anyMatch(Thread::isAlive) || !buffer.isEmpty()) {
+            consumed += buffer.drainTo(batch, 100);
+            batch.clear();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        consumed += buffer.drainTo(batch, Integer.MAX_VALUE);
+        Assert.assertEquals(numProducers * numPerProducer, consumed + dropped.get());
+    }
+}
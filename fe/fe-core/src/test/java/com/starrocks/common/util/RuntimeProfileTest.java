@@ -207,4 +207,28 @@ public class RuntimeProfileTest {
         Assert.assertEquals(100000000L, minCounter.getValue());
         Assert.assertEquals(3000000000L, maxCounter.getValue());
     }
+
+    @Test
+    public void testToThrift() {
+        RuntimeProfile profile = new RuntimeProfile("Query");
+        RuntimeProfile summary = new RuntimeProfile("Summary");
+        summary.addInfoString("Query ID", "123");
+        summary.addInfoString("Default Db", null);
+        RuntimeProfile execution = new RuntimeProfile("Execution");
+        execution.getCounterTotalTime().setValue(3000000000L);
+        execution.addCounter("ScanTime", TUnit.TIME_NS).setValue(1000000000L);
+        execution.addCounter("ScanRows", TUnit.UNIT, "ScanTime").setValue(1000);
+        RuntimeProfile fragment = new RuntimeProfile("Fragment 0");
+        fragment.getCounterTotalTime().setValue(1000000000L);
+        execution.addChild(fragment);
+        profile.addChild(summary);
+        profile.addChild(execution);
+        profile.computeTimeInChildProfile();
+
+        TRuntimeProfileTree tree = profile.toThrift();
+        Assert.assertEquals(4, tree.getNodesSize());
+        RuntimeProfile restored = new RuntimeProfile(tree.getNodes().get(0).getName());
+        restored.update(tree);
+        Assert.assertEquals(profile.toString(), restored.toString());
+    }
 }
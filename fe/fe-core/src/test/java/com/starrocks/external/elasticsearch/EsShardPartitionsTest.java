@@ -26,6 +26,8 @@ import com.starrocks.catalog.GlobalStateMgrTestUtil;
 import com.starrocks.server.GlobalStateMgr;
 import org.junit.Test;
 
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
@@ -43,4 +45,26 @@ public class EsShardPartitionsTest extends EsTestCase {
         assertEquals(1, esTablePartitions.getUnPartitionedIndexStates().size());
         assertEquals(5, esTablePartitions.getEsShardPartitions("doe").getShardRoutings().size());
     }
+
+    @Test
+    public void testShardDocCounts() throws Exception {
+        EsShardPartitions esShardPartitions = EsShardPartitions.findShardPartitions("doe",
+                loadJsonFromFile("data/es/test_search_shards.json"));
+        Map<String, Map<Integer, Long>> docCounts =
+                EsShardPartitions.parseShardDocCounts(loadJsonFromFile("data/es/test_index_stats.json"));
+        assertEquals(5, docCounts.get("doe").size());
+        esShardPartitions.setShardDocCounts(docCounts);
+        assertEquals(1000000L, esShardPartitions.getShardDocCount(0));
+        assertEquals(0L, esShardPartitions.getShardDocCount(3));
+
+        // sliced scroll disabled
+        assertEquals(1, esShardPartitions.getSliceNum(0, 0, 16));
+        // small shard is not sliced
+        assertEquals(1, esShardPartitions.getSliceNum(1, 100000, 16));
+        assertEquals(3, esShardPartitions.getSliceNum(2, 100000, 16));
+        // bounded by the max slices
+        assertEquals(8, esShardPartitions.getSliceNum(0, 100000, 8));
+        // unknown doc count
+        assertEquals(1, esShardPartitions.getSliceNum(5, 100000, 8));
+    }
 }
@@ -0,0 +1,37 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.load.routineload;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class KafkaLagTrackerTest {
+    @Test
+    public void testLagAndCatchUp() {
+        KafkaLagTracker tracker = new KafkaLagTracker();
+        long now = System.currentTimeMillis();
+        tracker.update(ImmutableMap.of(0, 1000L, 1, 500L), ImmutableMap.of(0, 0L, 1, 400L), now - 10000);
+
+        Map<Integer, Long> lags = tracker.getLags(ImmutableMap.of(0, 0L, 1, 400L, 2, 0L));
+        Assert.assertEquals(2, lags.size());
+        Assert.assertEquals(1000L, (long) lags.get(0));
+        Assert.assertEquals(100L, (long) lags.get(1));
+        // the rates are unknown until the second update
+        Assert.assertEquals(0, tracker.getCatchUpSeconds(ImmutableMap.of(0, 0L)), 0.001);
+
+        // partition 0 consumed 1000 offsets in 10 seconds, partition 1 nothing
+        tracker.update(ImmutableMap.of(0, 3000L, 1, 500L), ImmutableMap.of(0, 1000L, 1, 400L), now);
+        Assert.assertEquals(20, tracker.getCatchUpSeconds(ImmutableMap.of(0, 1000L)), 0.001);
+        Assert.assertEquals(100, tracker.getCatchUpSeconds(ImmutableMap.of(0, 1000L, 1, 400L)), 0.001);
+
+        // the offsets not consumed yet are resolved at the last update
+        Assert.assertEquals(100L, (long) tracker.getLags(
+                ImmutableMap.of(1, KafkaProgress.OFFSET_BEGINNING_VAL)).get(1));
+
+        Assert.assertNotNull(tracker.getLatestOffsets(60000));
+        Assert.assertNull(new KafkaLagTracker().getLatestOffsets(60000));
+    }
+}
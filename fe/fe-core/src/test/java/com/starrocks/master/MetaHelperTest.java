@@ -0,0 +1,77 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.master;
+
+import com.starrocks.http.meta.ImageChunkedInput;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+public class MetaHelperTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] encode(File file, long offset, int chunkSize) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageChunkedInput input = new ImageChunkedInput(file, offset, chunkSize);
+        try {
+            while (!input.isEndOfInput()) {
+                ByteBuf buf = input.readChunk(ByteBufAllocator.DEFAULT);
+                byte[] bytes = new byte[buf.readableBytes()];
+                buf.readBytes(bytes);
+                buf.release();
+                out.write(bytes);
+            }
+        } finally {
+            input.close();
+        }
+        return out.toByteArray();
+    }
+
+    private static long decode(byte[] frames, ByteArrayOutputStream out) throws IOException {
+        return MetaHelper.receiveFrames(new DataInputStream(new ByteArrayInputStream(frames)), out);
+    }
+
+    @Test
+    public void testFrames() throws Exception {
+        byte[] image = new byte[100000];
+        new Random(0).nextBytes(image);
+        Arrays.fill(image, 0, 50000, (byte) 1);
+        File file = folder.newFile("image.1");
+        Files.write(file.toPath(), image);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Assert.assertEquals(image.length, decode(encode(file, 0, 4096), out));
+        Assert.assertArrayEquals(image, out.toByteArray());
+
+        // resume from an offset
+        out = new ByteArrayOutputStream();
+        Assert.assertEquals(image.length - 30000, decode(encode(file, 30000, 4096), out));
+        Assert.assertArrayEquals(Arrays.copyOfRange(image, 30000, image.length), out.toByteArray());
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptedFrame() throws Exception {
+        byte[] image = new byte[10000];
+        new Random(0).nextBytes(image);
+        File file = folder.newFile("image.2");
+        Files.write(file.toPath(), image);
+
+        byte[] frames = encode(file, 0, 4096);
+        // flip a bit of the checksum of the first frame
+        frames[15] ^= 1;
+        decode(frames, new ByteArrayOutputStream());
+    }
+}
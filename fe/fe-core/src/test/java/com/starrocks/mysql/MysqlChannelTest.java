@@ -24,10 +24,13 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.List;
 
 public class MysqlChannelTest {
     int packetId = 0;
@@ -255,6 +258,47 @@ public class MysqlChannelTest {
         channel1.sendOnePacket(buf);
     }
 
+    @Test
+    public void testReleaseIdleSendBuffer() throws Exception {
+        new Expectations() {
+            {
+                channel.write((ByteBuffer) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    int fakeWrite(ByteBuffer buffer) {
+                        int writeLen = buffer.remaining();
+                        buffer.position(buffer.limit());
+                        return writeLen;
+                    }
+                };
+            }
+        };
+
+        MysqlChannel channel1 = new MysqlChannel(channel);
+        channel1.beginCommand();
+        channel1.sendOnePacket(ByteBuffer.allocate(1000));
+        channel1.flush();
+        // not released while the command runs
+        long idleTime = System.currentTimeMillis() + MysqlChannel.SEND_BUFFER_IDLE_RELEASE_MS;
+        Thread checker = new Thread(() -> channel1.releaseIdleSendBuffer(idleTime + 1000L));
+        checker.start();
+        checker.join();
+        Assert.assertFalse(channel1.isSendBufferNull());
+        channel1.endCommand();
+
+        // kept for the following commands
+        channel1.releaseIdleSendBuffer(System.currentTimeMillis());
+        Assert.assertFalse(channel1.isSendBufferNull());
+        channel1.releaseIdleSendBuffer(idleTime + 1000L);
+        Assert.assertTrue(channel1.isSendBufferNull());
+
+        // allocated again by the next command
+        channel1.beginCommand();
+        channel1.sendOnePacket(ByteBuffer.allocate(1000));
+        channel1.endCommand();
+        Assert.assertFalse(channel1.isSendBufferNull());
+    }
+
     @Test(expected = IOException.class)
     public void testSendException() throws IOException {
         // mock
@@ -333,4 +377,61 @@ public class MysqlChannelTest {
         channel1.sendOnePacket(buf);
     }
 
+    @Test
+    public void testSendPackets() throws IOException {
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        new Expectations() {
+            {
+                channel.write((ByteBuffer) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    int fakeWrite(ByteBuffer buffer) {
+                        int writeLen = buffer.remaining();
+                        while (buffer.hasRemaining()) {
+                            written.write(buffer.get());
+                        }
+                        return writeLen;
+                    }
+                };
+
+                channel.write((ByteBuffer[]) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    long fakeWrite(ByteBuffer[] buffers) {
+                        long writeLen = 0;
+                        for (ByteBuffer buffer : buffers) {
+                            writeLen += buffer.remaining();
+                            while (buffer.hasRemaining()) {
+                                written.write(buffer.get());
+                            }
+                        }
+                        return writeLen;
+                    }
+                };
+            }
+        };
+
+        // a packet split into two physical packets, and a packet split into a full one and an empty one
+        List<ByteBuffer> packets = Arrays.asList(ByteBuffer.allocate(10), ByteBuffer.allocate(0xffffff + 10),
+                ByteBuffer.allocate(0), ByteBuffer.allocate(0xffffff), ByteBuffer.allocate(1000));
+        for (int i = 0; i < packets.size(); i++) {
+            ByteBuffer packet = packets.get(i);
+            for (int j = 0; j < packet.limit(); j++) {
+                packet.put(j, (byte) (i + j));
+            }
+        }
+
+        MysqlChannel channel1 = new MysqlChannel(channel);
+        for (ByteBuffer packet : packets) {
+            channel1.sendOnePacket(packet.duplicate());
+        }
+        channel1.flush();
+        byte[] expected = written.toByteArray();
+
+        written.reset();
+        MysqlChannel channel2 = new MysqlChannel(channel);
+        channel2.sendPackets(packets);
+        Assert.assertArrayEquals(expected, written.toByteArray());
+        Assert.assertTrue(MysqlSendBufferPool.size() > 0);
+    }
 }
@@ -1949,6 +1949,41 @@ public class AuthTest {
         Assert.assertEquals(1, auth.getAuthInfo(lastUserIdentity).size());
     }
 
+    @Test
+    public void testPrivilegeCacheInvalidation() throws Exception {
+        String db = SystemInfoService.DEFAULT_CLUSTER + ":db1";
+        UserIdentity userIdentity = new UserIdentity("cached_user", "%");
+        userIdentity.analyze(SystemInfoService.DEFAULT_CLUSTER);
+        CreateUserStmt createUserStmt = new CreateUserStmt(false, new UserDesc(userIdentity, "12345", true), null);
+        createUserStmt.analyze(analyzer);
+        auth.createUser(createUserStmt);
+        Assert.assertFalse(auth.checkTblPriv(userIdentity, db, "tbl1", PrivPredicate.SELECT));
+
+        // grant on table
+        TablePattern tablePattern = new TablePattern("db1", "tbl1");
+        tablePattern.analyze(SystemInfoService.DEFAULT_CLUSTER);
+        auth.grantPrivs(userIdentity, tablePattern, AccessPrivilege.SELECT_PRIV.toPrivilege(), false);
+        Assert.assertTrue(auth.checkTblPriv(userIdentity, db, "tbl1", PrivPredicate.SELECT));
+        // cached
+        Assert.assertTrue(auth.checkTblPriv(userIdentity, db, "tbl1", PrivPredicate.SELECT));
+        Assert.assertFalse(auth.checkTblPriv(userIdentity, db, "tbl2", PrivPredicate.SELECT));
+        Assert.assertFalse(auth.checkDbPriv(userIdentity, db, PrivPredicate.SELECT));
+
+        // grant on database
+        TablePattern dbPattern = new TablePattern("db1", "*");
+        dbPattern.analyze(SystemInfoService.DEFAULT_CLUSTER);
+        auth.grantPrivs(userIdentity, dbPattern, AccessPrivilege.SELECT_PRIV.toPrivilege(), false);
+        Assert.assertTrue(auth.checkTblPriv(userIdentity, db, "tbl2", PrivPredicate.SELECT));
+        Assert.assertTrue(auth.checkDbPriv(userIdentity, db, PrivPredicate.SELECT));
+
+        // revoke
+        auth.revokePrivs(userIdentity, dbPattern, AccessPrivilege.SELECT_PRIV.toPrivilege(), false);
+        auth.revokePrivs(userIdentity, tablePattern, AccessPrivilege.SELECT_PRIV.toPrivilege(), false);
+        Assert.assertFalse(auth.checkTblPriv(userIdentity, db, "tbl1", PrivPredicate.SELECT));
+        Assert.assertFalse(auth.checkTblPriv(userIdentity, db, "tbl2", PrivPredicate.SELECT));
+        Assert.assertFalse(auth.checkDbPriv(userIdentity, db, PrivPredicate.SELECT));
+    }
+
     @Test
     public void checkDefaultRootPrivilege() throws Exception {
         Assert.assertTrue(auth.checkHasPriv(ctx, PrivPredicate.ADMIN, Auth.PrivLevel.GLOBAL));
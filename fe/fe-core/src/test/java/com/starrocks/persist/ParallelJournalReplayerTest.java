@@ -0,0 +1,44 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.persist;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.io.Writable;
+import com.starrocks.journal.JournalEntity;
+import com.starrocks.journal.bdbje.Timestamp;
+import com.starrocks.transaction.TransactionState;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelJournalReplayerTest {
+
+    private static JournalEntity entity(short opCode, Writable data) {
+        JournalEntity entity = new JournalEntity();
+        entity.setOpCode(opCode);
+        entity.setData(data);
+        return entity;
+    }
+
+    @Test
+    public void testPartitionKey() {
+        TransactionState txn = new TransactionState(10001L, Lists.newArrayList(10002L), 1L, "label", null,
+                TransactionState.LoadJobSourceType.BACKEND_STREAMING,
+                new TransactionState.TxnCoordinator(TransactionState.TxnSourceType.BE, "127.0.0.1"), -1L, 1000L);
+        Assert.assertEquals(10001L, ParallelJournalReplayer.getPartitionKey(
+                entity(OperationType.OP_UPSERT_TRANSACTION_STATE, txn)));
+        Assert.assertEquals(10001L, ParallelJournalReplayer.getPartitionKey(
+                entity(OperationType.OP_DELETE_TRANSACTION_STATE, txn)));
+
+        ReplicaPersistInfo replica = ReplicaPersistInfo.createForDelete(20001L, 20002L, 20003L, 20004L, 20005L, 1L);
+        Assert.assertEquals(20001L, ParallelJournalReplayer.getPartitionKey(
+                entity(OperationType.OP_DELETE_REPLICA, replica)));
+
+        // replica info of a delete job carries no db id, it must be replayed serially
+        ReplicaPersistInfo condDelete = ReplicaPersistInfo.createForCondDelete(1L, 2L, 3L, 4L, 5, 6L, 7L, 8L, 9L);
+        Assert.assertEquals(ParallelJournalReplayer.NOT_PARTITIONED, ParallelJournalReplayer.getPartitionKey(
+                entity(OperationType.OP_UPDATE_REPLICA, condDelete)));
+
+        Assert.assertEquals(ParallelJournalReplayer.NOT_PARTITIONED, ParallelJournalReplayer.getPartitionKey(
+                entity(OperationType.OP_TIMESTAMP, new Timestamp())));
+    }
+}
@@ -0,0 +1,265 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.planner;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.LocalTablet;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Replica;
+import com.starrocks.catalog.TabletInvertedIndex;
+import com.starrocks.common.Config;
+import com.starrocks.common.DdlException;
+import com.starrocks.common.FeConstants;
+import com.starrocks.common.Status;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.system.SystemInfoService;
+import com.starrocks.thrift.TBrokerRangeDesc;
+import com.starrocks.thrift.TBrokerScanRange;
+import com.starrocks.thrift.TDataSink;
+import com.starrocks.thrift.TDataSinkType;
+import com.starrocks.thrift.TExecPlanFragmentParams;
+import com.starrocks.thrift.TFileFormatType;
+import com.starrocks.thrift.TFileType;
+import com.starrocks.thrift.TOlapTableSink;
+import com.starrocks.thrift.TPlanFragment;
+import com.starrocks.thrift.TPlanFragmentExecParams;
+import com.starrocks.thrift.TQueryGlobals;
+import com.starrocks.thrift.TScanRange;
+import com.starrocks.thrift.TScanRangeParams;
+import com.starrocks.thrift.TStatusCode;
+import com.starrocks.thrift.TStreamLoadPutRequest;
+import com.starrocks.thrift.TUniqueId;
+import com.starrocks.utframe.StarRocksAssert;
+import com.starrocks.utframe.UtFrameUtils;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class StreamLoadPlanCacheTest {
+    private static Database db;
+    private static OlapTable table;
+
+    // the loads planned, and whether the plans use the global dicts
+    private int numPlanned;
+    private boolean useGlobalDict;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        UtFrameUtils.createMinStarRocksCluster();
+        ConnectContext ctx = UtFrameUtils.createDefaultCtx();
+        StarRocksAssert starRocksAssert = new StarRocksAssert(ctx);
+        starRocksAssert.withDatabase("test").useDatabase("test")
+                .withTable("CREATE TABLE test.plan_cache (k1 int, k2 varchar(20)) " +
+                        "DUPLICATE KEY(k1) DISTRIBUTED BY HASH(k1) BUCKETS 3 " +
+                        "PROPERTIES (\"replication_num\" = \"1\")");
+        db = GlobalStateMgr.getCurrentState().getDb("default_cluster:test");
+        table = (OlapTable) db.getTable("plan_cache");
+    }
+
+    @Before
+    public void setUp() {
+        numPlanned = 0;
+        useGlobalDict = false;
+        Config.enable_stream_load_plan_cache = true;
+        StreamLoadPlanCache.getInstance().clear();
+        new MockUp<StreamLoadPlanCache>() {
+            @Mock
+            StreamLoadPlanner createPlanner(Database db, OlapTable table, TStreamLoadPutRequest request) {
+                return new StreamLoadPlanner(db, table, null);
+            }
+        };
+        new MockUp<StreamLoadPlanner>() {
+            @Mock
+            public TExecPlanFragmentParams plan(TUniqueId loadId) {
+                numPlanned++;
+                TExecPlanFragmentParams params = createParams();
+                params.getParams().setQuery_id(loadId);
+                return params;
+            }
+
+            @Mock
+            public boolean useGlobalDict() {
+                return useGlobalDict;
+            }
+
+            @Mock
+            public Multimap<Long, Long> getBePathsMap() {
+                Multimap<Long, Long> bePathsMap = HashMultimap.create();
+                bePathsMap.put(10001L, 1L);
+                return bePathsMap;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        Config.enable_stream_load_plan_cache = false;
+        StreamLoadPlanCache.getInstance().clear();
+    }
+
+    private TStreamLoadPutRequest createRequest(String user, TUniqueId loadId, long txnId) {
+        TStreamLoadPutRequest request = new TStreamLoadPutRequest();
+        request.setUser(user);
+        request.setPasswd("");
+        request.setDb("db");
+        request.setTbl("tbl");
+        request.setLoadId(loadId);
+        request.setTxnId(txnId);
+        request.setFileType(TFileType.FILE_STREAM);
+        request.setFormatType(TFileFormatType.FORMAT_CSV_PLAIN);
+        request.setColumns("k1,k2");
+        request.setThrift_rpc_timeout_ms(5000);
+        return request;
+    }
+
+    @Test
+    public void testNormalize() {
+        TStreamLoadPutRequest request1 = createRequest("u1", new TUniqueId(1, 1), 1);
+        TStreamLoadPutRequest request2 = createRequest("u2", new TUniqueId(2, 2), 2);
+        request2.setThrift_rpc_timeout_ms(10000);
+        Assert.assertEquals(StreamLoadPlanCache.normalize(request1), StreamLoadPlanCache.normalize(request2));
+        Assert.assertEquals(StreamLoadPlanCache.normalize(request1).hashCode(),
+                StreamLoadPlanCache.normalize(request2).hashCode());
+        // the request itself is not changed
+        Assert.assertEquals("u1", request1.getUser());
+
+        request2.setColumns("k1,k2,k3");
+        Assert.assertNotEquals(StreamLoadPlanCache.normalize(request1), StreamLoadPlanCache.normalize(request2));
+    }
+
+    private static TExecPlanFragmentParams createParams() {
+        TExecPlanFragmentParams params = new TExecPlanFragmentParams();
+        TPlanFragmentExecParams execParams = new TPlanFragmentExecParams();
+        execParams.setQuery_id(new TUniqueId(1, 1));
+        execParams.setFragment_instance_id(new TUniqueId(1, 2));
+        TBrokerRangeDesc rangeDesc = new TBrokerRangeDesc();
+        rangeDesc.setFile_type(TFileType.FILE_STREAM);
+        rangeDesc.setLoad_id(new TUniqueId(1, 1));
+        TBrokerScanRange brokerScanRange = new TBrokerScanRange();
+        brokerScanRange.setRanges(Lists.newArrayList(rangeDesc));
+        TScanRange scanRange = new TScanRange();
+        scanRange.setBroker_scan_range(brokerScanRange);
+        execParams.setPer_node_scan_ranges(Maps.newHashMap());
+        execParams.getPer_node_scan_ranges().put(0, Lists.newArrayList(new TScanRangeParams(scanRange)));
+        params.setParams(execParams);
+
+        TOlapTableSink sink = new TOlapTableSink();
+        sink.setLoad_id(new TUniqueId(1, 1));
+        sink.setTxn_id(1);
+        TDataSink dataSink = new TDataSink(TDataSinkType.OLAP_TABLE_SINK);
+        dataSink.setOlap_table_sink(sink);
+        TPlanFragment fragment = new TPlanFragment();
+        fragment.setOutput_sink(dataSink);
+        params.setFragment(fragment);
+        TQueryGlobals queryGlobals = new TQueryGlobals();
+        queryGlobals.setNow_string("2021-01-01 00:00:00");
+        queryGlobals.setTimestamp_ms(0);
+        params.setQuery_globals(queryGlobals);
+        return params;
+    }
+
+    @Test
+    public void testPatch() {
+        TExecPlanFragmentParams params = createParams();
+        TUniqueId loadId = new TUniqueId(5, 5);
+        StreamLoadPlanCache.patch(params, createRequest("u1", loadId, 10));
+
+        Assert.assertEquals(loadId, params.getParams().getQuery_id());
+        Assert.assertEquals(new TUniqueId(5, 6), params.getParams().getFragment_instance_id());
+        Assert.assertEquals(loadId, params.getFragment().getOutput_sink().getOlap_table_sink().getLoad_id());
+        Assert.assertEquals(10, params.getFragment().getOutput_sink().getOlap_table_sink().getTxn_id());
+        Assert.assertEquals(loadId, params.getParams().getPer_node_scan_ranges().get(0).get(0).getScan_range()
+                .getBroker_scan_range().getRanges().get(0).getLoad_id());
+        Assert.assertTrue(params.getQuery_globals().getTimestamp_ms() > 0);
+    }
+
+    @Test
+    public void testPlanHit() throws Exception {
+        StreamLoadPlanCache cache = StreamLoadPlanCache.getInstance();
+        cache.plan(db, table, createRequest("u1", new TUniqueId(1, 1), 1));
+        Assert.assertEquals(1, numPlanned);
+        Assert.assertEquals(1, cache.size());
+
+        // another load of the same parameters reuses the plan with its own ids
+        TUniqueId loadId = new TUniqueId(2, 2);
+        TExecPlanFragmentParams params = cache.plan(db, table, createRequest("u2", loadId, 2));
+        Assert.assertEquals(1, numPlanned);
+        Assert.assertEquals(loadId, params.getParams().getQuery_id());
+        Assert.assertEquals(2, params.getFragment().getOutput_sink().getOlap_table_sink().getTxn_id());
+
+        // the disks of the plan are checked again
+        new MockUp<SystemInfoService>() {
+            @Mock
+            public Status checkExceedDiskCapacityLimit(Multimap<Long, Long> bePathsMap, boolean floodStage) {
+                Assert.assertTrue(bePathsMap.containsEntry(10001L, 1L));
+                return new Status(TStatusCode.CANCELLED, "disk 1 on backend 10001 exceed limit usage");
+            }
+        };
+        try {
+            cache.plan(db, table, createRequest("u3", new TUniqueId(3, 3), 3));
+            Assert.fail();
+        } catch (DdlException e) {
+            Assert.assertTrue(e.getMessage().contains("exceed limit usage"));
+        }
+        Assert.assertEquals(1, numPlanned);
+    }
+
+    @Test
+    public void testPlanMissOnSignatureChange() throws Exception {
+        StreamLoadPlanCache cache = StreamLoadPlanCache.getInstance();
+        cache.plan(db, table, createRequest("u1", new TUniqueId(1, 1), 1));
+        Assert.assertEquals(1, numPlanned);
+
+        // a replica moved to another backend, the table is planned again
+        LocalTablet tablet = (LocalTablet) table.getPartitions().iterator().next().getBaseIndex().getTablets().get(0);
+        Replica replica = tablet.getReplicas().get(0);
+        TabletInvertedIndex invertedIndex = GlobalStateMgr.getCurrentInvertedIndex();
+        invertedIndex.deleteReplica(tablet.getId(), replica.getBackendId());
+        invertedIndex.addReplica(tablet.getId(), replica);
+        cache.plan(db, table, createRequest("u1", new TUniqueId(2, 2), 2));
+        Assert.assertEquals(2, numPlanned);
+        cache.plan(db, table, createRequest("u1", new TUniqueId(3, 3), 3));
+        Assert.assertEquals(2, numPlanned);
+
+        // other parameters are planned separately
+        TStreamLoadPutRequest request = createRequest("u1", new TUniqueId(4, 4), 4);
+        request.setColumns("k1,k2,k3");
+        cache.plan(db, table, request);
+        Assert.assertEquals(3, numPlanned);
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testGlobalDict() throws Exception {
+        StreamLoadPlanCache cache = StreamLoadPlanCache.getInstance();
+        // the plans using the global dicts are not cached
+        useGlobalDict = true;
+        cache.plan(db, table, createRequest("u1", new TUniqueId(1, 1), 1));
+        cache.plan(db, table, createRequest("u1", new TUniqueId(2, 2), 2));
+        Assert.assertEquals(2, numPlanned);
+        Assert.assertEquals(0, cache.size());
+
+        // a plan without the global dicts is not reused once a dict of the table is created
+        useGlobalDict = false;
+        cache.plan(db, table, createRequest("u1", new TUniqueId(3, 3), 3));
+        Assert.assertEquals(3, numPlanned);
+        Assert.assertEquals(1, cache.size());
+        boolean useMockDictManager = FeConstants.USE_MOCK_DICT_MANAGER;
+        FeConstants.USE_MOCK_DICT_MANAGER = true;
+        try {
+            cache.plan(db, table, createRequest("u1", new TUniqueId(4, 4), 4));
+            Assert.assertEquals(4, numPlanned);
+        } finally {
+            FeConstants.USE_MOCK_DICT_MANAGER = useMockDictManager;
+        }
+    }
+}
@@ -35,6 +35,7 @@ import com.starrocks.plugin.AuditEvent.AuditEventBuilder;
 import com.starrocks.proto.PQueryStatistics;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.thrift.TUniqueId;
+import mockit.Delegate;
 import mockit.Expectations;
 import mockit.Mocked;
 import org.junit.Assert;
@@ -425,6 +426,68 @@ public class ConnectProcessorTest {
         Assert.assertTrue(myContext.getState().toResponsePacket() instanceof MysqlErrPacket);
     }
 
+    @Test
+    public void testQuerySuspended(@Mocked StmtExecutor executor) throws Exception {
+        ConnectContext ctx = initMockContext(mockChannel(queryPacket), AccessTestUtil.fetchAdminCatalog());
+
+        ConnectProcessor processor = new ConnectProcessor(ctx);
+        processor.setSuspendable(true);
+
+        // the query is suspended by execute and the first resume, and finished by the second resume
+        boolean[] suspended = {false};
+        int[] resumes = {0};
+        int[] audits = {0};
+        new Expectations() {
+            {
+                executor.execute();
+                result = new Delegate() {
+                    void execute() {
+                        suspended[0] = true;
+                    }
+                };
+
+                executor.resume();
+                result = new Delegate() {
+                    void resume() {
+                        resumes[0]++;
+                        suspended[0] = resumes[0] < 2;
+                    }
+                };
+
+                executor.isSuspended();
+                minTimes = 0;
+                result = new Delegate() {
+                    boolean isSuspended() {
+                        return suspended[0];
+                    }
+                };
+
+                executor.getQueryStatisticsForAuditLog();
+                minTimes = 0;
+                result = new Delegate() {
+                    PQueryStatistics getQueryStatisticsForAuditLog() {
+                        audits[0]++;
+                        return statistics;
+                    }
+                };
+            }
+        };
+
+        processor.processOnce();
+        Assert.assertEquals(MysqlCommand.COM_QUERY, myContext.getCommand());
+        Assert.assertTrue(processor.isSuspended());
+        Assert.assertEquals(0, audits[0]);
+
+        processor.resumeOnce();
+        Assert.assertTrue(processor.isSuspended());
+        Assert.assertEquals(0, audits[0]);
+
+        processor.resumeOnce();
+        Assert.assertFalse(processor.isSuspended());
+        Assert.assertEquals(1, audits[0]);
+        Assert.assertEquals(MysqlCommand.COM_SLEEP, ctx.getCommand());
+    }
+
     @Test
     public void testFieldList() throws Exception {
         ConnectContext ctx = initMockContext(mockChannel(fieldListPacket), AccessTestUtil.fetchAdminCatalog());
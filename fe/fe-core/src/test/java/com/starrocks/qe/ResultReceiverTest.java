@@ -0,0 +1,127 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.qe;
+
+import com.google.common.collect.Lists;
+import com.starrocks.common.Status;
+import com.starrocks.proto.PFetchDataResult;
+import com.starrocks.proto.PQueryStatistics;
+import com.starrocks.proto.StatusPB;
+import com.starrocks.rpc.BackendServiceProxy;
+import com.starrocks.rpc.PFetchDataRequest;
+import com.starrocks.thrift.TNetworkAddress;
+import com.starrocks.thrift.TResultBatch;
+import com.starrocks.thrift.TUniqueId;
+import mockit.Mock;
+import mockit.MockUp;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ResultReceiverTest {
+    // the fetches sent, only the first one is answered
+    private final List<CompletableFuture<PFetchDataResult>> fetches = Lists.newArrayList();
+
+    @Before
+    public void setUp() {
+        fetches.clear();
+        new MockUp<BackendServiceProxy>() {
+            @Mock
+            public Future<PFetchDataResult> fetchDataAsync(TNetworkAddress address, PFetchDataRequest request)
+                    throws TException {
+                CompletableFuture<PFetchDataResult> future = new CompletableFuture<>();
+                if (fetches.isEmpty()) {
+                    TResultBatch batch = new TResultBatch(Lists.newArrayList(ByteBuffer.wrap(new byte[] {1})),
+                            false, 0);
+                    request.setSerializedResult(new TSerializer().serialize(batch));
+                    future.complete(newResult(0));
+                }
+                fetches.add(future);
+                return future;
+            }
+        };
+    }
+
+    private static PFetchDataResult newResult(long packetSeq) {
+        PFetchDataResult result = new PFetchDataResult();
+        StatusPB status = new StatusPB();
+        status.statusCode = 0;
+        result.status = status;
+        result.packetSeq = packetSeq;
+        result.eos = false;
+        PQueryStatistics statistics = new PQueryStatistics();
+        statistics.scanRows = 0L;
+        statistics.scanBytes = 0L;
+        result.queryStatistics = statistics;
+        return result;
+    }
+
+    @Test
+    public void testCancelPrefetch() throws Exception {
+        ResultReceiver receiver = new ResultReceiver(new TUniqueId(1, 2), 1L,
+                new TNetworkAddress("127.0.0.1", 8060), 10000);
+        Status status = new Status();
+        RowBatch batch = receiver.getNext(status);
+        Assert.assertTrue(status.ok());
+        Assert.assertFalse(batch.isEos());
+        Assert.assertEquals(1, batch.getBatch().getRowsSize());
+        // the next batch is fetched once the current one arrives
+        Assert.assertEquals(2, fetches.size());
+        Assert.assertFalse(fetches.get(1).isCancelled());
+
+        receiver.cancel();
+        Assert.assertTrue(fetches.get(1).isCancelled());
+        // nothing is fetched after the cancel
+        receiver.getNext(status);
+        Assert.assertTrue(status.isCancelled());
+        Assert.assertEquals(2, fetches.size());
+    }
+
+    @Test
+    public void testWhenNextReady() throws Exception {
+        ResultReceiver receiver = new ResultReceiver(new TUniqueId(1, 2), 1L,
+                new TNetworkAddress("127.0.0.1", 8060), 10000);
+        // the first fetch is sent and answered at once
+        Assert.assertTrue(receiver.whenNextReady().isDone());
+        Assert.assertEquals(1, fetches.size());
+        Status status = new Status();
+        RowBatch batch = receiver.getNext(status);
+        Assert.assertTrue(status.ok());
+        Assert.assertEquals(1, batch.getBatch().getRowsSize());
+
+        // waits on the prefetched fetch without sending another one
+        CompletableFuture<Void> wait = receiver.whenNextReady();
+        Assert.assertFalse(wait.isDone());
+        Assert.assertEquals(2, fetches.size());
+        PFetchDataResult result = newResult(1);
+        result.eos = true;
+        fetches.get(1).complete(result);
+        wait.get(10, TimeUnit.SECONDS);
+
+        receiver.getNext(status);
+        Assert.assertTrue(status.ok());
+        // nothing is fetched after the eos
+        Assert.assertEquals(2, fetches.size());
+        Assert.assertTrue(receiver.whenNextReady().isDone());
+    }
+
+    @Test
+    public void testWhenNextReadyTimeout() throws Exception {
+        ResultReceiver receiver = new ResultReceiver(new TUniqueId(1, 2), 1L,
+                new TNetworkAddress("127.0.0.1", 8060), 500);
+        receiver.getNext(new Status());
+        // the wait ends with the query, and getNext reports the timeout
+        CompletableFuture<Void> wait = receiver.whenNextReady();
+        Assert.assertFalse(wait.isDone());
+        wait.get(10, TimeUnit.SECONDS);
+        Assert.assertFalse(fetches.get(1).isDone());
+    }
+}
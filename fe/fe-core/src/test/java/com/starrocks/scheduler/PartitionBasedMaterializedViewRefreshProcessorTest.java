@@ -0,0 +1,400 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.scheduler;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.starrocks.analysis.AlterTableStmt;
+import com.starrocks.analysis.DropMaterializedViewStmt;
+import com.starrocks.analysis.RecoverTableStmt;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.MaterializedIndex;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.catalog.PartitionKey;
+import com.starrocks.catalog.RangePartitionInfo;
+import com.starrocks.catalog.Tablet;
+import com.starrocks.common.Config;
+import com.starrocks.common.DdlException;
+import com.starrocks.common.FeConstants;
+import com.starrocks.common.Status;
+import com.starrocks.load.loadv2.LoadJob;
+import com.starrocks.persist.ChangeMaterializedViewRefreshSchemeLog;
+import com.starrocks.qe.ConnectContext;
+import com.starrocks.qe.Coordinator;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.task.LoadEtlTask;
+import com.starrocks.thrift.TTabletCommitInfo;
+import com.starrocks.utframe.StarRocksAssert;
+import com.starrocks.utframe.UtFrameUtils;
+import mockit.Deencapsulation;
+import mockit.Invocation;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class PartitionBasedMaterializedViewRefreshProcessorTest {
+    private static ConnectContext connectContext;
+    private static StarRocksAssert starRocksAssert;
+    private static Database db;
+
+    // the statements run by the refresh
+    private static final List<String> EXECUTED = Collections.synchronizedList(Lists.newArrayList());
+    // the statement containing it fails
+    private static String failedSql = null;
+    // whether the statements are executed, or only recorded
+    private static boolean executeStatements = false;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        FeConstants.runningUnitTest = true;
+        Config.enable_experimental_mv = true;
+        UtFrameUtils.createMinStarRocksCluster();
+        connectContext = UtFrameUtils.createDefaultCtx();
+        starRocksAssert = new StarRocksAssert(connectContext);
+        // the views are refreshed by the tests
+        new MockUp<TaskManager>() {
+            @Mock
+            public SubmitResult executeTask(String taskName) {
+                return null;
+            }
+        };
+        new MockUp<PartitionBasedMaterializedViewRefreshProcessor>() {
+            @Mock
+            public void execute(Invocation invocation, ConnectContext parent, String sql) throws Exception {
+                if (failedSql != null && sql.contains(failedSql)) {
+                    throw new DdlException("failed to execute " + sql);
+                }
+                EXECUTED.add(sql);
+                if (executeStatements) {
+                    invocation.proceed(parent, sql);
+                }
+            }
+        };
+
+        starRocksAssert.withDatabase("test").useDatabase("test")
+                .withTable("CREATE TABLE test.tbl1\n" +
+                        "(\n" +
+                        "    k1 date,\n" +
+                        "    k2 int,\n" +
+                        "    v1 int\n" +
+                        ")\n" +
+                        "DUPLICATE KEY(k1, k2)\n" +
+                        "PARTITION BY RANGE(k1)\n" +
+                        "(\n" +
+                        "    PARTITION p1 VALUES [('2022-01-01'), ('2022-01-16')),\n" +
+                        "    PARTITION p2 VALUES [('2022-01-16'), ('2022-02-01')),\n" +
+                        "    PARTITION p3 VALUES [('2022-02-01'), ('2022-03-01')),\n" +
+                        "    PARTITION p4 VALUES [('2022-03-01'), ('2022-03-10'))\n" +
+                        ")\n" +
+                        "DISTRIBUTED BY HASH(k2) BUCKETS 3\n" +
+                        "PROPERTIES('replication_num' = '1');");
+        // a view for each test, they are refreshed independently
+        for (String mvName : new String[] {"mv_refresh", "mv_failed", "mv_replay", "mv_execute"}) {
+            starRocksAssert.withNewMaterializedView("create materialized view " + mvName + " " +
+                    "partition by date_trunc('month', k1) " +
+                    "distributed by hash(k2) " +
+                    "refresh async START('2122-12-31') EVERY(INTERVAL 1 HOUR) " +
+                    "PROPERTIES ('replication_num' = '1') " +
+                    "as select k1, k2, v1 from tbl1;");
+        }
+        db = GlobalStateMgr.getCurrentState().getDb("default_cluster:test");
+    }
+
+    @Before
+    public void setUp() {
+        EXECUTED.clear();
+        failedSql = null;
+        executeStatements = false;
+    }
+
+    private static void alterTable(String sql) throws Exception {
+        AlterTableStmt stmt = (AlterTableStmt) UtFrameUtils.parseAndAnalyzeStmt(sql, connectContext);
+        GlobalStateMgr.getCurrentState().alterTable(stmt);
+    }
+
+    private static void refresh(MaterializedView mv) throws Exception {
+        Map<String, String> properties = Maps.newHashMap();
+        properties.put(PartitionBasedMaterializedViewRefreshProcessor.MV_ID, String.valueOf(mv.getId()));
+        TaskRunContext context = new TaskRunContext();
+        context.setCtx(connectContext);
+        context.setProperties(properties);
+        new PartitionBasedMaterializedViewRefreshProcessor().processTaskRun(context);
+    }
+
+    private static Map<String, String> getRanges(OlapTable table) {
+        RangePartitionInfo partitionInfo = (RangePartitionInfo) table.getPartitionInfo();
+        Map<String, String> ranges = Maps.newTreeMap();
+        for (Partition partition : table.getPartitions()) {
+            Range<PartitionKey> range = partitionInfo.getRange(partition.getId());
+            ranges.put(partition.getName(), range.lowerEndpoint().getKeys().get(0).getStringValue() + "~" +
+                    range.upperEndpoint().getKeys().get(0).getStringValue());
+        }
+        return ranges;
+    }
+
+    private static List<String> getTempPartitionNames(OlapTable table) {
+        return table.getTempPartitions().stream().map(Partition::getName).collect(Collectors.toList());
+    }
+
+    private static void loadPartition(String partitionName) {
+        Partition partition = ((OlapTable) db.getTable("tbl1")).getPartition(partitionName);
+        partition.setVisibleVersion(partition.getVisibleVersion() + 1, System.currentTimeMillis());
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        MaterializedView mv = (MaterializedView) db.getTable("mv_refresh");
+
+        // the ranges of the base table are rounded to months
+        refresh(mv);
+        Map<String, String> expected = Maps.newTreeMap();
+        expected.put("p20220101", "2022-01-01~2022-02-01");
+        expected.put("p20220201", "2022-02-01~2022-03-01");
+        expected.put("p20220301", "2022-03-01~2022-04-01");
+        Assert.assertEquals(expected, getRanges(mv));
+        Assert.assertEquals(3, EXECUTED.size());
+        Assert.assertTrue(getTempPartitionNames(mv).isEmpty());
+        long lastRefreshTime = mv.getRefreshScheme().getLastRefreshTime();
+        Assert.assertTrue(lastRefreshTime > 0);
+        Assert.assertTrue(mv.isFresh());
+
+        // nothing is changed
+        EXECUTED.clear();
+        refresh(mv);
+        Assert.assertTrue(EXECUTED.isEmpty());
+        Assert.assertEquals(expected, getRanges(mv));
+
+        // only the partition covering the loaded partition is rebuilt
+        loadPartition("p2");
+        Assert.assertFalse(mv.isFresh());
+        long partitionId = mv.getPartition("p20220101").getId();
+        refresh(mv);
+        Assert.assertEquals(1, EXECUTED.size());
+        Assert.assertTrue(EXECUTED.get(0), EXECUTED.get(0).contains("`k1` >= '2022-01-01'"));
+        Assert.assertTrue(EXECUTED.get(0), EXECUTED.get(0).contains("`k1` < '2022-02-01'"));
+        Assert.assertTrue(EXECUTED.get(0),
+                EXECUTED.get(0).contains("TEMPORARY PARTITION (`tp_" + partitionId + "`)"));
+        // replaced by the temporary partition
+        Assert.assertNotEquals(partitionId, mv.getPartition("p20220101").getId());
+        Assert.assertTrue(getTempPartitionNames(mv).isEmpty());
+        Assert.assertTrue(mv.isFresh());
+
+        // the partition covering a dropped partition is dropped without rebuilding
+        EXECUTED.clear();
+        alterTable("ALTER TABLE tbl1 DROP PARTITION p4");
+        refresh(mv);
+        expected.remove("p20220301");
+        Assert.assertEquals(expected, getRanges(mv));
+        Assert.assertTrue(EXECUTED.isEmpty());
+
+        // the partition covering an added partition is added and built
+        alterTable("ALTER TABLE tbl1 ADD PARTITION p5 VALUES [('2022-04-01'), ('2022-04-05'))");
+        refresh(mv);
+        expected.put("p20220401", "2022-04-01~2022-05-01");
+        Assert.assertEquals(expected, getRanges(mv));
+        Assert.assertEquals(1, EXECUTED.size());
+        Assert.assertTrue(EXECUTED.get(0), EXECUTED.get(0).contains("`k1` >= '2022-04-01'"));
+        Assert.assertTrue(mv.getRefreshScheme().getLastRefreshTime() >= lastRefreshTime);
+    }
+
+    @Test
+    public void testRefreshFailed() throws Exception {
+        MaterializedView mv = (MaterializedView) db.getTable("mv_failed");
+        refresh(mv);
+        MaterializedView.MvRefreshScheme refreshScheme = mv.getRefreshScheme();
+        long partitionId = mv.getPartition("p20220201").getId();
+
+        loadPartition("p3");
+        failedSql = "2022-02-01";
+        try {
+            refresh(mv);
+            Assert.fail("the refresh should fail");
+        } catch (DdlException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("failed to execute"));
+        }
+        // the temporary partition is dropped, and the partition and the refresh scheme are kept
+        Assert.assertTrue(getTempPartitionNames(mv).isEmpty());
+        Assert.assertEquals(partitionId, mv.getPartition("p20220201").getId());
+        Assert.assertSame(refreshScheme, mv.getRefreshScheme());
+        Assert.assertFalse(mv.isFresh());
+
+        failedSql = null;
+        refresh(mv);
+        Assert.assertTrue(mv.isFresh());
+    }
+
+    @Test
+    public void testReplayRefreshScheme() throws Exception {
+        MaterializedView mv = (MaterializedView) db.getTable("mv_replay");
+        refresh(mv);
+        MaterializedView.MvRefreshScheme refreshScheme = mv.getRefreshScheme();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ChangeMaterializedViewRefreshSchemeLog(mv).write(new DataOutputStream(bytes));
+        ChangeMaterializedViewRefreshSchemeLog log = ChangeMaterializedViewRefreshSchemeLog.read(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        Assert.assertEquals(mv.getId(), log.getId());
+        Assert.assertEquals(db.getId(), log.getDbId());
+
+        mv.setRefreshScheme(new MaterializedView.MvRefreshScheme());
+        Assert.assertFalse(mv.isFresh());
+        GlobalStateMgr.getCurrentState().replayChangeMaterializedViewRefreshScheme(log);
+        Assert.assertEquals(refreshScheme.getLastRefreshTime(), mv.getRefreshScheme().getLastRefreshTime());
+        Assert.assertEquals(refreshScheme.getAsyncRefreshContext().baseTableVisibleVersionMap,
+                mv.getRefreshScheme().getAsyncRefreshContext().baseTableVisibleVersionMap);
+        Assert.assertTrue(mv.isFresh());
+    }
+
+    @Test
+    public void testRefreshExecuted() throws Exception {
+        MaterializedView mv = (MaterializedView) db.getTable("mv_execute");
+        // the temporary partitions loaded by the statements
+        List<Long> loadedPartitionIds = Collections.synchronizedList(Lists.newArrayList());
+        // the fragments are not sent to the backends, they load every tablet of the temporary partition
+        new MockUp<Coordinator>() {
+            @Mock
+            public void exec() {
+            }
+
+            @Mock
+            public boolean join(int timeoutS) {
+                return true;
+            }
+
+            @Mock
+            public boolean isDone() {
+                return true;
+            }
+
+            @Mock
+            public Status getExecStatus() {
+                return Status.OK;
+            }
+
+            @Mock
+            public Map<String, String> getLoadCounters() {
+                Map<String, String> counters = Maps.newHashMap();
+                counters.put(LoadEtlTask.DPP_NORMAL_ALL, "1");
+                counters.put(LoadEtlTask.DPP_ABNORMAL_ALL, "0");
+                counters.put(LoadJob.LOADED_BYTES, "1");
+                return counters;
+            }
+
+            @Mock
+            public List<TTabletCommitInfo> getCommitInfos() {
+                List<TTabletCommitInfo> commitInfos = Lists.newArrayList();
+                for (Partition partition : mv.getTempPartitions()) {
+                    loadedPartitionIds.add(partition.getId());
+                    for (MaterializedIndex index : partition.getMaterializedIndices(
+                            MaterializedIndex.IndexExtState.VISIBLE)) {
+                        for (Tablet tablet : index.getTablets()) {
+                            for (long backendId : tablet.getBackendIds()) {
+                                commitInfos.add(new TTabletCommitInfo(tablet.getId(), backendId));
+                            }
+                        }
+                    }
+                }
+                return commitInfos;
+            }
+        };
+
+        int concurrency = Config.mv_refresh_partition_concurrency;
+        long visibleWaitTimeout = connectContext.getSessionVariable().getTransactionVisibleWaitTimeout();
+        // one temporary partition at a time, the transactions are committed but not published
+        Config.mv_refresh_partition_concurrency = 1;
+        Deencapsulation.setField(connectContext.getSessionVariable(), "transactionVisibleWaitTimeout", 0L);
+        executeStatements = true;
+        try {
+            refresh(mv);
+        } finally {
+            Config.mv_refresh_partition_concurrency = concurrency;
+            Deencapsulation.setField(connectContext.getSessionVariable(), "transactionVisibleWaitTimeout",
+                    visibleWaitTimeout);
+        }
+
+        Assert.assertEquals(3, EXECUTED.size());
+        Assert.assertEquals(3, loadedPartitionIds.size());
+        Assert.assertTrue(getTempPartitionNames(mv).isEmpty());
+        // each partition is replaced by the loaded temporary partition
+        for (Partition partition : mv.getPartitions()) {
+            Assert.assertTrue(partition.getName(), loadedPartitionIds.contains(partition.getId()));
+            Assert.assertEquals(partition.getVisibleVersion() + 2, partition.getNextVersion());
+        }
+        Assert.assertTrue(mv.isFresh());
+    }
+
+    @Test
+    public void testRefreshTask() throws Exception {
+        starRocksAssert.withNewMaterializedView("create materialized view mv_task " +
+                "partition by date_trunc('month', k1) " +
+                "distributed by hash(k2) " +
+                "refresh async START('2122-12-31 10:00:00') EVERY(INTERVAL 2 DAY) " +
+                "PROPERTIES ('replication_num' = '1') " +
+                "as select k1, k2, v1 from tbl1;");
+        MaterializedView mv = (MaterializedView) db.getTable("mv_task");
+        TaskManager taskManager = GlobalStateMgr.getCurrentState().getTaskManager();
+        String taskName = TaskBuilder.getMvTaskName(mv.getId());
+        Task task = taskManager.getTask(taskName);
+        long startTime = LocalDateTime.of(2122, 12, 31, 10, 0).atZone(ZoneId.systemDefault()).toInstant()
+                .toEpochMilli();
+        Assert.assertEquals(startTime, task.getSchedule().getStartTime());
+        Assert.assertEquals(2, task.getSchedule().getPeriod());
+        Assert.assertEquals(ChronoUnit.DAYS, task.getSchedule().getTimeUnit());
+
+        // the schedule is kept by the refresh
+        refresh(mv);
+        MaterializedView.AsyncRefreshContext refreshContext = mv.getRefreshScheme().getAsyncRefreshContext();
+        Assert.assertEquals(startTime, refreshContext.startTime);
+        Assert.assertEquals(2, refreshContext.step);
+        Assert.assertEquals("DAY", refreshContext.timeUnit);
+
+        // the task is dropped with the view, and created by the schedule again when the view is recovered
+        GlobalStateMgr.getCurrentState().dropMaterializedView((DropMaterializedViewStmt) UtFrameUtils
+                .parseStmtWithNewParser("drop materialized view mv_task", connectContext));
+        Assert.assertNull(db.getTable("mv_task"));
+        Assert.assertNull(taskManager.getTask(taskName));
+        GlobalStateMgr.getCurrentState().recoverTable((RecoverTableStmt) UtFrameUtils
+                .parseAndAnalyzeStmt("recover table mv_task", connectContext));
+        task = taskManager.getTask(taskName);
+        Assert.assertEquals(startTime, task.getSchedule().getStartTime());
+        Assert.assertEquals(2, task.getSchedule().getPeriod());
+
+        // the replay of the drop drops the task too
+        GlobalStateMgr.getCurrentState().replayDropTable(db, mv.getId(), true);
+        Assert.assertNull(db.getTable("mv_task"));
+        Assert.assertNull(taskManager.getTask(taskName));
+    }
+
+    @Test
+    public void testUnpartitionedView() throws Exception {
+        try {
+            starRocksAssert.withNewMaterializedView("create materialized view mv_unpartitioned " +
+                    "distributed by hash(k2) " +
+                    "refresh async START('2122-12-31') EVERY(INTERVAL 1 HOUR) " +
+                    "PROPERTIES ('replication_num' = '1') " +
+                    "as select k1, k2, v1 from tbl1;");
+            Assert.fail("the view must be partitioned");
+        } catch (DdlException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("must be partitioned"));
+        }
+        Assert.assertNull(db.getTable("mv_unpartitioned"));
+    }
+}
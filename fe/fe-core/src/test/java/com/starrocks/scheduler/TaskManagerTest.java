@@ -2,6 +2,8 @@
 
 package com.starrocks.scheduler;
 
+import com.google.common.collect.Lists;
+import com.starrocks.analysis.UserIdentity;
 import com.starrocks.common.FeConstants;
 import com.starrocks.common.util.UUIDUtil;
 import com.starrocks.qe.ConnectContext;
@@ -19,7 +21,11 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Queue;
 
 public class TaskManagerTest {
 
@@ -94,4 +100,64 @@ public class TaskManagerTest {
 
     }
 
+    @Test
+    public void testPeriodicalTask() throws Exception {
+        // not started, the runs are only submitted by the test
+        TaskManager taskManager = new TaskManager();
+        long startTime = System.currentTimeMillis() + 3600 * 1000L;
+        Task task = new Task();
+        task.setId(200L);
+        task.setName("periodical_task");
+        task.setCreateTime(System.currentTimeMillis());
+        task.setDbName("default_cluster:test");
+        task.setDefinition("select 1");
+        task.setSchedule(new TaskSchedule(startTime, 1, ChronoUnit.HOURS));
+        taskManager.createTask(task, true);
+        Assert.assertSame(task, taskManager.getTask("periodical_task"));
+
+        taskManager.schedulePeriodicalTasks(startTime - 1);
+        Assert.assertNull(taskManager.getTaskRunManager().getPendingTaskRunMap().get(task.getId()));
+
+        taskManager.schedulePeriodicalTasks(startTime);
+        Queue<TaskRun> pendingTaskRuns = taskManager.getTaskRunManager().getPendingTaskRunMap().get(task.getId());
+        Assert.assertEquals(1, pendingTaskRuns.size());
+        // runs as root without the context of a connection
+        Assert.assertEquals(UserIdentity.ROOT, pendingTaskRuns.peek().getCtx().getCurrentUserIdentity());
+        taskManager.schedulePeriodicalTasks(startTime + 1000L);
+        Assert.assertEquals(1, pendingTaskRuns.size());
+
+        // the next run is skipped while the last one is pending
+        taskManager.schedulePeriodicalTasks(startTime + 3600 * 1000L);
+        Assert.assertEquals(1, pendingTaskRuns.size());
+        pendingTaskRuns.poll();
+        taskManager.schedulePeriodicalTasks(startTime + 3600 * 1000L + 1000L);
+        Assert.assertTrue(pendingTaskRuns.isEmpty());
+        taskManager.schedulePeriodicalTasks(startTime + 2 * 3600 * 1000L);
+        Assert.assertEquals(1, pendingTaskRuns.size());
+        pendingTaskRuns.poll();
+
+        // the dropped task doesn't run any more
+        taskManager.dropTasks(Lists.newArrayList(task.getId()), true);
+        Assert.assertNull(taskManager.getTask("periodical_task"));
+        taskManager.schedulePeriodicalTasks(startTime + 3 * 3600 * 1000L);
+        Assert.assertTrue(pendingTaskRuns.isEmpty());
+    }
+
+    @Test
+    public void testTaskScheduleNextRunTime() {
+        ZoneId zone = ZoneId.systemDefault();
+        long startTime = LocalDateTime.of(2022, 1, 31, 10, 0).atZone(zone).toInstant().toEpochMilli();
+        TaskSchedule schedule = new TaskSchedule(startTime, 1, ChronoUnit.MONTHS);
+        Assert.assertEquals(startTime, schedule.getNextRunTime(startTime - 1000L));
+        Assert.assertEquals(startTime, schedule.getNextRunTime(startTime));
+        // counted from the start time in the calendar
+        Assert.assertEquals(LocalDateTime.of(2022, 2, 28, 10, 0).atZone(zone).toInstant().toEpochMilli(),
+                schedule.getNextRunTime(startTime + 1000L));
+        Assert.assertEquals(LocalDateTime.of(2022, 3, 31, 10, 0).atZone(zone).toInstant().toEpochMilli(),
+                schedule.getNextRunTime(LocalDateTime.of(2022, 3, 1, 0, 0).atZone(zone).toInstant().toEpochMilli()));
+
+        schedule = new TaskSchedule(startTime, 30, ChronoUnit.MINUTES);
+        Assert.assertEquals(startTime + 2 * 30 * 60 * 1000L, schedule.getNextRunTime(startTime + 31 * 60 * 1000L));
+        Assert.assertEquals(startTime + 30 * 60 * 1000L, schedule.getNextRunTime(startTime + 30 * 60 * 1000L));
+    }
 }
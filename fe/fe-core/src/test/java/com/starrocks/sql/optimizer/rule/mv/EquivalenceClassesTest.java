@@ -0,0 +1,36 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.sql.optimizer.rule.mv;
+
+import com.starrocks.catalog.Type;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ScalarOperator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EquivalenceClassesTest {
+    @Test
+    public void testEquivalence() {
+        ColumnRefOperator a = new ColumnRefOperator(1, Type.INT, "a", true);
+        ColumnRefOperator b = new ColumnRefOperator(2, Type.INT, "b", true);
+        ColumnRefOperator c = new ColumnRefOperator(3, Type.INT, "c", true);
+        ColumnRefOperator d = new ColumnRefOperator(4, Type.INT, "d", true);
+
+        EquivalenceClasses classes = new EquivalenceClasses();
+        classes.addEquivalence(c, b);
+        classes.addEquivalence(b, a);
+
+        Assert.assertTrue(classes.isEquivalent(a, c));
+        Assert.assertFalse(classes.isEquivalent(a, d));
+        Assert.assertEquals(a, classes.find(c));
+        Assert.assertEquals(d, classes.find(d));
+
+        ScalarOperator predicate = BinaryPredicateOperator.ge(c, ConstantOperator.createInt(1));
+        Assert.assertEquals(BinaryPredicateOperator.ge(a, ConstantOperator.createInt(1)),
+                classes.normalize(predicate));
+        // the original predicate is not changed
+        Assert.assertEquals(c, predicate.getChild(0));
+    }
+}
@@ -0,0 +1,141 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.sql.optimizer.statistics;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.starrocks.analysis.TupleDescriptor;
+import com.starrocks.analysis.TupleId;
+import com.starrocks.catalog.Column;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Table;
+import com.starrocks.catalog.Type;
+import com.starrocks.common.Config;
+import com.starrocks.common.util.RuntimeProfile;
+import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.PlanNodeId;
+import com.starrocks.planner.RuntimeFilterDescription;
+import com.starrocks.qe.SessionVariable;
+import com.starrocks.sql.optimizer.operator.scalar.BinaryPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ColumnRefOperator;
+import com.starrocks.sql.optimizer.operator.scalar.CompoundPredicateOperator;
+import com.starrocks.sql.optimizer.operator.scalar.ConstantOperator;
+import com.starrocks.thrift.TUnit;
+import mockit.Deencapsulation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class CardinalityFeedbackTest {
+    @After
+    public void tearDown() {
+        CardinalityFeedback.getInstance().clear();
+    }
+
+    @Test
+    public void testScanKey() {
+        Table table = new Table(1L, "t0", Table.TableType.OLAP, Lists.newArrayList());
+        ColumnRefOperator v1 = new ColumnRefOperator(1, Type.INT, "v1", true);
+        ColumnRefOperator v2 = new ColumnRefOperator(2, Type.INT, "v2", true);
+        Map<ColumnRefOperator, Column> columns = Maps.newHashMap();
+        columns.put(v1, new Column("v1", Type.INT));
+        columns.put(v2, new Column("v2", Type.INT));
+
+        String key1 = CardinalityFeedback.getScanKey(table, new CompoundPredicateOperator(
+                CompoundPredicateOperator.CompoundType.AND,
+                BinaryPredicateOperator.eq(v1, ConstantOperator.createInt(1)),
+                BinaryPredicateOperator.ge(v2, ConstantOperator.createInt(10))), columns);
+        String key2 = CardinalityFeedback.getScanKey(table, new CompoundPredicateOperator(
+                CompoundPredicateOperator.CompoundType.AND,
+                BinaryPredicateOperator.ge(v2, ConstantOperator.createInt(20)),
+                BinaryPredicateOperator.eq(v1, ConstantOperator.createInt(2))), columns);
+        Assert.assertEquals(key1, key2);
+
+        String key3 = CardinalityFeedback.getScanKey(table,
+                BinaryPredicateOperator.eq(v2, ConstantOperator.createInt(1)), columns);
+        Assert.assertNotEquals(key1, key3);
+        Assert.assertNull(CardinalityFeedback.getScanKey(table, null, columns));
+    }
+
+    @Test
+    public void testRecord() {
+        CardinalityFeedback feedback = CardinalityFeedback.getInstance();
+        Assert.assertEquals(1, feedback.getFactor("k"), 0.001);
+
+        feedback.record("k", 99, 999);
+        Assert.assertEquals(10, feedback.getFactor("k"), 0.001);
+        // the former ratio decays
+        feedback.record("k", 99, 99);
+        Assert.assertEquals(Math.sqrt(10), feedback.getFactor("k"), 0.001);
+    }
+
+    private static OlapScanNode newScanNode(int id, String key, long cardinality) {
+        TupleDescriptor desc = new TupleDescriptor(new TupleId(id));
+        desc.setTable(new OlapTable());
+        OlapScanNode scanNode = new OlapScanNode(new PlanNodeId(id), desc, "OlapScanNode");
+        scanNode.setCardinalityFeedback(key, 1, cardinality);
+        Deencapsulation.setField(scanNode, "cardinality", cardinality);
+        return scanNode;
+    }
+
+    private static RuntimeProfile newScanProfile(int id, long rowsReturned) {
+        RuntimeProfile profile = new RuntimeProfile("OLAP_SCAN_NODE (id=" + id + ")");
+        profile.addCounter("RowsReturned", TUnit.UNIT).setValue(rowsReturned);
+        return profile;
+    }
+
+    @Test
+    public void testCollect() {
+        OlapScanNode scanNode = newScanNode(0, "k0", 99);
+        // the rows are also filtered by the runtime filters of the join
+        OlapScanNode filteredScanNode = newScanNode(1, "k1", 99);
+        filteredScanNode.getProbeRuntimeFilters().add(new RuntimeFilterDescription(new SessionVariable()));
+
+        RuntimeProfile queryProfile = new RuntimeProfile("Query");
+        RuntimeProfile fragmentProfile = new RuntimeProfile("Fragment 1");
+        queryProfile.addChild(fragmentProfile);
+        fragmentProfile.addChild(newScanProfile(0, 999));
+        fragmentProfile.addChild(newScanProfile(1, 9));
+
+        CardinalityFeedback feedback = CardinalityFeedback.getInstance();
+        feedback.collect(Lists.newArrayList(scanNode, filteredScanNode), queryProfile);
+        Assert.assertEquals(10, feedback.getFactor("k0"), 0.001);
+        Assert.assertEquals(1, feedback.getFactor("k1"), 0.001);
+        Assert.assertEquals(1, feedback.size());
+    }
+
+    @Test
+    public void testCollectCorrectedScan() {
+        // the estimate of 99 rows was corrected by 10, and bounded by the 500 rows of the table
+        OlapScanNode scanNode = newScanNode(0, "k0", 500);
+        scanNode.setCardinalityFeedback("k0", 10, 99);
+
+        RuntimeProfile queryProfile = new RuntimeProfile("Query");
+        queryProfile.addChild(newScanProfile(0, 999));
+
+        // the actual rows are compared with the estimate before the correction
+        CardinalityFeedback feedback = CardinalityFeedback.getInstance();
+        feedback.collect(Lists.newArrayList(scanNode), queryProfile);
+        Assert.assertEquals(10, feedback.getFactor("k0"), 0.001);
+    }
+
+    @Test
+    public void testEvict() {
+        int maxEntries = Config.cardinality_feedback_max_entries;
+        Config.cardinality_feedback_max_entries = 2;
+        try {
+            CardinalityFeedback feedback = CardinalityFeedback.getInstance();
+            feedback.record("k1", 99, 999);
+            feedback.record("k2", 99, 999);
+            feedback.getFactor("k1");
+            feedback.record("k3", 99, 999);
+            Assert.assertEquals(2, feedback.size());
+            Assert.assertEquals(1, feedback.getFactor("k2"), 0.001);
+            Assert.assertEquals(10, feedback.getFactor("k1"), 0.001);
+        } finally {
+            Config.cardinality_feedback_max_entries = maxEntries;
+        }
+    }
+}
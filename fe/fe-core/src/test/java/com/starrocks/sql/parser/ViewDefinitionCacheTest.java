@@ -0,0 +1,38 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.sql.parser;
+
+import com.starrocks.analysis.StatementBase;
+import com.starrocks.qe.SqlModeHelper;
+import com.starrocks.sql.ast.QueryStatement;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ViewDefinitionCacheTest {
+    @Test
+    public void testParse() {
+        ViewDefinitionCache cache = ViewDefinitionCache.getInstance();
+        String definition = "SELECT `k1`, sum(`v1`) AS `s` FROM `db`.`t` WHERE `k2` > 1 GROUP BY `k1`";
+        long size = cache.size();
+
+        StatementBase stmt1 = cache.parse(10001L, definition, SqlModeHelper.MODE_DEFAULT);
+        StatementBase stmt2 = cache.parse(10001L, definition, SqlModeHelper.MODE_DEFAULT);
+        Assert.assertTrue(stmt1 instanceof QueryStatement);
+        Assert.assertTrue(stmt2 instanceof QueryStatement);
+        // a new statement is built for each query
+        Assert.assertNotSame(stmt1, stmt2);
+        Assert.assertNotSame(((QueryStatement) stmt1).getQueryRelation(), ((QueryStatement) stmt2).getQueryRelation());
+        Assert.assertEquals(size + 1, cache.size());
+
+        cache.parse(10001L, definition, SqlModeHelper.MODE_PIPES_AS_CONCAT);
+        Assert.assertEquals(size + 2, cache.size());
+
+        cache.invalidate(10001L);
+        Assert.assertEquals(size, cache.size());
+    }
+
+    @Test(expected = ParsingException.class)
+    public void testParseError() {
+        ViewDefinitionCache.getInstance().parse(10002L, "SELECT FROM WHERE", SqlModeHelper.MODE_DEFAULT);
+    }
+}
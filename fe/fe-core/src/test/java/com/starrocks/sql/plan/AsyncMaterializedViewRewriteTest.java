@@ -0,0 +1,203 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.Maps;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.MaterializedView;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.catalog.Partition;
+import com.starrocks.common.Config;
+import com.starrocks.scheduler.SubmitResult;
+import com.starrocks.scheduler.TaskManager;
+import com.starrocks.server.GlobalStateMgr;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class AsyncMaterializedViewRewriteTest extends PlanTestBase {
+    private static final String MV_PROPERTIES = "distributed by hash(k1) buckets 3 " +
+            "refresh async START('2122-12-31') EVERY(INTERVAL 1 HOUR) " +
+            "PROPERTIES (\"replication_num\" = \"1\") ";
+
+    private static boolean enableExperimentalMv;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        PlanTestBase.beforeClass();
+        enableExperimentalMv = Config.enable_experimental_mv;
+        Config.enable_experimental_mv = true;
+        // the views are refreshed by the tests
+        new MockUp<TaskManager>() {
+            @Mock
+            public SubmitResult executeTask(String taskName) {
+                return null;
+            }
+        };
+
+        for (String table : new String[] {"mv_t1", "mv_t3"}) {
+            starRocksAssert.withTable("CREATE TABLE `" + table + "` (\n" +
+                    "  `k1` int NULL,\n" +
+                    "  `k2` int NULL,\n" +
+                    "  `v1` bigint NULL\n" +
+                    ") ENGINE=OLAP\n" +
+                    "DUPLICATE KEY(`k1`, `k2`)\n" +
+                    "DISTRIBUTED BY HASH(`k1`) BUCKETS 3\n" +
+                    "PROPERTIES (\"replication_num\" = \"1\");");
+        }
+        for (String table : new String[] {"mv_t2", "mv_t4"}) {
+            starRocksAssert.withTable("CREATE TABLE `" + table + "` (\n" +
+                    "  `k1` int NULL,\n" +
+                    "  `v2` bigint NULL\n" +
+                    ") ENGINE=OLAP\n" +
+                    "DUPLICATE KEY(`k1`)\n" +
+                    "DISTRIBUTED BY HASH(`k1`) BUCKETS 3\n" +
+                    "PROPERTIES (\"replication_num\" = \"1\");");
+        }
+        Database db = GlobalStateMgr.getCurrentState().getDb("default_cluster:test");
+        for (String table : new String[] {"mv_t1", "mv_t2", "mv_t3", "mv_t4"}) {
+            setTableStatistics((OlapTable) db.getTable(table), 100000);
+        }
+
+        starRocksAssert.withNewMaterializedView("create materialized view mv_filter " + MV_PROPERTIES +
+                "as select k1, k2, v1 from mv_t1 where k1 > 10");
+        starRocksAssert.withNewMaterializedView("create materialized view mv_join " + MV_PROPERTIES +
+                "as select mv_t1.k1, mv_t1.v1, mv_t2.v2 from mv_t1 join mv_t2 on mv_t1.k1 = mv_t2.k1");
+        starRocksAssert.withNewMaterializedView("create materialized view mv_agg " + MV_PROPERTIES +
+                "as select k1, k2, sum(v1) as s, min(v1) as mn, max(v1) as mx, count(v1) as c " +
+                "from mv_t3 group by k1, k2");
+        starRocksAssert.withNewMaterializedView("create materialized view mv_limit " + MV_PROPERTIES +
+                "as select k1, v2 from mv_t4 limit 10");
+        for (String mv : new String[] {"mv_filter", "mv_join", "mv_agg", "mv_limit"}) {
+            refresh((MaterializedView) db.getTable(mv));
+        }
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        Config.enable_experimental_mv = enableExperimentalMv;
+        PlanTestBase.afterClass();
+    }
+
+    // record the current versions of the base tables as the refresh does
+    private static void refresh(MaterializedView mv) {
+        Database db = GlobalStateMgr.getCurrentState().getDb(mv.getDbId());
+        MaterializedView.AsyncRefreshContext context = mv.getRefreshScheme().getAsyncRefreshContext();
+        for (long tableId : mv.getBaseTableIds()) {
+            Map<Long, Long> versions = Maps.newHashMap();
+            for (Partition partition : ((OlapTable) db.getTable(tableId)).getPartitions()) {
+                versions.put(partition.getId(), partition.getVisibleVersion());
+            }
+            context.baseTableVisibleVersionMap.put(tableId, versions);
+        }
+        mv.getRefreshScheme().setLastRefreshTime(System.currentTimeMillis());
+    }
+
+    @Test
+    public void testPredicateCompensation() throws Exception {
+        String plan = getFragmentPlan("select k1, k2, v1 from mv_t1 where k1 > 20 and k2 = 3");
+        assertContains(plan, "TABLE: mv_filter");
+        assertContains(plan, "k1 > 20");
+        assertContains(plan, "k2 = 3");
+        assertNotContains(plan, "k1 > 10");
+
+        // the view has the same rows
+        plan = getFragmentPlan("select k1, v1 from mv_t1 where k1 > 10");
+        assertContains(plan, "TABLE: mv_filter");
+        assertNotContains(plan, "k1 > 10");
+    }
+
+    @Test
+    public void testPredicateNotSubsumed() throws Exception {
+        String plan = getFragmentPlan("select k1, k2, v1 from mv_t1 where k1 > 5");
+        assertNotContains(plan, "mv_filter");
+        assertContains(plan, "TABLE: mv_t1");
+
+        plan = getFragmentPlan("select k1, k2, v1 from mv_t1 where k2 > 20");
+        assertNotContains(plan, "mv_filter");
+    }
+
+    @Test
+    public void testAggregationRollup() throws Exception {
+        String plan = getFragmentPlan("select k1, sum(v1), min(v1), max(v1), count(v1) from mv_t3 group by k1");
+        assertContains(plan, "TABLE: mv_agg");
+        assertContains(plan, "sum(");
+        assertContains(plan, "min(");
+        assertContains(plan, "max(");
+        assertNotContains(plan, "count(");
+
+        plan = getFragmentPlan("select k1, k2, sum(v1) from mv_t3 where k2 = 1 group by k1, k2");
+        assertContains(plan, "TABLE: mv_agg");
+        assertContains(plan, "k2 = 1");
+    }
+
+    @Test
+    public void testCountWithoutGroupBy() throws Exception {
+        String plan = getFragmentPlan("select count(v1), sum(v1) from mv_t3");
+        assertContains(plan, "TABLE: mv_agg");
+        assertContains(plan, "ifnull(");
+        assertNotContains(plan, "count(");
+    }
+
+    @Test
+    public void testAggregationNotRollup() throws Exception {
+        // the grouping column is not in the view
+        String plan = getFragmentPlan("select v1, count(*) from mv_t3 group by v1");
+        assertNotContains(plan, "mv_agg");
+    }
+
+    @Test
+    public void testJoin() throws Exception {
+        String plan = getFragmentPlan("select mv_t1.k1, v1, v2 from mv_t1 join mv_t2 on mv_t1.k1 = mv_t2.k1");
+        assertContains(plan, "TABLE: mv_join");
+        assertNotContains(plan, "JOIN");
+
+        plan = getFragmentPlan("select mv_t1.k1, v1, v2 from mv_t1 left join mv_t2 on mv_t1.k1 = mv_t2.k1");
+        assertNotContains(plan, "mv_join");
+        assertContains(plan, "LEFT OUTER JOIN");
+    }
+
+    @Test
+    public void testLimitInView() throws Exception {
+        String plan = getFragmentPlan("select k1, v2 from mv_t4");
+        assertNotContains(plan, "mv_limit");
+        assertContains(plan, "TABLE: mv_t4");
+    }
+
+    @Test
+    public void testStaleView() throws Exception {
+        Database db = GlobalStateMgr.getCurrentState().getDb("default_cluster:test");
+        MaterializedView mv = (MaterializedView) db.getTable("mv_filter");
+        Partition partition = ((OlapTable) db.getTable("mv_t1")).getPartitions().iterator().next();
+        long version = partition.getVisibleVersion();
+        partition.setVisibleVersion(version + 1, System.currentTimeMillis());
+        try {
+            String plan = getFragmentPlan("select k1, k2, v1 from mv_t1 where k1 > 20");
+            assertNotContains(plan, "mv_filter");
+
+            // fresh again after the refresh
+            refresh(mv);
+            plan = getFragmentPlan("select k1, k2, v1 from mv_t1 where k1 > 20");
+            assertContains(plan, "TABLE: mv_filter");
+        } finally {
+            partition.setVisibleVersion(version, System.currentTimeMillis());
+            refresh(mv);
+        }
+    }
+
+    @Test
+    public void testRewriteDisabled() throws Exception {
+        connectContext.getSessionVariable().setEnableMaterializedViewRewrite(false);
+        try {
+            String plan = getFragmentPlan("select k1, k2, v1 from mv_t1 where k1 > 20");
+            assertNotContains(plan, "mv_filter");
+            assertContains(plan, "TABLE: mv_t1");
+        } finally {
+            connectContext.getSessionVariable().setEnableMaterializedViewRewrite(true);
+        }
+    }
+}
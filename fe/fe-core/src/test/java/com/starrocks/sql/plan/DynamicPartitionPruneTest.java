@@ -0,0 +1,169 @@
+// This file is licensed under the Elastic License 2.0. Copyright 2021-present, StarRocks Limited.
+
+package com.starrocks.sql.plan;
+
+import com.google.common.collect.Lists;
+import com.starrocks.catalog.Database;
+import com.starrocks.catalog.OlapTable;
+import com.starrocks.common.DdlException;
+import com.starrocks.server.GlobalStateMgr;
+import com.starrocks.statistic.StatisticExecutor;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class DynamicPartitionPruneTest extends PlanTestBase {
+    // the queries reading the join keys
+    private final List<String> queries = Lists.newArrayList();
+    // the join keys read, or the query fails
+    private List<String> joinKeys;
+    private boolean failed;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        PlanTestBase.beforeClass();
+        starRocksAssert.withTable("CREATE TABLE `dpp_fact` (\n" +
+                "  `dt` date NULL,\n" +
+                "  `k` int NULL,\n" +
+                "  `v` bigint NULL\n" +
+                ") ENGINE=OLAP\n" +
+                "DUPLICATE KEY(`dt`, `k`)\n" +
+                "PARTITION BY RANGE(`dt`)\n" +
+                "(PARTITION p202201 VALUES [('2022-01-01'), ('2022-02-01')),\n" +
+                "PARTITION p202202 VALUES [('2022-02-01'), ('2022-03-01')),\n" +
+                "PARTITION p202203 VALUES [('2022-03-01'), ('2022-04-01')),\n" +
+                "PARTITION p202204 VALUES [('2022-04-01'), ('2022-05-01')))\n" +
+                "DISTRIBUTED BY HASH(`k`) BUCKETS 3\n" +
+                "PROPERTIES (\"replication_num\" = \"1\");");
+        starRocksAssert.withTable("CREATE TABLE `dpp_dim` (\n" +
+                "  `dt` date NULL,\n" +
+                "  `y` int NULL\n" +
+                ") ENGINE=OLAP\n" +
+                "DUPLICATE KEY(`dt`)\n" +
+                "DISTRIBUTED BY HASH(`dt`) BUCKETS 3\n" +
+                "PROPERTIES (\"replication_num\" = \"1\");");
+        Database db = GlobalStateMgr.getCurrentState().getDb("default_cluster:test");
+        setTableStatistics((OlapTable) db.getTable("dpp_fact"), 100000);
+        setTableStatistics((OlapTable) db.getTable("dpp_dim"), 10);
+    }
+
+    @Before
+    public void setUp() {
+        queries.clear();
+        joinKeys = Lists.newArrayList();
+        failed = false;
+        connectContext.getSessionVariable().setEnableDynamicPartitionPrune(true);
+        new MockUp<StatisticExecutor>() {
+            @Mock
+            public List<String> queryColumnSync(String sql, int timeoutS) throws Exception {
+                Assert.assertEquals(connectContext.getSessionVariable().getDynamicPartitionPruneTimeout(), timeoutS);
+                queries.add(sql);
+                if (failed) {
+                    throw new DdlException("Execute " + sql + " failed: timeout");
+                }
+                return joinKeys;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        connectContext.getSessionVariable().setEnableDynamicPartitionPrune(false);
+    }
+
+    @Test
+    public void testInnerJoin() throws Exception {
+        joinKeys = Arrays.asList("2022-02-10", "2022-03-05", "2022-03-06");
+        String plan = getFragmentPlan("select * from dpp_fact join dpp_dim on dpp_fact.dt = dpp_dim.dt " +
+                "where dpp_dim.y = 2022");
+        assertContains(plan, "TABLE: dpp_fact");
+        assertContains(plan, "partitions=2/4");
+        Assert.assertFalse(queries.isEmpty());
+        assertContains(queries.get(0), "SELECT DISTINCT `dt` FROM `test`.`dpp_dim` WHERE");
+        assertContains(queries.get(0), "2022");
+    }
+
+    @Test
+    public void testSemiJoin() throws Exception {
+        joinKeys = Arrays.asList("2022-01-01");
+        String plan = getFragmentPlan("select * from dpp_fact left semi join dpp_dim on dpp_fact.dt = dpp_dim.dt " +
+                "and dpp_dim.y = 2022");
+        assertContains(plan, "partitions=1/4");
+
+        plan = getFragmentPlan("select * from dpp_dim right semi join dpp_fact on dpp_fact.dt = dpp_dim.dt " +
+                "and dpp_dim.y = 2022");
+        assertContains(plan, "partitions=1/4");
+    }
+
+    @Test
+    public void testOuterJoin() throws Exception {
+        joinKeys = Arrays.asList("2022-04-30");
+        // the rows of the fact table not joined are output
+        String plan = getFragmentPlan("select * from dpp_fact left outer join dpp_dim " +
+                "on dpp_fact.dt = dpp_dim.dt and dpp_dim.y = 2022");
+        assertContains(plan, "partitions=4/4");
+        assertContains(plan, "LEFT OUTER JOIN");
+
+        plan = getFragmentPlan("select * from dpp_dim left outer join dpp_fact on dpp_fact.dt = dpp_dim.dt " +
+                "where dpp_dim.y = 2022");
+        assertContains(plan, "partitions=1/4");
+
+        plan = getFragmentPlan("select * from dpp_fact full outer join dpp_dim on dpp_fact.dt = dpp_dim.dt " +
+                "and dpp_dim.y = 2022");
+        assertContains(plan, "partitions=4/4");
+    }
+
+    @Test
+    public void testNoPartitionMatched() throws Exception {
+        // null never joins
+        joinKeys = Arrays.asList("2021-06-01", null);
+        String plan = getFragmentPlan("select * from dpp_fact join dpp_dim on dpp_fact.dt = dpp_dim.dt " +
+                "where dpp_dim.y = 2022");
+        assertContains(plan, "partitions=0/4");
+
+        joinKeys = Lists.newArrayList();
+        plan = getFragmentPlan("select * from dpp_fact join dpp_dim on dpp_fact.dt = dpp_dim.dt " +
+                "where dpp_dim.y = 2021");
+        assertContains(plan, "partitions=0/4");
+    }
+
+    @Test
+    public void testQueryFailed() throws Exception {
+        failed = true;
+        String plan = getFragmentPlan("select * from dpp_fact join dpp_dim on dpp_fact.dt = dpp_dim.dt " +
+                "where dpp_dim.y = 2022");
+        Assert.assertFalse(queries.isEmpty());
+        assertContains(plan, "partitions=4/4");
+    }
+
+    @Test
+    public void testNotSelective() throws Exception {
+        joinKeys = Arrays.asList("2022-01-01");
+        // no predicate on the dimension table
+        String plan = getFragmentPlan("select * from dpp_fact join dpp_dim on dpp_fact.dt = dpp_dim.dt");
+        assertContains(plan, "partitions=4/4");
+
+        connectContext.getSessionVariable().setEnableDynamicPartitionPrune(false);
+        plan = getFragmentPlan("select * from dpp_fact join dpp_dim on dpp_fact.dt = dpp_dim.dt " +
+                "where dpp_dim.y = 2022");
+        assertContains(plan, "partitions=4/4");
+        Assert.assertTrue(queries.isEmpty());
+    }
+
+    @Test
+    public void testNonDeterministicPredicate() throws Exception {
+        joinKeys = Arrays.asList("2022-01-01");
+        // the keys read differ from the rows joined
+        String plan = getFragmentPlan("select * from dpp_fact join dpp_dim on dpp_fact.dt = dpp_dim.dt " +
+                "where dpp_dim.y > rand() * 2022");
+        assertContains(plan, "partitions=4/4");
+        Assert.assertTrue(queries.isEmpty());
+    }
+}
@@ -468,6 +468,26 @@ public class MultiJoinReorderTest extends PlanTestBase {
                 "  |  equal join conjunct: 4: v10 = 1: v4\n"));
     }
 
+    @Test
+    public void testChainJoinReorderDP() throws Exception {
+        connectContext.getSessionVariable().enableDPJoinReorder();
+        connectContext.getSessionVariable().disableGreedyJoinReorder();
+        connectContext.getSessionVariable().setCboMaxReorderNodeUseDP(16);
+        try {
+            StringBuilder sql = new StringBuilder("select count(*) from t0 a0");
+            for (int i = 1; i < 12; i++) {
+                sql.append(" join t0 a").append(i).append(" on a").append(i - 1).append(".v2 = a").append(i)
+                        .append(".v1");
+            }
+            String plan = getFragmentPlan(sql.toString());
+            Assert.assertFalse(plan.contains("CROSS JOIN"));
+            Assert.assertTrue(plan.contains("HASH JOIN"));
+        } finally {
+            connectContext.getSessionVariable().setCboMaxReorderNodeUseDP(10);
+            connectContext.getSessionVariable().enableGreedyJoinReorder();
+        }
+    }
+
     @Test
     public void testOutputConstant() throws Exception {
         String sql = "select v from (select v1, 2 as v, 3 from t0 inner join t1 on v2 = v4) t,t2;";
@@ -9,6 +9,9 @@ import com.starrocks.catalog.Replica;
 import com.starrocks.catalog.Table;
 import com.starrocks.common.FeConstants;
 import com.starrocks.planner.OlapScanNode;
+import com.starrocks.planner.PlanFragment;
+import com.starrocks.planner.RuntimeFilterDescription;
+import com.starrocks.qe.SessionVariable;
 import com.starrocks.server.GlobalStateMgr;
 import com.starrocks.sql.optimizer.statistics.ColumnStatistic;
 import com.starrocks.sql.optimizer.statistics.MockTpchStatisticStorage;
@@ -23,6 +26,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class PlanFragmentWithCostTest extends PlanTestBase {
 
@@ -1006,4 +1010,55 @@ public class PlanFragmentWithCostTest extends PlanTestBase {
         assertContains(plan, "  |  join op: INNER JOIN (COLOCATE)");
         assertContains(plan, "k3-->[NaN, NaN, 0.0, 4.0, 1.0] ESTIMATE");
     }
+
+    @Test
+    public void testCostBasedRuntimeFilter() throws Exception {
+        SessionVariable sessionVariable = connectContext.getSessionVariable();
+        long buildMaxSize = sessionVariable.getGlobalRuntimeFilterBuildMaxSize();
+        sessionVariable.setEnableCostBasedRuntimeFilter(true);
+        try {
+            String sql = "select v2, t1d from t0 join test_all_type on t0.v2 = test_all_type.t1d " +
+                    "where test_all_type.t1a = 'a'";
+            String plan = getCostExplain(sql);
+            assertContains(plan, "build runtime filters:");
+            assertContains(plan, "selectivity = ");
+
+            // no filter is expected to filter out all the probe rows
+            sessionVariable.setRuntimeFilterMinSelectivity(1.1f);
+            plan = getCostExplain(sql);
+            assertNotContains(plan, "build runtime filters:");
+
+            // the probe side is a scan, the filter keeps the defaults of the broadcast join
+            sessionVariable.setRuntimeFilterMinSelectivity(0);
+            sql = "select v2, t1d from t0 join [broadcast] test_all_type on t0.v2 = test_all_type.t1d " +
+                    "where test_all_type.t1a = 'a'";
+            List<RuntimeFilterDescription> filters = getBuildRuntimeFilters(sql);
+            Assert.assertEquals(1, filters.size());
+            Assert.assertTrue(filters.get(0).canPushAcrossExchangeNode());
+            Assert.assertTrue(filters.get(0).canPushAcrossAggregation());
+
+            // the filter is pushed across the aggregation on the probe key, and stopped at the exchange below it
+            // if the build side is too large for a global filter
+            sql = "select a.v2, t1d from (select v2, count(*) from t0 group by v2) a join [broadcast] test_all_type " +
+                    "on a.v2 = test_all_type.t1d where test_all_type.t1a = 'a'";
+            sessionVariable.setGlobalRuntimeFilterBuildMaxSize(0);
+            filters = getBuildRuntimeFilters(sql);
+            Assert.assertEquals(1, filters.size());
+            Assert.assertFalse(filters.get(0).canPushAcrossExchangeNode());
+            Assert.assertTrue(filters.get(0).canPushAcrossAggregation());
+        } finally {
+            sessionVariable.setGlobalRuntimeFilterBuildMaxSize(buildMaxSize);
+            sessionVariable.setRuntimeFilterMinSelectivity(0.1f);
+            sessionVariable.setEnableCostBasedRuntimeFilter(false);
+        }
+    }
+
+    private List<RuntimeFilterDescription> getBuildRuntimeFilters(String sql) throws Exception {
+        List<RuntimeFilterDescription> filters = Lists.newArrayList();
+        for (PlanFragment fragment : getExecPlan(sql).getFragments()) {
+            fragment.collectBuildRuntimeFilters(fragment.getPlanRoot());
+            filters.addAll(fragment.getBuildRuntimeFilters().values());
+        }
+        return filters;
+    }
 }
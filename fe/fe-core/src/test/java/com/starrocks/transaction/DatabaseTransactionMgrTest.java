@@ -29,11 +29,13 @@ import com.starrocks.catalog.GlobalStateMgrTestUtil;
 import com.starrocks.common.AnalysisException;
 import com.starrocks.common.Config;
 import com.starrocks.common.FeMetaVersion;
+import com.starrocks.common.LabelAlreadyUsedException;
 import com.starrocks.common.Pair;
 import com.starrocks.common.UserException;
 import com.starrocks.common.util.TimeUtils;
 import com.starrocks.meta.MetaContext;
 import com.starrocks.server.GlobalStateMgr;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -269,6 +271,80 @@ public class DatabaseTransactionMgrTest {
         assertEquals(13L, partitionTransInfo.get(1));
     }
 
+    @Test
+    public void testAddGroupCommitLabel() throws UserException {
+        DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(GlobalStateMgrTestUtil.testDbId1);
+        long txnId3 = lableToTxnId.get(GlobalStateMgrTestUtil.testTxnLable3);
+        masterDbTransMgr.addGroupCommitLabel(GlobalStateMgrTestUtil.testTableId1, txnId3, "group_commit_label");
+        // retry of the same request
+        masterDbTransMgr.addGroupCommitLabel(GlobalStateMgrTestUtil.testTableId1, txnId3, "group_commit_label");
+        assertEquals(1, masterDbTransMgr.getTransactionState(txnId3).getGroupCommitLabels().size());
+        assertEquals(txnId3,
+                masterDbTransMgr.unprotectedGetTxnIdsByLabel("group_commit_label").iterator().next().longValue());
+        assertEquals(TransactionStatus.PREPARE, masterDbTransMgr.getLabelState("group_commit_label"));
+
+        long txnId4 = lableToTxnId.get(GlobalStateMgrTestUtil.testTxnLable4);
+        try {
+            masterDbTransMgr.addGroupCommitLabel(GlobalStateMgrTestUtil.testTableId1, txnId4, "group_commit_label");
+            Assert.fail();
+        } catch (LabelAlreadyUsedException e) {
+            // expected
+        }
+
+        // the label can be reused once the transaction is aborted
+        masterDbTransMgr.abortTransaction(txnId3, "test abort transaction", null);
+        masterDbTransMgr.addGroupCommitLabel(GlobalStateMgrTestUtil.testTableId1, txnId4, "group_commit_label");
+        assertEquals(2, masterDbTransMgr.unprotectedGetTxnIdsByLabel("group_commit_label").size());
+
+        // only the stream loads to the same table are merged
+        try {
+            masterDbTransMgr.addGroupCommitLabel(GlobalStateMgrTestUtil.testTableId1 + 1, txnId4, "another_label");
+            Assert.fail();
+        } catch (TransactionNotFoundException e) {
+            // expected
+        }
+        long txnId2 = lableToTxnId.get(GlobalStateMgrTestUtil.testTxnLable2);
+        try {
+            masterDbTransMgr.addGroupCommitLabel(GlobalStateMgrTestUtil.testTableId1, txnId2, "another_label");
+            Assert.fail();
+        } catch (TransactionNotFoundException e) {
+            // expected
+        }
+        // the transaction not known, e.g. after a failover
+        try {
+            masterDbTransMgr.addGroupCommitLabel(GlobalStateMgrTestUtil.testTableId1, -1L, "another_label");
+            Assert.fail();
+        } catch (TransactionNotFoundException e) {
+            // expected
+        }
+        assertNull(masterDbTransMgr.unprotectedGetTxnIdsByLabel("another_label"));
+
+        long txnId1 = lableToTxnId.get(GlobalStateMgrTestUtil.testTxnLable1);
+        expectedEx.expect(TransactionNotFoundException.class);
+        masterDbTransMgr.addGroupCommitLabel(GlobalStateMgrTestUtil.testTableId1, txnId1, "another_label");
+    }
+
+    @Test
+    public void testGetCommittedTxnList() throws UserException {
+        FakeGlobalStateMgr.setGlobalStateMgr(masterGlobalStateMgr);
+        DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(GlobalStateMgrTestUtil.testDbId1);
+        assertTrue(masterDbTransMgr.getCommittedTxnList().isEmpty());
+
+        long txnId3 = lableToTxnId.get(GlobalStateMgrTestUtil.testTxnLable3);
+        List<TabletCommitInfo> transTablets = Lists.newArrayList(
+                new TabletCommitInfo(GlobalStateMgrTestUtil.testTabletId1, GlobalStateMgrTestUtil.testBackendId1),
+                new TabletCommitInfo(GlobalStateMgrTestUtil.testTabletId1, GlobalStateMgrTestUtil.testBackendId2),
+                new TabletCommitInfo(GlobalStateMgrTestUtil.testTabletId1, GlobalStateMgrTestUtil.testBackendId3));
+        masterTransMgr.commitTransaction(GlobalStateMgrTestUtil.testDbId1, txnId3, transTablets);
+        List<TransactionState> committedTxns = masterDbTransMgr.getCommittedTxnList();
+        assertEquals(1, committedTxns.size());
+        assertEquals(txnId3, committedTxns.get(0).getTransactionId());
+
+        masterTransMgr.finishTransaction(GlobalStateMgrTestUtil.testDbId1, txnId3, null);
+        assertEquals(TransactionStatus.VISIBLE, masterDbTransMgr.getTransactionState(txnId3).getTransactionStatus());
+        assertTrue(masterDbTransMgr.getCommittedTxnList().isEmpty());
+    }
+
     @Test
     public void testDeleteTransaction() throws AnalysisException {
         DatabaseTransactionMgr masterDbTransMgr = masterTransMgr.getDatabaseTransactionMgr(GlobalStateMgrTestUtil.testDbId1);
@@ -69,6 +69,7 @@ import com.starrocks.thrift.TScanOpenResult;
 import com.starrocks.thrift.TSnapshotRequest;
 import com.starrocks.thrift.TStatus;
 import com.starrocks.thrift.TStatusCode;
+import com.starrocks.thrift.TTabletStatRequest;
 import com.starrocks.thrift.TTabletStatResult;
 import com.starrocks.thrift.TTransmitDataParams;
 import com.starrocks.thrift.TTransmitDataResult;
@@ -282,7 +283,7 @@ public class MockedBackend {
         }
 
         @Override
-        public TTabletStatResult get_tablet_stat() {
+        public TTabletStatResult get_tablet_stat(TTabletStatRequest request) {
             while (true) {
                 try {
                     Thread.sleep(10000);
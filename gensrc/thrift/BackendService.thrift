@@ -39,8 +39,17 @@ struct TTabletStat {
     3: optional i64 row_num
 }
 
+struct TTabletStatRequest {
+    // version of the stats the caller already has, only the tablets changed after it are returned
+    1: optional i64 version
+}
+
 struct TTabletStatResult {
     1: required map<i64, TTabletStat> tablets_stats
+    // version of the returned stats, not set by backends of older versions
+    2: optional i64 version
+    // true if only the tablets changed after the requested version are returned
+    3: optional bool incremental
 }
 
 struct TKafkaLoadInfo {
@@ -125,7 +134,7 @@ service BackendService {
 
     Status.TStatus erase_export_task(1:Types.TUniqueId task_id);
 
-    TTabletStatResult get_tablet_stat();
+    TTabletStatResult get_tablet_stat(1:TTabletStatRequest request);
 
     Status.TStatus submit_routine_load_task(1:list<TRoutineLoadTask> tasks);
 
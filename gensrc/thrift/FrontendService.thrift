@@ -513,6 +513,8 @@ struct TLoadTxnBeginRequest {
     // The real value of timeout should be i32. i64 ensures the compatibility of interface.
     10: optional i64 timeout
     11: optional Types.TUniqueId request_id
+    // if set, the load is merged into this running transaction by group commit instead of beginning a new one
+    12: optional i64 group_commit_txn_id
 }
 
 struct TLoadTxnBeginResult {
@@ -49,6 +49,10 @@ struct TRuntimeProfileNode {
   
   // map from parent counter name to child counter name
   8: required map<string, set<string>> child_counters_map
+
+  // percentage of the time spent in this node itself, only set by FE when it
+  // serializes a finished profile to keep it in ProfileManager
+  9: optional double local_time_percent
 }
 
 // A flattened tree of runtime profiles, obtained by an